@@ -28,6 +28,7 @@ import heros.DontSynchronize;
 import heros.SynchronizedBy;
 import heros.solver.IDESolver;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Value;
@@ -35,6 +36,7 @@ import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
 import sootup.core.views.View;
 
 public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<Stmt, SootMethod> {
@@ -46,6 +48,15 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @DontSynchronize("written by single thread; read afterwards")
   private final Map<Stmt, Body> stmtToOwner = createStmtToOwnerMap();
 
+  /**
+   * the bodies of the methods whose Stmts this ICFG refers to. A {@link
+   * sootup.core.model.BodyRetentionPolicy} other than STRONG may release the body of a SootMethod
+   * and resolve a body with new Stmts on the next {@link SootMethod#getBody()}, so the ICFG keeps
+   * the bodies it has seen and uses them instead.
+   */
+  @SynchronizedBy("by use of ConcurrentHashMap")
+  private final Map<MethodSignature, Body> pinnedBodies = new ConcurrentHashMap<>();
+
   @SynchronizedBy("by use of synchronized LoadingCache class")
   protected LoadingCache<Body, StmtGraph<?>> bodyToStmtGraph =
       IDESolver.DEFAULT_CACHE_BUILDER.build(
@@ -62,7 +73,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
           new CacheLoader<SootMethod, List<Value>>() {
             @Override
             public List<Value> load(@Nonnull SootMethod m) {
-              return new ArrayList<>(m.getBody().getParameterLocals());
+              return new ArrayList<>(getPinnedBody(m).getParameterLocals());
             }
           });
 
@@ -88,6 +99,20 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
     this.enableExceptions = enableExceptions;
   }
 
+  /**
+   * Returns the body of the given method that this ICFG refers to. It is resolved once and kept,
+   * i.e. it stays the same even if the SootMethod releases its body.
+   */
+  @Nonnull
+  protected Body getPinnedBody(@Nonnull SootMethod method) {
+    return pinnedBodies.computeIfAbsent(method.getSignature(), signature -> method.getBody());
+  }
+
+  /** Uses the given body for its method, e.g. because its statements are referred to elsewhere. */
+  protected void pinBody(@Nonnull Body body) {
+    pinnedBodies.putIfAbsent(body.getMethodSignature(), body);
+  }
+
   public Body getBodyOf(Stmt stmt) {
     assert stmtToOwner.containsKey(stmt) : "Statement " + stmt + " not in Stmt-to-owner mapping";
     return stmtToOwner.get(stmt);
@@ -111,7 +136,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public StmtGraph<?> getOrCreateStmtGraph(SootMethod method) {
-    return getOrCreateStmtGraph(method.getBody());
+    return getOrCreateStmtGraph(getPinnedBody(method));
   }
 
   public StmtGraph<?> getOrCreateStmtGraph(Body body) {
@@ -124,7 +149,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   protected Set<Stmt> getCallsFromWithinMethod(SootMethod method) {
     Set<Stmt> res = null;
-    for (Stmt u : method.getBody().getStmts()) {
+    for (Stmt u : getPinnedBody(method).getStmts()) {
       if (isCallStmt(u)) {
         if (res == null) {
           res = new LinkedHashSet<>();
@@ -173,7 +198,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @Override
   public Collection<Stmt> getStartPointsOf(SootMethod m) {
     if (m.hasBody()) {
-      Body body = m.getBody();
+      Body body = getPinnedBody(m);
       StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
       return unitGraph.getEntrypoints();
     }
@@ -215,7 +240,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   public void initializeStmtToOwner(SootMethod m) {
     if (m.hasBody()) {
-      Body b = m.getBody();
+      Body b = getPinnedBody(m);
       for (Stmt node : b.getStmtGraph().getNodes()) {
         stmtToOwner.put(node, b);
       }
@@ -236,7 +261,7 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @Override
   public Collection<Stmt> getEndPointsOf(SootMethod m) {
     if (m.hasBody()) {
-      Body body = m.getBody();
+      Body body = getPinnedBody(m);
       StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
       return unitGraph.getTails();
     }
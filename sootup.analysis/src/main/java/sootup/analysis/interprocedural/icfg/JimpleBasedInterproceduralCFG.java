@@ -31,15 +31,15 @@ import heros.ThreadSafe;
 import heros.solver.IDESolver;
 import java.util.*;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.callgraph.CallGraph;
-import sootup.callgraph.CallGraphAlgorithm;
 import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.callgraph.CompactCallGraph;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -63,8 +63,9 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
 
   protected boolean includeReflectiveCalls;
 
+  /** the call graph with the call sites of its calls, which are statements of pinned bodies */
   @DontSynchronize("readonly")
-  protected final CallGraph cg;
+  protected final CompactCallGraph cg;
 
   protected CacheLoader<Stmt, Collection<SootMethod>> loaderUnitToCallees =
       new CacheLoader<Stmt, Collection<SootMethod>>() {
@@ -72,15 +73,21 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
         @Override
         public Collection<SootMethod> load(Stmt stmt) {
           ArrayList<SootMethod> res = new ArrayList<>();
-          MethodSignature methodSignature = stmt.getInvokeExpr().getMethodSignature();
-          Optional<? extends SootMethod> smOpt = view.getMethod(methodSignature);
-          if (smOpt.isPresent()) {
-            SootMethod sm = smOpt.get();
-            if (sm.hasBody()) {
-              res.add(sm);
-            } else {
-              logger.error(
-                  "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
+          List<CalleeMethodSignature> callees =
+              callSiteToCallees.getOrDefault(stmt, Collections.emptyList());
+          for (CalleeMethodSignature callee : callees) {
+            if (!isIncluded(callee.getEdgeType())) {
+              continue;
+            }
+            Optional<? extends SootMethod> smOpt = view.getMethod(callee.getMethodSignature());
+            if (smOpt.isPresent()) {
+              SootMethod sm = smOpt.get();
+              if (sm.hasBody()) {
+                res.add(sm);
+              } else {
+                logger.error(
+                    "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
+              }
             }
           }
           res.trimToSize();
@@ -92,6 +99,22 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
   protected final LoadingCache<Stmt, Collection<SootMethod>> stmtToCallees =
       IDESolver.DEFAULT_CACHE_BUILDER.build(loaderUnitToCallees);
 
+  /**
+   * all call sites of the methods in the call graph, grouped by the signature of the callees the
+   * call graph resolved them to. It is built once from the call site edges of the call graph, so
+   * that the callers of a method can be looked up without scanning the bodies again.
+   */
+  @DontSynchronize("readonly")
+  protected final Map<MethodSignature, List<CalleeMethodSignature>> calleeToCallSites =
+      new HashMap<>();
+
+  /**
+   * the callees of every call site in the call graph. It is built from the same edges as {@link
+   * #calleeToCallSites}, so that callers and callees are symmetric.
+   */
+  @DontSynchronize("readonly")
+  protected final Map<Stmt, List<CalleeMethodSignature>> callSiteToCallees = new HashMap<>();
+
   protected CacheLoader<SootMethod, Collection<Stmt>> loaderMethodToCallers =
       new CacheLoader<SootMethod, Collection<Stmt>>() {
         @Nonnull
@@ -100,35 +123,16 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
           ArrayList<Stmt> res = new ArrayList<>();
           // only retain callers that are explicit call sites or
           // Thread.start()
-          Set<MethodSignature> callsToMethod = cg.callsTo(method.getSignature());
-          for (MethodSignature methodSignature : callsToMethod) {
-            Stmt stmt = filterEdgeAndGetCallerStmt(methodSignature);
-            if (stmt != null) {
-              res.add(stmt);
+          List<CalleeMethodSignature> callSites =
+              calleeToCallSites.getOrDefault(method.getSignature(), Collections.emptyList());
+          for (CalleeMethodSignature callSite : callSites) {
+            if (isIncluded(callSite.getEdgeType())) {
+              res.add(callSite.getSourceStmt());
             }
           }
           res.trimToSize();
           return res;
         }
-
-        @Nullable
-        private Stmt filterEdgeAndGetCallerStmt(@Nonnull MethodSignature methodSignature) {
-          Set<Pair<MethodSignature, CalleeMethodSignature>> callEdges =
-              CGEdgeUtil.getCallEdges(view, cg);
-          for (Pair<MethodSignature, CalleeMethodSignature> callEdge : callEdges) {
-            CalleeMethodSignature callee = callEdge.getValue();
-            if (callee.getMethodSignature().equals(methodSignature)) {
-              CGEdgeUtil.CallGraphEdgeType edgeType = callee.getEdgeType();
-              if (edgeType.isExplicit()
-                  || edgeType.isFake()
-                  || edgeType.isClinit()
-                  || (includeReflectiveCalls && edgeType.isReflection())) {
-                return callee.getSourceStmt();
-              }
-            }
-          }
-          return null;
-        }
       };
 
   @SynchronizedBy("by use of synchronized LoadingCache class")
@@ -145,12 +149,55 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     this.view = view;
     this.mainMethodSignature = mainMethodSignature;
     cg = initCallGraph();
+    // the call sites in the call graph are statements of these bodies
+    for (MethodSignature method : cg.getMethodSignatures()) {
+      Body body = cg.getBody(method);
+      if (body != null) {
+        pinBody(body);
+      }
+    }
+    indexCallSites();
     initializeStmtToOwner();
   }
 
-  private CallGraph initCallGraph() {
-    CallGraphAlgorithm cga = new ClassHierarchyAnalysisAlgorithm(view);
-    return cga.initialize(Collections.singletonList(mainMethodSignature));
+  /**
+   * Checks whether the ICFG contains edges of the given type, i.e. whether they are explicit calls,
+   * calls to Thread.start() or - if enabled - reflective calls.
+   */
+  private boolean isIncluded(CGEdgeUtil.CallGraphEdgeType edgeType) {
+    return edgeType.isExplicit()
+        || edgeType.isFake()
+        || edgeType.isClinit()
+        || (includeReflectiveCalls && edgeType.isReflection());
+  }
+
+  private CompactCallGraph initCallGraph() {
+    ClassHierarchyAnalysisAlgorithm cga = new ClassHierarchyAnalysisAlgorithm(view);
+    return cga.initializeWithCallSites(Collections.singletonList(mainMethodSignature));
+  }
+
+  /**
+   * Indexes the call site edges of the call graph by their callees and by their call sites. A
+   * virtual call <code>a.foo()</code> is therefore a call site of every method the call graph
+   * algorithm dispatched it to, including implementations that are inherited by a subclass of the
+   * invoked class, and these methods are the callees of the call site.
+   */
+  private void indexCallSites() {
+    for (int edge = 0; edge < cg.callCount(); edge++) {
+      Stmt callSite = cg.getEdgeCallSite(edge);
+      if (callSite == null) {
+        // an implicit call, e.g. of a static initializer
+        continue;
+      }
+      MethodSignature callee = cg.getMethod(cg.getEdgeTarget(edge));
+      CalleeMethodSignature calleeAtCallSite =
+          new CalleeMethodSignature(
+              callee, CGEdgeUtil.findCallGraphEdgeType(callSite.getInvokeExpr()), callSite);
+      calleeToCallSites
+          .computeIfAbsent(callee, signature -> new ArrayList<>())
+          .add(calleeAtCallSite);
+      callSiteToCallees.computeIfAbsent(callSite, stmt -> new ArrayList<>()).add(calleeAtCallSite);
+    }
   }
 
   protected void initializeStmtToOwner() {
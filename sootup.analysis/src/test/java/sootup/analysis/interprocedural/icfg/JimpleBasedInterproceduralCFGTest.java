@@ -0,0 +1,161 @@
+package sootup.analysis.interprocedural.icfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.BodyRetentionPolicy;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+import sootup.java.sourcecode.inputlocation.JavaSourcePathAnalysisInputLocation;
+
+@Category(Java8Test.class)
+public class JimpleBasedInterproceduralCFGTest {
+
+  @Test
+  public void testCallersOfOverride() {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    System.getProperty("java.home") + "/lib/rt.jar"))
+            .addInputLocation(
+                new JavaSourcePathAnalysisInputLocation("src/test/resources/callgraph/"))
+            .build()
+            .createView();
+
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    MethodSignature mainMethodSignature =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("example1.Example"),
+            "main",
+            "void",
+            Collections.singletonList("java.lang.String[]"));
+    MethodSignature overriddenSignature =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("example1.A"),
+            "virtualDispatch",
+            "void",
+            Collections.emptyList());
+    MethodSignature overrideSignature =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("example1.B"),
+            "virtualDispatch",
+            "void",
+            Collections.emptyList());
+
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, mainMethodSignature, false, false);
+
+    SootMethod overridden = view.getMethod(overriddenSignature).get();
+    SootMethod override = view.getMethod(overrideSignature).get();
+
+    // the call site objB.virtualDispatch() invokes A.virtualDispatch() and dispatches to both
+    Collection<Stmt> callersOfOverridden = icfg.getCallersOf(overridden);
+    Collection<Stmt> callersOfOverride = icfg.getCallersOf(override);
+    assertEquals(1, callersOfOverridden.size());
+    assertEquals(callersOfOverridden, callersOfOverride);
+
+    Stmt callSite = callersOfOverride.iterator().next();
+    assertEquals(overriddenSignature, callSite.getInvokeExpr().getMethodSignature());
+    assertTrue(
+        icfg.getCallsFromWithin(view.getMethod(mainMethodSignature).get()).contains(callSite));
+    // the callees of the call site are the methods it is a caller of
+    assertEquals(
+        new HashSet<>(Arrays.asList(overridden, override)),
+        new HashSet<>(icfg.getCalleesOfCallAt(callSite)));
+  }
+
+  @Test
+  public void testCallersOfInheritedImplementation() {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    System.getProperty("java.home") + "/lib/rt.jar"))
+            .addInputLocation(
+                new JavaSourcePathAnalysisInputLocation("src/test/resources/callgraph/"))
+            .build()
+            .createView();
+
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    MethodSignature mainMethodSignature =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("example2.Inheritance"),
+            "main",
+            "void",
+            Collections.singletonList("java.lang.String[]"));
+    MethodSignature inheritedSignature =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("example2.A"),
+            "inherited",
+            "void",
+            Collections.emptyList());
+
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, mainMethodSignature, false, false);
+
+    // B inherits the implementation of the interface method I.inherited() from A
+    SootMethod inherited = view.getMethod(inheritedSignature).get();
+    Collection<Stmt> callersOfInherited = icfg.getCallersOf(inherited);
+    assertEquals(1, callersOfInherited.size());
+    Stmt callSite = callersOfInherited.iterator().next();
+    assertEquals(
+        identifierFactory.getClassType("example2.I"),
+        callSite.getInvokeExpr().getMethodSignature().getDeclClassType());
+    Collection<SootMethod> callees = icfg.getCalleesOfCallAt(callSite);
+    assertTrue(callees.contains(inherited));
+    for (SootMethod callee : callees) {
+      assertTrue(icfg.getCallersOf(callee).contains(callSite));
+    }
+  }
+
+  @Test
+  public void testStmtsStayValidWithoutStrongBodyRetention() {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+            .build()
+            .createView();
+    // keeps only the most recently used body in the SootMethods
+    SootMethod.setBodyRetentionPolicy(view, BodyRetentionPolicy.bounded(1));
+
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    MethodSignature mainMethodSignature =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("MiniApp"),
+            "main",
+            "void",
+            Collections.singletonList("java.lang.String[]"));
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, mainMethodSignature, false, false);
+
+    SootMethod mainMethod = view.getMethod(mainMethodSignature).get();
+    Collection<Stmt> callSites = icfg.getCallsFromWithin(mainMethod);
+    assertFalse(callSites.isEmpty());
+    for (Stmt callSite : callSites) {
+      assertTrue(icfg.isReachable(callSite));
+      assertEquals(mainMethod, icfg.getMethodOf(callSite));
+    }
+    for (Stmt startPoint : icfg.getStartPointsOf(mainMethod)) {
+      assertTrue(icfg.isReachable(startPoint));
+    }
+  }
+}
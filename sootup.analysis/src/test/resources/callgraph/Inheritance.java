@@ -0,0 +1,19 @@
+package example2;
+
+class Inheritance {
+
+  public static void main(String[] args) {
+    I objI = new B();
+    objI.inherited();
+  }
+}
+
+interface I {
+  void inherited();
+}
+
+class A extends Object {
+  public void inherited() { }
+}
+
+class B extends A implements I { }
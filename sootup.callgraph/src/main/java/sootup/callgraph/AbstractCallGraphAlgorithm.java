@@ -23,17 +23,19 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JStaticInvokeExpr;
 import sootup.core.jimple.common.ref.JStaticFieldRef;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.Method;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootClassMember;
@@ -57,10 +59,101 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
 
   @Nonnull protected final View<? extends SootClass<?>> view;
 
+  /** whether the call graph under construction is a {@link CompactCallGraph} with call sites */
+  private boolean recordCallSites = false;
+
   protected AbstractCallGraphAlgorithm(@Nonnull View<? extends SootClass<?>> view) {
     this.view = view;
   }
 
+  /**
+   * Constructs the same call graph as {@link #initialize(List)}, but as a {@link CompactCallGraph}
+   * that records the call site of every call: a call between two methods is represented by one edge
+   * per invoke statement that may cause it. The call graph keeps the bodies whose statements are
+   * the call sites.
+   *
+   * @param entryPoints a list of entry points for the call graph algorithm.
+   * @return a generated call graph with every entry point as starting point.
+   */
+  @Nonnull
+  public CompactCallGraph initializeWithCallSites(@Nonnull List<MethodSignature> entryPoints) {
+    recordCallSites = true;
+    try {
+      return (CompactCallGraph) initialize(entryPoints);
+    } finally {
+      recordCallSites = false;
+    }
+  }
+
+  @Nonnull
+  private MutableCallGraph createCallGraph() {
+    return recordCallSites ? new CompactCallGraph() : new GraphBasedCallGraph();
+  }
+
+  /** A call target that has been resolved for a call site of a method. */
+  static final class CallTarget {
+    @Nonnull final MethodSignature target;
+    /** the invoke statement that causes the call or null for an implicit call */
+    @Nullable final Stmt callSite;
+
+    CallTarget(@Nonnull MethodSignature target, @Nullable Stmt callSite) {
+      this.target = target;
+      this.callSite = callSite;
+    }
+  }
+
+  /** The call targets of a method and the body whose statements are their call sites. */
+  private static final class ResolvedCalls {
+    @Nullable private final Body body;
+    @Nonnull private final List<CallTarget> callTargets;
+
+    private ResolvedCalls(@Nullable Body body, @Nonnull List<CallTarget> callTargets) {
+      this.body = body;
+      this.callTargets = callTargets;
+    }
+  }
+
+  /**
+   * Adds the call to the call graph. A {@link CompactCallGraph} gets an edge per call site, any
+   * other call graph one edge per pair of methods.
+   *
+   * @return whether there was no call from the source to the target method before
+   */
+  static boolean addCall(
+      @Nonnull MutableCallGraph cg,
+      @Nonnull MethodSignature source,
+      @Nonnull MethodSignature target,
+      @Nullable Stmt callSite) {
+    boolean isNewCall = !cg.containsCall(source, target);
+    if (cg instanceof CompactCallGraph) {
+      ((CompactCallGraph) cg).addCall(source, target, callSite);
+    } else if (isNewCall) {
+      cg.addCall(source, target);
+    }
+    return isNewCall;
+  }
+
+  /** Adds the calls of the given method to the call graph and returns the new call targets. */
+  @Nonnull
+  private static List<MethodSignature> addCalls(
+      @Nonnull MutableCallGraph cg,
+      @Nonnull MethodSignature source,
+      @Nonnull ResolvedCalls resolvedCalls) {
+    if (!cg.containsMethod(source)) cg.addMethod(source);
+    if (resolvedCalls.body != null && cg instanceof CompactCallGraph) {
+      ((CompactCallGraph) cg).setBody(source, resolvedCalls.body);
+    }
+    List<MethodSignature> newTargets = new ArrayList<>();
+    for (CallTarget callTarget : resolvedCalls.callTargets) {
+      MethodSignature t = callTarget.target;
+      if (!cg.containsMethod(t)) cg.addMethod(t);
+      if (addCall(cg, source, t, callTarget.callSite)) {
+        newTargets.add(t);
+      }
+    }
+    return newTargets;
+  }
+
   /**
    * This method starts the construction of the call graph algorithm. It initializes the needed
    * objects for the call graph generation and calls processWorkList method.
@@ -73,11 +166,83 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   @Nonnull
   final CallGraph constructCompleteCallGraph(
       View<? extends SootClass<?>> view, List<MethodSignature> entryPoints) {
-    MutableCallGraph cg = new GraphBasedCallGraph();
+    MutableCallGraph cg = createCallGraph();
 
     Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
     Set<MethodSignature> processed = new HashSet<>();
 
+    addStaticInitializerCallsOfEntryPoints(view, entryPoints, workList, cg);
+
+    processWorkList(view, workList, processed, cg);
+    return cg;
+  }
+
+  /**
+   * This method constructs the same call graph as {@link #constructCompleteCallGraph(View, List)},
+   * but the bodies of the methods in the work list are loaded and their calls are resolved in
+   * parallel on the given pool. The work list is processed level by level: all methods of the
+   * current level are resolved in parallel and afterwards their call edges are added to the call
+   * graph by the calling thread, in the order of the level, which yields the methods of the next
+   * level.
+   *
+   * <p>The methods {@link #preProcessingMethod} and {@link #postProcessingMethod} are not called,
+   * so this is only applicable to algorithms that do not use them, i.e. whose call targets only
+   * depend on the resolved method.
+   *
+   * @param view the view contains all needed class files.
+   * @param entryPoints a list of method signatures that will be added to the work list in the call
+   *     graph generation.
+   * @param pool the pool which loads the bodies and resolves the calls
+   * @return the complete constructed call graph starting from the entry methods.
+   */
+  @Nonnull
+  final CallGraph constructCompleteCallGraphInParallel(
+      View<? extends SootClass<?>> view, List<MethodSignature> entryPoints, ForkJoinPool pool) {
+    MutableCallGraph cg = createCallGraph();
+
+    Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
+    Set<MethodSignature> processed = new HashSet<>();
+
+    addStaticInitializerCallsOfEntryPoints(view, entryPoints, workList, cg);
+
+    // build the type hierarchy once, before it is queried concurrently
+    view.getTypeHierarchy();
+
+    List<MethodSignature> level = new ArrayList<>(workList);
+    while (!level.isEmpty()) {
+      List<MethodSignature> methodsToProcess =
+          level.stream().filter(processed::add).collect(Collectors.toList());
+      List<ResolvedCalls> callsOfMethods =
+          pool.submit(
+                  () ->
+                      methodsToProcess
+                          .parallelStream()
+                          .map(method -> resolveAllCallTargets(view, method))
+                          .collect(Collectors.toList()))
+              .join();
+
+      List<MethodSignature> nextLevel = new ArrayList<>();
+      for (int i = 0; i < methodsToProcess.size(); i++) {
+        for (MethodSignature t : addCalls(cg, methodsToProcess.get(i), callsOfMethods.get(i))) {
+          if (!processed.contains(t)) {
+            nextLevel.add(t);
+          }
+        }
+      }
+      level = nextLevel;
+    }
+    return cg;
+  }
+
+  /**
+   * Adds the implicit calls from the entry points to the static initializers of their classes. The
+   * static initializers are pushed to the work list.
+   */
+  private void addStaticInitializerCallsOfEntryPoints(
+      View<? extends SootClass<?>> view,
+      List<MethodSignature> entryPoints,
+      Deque<MethodSignature> workList,
+      MutableCallGraph cg) {
     // implicit edge from entry point to clinit
     entryPoints.forEach(
         methodSignature -> {
@@ -93,9 +258,6 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
             workList.push(clinitSig);
           }
         });
-
-    processWorkList(view, workList, processed, cg);
-    return cg;
   }
 
   /**
@@ -123,32 +285,9 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
       // perform pre-processing if needed
       preProcessingMethod(view, currentMethodSignature, workList, cg);
 
-      // process the method
-      if (!cg.containsMethod(currentMethodSignature)) cg.addMethod(currentMethodSignature);
-
-      // transform the method signature to the actual SootMethod
-      SootMethod currentMethod =
-          view.getClass(currentMethodSignature.getDeclClassType())
-              .flatMap(c -> c.getMethod(currentMethodSignature.getSubSignature()))
-              .orElse(null);
-
-      // get all call targets of invocations in the method body
-      Stream<MethodSignature> invocationTargets = resolveAllCallsFromSourceMethod(currentMethod);
-
-      // get all call targets of implicit edges in the method body
-      Stream<MethodSignature> implicitTargets =
-          resolveAllImplicitCallsFromSourceMethod(view, currentMethod);
-
-      // save calls in the call graphs
-      Stream.concat(invocationTargets, implicitTargets)
-          .forEach(
-              t -> {
-                if (!cg.containsMethod(t)) cg.addMethod(t);
-                if (!cg.containsCall(currentMethodSignature, t)) {
-                  cg.addCall(currentMethodSignature, t);
-                  workList.push(t);
-                }
-              });
+      // process the method and save its calls in the call graph
+      addCalls(cg, currentMethodSignature, resolveAllCallTargets(view, currentMethodSignature))
+          .forEach(workList::push);
 
       // set method as processed
       processed.add(currentMethodSignature);
@@ -158,39 +297,71 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     }
   }
 
+  /**
+   * This method resolves the targets of all explicit and implicit calls in the body of the given
+   * method.
+   *
+   * @param view it contains the classes.
+   * @param methodSignature the signature of the method whose calls are resolved
+   * @return the call targets in the order of their calls
+   */
+  @Nonnull
+  private ResolvedCalls resolveAllCallTargets(
+      View<? extends SootClass<?>> view, MethodSignature methodSignature) {
+    // transform the method signature to the actual SootMethod
+    SootMethod currentMethod =
+        view.getClass(methodSignature.getDeclClassType())
+            .flatMap(c -> c.getMethod(methodSignature.getSubSignature()))
+            .orElse(null);
+    if (currentMethod == null || !currentMethod.hasBody()) {
+      return new ResolvedCalls(null, Collections.emptyList());
+    }
+    // the call sites have to be statements of the same body
+    Body body = currentMethod.getBody();
+
+    // get all call targets of invocations in the method body
+    Stream<CallTarget> invocationTargets = resolveAllCallsFromSourceMethod(currentMethod, body);
+
+    // get all call targets of implicit edges in the method body
+    Stream<CallTarget> implicitTargets =
+        resolveAllImplicitCallsFromSourceMethod(view, body)
+            .map(target -> new CallTarget(target, null));
+
+    return new ResolvedCalls(
+        body, Stream.concat(invocationTargets, implicitTargets).collect(Collectors.toList()));
+  }
+
   /**
    * This method resolves all calls from a given source method. resolveCall is called for each
    * invoke statement in the body of the source method that is implemented in the corresponding call
    * graph algorithm.
    *
-   * @param sourceMethod this signature is used to access the statements contained method body of
-   *     the specified method
+   * @param sourceMethod the method that contains the invoke statements
+   * @param body the body of the source method
    * @return a stream containing all resolved callable method signatures by the given source method
+   *     and the invoke statements that call them
    */
   @Nonnull
-  Stream<MethodSignature> resolveAllCallsFromSourceMethod(SootMethod sourceMethod) {
-    if (sourceMethod == null || !sourceMethod.hasBody()) return Stream.empty();
-
-    return sourceMethod.getBody().getStmts().stream()
+  Stream<CallTarget> resolveAllCallsFromSourceMethod(
+      @Nonnull SootMethod sourceMethod, @Nonnull Body body) {
+    return body.getStmts().stream()
         .filter(Stmt::containsInvokeExpr)
-        .flatMap(s -> resolveCall(sourceMethod, s.getInvokeExpr()));
+        .flatMap(s -> resolveCall(sourceMethod, s).map(target -> new CallTarget(target, s)));
   }
 
   /**
    * It resolves all implicit calls caused by the given source method
    *
    * @param view it contains the class data
-   * @param sourceMethod the inspected source method
+   * @param body the body of the inspected source method
    * @return a stream containing all method signatures of targets of implicit calls.
    */
   @Nonnull
   Stream<MethodSignature> resolveAllImplicitCallsFromSourceMethod(
-      View<? extends SootClass<?>> view, SootMethod sourceMethod) {
-    if (sourceMethod == null || !sourceMethod.hasBody()) return Stream.empty();
-
+      View<? extends SootClass<?>> view, @Nonnull Body body) {
     // collect all static initializer calls
     Stream<MethodSignature> staticInitializerStream =
-        resolveAllStaticInitializerCallsFromSourceMethod(view, sourceMethod);
+        resolveAllStaticInitializerCallsFromSourceMethod(view, body);
     return staticInitializerStream;
   }
 
@@ -198,21 +369,17 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    * It resolves all clinit calls caused by the given source method
    *
    * @param view it contains the class data
-   * @param sourceMethod the inspected source method
+   * @param body the body of the inspected source method
    * @return a stream containing all method signatures of targets of implicit calls.
    */
   @Nonnull
   Stream<MethodSignature> resolveAllStaticInitializerCallsFromSourceMethod(
-      View<? extends SootClass<?>> view, SootMethod sourceMethod) {
-    if (sourceMethod == null || !sourceMethod.hasBody()) return Stream.empty();
-
+      View<? extends SootClass<?>> view, @Nonnull Body body) {
     Stream.Builder<ClassType> targetsToStaticInitializer = Stream.builder();
 
     InstantiateClassValueVisitor instantiateVisitor = new InstantiateClassValueVisitor();
 
-    sourceMethod
-        .getBody()
-        .getStmts()
+    body.getStmts()
         .forEach(
             stmt -> {
               // static field usage
@@ -364,8 +531,22 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
               MethodSignature overridingMethodSig =
                   clazz.getMethod(overriddenMethodSig.getSubSignature()).get().getSignature();
 
-              for (MethodSignature callingMethodSig : updated.callsTo(overriddenMethodSig)) {
-                updated.addCall(callingMethodSig, overridingMethodSig);
+              if (updated instanceof CompactCallGraph) {
+                // the overriding method is called from the call sites of the overridden method
+                CompactCallGraph compactCallGraph = (CompactCallGraph) updated;
+                int overridden = compactCallGraph.getMethodId(overriddenMethodSig);
+                int degree = overridden < 0 ? 0 : compactCallGraph.getInDegree(overridden);
+                for (int i = 0; i < degree; i++) {
+                  int edge = compactCallGraph.getInEdge(overridden, i);
+                  compactCallGraph.addCall(
+                      compactCallGraph.getMethod(compactCallGraph.getEdgeSource(edge)),
+                      overridingMethodSig,
+                      compactCallGraph.getEdgeCallSite(edge));
+                }
+              } else {
+                for (MethodSignature callingMethodSig : updated.callsTo(overriddenMethodSig)) {
+                  updated.addCall(callingMethodSig, overridingMethodSig);
+                }
               }
             });
 
@@ -425,11 +606,11 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    * This methods resolves the possible targets of a given invoke expression. The results are
    * dependable of the applied call graph algorithm. therefore, it is abstract.
    *
-   * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param method the method object that contains the given invoke statement in the body.
+   * @param callSite the invoke statement which is resolved.
    * @return a stream of all reachable method signatures defined by the applied call graph
    *     algorithm.
    */
   @Nonnull
-  abstract Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr);
+  abstract Stream<MethodSignature> resolveCall(SootMethod method, Stmt callSite);
 }
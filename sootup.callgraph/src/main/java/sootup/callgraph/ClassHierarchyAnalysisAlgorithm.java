@@ -23,11 +23,13 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Modifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
@@ -63,19 +65,49 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
     return constructCompleteCallGraph(view, entryPoints);
   }
 
+  /**
+   * This method starts the call graph algorithm with the given entry points and resolves the calls
+   * of the reachable methods in parallel on the common {@link ForkJoinPool}. The resulting call
+   * graph is the same as the one of {@link #initialize(List)}.
+   *
+   * @param entryPoints a list of entry points for the call graph algorithm.
+   * @return a generated call graph with every entry point as starting point.
+   */
+  @Nonnull
+  public CallGraph initializeInParallel(@Nonnull List<MethodSignature> entryPoints) {
+    return initializeInParallel(entryPoints, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * This method starts the call graph algorithm with the given entry points and resolves the calls
+   * of the reachable methods in parallel on the given pool. The resulting call graph is the same as
+   * the one of {@link #initialize(List)}. The view has to support concurrent access, e.g. a {@code
+   * ConcurrentJavaView}.
+   *
+   * @param entryPoints a list of entry points for the call graph algorithm.
+   * @param pool the pool which loads the method bodies and resolves their calls
+   * @return a generated call graph with every entry point as starting point.
+   */
+  @Nonnull
+  public CallGraph initializeInParallel(
+      @Nonnull List<MethodSignature> entryPoints, @Nonnull ForkJoinPool pool) {
+    return constructCompleteCallGraphInParallel(view, entryPoints, pool);
+  }
+
   /**
    * In the CHA algorithm, every virtual call is resolved by only using the hierarchy. Every
    * subclass of the class is considered as target if it contains an implementation of the methods
    * called in the invoke expression.
    *
-   * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param method the method object that contains the given invoke statement in the body.
+   * @param callSite the invoke statement which is resolved.
    * @return a stream containing all reachable method signatures after applying the CHA call graph
    *     algorithm
    */
   @Override
   @Nonnull
-  protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+  protected Stream<MethodSignature> resolveCall(SootMethod method, Stmt callSite) {
+    AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
     MethodSignature targetMethodSignature = invokeExpr.getMethodSignature();
     if ((invokeExpr instanceof JDynamicInvokeExpr)) {
       return Stream.empty();
@@ -0,0 +1,464 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2019-2022 Christian Brüggemann, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+
+/**
+ * This class implements a mutable call graph with a compact, call-site sensitive representation.
+ * Every method is interned to a dense int id and every call is an int edge id. The edges are stored
+ * in parallel arrays and each method keeps the ids of its outgoing and incoming edges in an int
+ * array. An edge records the invoke statement that causes the call (if any) and its {@link
+ * CallKind}, so there can be several edges between two methods, one per call site.
+ *
+ * <p>The call sites are only meaningful together with the body they belong to: a {@link
+ * sootup.core.model.BodyRetentionPolicy} other than STRONG may release the body of a method and
+ * resolve a body with new Stmts later. The call graph therefore keeps the body of a method whose
+ * call sites it records (see {@link #setBody(MethodSignature, Body)}), and users of the call sites
+ * should take the body from the call graph instead of the SootMethod.
+ *
+ * <p>Besides the {@link CallGraph} queries, the id based accessors (e.g. {@link
+ * #getOutDegree(int)}, {@link #getOutEdge(int, int)}, {@link #getEdgeTarget(int)}) allow to iterate
+ * over callees and callers without allocating.
+ */
+public final class CompactCallGraph implements MutableCallGraph {
+
+  /** The kind of a call edge, derived from the invoke expression of its call site. */
+  public enum CallKind {
+    STATIC,
+    VIRTUAL,
+    INTERFACE,
+    SPECIAL,
+    DYNAMIC,
+    /** the call is not caused by an invoke statement, e.g. a call of a static initializer. */
+    IMPLICIT;
+
+    private static final CallKind[] values = values();
+
+    @Nonnull
+    public static CallKind of(@Nullable Stmt callSite) {
+      if (callSite == null || !callSite.containsInvokeExpr()) {
+        return IMPLICIT;
+      }
+      AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
+      if (invokeExpr instanceof JStaticInvokeExpr) {
+        return STATIC;
+      } else if (invokeExpr instanceof JSpecialInvokeExpr) {
+        return SPECIAL;
+      } else if (invokeExpr instanceof JInterfaceInvokeExpr) {
+        return INTERFACE;
+      } else if (invokeExpr instanceof JDynamicInvokeExpr) {
+        return DYNAMIC;
+      }
+      return VIRTUAL;
+    }
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int[] NO_EDGES = new int[0];
+
+  @Nonnull private final Map<MethodSignature, Integer> methodToId;
+  @Nonnull private MethodSignature[] methods;
+  /** the body that contains the call sites of each method or null */
+  @Nonnull private Body[] bodies;
+
+  private int methodCount;
+
+  @Nonnull private int[][] outEdges;
+  @Nonnull private int[] outDegree;
+  @Nonnull private int[][] inEdges;
+  @Nonnull private int[] inDegree;
+
+  @Nonnull private int[] edgeSource;
+  @Nonnull private int[] edgeTarget;
+  @Nonnull private Stmt[] edgeCallSite;
+  @Nonnull private byte[] edgeKind;
+  private int edgeCount;
+
+  /**
+   * an open addressing hash table of all edges to find duplicates in O(1): a slot holds the id of
+   * an edge + 1 or 0 if it is empty. It is kept at most half full.
+   */
+  @Nonnull private int[] edgeTable;
+
+  public CompactCallGraph() {
+    methodToId = new HashMap<>();
+    methods = new MethodSignature[INITIAL_CAPACITY];
+    bodies = new Body[INITIAL_CAPACITY];
+    outEdges = new int[INITIAL_CAPACITY][];
+    outDegree = new int[INITIAL_CAPACITY];
+    inEdges = new int[INITIAL_CAPACITY][];
+    inDegree = new int[INITIAL_CAPACITY];
+    edgeSource = new int[INITIAL_CAPACITY];
+    edgeTarget = new int[INITIAL_CAPACITY];
+    edgeCallSite = new Stmt[INITIAL_CAPACITY];
+    edgeKind = new byte[INITIAL_CAPACITY];
+    edgeTable = new int[INITIAL_CAPACITY * 2];
+  }
+
+  private CompactCallGraph(@Nonnull CompactCallGraph other) {
+    methodToId = new HashMap<>(other.methodToId);
+    methods = other.methods.clone();
+    bodies = other.bodies.clone();
+    methodCount = other.methodCount;
+    outEdges = deepCopy(other.outEdges, other.methodCount);
+    outDegree = other.outDegree.clone();
+    inEdges = deepCopy(other.inEdges, other.methodCount);
+    inDegree = other.inDegree.clone();
+    edgeSource = other.edgeSource.clone();
+    edgeTarget = other.edgeTarget.clone();
+    edgeCallSite = other.edgeCallSite.clone();
+    edgeKind = other.edgeKind.clone();
+    edgeCount = other.edgeCount;
+    edgeTable = other.edgeTable.clone();
+  }
+
+  private static int[][] deepCopy(@Nonnull int[][] adjacency, int size) {
+    int[][] copy = new int[adjacency.length][];
+    for (int i = 0; i < size; i++) {
+      copy[i] = adjacency[i].clone();
+    }
+    return copy;
+  }
+
+  @Override
+  public void addMethod(@Nonnull MethodSignature calledMethod) {
+    if (methodToId.containsKey(calledMethod)) {
+      return;
+    }
+    if (methodCount == methods.length) {
+      int capacity = methodCount * 2;
+      methods = Arrays.copyOf(methods, capacity);
+      bodies = Arrays.copyOf(bodies, capacity);
+      outEdges = Arrays.copyOf(outEdges, capacity);
+      outDegree = Arrays.copyOf(outDegree, capacity);
+      inEdges = Arrays.copyOf(inEdges, capacity);
+      inDegree = Arrays.copyOf(inDegree, capacity);
+    }
+    methods[methodCount] = calledMethod;
+    outEdges[methodCount] = NO_EDGES;
+    inEdges[methodCount] = NO_EDGES;
+    methodToId.put(calledMethod, methodCount++);
+  }
+
+  /**
+   * Keeps the body of the given method, i.e. the body that contains the call sites of the calls
+   * from the method.
+   */
+  public void setBody(@Nonnull MethodSignature method, @Nonnull Body body) {
+    Preconditions.checkArgument(
+        body.getMethodSignature().equals(method), "The body does not belong to %s", method);
+    bodies[idOf(method)] = body;
+  }
+
+  /**
+   * @return the body that contains the call sites of the given method or null if no body has been
+   *     set
+   */
+  @Nullable
+  public Body getBody(@Nonnull MethodSignature method) {
+    Integer id = methodToId.get(method);
+    return id == null ? null : bodies[id];
+  }
+
+  /** Adds an implicit call, i.e. a call that is not caused by a specific invoke statement. */
+  @Override
+  public void addCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    addCall(sourceMethod, targetMethod, null);
+  }
+
+  /**
+   * Adds a call from the source method to the target method that is caused by the given call site.
+   * Adding the same call twice has no effect.
+   *
+   * @param callSite the invoke statement in the body of the source method, or null for an implicit
+   *     call. That body should be kept via {@link #setBody(MethodSignature, Body)}.
+   */
+  public void addCall(
+      @Nonnull MethodSignature sourceMethod,
+      @Nonnull MethodSignature targetMethod,
+      @Nullable Stmt callSite) {
+    int source = idOf(sourceMethod);
+    int target = idOf(targetMethod);
+    int slot = findSlot(source, target, callSite);
+    if (edgeTable[slot] != 0) {
+      return;
+    }
+
+    if (edgeCount == edgeSource.length) {
+      int capacity = edgeCount * 2;
+      edgeSource = Arrays.copyOf(edgeSource, capacity);
+      edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+      edgeCallSite = Arrays.copyOf(edgeCallSite, capacity);
+      edgeKind = Arrays.copyOf(edgeKind, capacity);
+    }
+    int edge = edgeCount++;
+    edgeSource[edge] = source;
+    edgeTarget[edge] = target;
+    edgeCallSite[edge] = callSite;
+    edgeKind[edge] = (byte) CallKind.of(callSite).ordinal();
+    edgeTable[slot] = edge + 1;
+    if (edgeCount * 2 > edgeTable.length) {
+      rehash(edgeTable.length * 2);
+    }
+
+    outEdges[source] = append(outEdges[source], outDegree[source]++, edge);
+    inEdges[target] = append(inEdges[target], inDegree[target]++, edge);
+  }
+
+  private static int[] append(@Nonnull int[] edges, int size, int edge) {
+    if (size == edges.length) {
+      edges = Arrays.copyOf(edges, Math.max(4, size * 2));
+    }
+    edges[size] = edge;
+    return edges;
+  }
+
+  /**
+   * Returns the slot of the edge table that holds the edge with the given source, target and call
+   * site or the empty slot where it has to be inserted. Call sites are compared by identity, as
+   * equal statements can occur at different positions of a body.
+   */
+  private int findSlot(int source, int target, @Nullable Stmt callSite) {
+    int mask = edgeTable.length - 1;
+    int slot = hash(source, target, callSite) & mask;
+    while (true) {
+      int entry = edgeTable[slot];
+      if (entry == 0) {
+        return slot;
+      }
+      int edge = entry - 1;
+      if (edgeSource[edge] == source
+          && edgeTarget[edge] == target
+          && edgeCallSite[edge] == callSite) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void rehash(int capacity) {
+    edgeTable = new int[capacity];
+    int mask = capacity - 1;
+    for (int edge = 0; edge < edgeCount; edge++) {
+      int slot = hash(edgeSource[edge], edgeTarget[edge], edgeCallSite[edge]) & mask;
+      while (edgeTable[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      edgeTable[slot] = edge + 1;
+    }
+  }
+
+  private static int hash(int source, int target, @Nullable Stmt callSite) {
+    int hash = (source * 31 + target) * 31 + System.identityHashCode(callSite);
+    // spreads the bits, as the table size is a power of two
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> getMethodSignatures() {
+    return Collections.unmodifiableSet(methodToId.keySet());
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+    int source = idOf(sourceMethod);
+    Set<MethodSignature> targets = new LinkedHashSet<>();
+    int[] edges = outEdges[source];
+    for (int i = 0, degree = outDegree[source]; i < degree; i++) {
+      targets.add(methods[edgeTarget[edges[i]]]);
+    }
+    return targets;
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+    int target = idOf(targetMethod);
+    Set<MethodSignature> sources = new LinkedHashSet<>();
+    int[] edges = inEdges[target];
+    for (int i = 0, degree = inDegree[target]; i < degree; i++) {
+      sources.add(methods[edgeSource[edges[i]]]);
+    }
+    return sources;
+  }
+
+  @Override
+  public boolean containsMethod(@Nonnull MethodSignature method) {
+    return methodToId.containsKey(method);
+  }
+
+  @Override
+  public boolean containsCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    Integer source = methodToId.get(sourceMethod);
+    Integer target = methodToId.get(targetMethod);
+    if (source == null || target == null) {
+      return false;
+    }
+    int[] edges = outEdges[source];
+    for (int i = 0, degree = outDegree[source]; i < degree; i++) {
+      if (edgeTarget[edges[i]] == target) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the number of call edges, i.e. a call between two methods is counted per call site; the
+   *     edge ids range from 0 to count - 1
+   */
+  @Override
+  public int callCount() {
+    return edgeCount;
+  }
+
+  @Nonnull
+  @Override
+  public MutableCallGraph copy() {
+    return new CompactCallGraph(this);
+  }
+
+  /** @return the number of methods in the call graph; the method ids range from 0 to count - 1 */
+  public int getMethodCount() {
+    return methodCount;
+  }
+
+  /** @return the id of the given method or -1 if it is not contained in the call graph */
+  public int getMethodId(@Nonnull MethodSignature method) {
+    Integer id = methodToId.get(method);
+    return id == null ? -1 : id;
+  }
+
+  @Nonnull
+  public MethodSignature getMethod(int methodId) {
+    Preconditions.checkElementIndex(methodId, methodCount);
+    return methods[methodId];
+  }
+
+  public int getOutDegree(int methodId) {
+    Preconditions.checkElementIndex(methodId, methodCount);
+    return outDegree[methodId];
+  }
+
+  /** @return the id of the index-th outgoing edge of the given method */
+  public int getOutEdge(int methodId, int index) {
+    Preconditions.checkElementIndex(index, getOutDegree(methodId));
+    return outEdges[methodId][index];
+  }
+
+  public int getInDegree(int methodId) {
+    Preconditions.checkElementIndex(methodId, methodCount);
+    return inDegree[methodId];
+  }
+
+  /** @return the id of the index-th incoming edge of the given method */
+  public int getInEdge(int methodId, int index) {
+    Preconditions.checkElementIndex(index, getInDegree(methodId));
+    return inEdges[methodId][index];
+  }
+
+  /** @return the method id of the caller of the given edge */
+  public int getEdgeSource(int edge) {
+    Preconditions.checkElementIndex(edge, edgeCount);
+    return edgeSource[edge];
+  }
+
+  /** @return the method id of the callee of the given edge */
+  public int getEdgeTarget(int edge) {
+    Preconditions.checkElementIndex(edge, edgeCount);
+    return edgeTarget[edge];
+  }
+
+  /** @return the invoke statement that causes the given edge or null for an implicit call */
+  @Nullable
+  public Stmt getEdgeCallSite(int edge) {
+    Preconditions.checkElementIndex(edge, edgeCount);
+    return edgeCallSite[edge];
+  }
+
+  @Nonnull
+  public CallKind getEdgeKind(int edge) {
+    Preconditions.checkElementIndex(edge, edgeCount);
+    return CallKind.values[edgeKind[edge]];
+  }
+
+  private int idOf(@Nonnull MethodSignature method) {
+    Integer id = methodToId.get(method);
+    Preconditions.checkNotNull(id, "Node for " + method + " has not been added yet");
+    return id;
+  }
+
+  /**
+   * This method exports the call graph in a human-readable string. The String lists all nodes in
+   * the call graph. For each node it also lists the outgoing and incoming edges. An outgoing edge
+   * is marked by a "To" and an incoming edge by a "From" The nodes, incoming edges, and outgoing
+   * edges are sorted in order by the classname, method name, parameter list
+   *
+   * @return a string containing all nodes and edges of the call graph.
+   */
+  @Override
+  public String toString() {
+    StringBuilder stringBuilder = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methodCount == 0) {
+      stringBuilder.append(" is empty");
+    } else {
+      Comparator<MethodSignature> comparator =
+          Comparator.comparing((MethodSignature o) -> o.getDeclClassType().toString())
+              .thenComparing(SootClassMemberSignature::getName)
+              .thenComparing(o -> o.getParameterTypes().toString());
+      stringBuilder.append(":\n");
+      methodToId.keySet().stream()
+          .sorted(comparator)
+          .forEach(
+              method -> {
+                stringBuilder.append(method).append(":\n");
+                callsFrom(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> stringBuilder.append("\tto ").append(m).append("\n"));
+                callsTo(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> stringBuilder.append("\tfrom ").append(m).append("\n"));
+                stringBuilder.append("\n");
+              });
+    }
+    return stringBuilder.toString();
+  }
+}
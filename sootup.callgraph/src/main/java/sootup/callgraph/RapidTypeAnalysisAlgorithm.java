@@ -31,6 +31,7 @@ import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JNewExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
 import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Modifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
@@ -57,15 +58,25 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   private static class Call {
     @Nonnull final MethodSignature source;
     @Nonnull final MethodSignature target;
+    @Nonnull final Stmt callSite;
 
-    private Call(@Nonnull MethodSignature source, @Nonnull MethodSignature target) {
+    private Call(
+        @Nonnull MethodSignature source, @Nonnull MethodSignature target, @Nonnull Stmt callSite) {
       this.source = source;
       this.target = target;
+      this.callSite = callSite;
     }
   }
 
   @Nonnull private Set<ClassType> instantiatedClasses = Collections.emptySet();
+  /** classes that are instantiated but whose ignored calls have not been added yet */
+  @Nonnull private final Deque<ClassType> newlyInstantiatedClasses = new ArrayDeque<>();
+
   @Nonnull private Map<ClassType, List<Call>> ignoredCalls = Collections.emptyMap();
+  /** memoized results of {@link MethodDispatchResolver#resolveConcreteDispatch} */
+  @Nonnull
+  private Map<MethodSignature, Optional<MethodSignature>> concreteDispatches =
+      Collections.emptyMap();
 
   /**
    * The constructor of the RTA algorithm.
@@ -88,15 +99,20 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   public CallGraph initialize(@Nonnull List<MethodSignature> entryPoints) {
     instantiatedClasses = new HashSet<>();
     ignoredCalls = new HashMap<>();
+    concreteDispatches = new HashMap<>();
     CallGraph cg = constructCompleteCallGraph(view, entryPoints);
     instantiatedClasses = Collections.emptySet();
+    newlyInstantiatedClasses.clear();
     ignoredCalls = Collections.emptyMap();
+    concreteDispatches = Collections.emptyMap();
     return cg;
   }
 
   /**
    * This method is called to collect all instantiation of classes in a given method body. This is
-   * important since the RTA algorithm resolves virtual calls only to instantiated classes
+   * important since the RTA algorithm resolves virtual calls only to instantiated classes. Classes
+   * that are instantiated for the first time are remembered, so that only their ignored calls are
+   * added in the post-processing.
    *
    * @param method this object contains the method body which is inspected.
    */
@@ -105,14 +121,27 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       return;
     }
 
-    Set<ClassType> instantiated =
-        method.getBody().getStmts().stream()
-            .filter(stmt -> stmt instanceof JAssignStmt)
-            .map(stmt -> ((JAssignStmt<?, ?>) stmt).getRightOp())
-            .filter(value -> value instanceof JNewExpr)
-            .map(value -> ((JNewExpr) value).getType())
-            .collect(Collectors.toSet());
-    instantiatedClasses.addAll(instantiated);
+    method.getBody().getStmts().stream()
+        .filter(stmt -> stmt instanceof JAssignStmt)
+        .map(stmt -> ((JAssignStmt<?, ?>) stmt).getRightOp())
+        .filter(value -> value instanceof JNewExpr)
+        .map(value -> ((JNewExpr) value).getType())
+        .filter(instantiatedClasses::add)
+        .forEach(newlyInstantiatedClasses::add);
+  }
+
+  /**
+   * Resolves the concrete dispatch of the given method signature. The results are memoized for the
+   * current call graph construction, since the same methods are dispatched for many call sites.
+   */
+  @Nonnull
+  private Optional<MethodSignature> resolveConcreteDispatch(@Nonnull MethodSignature method) {
+    Optional<MethodSignature> concreteDispatch = concreteDispatches.get(method);
+    if (concreteDispatch == null) {
+      concreteDispatch = MethodDispatchResolver.resolveConcreteDispatch(view, method);
+      concreteDispatches.put(method, concreteDispatch);
+    }
+    return concreteDispatch;
   }
 
   /**
@@ -121,14 +150,15 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * is instantiated and if it contains an implementation of the methods called in the invoke
    * expression.
    *
-   * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param method the method object that contains the given invoke statement in the body.
+   * @param callSite the invoke statement which is resolved.
    * @return a stream containing all reachable method signatures after applying the RTA call graph
    *     algorithm
    */
   @Override
   @Nonnull
-  protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+  protected Stream<MethodSignature> resolveCall(SootMethod method, Stmt callSite) {
+    AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
     MethodSignature targetMethodSignature = invokeExpr.getMethodSignature();
     Stream<MethodSignature> result = Stream.of(targetMethodSignature);
 
@@ -163,27 +193,24 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
             List<Call> calls = ignoredCalls.get(notInstantiatedClass);
             if (calls == null) {
               calls = new ArrayList<>();
-              calls.add(new Call(method.getSignature(), ignoredMethodSignature));
+              calls.add(new Call(method.getSignature(), ignoredMethodSignature, callSite));
               ignoredCalls.put(notInstantiatedClass, calls);
             } else {
-              calls.add(new Call(method.getSignature(), ignoredMethodSignature));
+              calls.add(new Call(method.getSignature(), ignoredMethodSignature, callSite));
             }
           });
 
       // find the concrete dispatch of all possible dispatches
       Set<MethodSignature> concreteCallTargets =
           implAndOverrides.stream()
-              .map(
-                  methodSignature ->
-                      MethodDispatchResolver.resolveConcreteDispatch(view, methodSignature))
+              .map(this::resolveConcreteDispatch)
               .filter(Optional::isPresent)
               .map(Optional::get)
               .collect(Collectors.toSet());
 
       // add the concrete of the targetMethod if the class is instantiated
       if (targetMethodClassIsInstantiated) {
-        MethodDispatchResolver.resolveConcreteDispatch(view, targetMethodSignature)
-            .ifPresent(concreteCallTargets::add);
+        resolveConcreteDispatch(targetMethodSignature).ifPresent(concreteCallTargets::add);
       }
 
       return concreteCallTargets.stream();
@@ -220,7 +247,8 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * Post processing of a method in the RTA call graph algorithm
    *
    * <p>RTA has to add previously ignored calls because a found instantiation of a class could
-   * enable a call to a ignored method at a later time.
+   * enable a call to a ignored method at a later time. Only the ignored calls of classes that have
+   * been instantiated for the first time since the last post-processing are considered.
    *
    * @param view view
    * @param sourceMethod the processed method
@@ -233,31 +261,24 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       MethodSignature sourceMethod,
       @Nonnull Deque<MethodSignature> workList,
       @Nonnull MutableCallGraph cg) {
-    instantiatedClasses.forEach(
-        instantiatedClassType -> {
-          List<Call> newEdges = ignoredCalls.get(instantiatedClassType);
-          if (newEdges != null) {
-            newEdges.forEach(
-                call -> {
-                  MethodSignature concreteTarget =
-                      MethodDispatchResolver.resolveConcreteDispatch(view, call.target)
-                          .orElse(null);
-                  if (concreteTarget == null) {
-                    return;
-                  }
-                  if (cg.containsMethod(concreteTarget)) {
-                    // method is already analyzed or is in the work list, simply add the call
-                    cg.addCall(call.source, concreteTarget);
-                  } else {
-                    // new target method found that has to be analyzed
-                    cg.addMethod(concreteTarget);
-                    cg.addCall(call.source, concreteTarget);
-                    workList.push(concreteTarget);
-                  }
-                });
-            // can be removed because the instantiated class will be considered in future resolves
-            ignoredCalls.remove(instantiatedClassType);
-          }
-        });
+    while (!newlyInstantiatedClasses.isEmpty()) {
+      // can be removed because the instantiated class will be considered in future resolves
+      List<Call> newEdges = ignoredCalls.remove(newlyInstantiatedClasses.poll());
+      if (newEdges == null) {
+        continue;
+      }
+      for (Call call : newEdges) {
+        MethodSignature concreteTarget = resolveConcreteDispatch(call.target).orElse(null);
+        if (concreteTarget == null) {
+          continue;
+        }
+        if (!cg.containsMethod(concreteTarget)) {
+          // new target method found that has to be analyzed
+          cg.addMethod(concreteTarget);
+          workList.push(concreteTarget);
+        }
+        addCall(cg, call.source, concreteTarget, call.callSite);
+      }
+    }
   }
 }
@@ -5,6 +5,8 @@ import static junit.framework.TestCase.*;
 import java.util.Collections;
 import junit.framework.TestCase;
 import org.junit.Test;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -114,6 +116,30 @@ public abstract class CallGraphTestBase<T extends AbstractCallGraphAlgorithm> {
     TestCase.assertEquals(3, newCallGraph.callsTo(methodSignature).size());
   }
 
+  @Test
+  public void testCallSites() {
+    CallGraph cg = loadCallGraph("Misc", "example1.Example");
+    CompactCallGraph cgWithCallSites =
+        algorithm.initializeWithCallSites(Collections.singletonList(mainMethodSignature));
+
+    // the same calls are found
+    assertEquals(cg.getMethodSignatures(), cgWithCallSites.getMethodSignatures());
+    for (MethodSignature method : cg.getMethodSignatures()) {
+      assertEquals(cg.callsFrom(method), cgWithCallSites.callsFrom(method));
+    }
+
+    // the call sites are statements of the bodies that the call graph keeps
+    for (int edge = 0; edge < cgWithCallSites.callCount(); edge++) {
+      Stmt callSite = cgWithCallSites.getEdgeCallSite(edge);
+      if (callSite != null) {
+        Body body =
+            cgWithCallSites.getBody(cgWithCallSites.getMethod(cgWithCallSites.getEdgeSource(edge)));
+        assertNotNull(body);
+        assertTrue(body.getStmts().stream().anyMatch(stmt -> stmt == callSite));
+      }
+    }
+  }
+
   @Test
   public void testRecursiveCall() {
     CallGraph cg = loadCallGraph("Misc", "recur.Class");
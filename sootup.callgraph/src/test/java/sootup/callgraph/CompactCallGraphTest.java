@@ -0,0 +1,146 @@
+package sootup.callgraph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Category(Java8Test.class)
+public class CompactCallGraphTest {
+
+  private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  private final MethodSignature main =
+      factory.getMethodSignature(
+          "main", "Main", "void", Collections.singletonList("java.lang.String[]"));
+  private final MethodSignature foo =
+      factory.getMethodSignature("foo", "A", "void", Collections.emptyList());
+  private final MethodSignature bar =
+      factory.getMethodSignature("bar", "B", "void", Collections.emptyList());
+  private final MethodSignature clinit =
+      factory.getMethodSignature("<clinit>", "A", "void", Collections.emptyList());
+
+  private final Stmt staticCall =
+      Jimple.newInvokeStmt(
+          Jimple.newStaticInvokeExpr(foo), StmtPositionInfo.createNoStmtPositionInfo());
+  private final Stmt otherStaticCall =
+      Jimple.newInvokeStmt(
+          Jimple.newStaticInvokeExpr(foo), StmtPositionInfo.createNoStmtPositionInfo());
+  private final Stmt virtualCall =
+      Jimple.newInvokeStmt(
+          Jimple.newVirtualInvokeExpr(new Local("b", factory.getClassType("B")), bar),
+          StmtPositionInfo.createNoStmtPositionInfo());
+
+  private CompactCallGraph createCallGraph() {
+    CompactCallGraph cg = new CompactCallGraph();
+    cg.addMethod(main);
+    cg.addMethod(foo);
+    cg.addMethod(bar);
+    cg.addMethod(clinit);
+    cg.addCall(main, foo, staticCall);
+    cg.addCall(main, foo, otherStaticCall);
+    cg.addCall(main, bar, virtualCall);
+    cg.addCall(main, clinit);
+    cg.addCall(foo, bar);
+    return cg;
+  }
+
+  @Test
+  public void testQueries() {
+    CompactCallGraph cg = createCallGraph();
+
+    assertEquals(new HashSet<>(Arrays.asList(main, foo, bar, clinit)), cg.getMethodSignatures());
+    assertEquals(new HashSet<>(Arrays.asList(foo, bar, clinit)), cg.callsFrom(main));
+    assertEquals(new HashSet<>(Arrays.asList(main, foo)), cg.callsTo(bar));
+    assertTrue(cg.callsFrom(bar).isEmpty());
+    assertTrue(cg.containsCall(main, foo));
+    assertFalse(cg.containsCall(foo, main));
+    assertEquals(5, cg.callCount());
+
+    // adding an existing call does not add an edge
+    cg.addCall(main, foo, staticCall);
+    cg.addCall(main, clinit);
+    assertEquals(5, cg.callCount());
+  }
+
+  @Test
+  public void testDuplicatesAfterGrowing() {
+    CompactCallGraph cg = createCallGraph();
+    Stmt[] callSites = new Stmt[100];
+    for (int i = 0; i < callSites.length; i++) {
+      callSites[i] =
+          Jimple.newInvokeStmt(
+              Jimple.newStaticInvokeExpr(foo), StmtPositionInfo.createNoStmtPositionInfo());
+      cg.addCall(main, foo, callSites[i]);
+    }
+    assertEquals(105, cg.callCount());
+
+    // every call site is found again after the edge table has grown
+    for (Stmt callSite : callSites) {
+      cg.addCall(main, foo, callSite);
+      cg.addCall(main, bar, callSite);
+    }
+    assertEquals(205, cg.callCount());
+    assertEquals(205, cg.copy().callCount());
+  }
+
+  @Test
+  public void testCallSiteEdges() {
+    CompactCallGraph cg = createCallGraph();
+
+    int mainId = cg.getMethodId(main);
+    assertEquals(main, cg.getMethod(mainId));
+    assertEquals(4, cg.getOutDegree(mainId));
+    assertEquals(
+        -1,
+        cg.getMethodId(factory.getMethodSignature("baz", "C", "void", Collections.emptyList())));
+
+    int fooId = cg.getMethodId(foo);
+    assertEquals(2, cg.getInDegree(fooId));
+    for (int i = 0; i < cg.getInDegree(fooId); i++) {
+      int edge = cg.getInEdge(fooId, i);
+      assertEquals(mainId, cg.getEdgeSource(edge));
+      assertEquals(fooId, cg.getEdgeTarget(edge));
+      assertEquals(CompactCallGraph.CallKind.STATIC, cg.getEdgeKind(edge));
+    }
+    assertSame(staticCall, cg.getEdgeCallSite(cg.getInEdge(fooId, 0)));
+    assertSame(otherStaticCall, cg.getEdgeCallSite(cg.getInEdge(fooId, 1)));
+
+    int barId = cg.getMethodId(bar);
+    int virtualEdge = cg.getInEdge(barId, 0);
+    assertSame(virtualCall, cg.getEdgeCallSite(virtualEdge));
+    assertEquals(CompactCallGraph.CallKind.VIRTUAL, cg.getEdgeKind(virtualEdge));
+    int implicitEdge = cg.getInEdge(barId, 1);
+    assertNull(cg.getEdgeCallSite(implicitEdge));
+    assertEquals(CompactCallGraph.CallKind.IMPLICIT, cg.getEdgeKind(implicitEdge));
+  }
+
+  @Test
+  public void testCopy() {
+    CompactCallGraph cg = createCallGraph();
+    MutableCallGraph copy = cg.copy();
+    MethodSignature baz = factory.getMethodSignature("baz", "C", "void", Collections.emptyList());
+    copy.addMethod(baz);
+    copy.addCall(bar, baz);
+
+    assertFalse(cg.containsMethod(baz));
+    assertTrue(copy.containsCall(bar, baz));
+    assertEquals(5, cg.callCount());
+    assertEquals(6, copy.callCount());
+    assertTrue(cg.callsFrom(bar).isEmpty());
+
+    // the copy knows the existing calls as well
+    ((CompactCallGraph) copy).addCall(main, foo, staticCall);
+    copy.addCall(bar, baz);
+    assertEquals(6, copy.callCount());
+  }
+}
@@ -0,0 +1,137 @@
+package sootup.core.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Thread-safe cache that evicts the least recently used classes as soon as the summed up weight of
+ * the stored classes exceeds a specified maximum. By default every class has a weight of 1, i.e.
+ * the maximum weight is the maximum amount of stored classes. A custom weigher (e.g. {@link
+ * #methodCountWeigher()}) allows to bound the cache by a measure that is closer to the used heap.
+ *
+ * <p>In contrast to the {@link LRUCache} the access order is maintained by a {@link LinkedHashMap}
+ * so that every operation runs in constant time.
+ */
+public class BoundedCache<S extends SootClass<?>> implements ClassCache<S> {
+  private final long maxWeight;
+  @Nonnull private final ToIntFunction<? super S> weigher;
+  @Nonnull private final CacheStatistics statistics;
+
+  /** iteration order is the access order, i.e. the least recently used class comes first. */
+  private final LinkedHashMap<ClassType, Entry<S>> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long totalWeight = 0;
+
+  public BoundedCache(int cacheSize) {
+    this(cacheSize, sootClass -> 1, new CacheStatistics());
+  }
+
+  /**
+   * @param maxWeight the maximum summed up weight of the stored classes
+   * @param weigher computes the weight of a class; it is computed once when the class is stored
+   * @param statistics records hits, misses and evictions of this cache
+   */
+  public BoundedCache(
+      long maxWeight,
+      @Nonnull ToIntFunction<? super S> weigher,
+      @Nonnull CacheStatistics statistics) {
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("The maximum weight has to be at least 1");
+    }
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.statistics = statistics;
+  }
+
+  /** Weighs a class by the amount of its methods (but at least 1). */
+  @Nonnull
+  public static <S extends SootClass<?>> ToIntFunction<S> methodCountWeigher() {
+    return sootClass -> Math.max(1, sootClass.getMethods().size());
+  }
+
+  @Override
+  public synchronized S getClass(ClassType classType) {
+    Entry<S> entry = cache.get(classType);
+    if (entry == null) {
+      statistics.recordMiss();
+      return null;
+    }
+    statistics.recordHit();
+    return entry.sootClass;
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Collection<S> getClasses() {
+    List<S> classes = new ArrayList<>(cache.size());
+    for (Entry<S> entry : cache.values()) {
+      classes.add(entry.sootClass);
+    }
+    return classes;
+  }
+
+  @Override
+  public synchronized void putClass(ClassType classType, S sootClass) {
+    if (cache.containsKey(classType)) {
+      return;
+    }
+    int weight = weigher.applyAsInt(sootClass);
+    cache.put(classType, new Entry<>(sootClass, weight));
+    totalWeight += weight;
+    evictIfNecessary(classType);
+  }
+
+  /** evicts least recently used classes until the weight limit is respected again. */
+  private void evictIfNecessary(@Nonnull ClassType justAdded) {
+    Iterator<Map.Entry<ClassType, Entry<S>>> it = cache.entrySet().iterator();
+    while (totalWeight > maxWeight && it.hasNext()) {
+      Map.Entry<ClassType, Entry<S>> eldest = it.next();
+      // a single class that exceeds the limit on its own is kept until the next class is added
+      if (eldest.getKey().equals(justAdded)) {
+        break;
+      }
+      it.remove();
+      totalWeight -= eldest.getValue().weight;
+      statistics.recordEviction();
+    }
+  }
+
+  @Override
+  public synchronized boolean hasClass(ClassType classType) {
+    return cache.containsKey(classType);
+  }
+
+  @Override
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /** Returns the summed up weight of all stored classes. */
+  public synchronized long getTotalWeight() {
+    return totalWeight;
+  }
+
+  @Nonnull
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  /** a stored class and the weight it had when it was stored */
+  private static final class Entry<S> {
+    @Nonnull final S sootClass;
+    final int weight;
+
+    Entry(@Nonnull S sootClass, int weight) {
+      this.sootClass = sootClass;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package sootup.core.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the hits, misses and evictions of a {@link ClassCache}. The counters are thread-safe and
+ * can be shared by multiple caches, e.g. by all caches created by one {@link
+ * sootup.core.cache.provider.BoundedCacheProvider}.
+ */
+public class CacheStatistics {
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+
+  /** Returns the number of lookups that found a cached class. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Returns the number of lookups that did not find a cached class. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Returns the number of classes that have been evicted to respect the size limit. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Returns the ratio of hits to all lookups or 1.0 if there was no lookup yet. */
+  public double getHitRate() {
+    long hitCount = getHitCount();
+    long requestCount = hitCount + getMissCount();
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics{hits="
+        + getHitCount()
+        + ", misses="
+        + getMissCount()
+        + ", evictions="
+        + getEvictionCount()
+        + "}";
+  }
+}
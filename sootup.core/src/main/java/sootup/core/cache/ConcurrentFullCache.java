@@ -0,0 +1,29 @@
+package sootup.core.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Thread-safe version of the {@link FullCache}. It is backed by a {@link ConcurrentHashMap}, so
+ * lookups and insertions from multiple threads do not need an external lock.
+ */
+public class ConcurrentFullCache<S extends SootClass<?>> extends FullCache<S> {
+
+  public ConcurrentFullCache() {
+    super(new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public S getClass(ClassType classType) {
+    return cache.get(classType);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<S> getClasses() {
+    return cache.values();
+  }
+}
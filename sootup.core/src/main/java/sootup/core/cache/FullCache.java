@@ -10,7 +10,16 @@ import sootup.core.types.ClassType;
 /** Cache that stores any class that has been resolved. */
 public class FullCache<S extends SootClass<?>> implements ClassCache<S> {
 
-  protected final Map<ClassType, S> cache = new HashMap<>();
+  protected final Map<ClassType, S> cache;
+
+  public FullCache() {
+    this(new HashMap<>());
+  }
+
+  /** Allows subclasses to choose the backing map, e.g. a concurrent one. */
+  protected FullCache(@Nonnull Map<ClassType, S> cache) {
+    this.cache = cache;
+  }
 
   @Override
   public synchronized S getClass(ClassType classType) {
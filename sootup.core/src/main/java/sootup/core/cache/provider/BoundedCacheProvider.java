@@ -0,0 +1,43 @@
+package sootup.core.cache.provider;
+
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+import sootup.core.cache.BoundedCache;
+import sootup.core.cache.CacheStatistics;
+import sootup.core.cache.ClassCache;
+import sootup.core.model.SootClass;
+
+/**
+ * Provides a new {@link BoundedCache} object. All caches that are created by one provider record
+ * their hits, misses and evictions in the same {@link CacheStatistics} object.
+ */
+public class BoundedCacheProvider<S extends SootClass<?>> implements ClassCacheProvider<S> {
+  private final long maxWeight;
+  @Nonnull private final ToIntFunction<? super S> weigher;
+  @Nonnull private final CacheStatistics statistics = new CacheStatistics();
+
+  /** Create a new BoundedCacheProvider whose caches store at most cacheSize classes. */
+  public BoundedCacheProvider(int cacheSize) {
+    this(cacheSize, sootClass -> 1);
+  }
+
+  /**
+   * Create a new BoundedCacheProvider whose caches evict classes as soon as the summed up weight of
+   * their classes exceeds maxWeight.
+   */
+  public BoundedCacheProvider(long maxWeight, @Nonnull ToIntFunction<? super S> weigher) {
+    if (maxWeight < 1) throw new IllegalArgumentException("Cache size has to be at least 1");
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  @Nonnull
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  @Override
+  public ClassCache<S> createCache() {
+    return new BoundedCache<>(maxWeight, weigher, statistics);
+  }
+}
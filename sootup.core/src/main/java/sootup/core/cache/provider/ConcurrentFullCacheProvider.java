@@ -0,0 +1,14 @@
+package sootup.core.cache.provider;
+
+import sootup.core.cache.ClassCache;
+import sootup.core.cache.ConcurrentFullCache;
+import sootup.core.model.SootClass;
+
+/** Provides a new {@link ConcurrentFullCache} object. */
+public class ConcurrentFullCacheProvider<S extends SootClass<?>> implements ClassCacheProvider<S> {
+
+  @Override
+  public ClassCache<S> createCache() {
+    return new ConcurrentFullCache<>();
+  }
+}
@@ -24,6 +24,7 @@ package sootup.core.frontend;
 import java.io.IOException;
 import javax.annotation.Nonnull;
 import sootup.core.model.Body;
+import sootup.core.model.BodyRetentionPolicy;
 import sootup.core.model.Modifier;
 import sootup.core.signatures.MethodSignature;
 
@@ -47,4 +48,13 @@ public interface BodySource {
 
   @Nonnull
   MethodSignature getSignature();
+
+  /**
+   * Returns the policy which decides how long the SootMethod of this source keeps its resolved
+   * body. It is queried once, when the SootMethod is created.
+   */
+  @Nonnull
+  default BodyRetentionPolicy getBodyRetentionPolicy() {
+    return BodyRetentionPolicy.STRONG;
+  }
 }
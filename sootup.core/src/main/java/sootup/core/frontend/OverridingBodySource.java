@@ -24,6 +24,7 @@ import java.io.IOException;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.model.Body;
+import sootup.core.model.BodyRetentionPolicy;
 import sootup.core.model.Modifier;
 import sootup.core.signatures.MethodSignature;
 
@@ -77,6 +78,15 @@ public class OverridingBodySource implements BodySource {
     return delegate.resolveAnnotationsDefaultValue();
   }
 
+  @Nonnull
+  @Override
+  public BodyRetentionPolicy getBodyRetentionPolicy() {
+    // an overridden body is not resolved again, so there is nothing to release
+    return body == null && delegate != null
+        ? delegate.getBodyRetentionPolicy()
+        : BodyRetentionPolicy.STRONG;
+  }
+
   @Nonnull
   @Override
   public MethodSignature getSignature() {
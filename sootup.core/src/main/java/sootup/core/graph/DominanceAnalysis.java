@@ -0,0 +1,496 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2022 Raja Vallee-Rai, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Computes the dominators or the post-dominators of the blocks of a {@link StmtGraph} and their
+ * dominance frontiers. The blocks are numbered densely in reverse postorder, so the iterative
+ * algorithm of Cooper, Harvey and Kennedy typically converges after two passes and works on int
+ * arrays only. The successors of a block are its successors and its exceptional successors.
+ *
+ * <p>The ids of the blocks which are reachable from the root are {@code 0} to {@code
+ * getReachableCount() - 1} in reverse postorder, i.e. the starting block has the id {@code 0} for
+ * dominators. The remaining blocks are numbered afterwards and have no immediate dominator.
+ *
+ * <p>Post-dominators are computed on the reversed graph with a virtual exit, which succeeds every
+ * block without (exceptional) successors. The virtual exit has no id: blocks which are immediately
+ * post-dominated by it have no immediate post-dominator. Blocks which can not reach an exit (e.g.
+ * of an infinite loop) are not reachable in this sense.
+ *
+ * @see <a href="https://www.cs.rice.edu/~keith/EMBED/dom.pdf">A Simple, Fast Dominance
+ *     Algorithm</a>
+ */
+public class DominanceAnalysis {
+
+  private static final int[] EMPTY = new int[0];
+
+  private final boolean postDominance;
+
+  /** 1 if the internal node 0 is the virtual exit, 0 otherwise */
+  private final int base;
+
+  /** the blocks by id */
+  @Nonnull private final BasicBlock<?>[] blocks;
+
+  @Nonnull private final Map<BasicBlock<?>, Integer> blockToId;
+
+  /** the following arrays are indexed by internal node, i.e. by id + base */
+  private final int reachableNodes;
+
+  @Nonnull private final int[][] successors;
+  @Nonnull private final int[][] predecessors;
+
+  /** the immediate dominator of each node, the root dominates itself and unreachable nodes -1 */
+  @Nonnull private final int[] idoms;
+
+  @Nonnull private final int[][] children;
+  @Nonnull private final int[][] frontiers;
+
+  /** the pre- and postorder number of each node in the dominator tree */
+  @Nonnull private final int[] treePre;
+
+  @Nonnull private final int[] treePost;
+
+  /** Computes the dominators of the blocks of the given graph. */
+  @Nonnull
+  public static DominanceAnalysis dominators(@Nonnull StmtGraph<?> graph) {
+    return new DominanceAnalysis(graph, false);
+  }
+
+  /** Computes the post-dominators of the blocks of the given graph. */
+  @Nonnull
+  public static DominanceAnalysis postDominators(@Nonnull StmtGraph<?> graph) {
+    return new DominanceAnalysis(graph, true);
+  }
+
+  private DominanceAnalysis(@Nonnull StmtGraph<?> graph, boolean postDominance) {
+    this.postDominance = postDominance;
+    this.base = postDominance ? 1 : 0;
+
+    // number the blocks in the order of the graph and collect their (distinct) successors
+    final Collection<? extends BasicBlock<?>> graphBlocks = graph.getBlocks();
+    final int blockCount = graphBlocks.size();
+    final BasicBlock<?>[] order = graphBlocks.toArray(new BasicBlock<?>[0]);
+    final Map<BasicBlock<?>, Integer> index = new HashMap<>(blockCount * 2);
+    for (int i = 0; i < blockCount; i++) {
+      index.put(order[i], i);
+    }
+    final int[][] cfgSuccessors = new int[blockCount][];
+    final int[] mark = new int[blockCount];
+    Arrays.fill(mark, -1);
+    final int[] buffer = new int[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      int count = 0;
+      for (BasicBlock<?> successor : order[i].getSuccessors()) {
+        count = addDistinct(index.get(successor), i, mark, buffer, count);
+      }
+      for (BasicBlock<?> successor : order[i].getExceptionalSuccessors().values()) {
+        count = addDistinct(index.get(successor), i, mark, buffer, count);
+      }
+      cfgSuccessors[i] = Arrays.copyOf(buffer, count);
+    }
+
+    // the graph to analyse, with the virtual exit as node blockCount for post-dominators
+    final int nodeCount = blockCount + base;
+    final int[][] forward;
+    final int root;
+    if (postDominance) {
+      forward = invert(cfgSuccessors, nodeCount);
+      final int[] exits = new int[blockCount];
+      int exitCount = 0;
+      for (int i = 0; i < blockCount; i++) {
+        if (cfgSuccessors[i].length == 0) {
+          exits[exitCount++] = i;
+        }
+      }
+      forward[blockCount] = Arrays.copyOf(exits, exitCount);
+      root = blockCount;
+    } else {
+      forward = cfgSuccessors;
+      final BasicBlock<?> startingBlock =
+          graph.getStartingStmt() == null ? null : graph.getStartingStmtBlock();
+      root = startingBlock == null ? -1 : index.get(startingBlock);
+    }
+
+    // number the nodes in reverse postorder, followed by the unreachable ones
+    final int[] rpo = new int[nodeCount];
+    Arrays.fill(rpo, -1);
+    final int reachable = root == -1 ? 0 : reversePostorder(forward, root, rpo);
+    int next = reachable;
+    final int[] nodeOf = new int[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      if (rpo[i] == -1) {
+        rpo[i] = next++;
+      }
+      nodeOf[rpo[i]] = i;
+    }
+    this.reachableNodes = reachable;
+
+    this.blocks = new BasicBlock<?>[blockCount];
+    this.blockToId = index;
+    for (int i = 0; i < blockCount; i++) {
+      final int id = rpo[i] - base;
+      blocks[id] = order[i];
+      index.put(order[i], id);
+    }
+
+    this.successors = new int[nodeCount][];
+    for (int node = 0; node < nodeCount; node++) {
+      final int[] targets = forward[nodeOf[node]];
+      final int[] renumbered = new int[targets.length];
+      for (int i = 0; i < targets.length; i++) {
+        renumbered[i] = rpo[targets[i]];
+      }
+      successors[node] = renumbered;
+    }
+    // edges from unreachable nodes are irrelevant for the dominators
+    this.predecessors = invert(Arrays.copyOf(successors, reachable), nodeCount);
+
+    this.idoms = computeImmediateDominators();
+    this.children = invertTree(idoms);
+    this.treePre = new int[nodeCount];
+    this.treePost = new int[nodeCount];
+    numberTree();
+    this.frontiers = computeFrontiers();
+  }
+
+  private static int addDistinct(int target, int source, int[] mark, int[] buffer, int count) {
+    if (mark[target] != source) {
+      mark[target] = source;
+      buffer[count++] = target;
+    }
+    return count;
+  }
+
+  /** Returns the predecessors of the nodes of the given successor lists. */
+  @Nonnull
+  private static int[][] invert(@Nonnull int[][] successors, int nodeCount) {
+    final int[] counts = new int[nodeCount];
+    for (int[] targets : successors) {
+      for (int target : targets) {
+        counts[target]++;
+      }
+    }
+    final int[][] inverted = new int[nodeCount][];
+    for (int node = 0; node < nodeCount; node++) {
+      inverted[node] = counts[node] == 0 ? EMPTY : new int[counts[node]];
+      counts[node] = 0;
+    }
+    for (int source = 0; source < successors.length; source++) {
+      for (int target : successors[source]) {
+        inverted[target][counts[target]++] = source;
+      }
+    }
+    return inverted;
+  }
+
+  /**
+   * Assigns the reverse postorder number of each node reachable from root to rpo and returns the
+   * number of reachable nodes. The depth-first search is iterative, so large methods do not
+   * overflow the stack.
+   */
+  private static int reversePostorder(@Nonnull int[][] successors, int root, @Nonnull int[] rpo) {
+    final int nodeCount = successors.length;
+    final boolean[] visited = new boolean[nodeCount];
+    final int[] postorder = new int[nodeCount];
+    final int[] stack = new int[nodeCount];
+    final int[] nextSuccessor = new int[nodeCount];
+    int postCount = 0;
+    int top = 0;
+    stack[0] = root;
+    visited[root] = true;
+    while (top >= 0) {
+      final int node = stack[top];
+      final int[] targets = successors[node];
+      if (nextSuccessor[node] < targets.length) {
+        final int target = targets[nextSuccessor[node]++];
+        if (!visited[target]) {
+          visited[target] = true;
+          stack[++top] = target;
+        }
+      } else {
+        postorder[postCount++] = node;
+        top--;
+      }
+    }
+    for (int i = 0; i < postCount; i++) {
+      rpo[postorder[i]] = postCount - 1 - i;
+    }
+    return postCount;
+  }
+
+  @Nonnull
+  private int[] computeImmediateDominators() {
+    final int[] doms = new int[successors.length];
+    Arrays.fill(doms, -1);
+    if (reachableNodes == 0) {
+      return doms;
+    }
+    doms[0] = 0;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int node = 1; node < reachableNodes; node++) {
+        int newIdom = -1;
+        for (int pred : predecessors[node]) {
+          if (doms[pred] != -1) {
+            newIdom = newIdom == -1 ? pred : intersect(doms, pred, newIdom);
+          }
+        }
+        if (doms[node] != newIdom) {
+          doms[node] = newIdom;
+          changed = true;
+        }
+      }
+    }
+    return doms;
+  }
+
+  private static int intersect(@Nonnull int[] doms, int a, int b) {
+    while (a != b) {
+      while (a > b) {
+        a = doms[a];
+      }
+      while (b > a) {
+        b = doms[b];
+      }
+    }
+    return a;
+  }
+
+  @Nonnull
+  private int[][] invertTree(@Nonnull int[] doms) {
+    final int[][] parents = new int[doms.length][];
+    for (int node = 0; node < doms.length; node++) {
+      parents[node] = node == 0 || doms[node] == -1 ? EMPTY : new int[] {doms[node]};
+    }
+    return invert(parents, doms.length);
+  }
+
+  /** Numbers the dominator tree in pre- and postorder to answer dominance queries in O(1). */
+  private void numberTree() {
+    Arrays.fill(treePre, -1);
+    Arrays.fill(treePost, -1);
+    if (reachableNodes == 0) {
+      return;
+    }
+    final int[] stack = new int[reachableNodes];
+    final int[] nextChild = new int[reachableNodes];
+    int pre = 0;
+    int post = 0;
+    int top = 0;
+    treePre[0] = pre++;
+    while (top >= 0) {
+      final int node = stack[top];
+      if (nextChild[node] < children[node].length) {
+        final int child = children[node][nextChild[node]++];
+        treePre[child] = pre++;
+        stack[++top] = child;
+      } else {
+        treePost[node] = post++;
+        top--;
+      }
+    }
+  }
+
+  @Nonnull
+  private int[][] computeFrontiers() {
+    final int nodeCount = successors.length;
+    final int[] counts = new int[nodeCount];
+    final int[] lastJoin = new int[nodeCount];
+    // the first pass counts the frontier of each node, the second one fills them
+    int[][] result = null;
+    for (int pass = 0; pass < 2; pass++) {
+      Arrays.fill(lastJoin, -1);
+      for (int join = 0; join < reachableNodes; join++) {
+        // the root is a join of its predecessors and the entry
+        if (predecessors[join].length < (join == 0 ? 1 : 2)) {
+          continue;
+        }
+        final int stop = join == 0 ? -1 : idoms[join];
+        for (int pred : predecessors[join]) {
+          int runner = pred;
+          while (runner != stop && lastJoin[runner] != join) {
+            lastJoin[runner] = join;
+            if (result == null) {
+              counts[runner]++;
+            } else {
+              result[runner][counts[runner]++] = join;
+            }
+            if (runner == 0) {
+              break;
+            }
+            runner = idoms[runner];
+          }
+        }
+      }
+      if (result == null) {
+        result = new int[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+          result[node] = counts[node] == 0 ? EMPTY : new int[counts[node]];
+          counts[node] = 0;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Whether this analysis computes post-dominators instead of dominators. */
+  public boolean isPostDominance() {
+    return postDominance;
+  }
+
+  /** Returns the number of blocks. */
+  public int size() {
+    return blocks.length;
+  }
+
+  /** Returns the number of blocks that are reachable from the root, i.e. whose ids are smaller. */
+  public int getReachableCount() {
+    return reachableNodes - base;
+  }
+
+  public boolean isReachable(int id) {
+    return id + base < reachableNodes;
+  }
+
+  @Nonnull
+  public BasicBlock<?> getBlock(int id) {
+    return blocks[id];
+  }
+
+  /** Returns the id of the given block or -1 if it is not a block of the analysed graph. */
+  public int getId(@Nonnull BasicBlock<?> block) {
+    final Integer id = blockToId.get(block);
+    return id == null ? -1 : id;
+  }
+
+  /** Returns the blocks ordered by their id. */
+  @Nonnull
+  public List<BasicBlock<?>> getBlocks() {
+    return Collections.unmodifiableList(Arrays.asList(blocks));
+  }
+
+  /**
+   * Returns the id of the immediate (post-)dominator of the given block or -1 for the root, for
+   * unreachable blocks and for blocks that are immediately post-dominated by the virtual exit.
+   */
+  public int getImmediateDominator(int id) {
+    final int node = id + base;
+    final int idom = idoms[node];
+    return idom == -1 || idom == node ? -1 : idom - base;
+  }
+
+  @Nullable
+  public BasicBlock<?> getImmediateDominator(@Nonnull BasicBlock<?> block) {
+    final int idom = getImmediateDominator(checkedId(block));
+    return idom == -1 ? null : blocks[idom];
+  }
+
+  /** Whether the block a (post-)dominates the block b; every reachable block dominates itself. */
+  public boolean dominates(int a, int b) {
+    final int nodeA = a + base;
+    final int nodeB = b + base;
+    if (nodeA >= reachableNodes || nodeB >= reachableNodes) {
+      return false;
+    }
+    return treePre[nodeA] <= treePre[nodeB] && treePost[nodeB] <= treePost[nodeA];
+  }
+
+  public boolean dominates(@Nonnull BasicBlock<?> a, @Nonnull BasicBlock<?> b) {
+    return dominates(checkedId(a), checkedId(b));
+  }
+
+  /** Returns the ids of the blocks that are immediately (post-)dominated by the given block. */
+  @Nonnull
+  public int[] getDominatedChildren(int id) {
+    return toIds(children[id + base]);
+  }
+
+  /** Returns the ids of the blocks that are immediately post-dominated by the virtual exit. */
+  @Nonnull
+  public int[] getExitChildren() {
+    return postDominance ? toIds(children[0]) : EMPTY;
+  }
+
+  /**
+   * Returns the ids of the dominance frontier of the given block. For post-dominators this is the
+   * set of blocks the given block is control dependent on.
+   */
+  @Nonnull
+  public int[] getDominanceFrontier(int id) {
+    return toIds(frontiers[id + base]);
+  }
+
+  @Nonnull
+  public List<BasicBlock<?>> getDominanceFrontier(@Nonnull BasicBlock<?> block) {
+    final int[] ids = frontiers[checkedId(block) + base];
+    final List<BasicBlock<?>> result = new ArrayList<>(ids.length);
+    for (int node : ids) {
+      result.add(blocks[node - base]);
+    }
+    return result;
+  }
+
+  /** Returns the ids of the (distinct) successors of a block in the direction of the analysis. */
+  @Nonnull
+  int[] getSuccessorIds(int id) {
+    return successors[id + base];
+  }
+
+  /** Returns the ids of the (distinct) reachable predecessors in the direction of the analysis. */
+  @Nonnull
+  int[] getPredecessorIds(int id) {
+    return predecessors[id + base];
+  }
+
+  private int checkedId(@Nonnull BasicBlock<?> block) {
+    final Integer id = blockToId.get(block);
+    if (id == null) {
+      throw new IllegalArgumentException("The given block: " + block + " is not in BlockGraph!");
+    }
+    return id;
+  }
+
+  @Nonnull
+  private int[] toIds(@Nonnull int[] nodes) {
+    if (base == 0) {
+      return nodes.clone();
+    }
+    final int[] ids = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      ids[i] = nodes[i] - base;
+    }
+    return ids;
+  }
+}
@@ -26,6 +26,10 @@ import java.util.*;
 import javax.annotation.Nonnull;
 
 /**
+ * The immediate dominators and dominance frontiers of the blocks of a {@link StmtGraph}, indexed by
+ * the ids of a {@link DominanceAnalysis}, i.e. in reverse postorder with the starting block at
+ * index 0.
+ *
  * @author Zun Wang
  * @see <a
  *     href="https://www.cs.rice.edu/~keith/EMBED/dom.pdf">https://www.cs.rice.edu/~keith/EMBED/dom.pdf</a>
@@ -33,82 +37,28 @@ import javax.annotation.Nonnull;
 public class DominanceFinder {
 
   private List<BasicBlock<?>> blocks;
-  private Map<BasicBlock<?>, Integer> blockToIdx = new HashMap<>();
+  private Map<BasicBlock<?>, Integer> blockToIdx;
   private int[] doms;
-  private ArrayList<Integer>[] domFrontiers;
+  private int[][] domFrontiers;
 
   public DominanceFinder(StmtGraph<?> blockGraph) {
+    this(DominanceAnalysis.dominators(blockGraph));
+  }
 
-    // assign each block a integer id, startBlock's id must be 0
-    blocks = new ArrayList<>(blockGraph.getBlocks());
-    final BasicBlock<?> startingStmtBlock = blockGraph.getStartingStmtBlock();
-    {
-      int i = 1;
-      for (BasicBlock<?> block : blocks) {
-        if (startingStmtBlock == block) {
-          blockToIdx.put(block, 0);
-        } else {
-          blockToIdx.put(block, i);
-          i++;
-        }
-      }
-    }
-
-    // initialize doms
-    doms = new int[blocks.size()];
-    doms[0] = 0;
-    for (int i = 1; i < doms.length; i++) {
-      doms[i] = -1;
-    }
-
-    // calculate immediate dominator for each block
-    boolean isChanged = true;
-    while (isChanged) {
-      isChanged = false;
-      for (BasicBlock<?> block : blocks) {
-        if (block == startingStmtBlock) {
-          continue;
-        }
-        int blockIdx = blockToIdx.get(block);
-        List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-        // ms: should not be necessary preds.addAll(block.getExceptionalPredecessors());
-        int newIdom = getFirstDefinedBlockPredIdx(preds);
-        if (!preds.isEmpty() && newIdom != -1) {
-          preds.remove(blocks.get(newIdom));
-          for (BasicBlock<?> pred : preds) {
-            int predIdx = blockToIdx.get(pred);
-            if (this.doms[predIdx] != -1) {
-              newIdom = isIntersecting(newIdom, predIdx);
-            }
-          }
-          if (doms[blockIdx] != newIdom) {
-            doms[blockIdx] = newIdom;
-            isChanged = true;
-          }
-        }
-      }
+  public DominanceFinder(@Nonnull DominanceAnalysis dominators) {
+    if (dominators.isPostDominance()) {
+      throw new IllegalArgumentException("The given analysis computes post-dominators.");
     }
-
-    // initialize domFrontiers
-    domFrontiers = new ArrayList[blockGraph.getBlocks().size()];
-    for (int i = 0; i < domFrontiers.length; i++) {
-      domFrontiers[i] = new ArrayList<>();
-    }
-
-    // calculate dominance frontiers for each block
-    for (BasicBlock<?> block : blocks) {
-      List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-      // ms: should not be necessary  preds.addAll(block.getExceptionalPredecessors());
-      if (preds.size() > 1) {
-        int blockId = blockToIdx.get(block);
-        for (BasicBlock<?> pred : preds) {
-          int predId = blockToIdx.get(pred);
-          while (predId != doms[blockId]) {
-            domFrontiers[predId].add(blockId);
-            predId = doms[predId];
-          }
-        }
-      }
+    final int size = dominators.size();
+    blocks = new ArrayList<>(dominators.getBlocks());
+    blockToIdx = new HashMap<>(size * 2);
+    doms = new int[size];
+    domFrontiers = new int[size][];
+    for (int i = 0; i < size; i++) {
+      blockToIdx.put(blocks.get(i), i);
+      // the starting block dominates itself, unreachable blocks have no dominator
+      doms[i] = i == 0 && dominators.isReachable(0) ? 0 : dominators.getImmediateDominator(i);
+      domFrontiers[i] = dominators.getDominanceFrontier(i);
     }
   }
 
@@ -139,8 +89,7 @@ public class DominanceFinder {
     }
     int idx = blockToIdx.get(block);
     Set<BasicBlock<?>> dFs = new HashSet<>();
-    ArrayList<Integer> dFs_idx = this.domFrontiers[idx];
-    for (Integer i : dFs_idx) {
+    for (int i : this.domFrontiers[idx]) {
       dFs.add(blocks.get(i));
     }
     return dFs;
@@ -160,25 +109,4 @@ public class DominanceFinder {
   public int[] getImmediateDominators() {
     return this.doms;
   }
-
-  private int getFirstDefinedBlockPredIdx(List<BasicBlock<?>> preds) {
-    for (BasicBlock<?> block : preds) {
-      int idx = blockToIdx.get(block);
-      if (doms[idx] != -1) {
-        return idx;
-      }
-    }
-    return -1;
-  }
-
-  private int isIntersecting(int a, int b) {
-    while (a != b) {
-      if (a > b) {
-        a = doms[a];
-      } else {
-        b = doms[b];
-      }
-    }
-    return a;
-  }
 }
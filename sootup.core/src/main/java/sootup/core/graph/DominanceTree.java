@@ -47,7 +47,8 @@ public class DominanceTree {
     }
 
     for (int i = 0; i < treeSize; i++) {
-      if (iDoms[i] != i) {
+      // the root and unreachable blocks have no parent
+      if (iDoms[i] != i && iDoms[i] != -1) {
         parents[i] = iDoms[i];
         children[iDoms[i]].add(i);
       }
@@ -91,19 +92,17 @@ public class DominanceTree {
 
   @Nonnull
   public List<BasicBlock<?>> getAllNodesDFS() {
-    List<BasicBlock<?>> blocks = new ArrayList<>();
-    Deque<BasicBlock<?>> queue = new ArrayDeque<>();
-    queue.add(getRoot());
+    List<BasicBlock<?>> nodes = new ArrayList<>(blocks.size());
+    Deque<Integer> queue = new ArrayDeque<>();
+    queue.add(0);
     while (!queue.isEmpty()) {
-      BasicBlock<?> fb = queue.removeFirst();
-      blocks.add(fb);
-      if (!getChildren(fb).isEmpty()) {
-        List<BasicBlock<?>> children = getChildren(fb);
-        for (int i = children.size() - 1; i >= 0; i--) {
-          queue.addFirst(children.get(i));
-        }
+      int idx = queue.removeFirst();
+      nodes.add(blocks.get(idx));
+      List<Integer> childIdxs = children[idx];
+      for (int i = childIdxs.size() - 1; i >= 0; i--) {
+        queue.addFirst(childIdxs.get(i));
       }
     }
-    return blocks;
+    return nodes;
   }
 }
@@ -1,215 +1,577 @@
 package sootup.core.graph;
-
-import com.google.common.collect.Lists;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Iterators;
 import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.types.ClassType;
 
-// FIXME: implement!
+/**
+ * A frozen, compact copy of a {@link StmtGraph}:
+ *
+ * <ul>
+ *   <li>all Stmts are stored in one array in the order in which the source graph iterates them, so
+ *       iterating this graph is a plain array traversal.
+ *   <li>a block is the range of the Stmt array between two offsets.
+ *   <li>the (exceptional) successors and predecessors of the blocks are stored as block indices in
+ *       int arrays, where the edges of block <code>i</code> are in the range <code>
+ *       [starts[i], starts[i+1])</code>.
+ * </ul>
+ *
+ * <p>Use a {@link MutableBlockStmtGraph} to modify the graph, e.g. via {@link
+ * sootup.core.model.Body#toBuilder()}.
+ */
 public class ImmutableBlockStmtGraph
     extends StmtGraph<ImmutableBlockStmtGraph.ImmutableBasicBlock> {
 
-  private final List<ImmutableBasicBlock> blocks;
-  private final Map<Stmt, ImmutableBasicBlock> stmtToBlock = new HashMap<>();
+  private static final int NONE = -1;
+
+  @Nonnull private final Stmt[] stmts;
+  @Nonnull private final Map<Stmt, Integer> stmtToIdx;
+  private final int startingStmtIdx;
+
+  /**
+   * the stmts of block <code>i</code> are in the range <code>[blockStarts[i], blockStarts[i+1])
+   * </code>
+   */
+  @Nonnull private final int[] blockStarts;
+
+  @Nonnull private final ImmutableBasicBlock[] blocks;
+  @Nonnull private final List<ImmutableBasicBlock> blockList;
+
+  @Nonnull private final int[] successorStarts;
+  @Nonnull private final int[] successors;
+  @Nonnull private final int[] predecessorStarts;
+  @Nonnull private final int[] predecessors;
+
+  @Nonnull private final int[] exceptionalSuccessorStarts;
+  @Nonnull private final ClassType[] exceptionalSuccessorTypes;
+  @Nonnull private final int[] exceptionalSuccessors;
+  @Nonnull private final int[] exceptionalPredecessorStarts;
+  @Nonnull private final ClassType[] exceptionalPredecessorTypes;
+  @Nonnull private final int[] exceptionalPredecessors;
+
+  @Nullable private List<Trap> traps = null;
+
+  public ImmutableBlockStmtGraph(@Nonnull StmtGraph<?> graph) {
+    // lay out the blocks in the iteration order of the given graph
+    List<BasicBlock<?>> sourceBlocks = new ArrayList<>(graph.getBlocks().size());
+    graph.getBlockIterator().forEachRemaining(sourceBlocks::add);
+
+    int blockCount = sourceBlocks.size();
+    blockStarts = new int[blockCount + 1];
+    int stmtCount = 0;
+    for (int i = 0; i < blockCount; i++) {
+      blockStarts[i] = stmtCount;
+      stmtCount += sourceBlocks.get(i).getStmtCount();
+    }
+    blockStarts[blockCount] = stmtCount;
+
+    stmts = new Stmt[stmtCount];
+    stmtToIdx = new HashMap<>(stmtCount * 2);
+    for (int i = 0; i < blockCount; i++) {
+      int idx = blockStarts[i];
+      for (Stmt stmt : sourceBlocks.get(i).getStmts()) {
+        stmts[idx] = stmt;
+        stmtToIdx.put(stmt, idx);
+        idx++;
+      }
+    }
+
+    final Stmt startingStmt = graph.getStartingStmt();
+    startingStmtIdx = startingStmt == null ? NONE : stmtToIdx.getOrDefault(startingStmt, NONE);
+
+    blocks = new ImmutableBasicBlock[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      blocks[i] = new ImmutableBasicBlock(i);
+    }
+    blockList = Collections.unmodifiableList(Arrays.asList(blocks));
+
+    successorStarts = new int[blockCount + 1];
+    predecessorStarts = new int[blockCount + 1];
+    exceptionalSuccessorStarts = new int[blockCount + 1];
+    exceptionalPredecessorStarts = new int[blockCount + 1];
+    int successorCount = 0;
+    int predecessorCount = 0;
+    int exceptionalSuccessorCount = 0;
+    int exceptionalPredecessorCount = 0;
+    for (int i = 0; i < blockCount; i++) {
+      BasicBlock<?> block = sourceBlocks.get(i);
+      successorStarts[i] = successorCount;
+      predecessorStarts[i] = predecessorCount;
+      exceptionalSuccessorStarts[i] = exceptionalSuccessorCount;
+      exceptionalPredecessorStarts[i] = exceptionalPredecessorCount;
+      successorCount += block.getSuccessors().size();
+      predecessorCount += block.getPredecessors().size();
+      exceptionalSuccessorCount += block.getExceptionalSuccessors().size();
+      exceptionalPredecessorCount += block.getExceptionalPredecessors().size();
+    }
+    successorStarts[blockCount] = successorCount;
+    predecessorStarts[blockCount] = predecessorCount;
+    exceptionalSuccessorStarts[blockCount] = exceptionalSuccessorCount;
+    exceptionalPredecessorStarts[blockCount] = exceptionalPredecessorCount;
+
+    successors = new int[successorCount];
+    predecessors = new int[predecessorCount];
+    exceptionalSuccessorTypes = new ClassType[exceptionalSuccessorCount];
+    exceptionalSuccessors = new int[exceptionalSuccessorCount];
+    exceptionalPredecessorTypes = new ClassType[exceptionalPredecessorCount];
+    exceptionalPredecessors = new int[exceptionalPredecessorCount];
+    for (int i = 0; i < blockCount; i++) {
+      BasicBlock<?> block = sourceBlocks.get(i);
+      int idx = successorStarts[i];
+      for (BasicBlock<?> successor : block.getSuccessors()) {
+        successors[idx++] = blockIndexOf(successor);
+      }
+      idx = predecessorStarts[i];
+      for (BasicBlock<?> predecessor : block.getPredecessors()) {
+        predecessors[idx++] = blockIndexOf(predecessor);
+      }
+      idx = exceptionalSuccessorStarts[i];
+      for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+          block.getExceptionalSuccessors().entrySet()) {
+        exceptionalSuccessorTypes[idx] = entry.getKey();
+        exceptionalSuccessors[idx++] = blockIndexOf(entry.getValue());
+      }
+      idx = exceptionalPredecessorStarts[i];
+      for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+          block.getExceptionalPredecessors().entrySet()) {
+        exceptionalPredecessorTypes[idx] = entry.getKey();
+        exceptionalPredecessors[idx++] = blockIndexOf(entry.getValue());
+      }
+    }
+  }
 
-  public ImmutableBlockStmtGraph(@Nonnull MutableStmtGraph graph) {
+  /** returns the index of the block in this graph which contains the stmts of the given block */
+  private int blockIndexOf(@Nonnull BasicBlock<?> block) {
+    return blockIndexOfStmt(indexOf(block.getHead()));
+  }
 
-    final List<? extends BasicBlock<?>> mblocks = graph.getBlocksSorted();
-    blocks = Lists.newArrayListWithExpectedSize(mblocks.size());
-    for (BasicBlock<?> block : mblocks) {
-      /* TODO: link predecessors/successors as well..
-      // final ImmutableBasicBlock ib = new ImmutableBasicBlock();
-      block.getStmts().forEach(stmt -> stmtToBlock.put(stmt, ib));
+  private int blockIndexOfStmt(int stmtIdx) {
+    int idx = Arrays.binarySearch(blockStarts, 0, blocks.length, stmtIdx);
+    return idx >= 0 ? idx : -idx - 2;
+  }
 
-      blocks.add(ib);*/
+  private int indexOf(@Nonnull Stmt stmt) {
+    final Integer idx = stmtToIdx.get(stmt);
+    if (idx == null) {
+      throw new IllegalArgumentException(
+          "Stmt '" + stmt + "' is not contained in the BlockStmtGraph");
     }
+    return idx;
   }
 
   @Nullable
   @Override
   public Stmt getStartingStmt() {
-    return blocks.isEmpty() ? null : blocks.get(0).getHead();
+    return startingStmtIdx == NONE ? null : stmts[startingStmtIdx];
   }
 
+  @Nullable
   @Override
-  public BasicBlock<?> getStartingStmtBlock() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getStartingStmtBlock() {
+    return startingStmtIdx == NONE ? null : blocks[blockIndexOfStmt(startingStmtIdx)];
   }
 
+  @Nonnull
   @Override
-  public BasicBlock<ImmutableBasicBlock> getBlockOf(@Nonnull Stmt stmt) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getBlockOf(@Nonnull Stmt stmt) {
+    return blocks[blockIndexOfStmt(indexOf(stmt))];
   }
 
   @Nonnull
   @Override
   public List<Stmt> getNodes() {
-    int size = 0;
-    for (ImmutableBasicBlock block : blocks) {
-      size += block.getStmtCount();
-    }
-    final ArrayList<Stmt> stmts = new ArrayList<>(size);
-    for (ImmutableBasicBlock block : blocks) {
-      stmts.addAll(block.getStmts());
-    }
-    return stmts;
+    return new AbstractList<Stmt>() {
+      @Override
+      public Stmt get(int index) {
+        return stmts[index];
+      }
+
+      @Override
+      public int size() {
+        return stmts.length;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return stmtToIdx.containsKey(o);
+      }
+    };
+  }
+
+  @Nonnull
+  @Override
+  public List<Stmt> getStmts() {
+    return new ArrayList<>(Arrays.asList(stmts));
   }
 
   @Nonnull
   @Override
-  public Collection<ImmutableBasicBlock> getBlocks() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocks() {
+    return blockList;
   }
 
   @Nonnull
   @Override
-  public List<? extends BasicBlock<?>> getBlocksSorted() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocksSorted() {
+    return blockList;
   }
 
   @Override
   public boolean containsNode(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    return stmtToIdx.containsKey(node);
   }
 
   @Nonnull
   @Override
   public List<Stmt> predecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOf(node);
+    final int blockIdx = blockIndexOfStmt(idx);
+    if (idx != blockStarts[blockIdx]) {
+      return Collections.singletonList(stmts[idx - 1]);
+    }
+    List<Stmt> preds =
+        new ArrayList<>(predecessorStarts[blockIdx + 1] - predecessorStarts[blockIdx]);
+    for (int i = predecessorStarts[blockIdx]; i < predecessorStarts[blockIdx + 1]; i++) {
+      preds.add(blocks[predecessors[i]].getTail());
+    }
+    return preds;
   }
 
   @Nonnull
   @Override
   public List<Stmt> exceptionalPredecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("not implemented");
+    final int idx = indexOf(node);
+    final int blockIdx = blockIndexOfStmt(idx);
+    if (idx != blockStarts[blockIdx]
+        || !(node instanceof JIdentityStmt
+            && ((JIdentityStmt<?>) node).getRightOp() instanceof JCaughtExceptionRef)) {
+      // only an exception handler stmt i.e. the head of a block can have exceptional predecessors
+      return Collections.emptyList();
+    }
+
+    List<Stmt> exceptionalPred = new ArrayList<>();
+    for (int i = predecessorStarts[blockIdx]; i < predecessorStarts[blockIdx + 1]; i++) {
+      final int predecessorIdx = predecessors[i];
+      for (int j = exceptionalSuccessorStarts[predecessorIdx];
+          j < exceptionalSuccessorStarts[predecessorIdx + 1];
+          j++) {
+        if (exceptionalSuccessors[j] == blockIdx) {
+          exceptionalPred.addAll(blocks[predecessorIdx].getStmts());
+          break;
+        }
+      }
+    }
+    return exceptionalPred;
   }
 
   @Nonnull
   @Override
   public List<Stmt> successors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOf(node);
+    final int blockIdx = blockIndexOfStmt(idx);
+    if (idx != blockStarts[blockIdx + 1] - 1) {
+      return Collections.singletonList(stmts[idx + 1]);
+    }
+    List<Stmt> succs = new ArrayList<>(successorStarts[blockIdx + 1] - successorStarts[blockIdx]);
+    for (int i = successorStarts[blockIdx]; i < successorStarts[blockIdx + 1]; i++) {
+      succs.add(blocks[successors[i]].getHead());
+    }
+    return succs;
   }
 
   @Nonnull
   @Override
   public Map<ClassType, Stmt> exceptionalSuccessors(@Nonnull Stmt node) {
-    // FIXME! implement
-    throw new RuntimeException("not implemented");
+    final int blockIdx = blockIndexOfStmt(indexOf(node));
+    Map<ClassType, Stmt> map = new LinkedHashMap<>();
+    for (int i = exceptionalSuccessorStarts[blockIdx];
+        i < exceptionalSuccessorStarts[blockIdx + 1];
+        i++) {
+      map.put(exceptionalSuccessorTypes[i], blocks[exceptionalSuccessors[i]].getHead());
+    }
+    return map;
   }
 
   @Override
   public int inDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOf(node);
+    final int blockIdx = blockIndexOfStmt(idx);
+    if (idx != blockStarts[blockIdx]) {
+      return 1;
+    }
+    return predecessorStarts[blockIdx + 1] - predecessorStarts[blockIdx];
   }
 
   @Override
   public int outDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOf(node);
+    final int blockIdx = blockIndexOfStmt(idx);
+    if (idx != blockStarts[blockIdx + 1] - 1) {
+      return 1;
+    }
+    return successorStarts[blockIdx + 1] - successorStarts[blockIdx];
   }
 
   @Override
   public boolean hasEdgeConnecting(@Nonnull Stmt source, @Nonnull Stmt target) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = indexOf(source);
+    final int blockIdx = blockIndexOfStmt(idx);
+    if (idx != blockStarts[blockIdx + 1] - 1) {
+      return stmts[idx + 1] == target;
+    }
+    for (int i = successorStarts[blockIdx]; i < successorStarts[blockIdx + 1]; i++) {
+      if (blocks[successors[i]].getHead() == target) {
+        return true;
+      }
+    }
+    return false;
   }
 
+  /**
+   * The Traps are aggregated on the first call and sorted like in {@link MutableBlockStmtGraph}.
+   */
   @Nonnull
   @Override
   public List<Trap> getTraps() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    if (traps == null) {
+      BlockGraphIteratorAndTrapAggregator it =
+          new BlockGraphIteratorAndTrapAggregator(new ImmutableBasicBlock(NONE));
+      // the iteration order equals the order of the blocks in this graph
+      while (it.hasNext()) {
+        it.next();
+      }
+      final List<Trap> collectedTraps = it.getTraps();
+      collectedTraps.sort(
+          (a, b) ->
+              ComparisonChain.start()
+                  .compare(
+                      blockIndexOfStmt(indexOf(a.getBeginStmt())),
+                      blockIndexOfStmt(indexOf(b.getBeginStmt())))
+                  .compare(
+                      blockIndexOfStmt(indexOf(a.getEndStmt())),
+                      blockIndexOfStmt(indexOf(b.getEndStmt())))
+                  .compare(a.getExceptionType().toString(), b.getExceptionType().toString())
+                  .result());
+      traps = Collections.unmodifiableList(collectedTraps);
+    }
+    return traps;
   }
 
   @Nonnull
   @Override
   public Iterator<Stmt> iterator() {
-    return new Iterator<Stmt>() {
-      final Iterator<ImmutableBasicBlock> blockIt = blocks.iterator();
-      Iterator<Stmt> stmtIt = blockIt.next().getStmts().iterator();
+    return Iterators.forArray(stmts);
+  }
 
-      @Override
-      public boolean hasNext() {
-        // hint: there are no empty blocks!
-        return stmtIt.hasNext() || blockIt.hasNext();
+  /** A view on the blocks of the given range of an edge array. */
+  private class BlockRangeList extends AbstractList<ImmutableBasicBlock> {
+    @Nonnull private final int[] targets;
+    private final int from;
+    private final int to;
+
+    private BlockRangeList(@Nonnull int[] targets, int from, int to) {
+      this.targets = targets;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public ImmutableBasicBlock get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
       }
+      return blocks[targets[from + index]];
+    }
 
-      @Override
-      public Stmt next() {
-        if (stmtIt.hasNext()) {
-          return stmtIt.next();
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  /** A view on the exceptional edges of the given range of an edge array. */
+  private class ExceptionalBlockMap extends AbstractMap<ClassType, ImmutableBasicBlock> {
+    @Nonnull private final ClassType[] types;
+    @Nonnull private final int[] targets;
+    private final int from;
+    private final int to;
+
+    private ExceptionalBlockMap(
+        @Nonnull ClassType[] types, @Nonnull int[] targets, int from, int to) {
+      this.types = types;
+      this.targets = targets;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public ImmutableBasicBlock get(Object key) {
+      for (int i = from; i < to; i++) {
+        if (types[i].equals(key)) {
+          return blocks[targets[i]];
         }
-        stmtIt = blockIt.next().getStmts().iterator();
-        return stmtIt.next();
       }
-    };
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<ClassType, ImmutableBasicBlock>> entrySet() {
+      return new AbstractSet<Entry<ClassType, ImmutableBasicBlock>>() {
+        @Nonnull
+        @Override
+        public Iterator<Entry<ClassType, ImmutableBasicBlock>> iterator() {
+          return new Iterator<Entry<ClassType, ImmutableBasicBlock>>() {
+            int i = from;
+
+            @Override
+            public boolean hasNext() {
+              return i < to;
+            }
+
+            @Override
+            public Entry<ClassType, ImmutableBasicBlock> next() {
+              if (i >= to) {
+                throw new NoSuchElementException();
+              }
+              final Entry<ClassType, ImmutableBasicBlock> entry =
+                  new SimpleImmutableEntry<>(types[i], blocks[targets[i]]);
+              i++;
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return to - from;
+        }
+      };
+    }
   }
 
+  /** A block of an {@link ImmutableBlockStmtGraph}, i.e. an index into its arrays. */
   public class ImmutableBasicBlock implements BasicBlock<ImmutableBasicBlock> {
-    private final MutableBasicBlock graph;
-    private final int startIdx;
-    private final int endIdx;
-    private final List<ImmutableBasicBlock> successors;
-    private final List<ImmutableBasicBlock> predecessors;
-
-    private ImmutableBasicBlock(
-        MutableBasicBlock graph,
-        int startIdx,
-        int endIdx,
-        List<ImmutableBasicBlock> successors,
-        List<ImmutableBasicBlock> predecessors) {
-      this.graph = graph;
-      this.startIdx = startIdx;
-      this.endIdx = endIdx;
-      this.successors = successors;
-      this.predecessors = predecessors;
+    private final int idx;
+
+    private ImmutableBasicBlock(int idx) {
+      this.idx = idx;
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getPredecessors() {
-      return predecessors;
+      if (idx == NONE) {
+        return Collections.emptyList();
+      }
+      return new BlockRangeList(predecessors, predecessorStarts[idx], predecessorStarts[idx + 1]);
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getSuccessors() {
-      return successors;
+      if (idx == NONE) {
+        return Collections.emptyList();
+      }
+      return new BlockRangeList(successors, successorStarts[idx], successorStarts[idx + 1]);
     }
 
     @Override
     @Nonnull
     public Map<ClassType, ImmutableBasicBlock> getExceptionalPredecessors() {
-      throw new UnsupportedOperationException("not implemented yet");
+      if (idx == NONE
+          || exceptionalPredecessorStarts[idx] == exceptionalPredecessorStarts[idx + 1]) {
+        return Collections.emptyMap();
+      }
+      return new ExceptionalBlockMap(
+          exceptionalPredecessorTypes,
+          exceptionalPredecessors,
+          exceptionalPredecessorStarts[idx],
+          exceptionalPredecessorStarts[idx + 1]);
     }
 
     @Nonnull
     @Override
-    public Map<? extends ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
-      throw new UnsupportedOperationException("not implemented yet");
+    public Map<ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
+      if (idx == NONE || exceptionalSuccessorStarts[idx] == exceptionalSuccessorStarts[idx + 1]) {
+        return Collections.emptyMap();
+      }
+      return new ExceptionalBlockMap(
+          exceptionalSuccessorTypes,
+          exceptionalSuccessors,
+          exceptionalSuccessorStarts[idx],
+          exceptionalSuccessorStarts[idx + 1]);
     }
 
     @Nonnull
     @Override
     public List<Stmt> getStmts() {
-      throw new UnsupportedOperationException();
+      if (idx == NONE) {
+        return Collections.emptyList();
+      }
+      return Collections.unmodifiableList(
+          Arrays.asList(stmts).subList(blockStarts[idx], blockStarts[idx + 1]));
     }
 
     @Override
     public int getStmtCount() {
-      return endIdx - startIdx + 1;
+      return idx == NONE ? 0 : blockStarts[idx + 1] - blockStarts[idx];
     }
 
     @Nonnull
     @Override
     public Stmt getHead() {
-      throw new UnsupportedOperationException();
+      if (idx == NONE) {
+        throw new IndexOutOfBoundsException("Cant get from an empty Block.");
+      }
+      return stmts[blockStarts[idx]];
     }
 
     @Nonnull
     @Override
     public Stmt getTail() {
-      throw new UnsupportedOperationException();
+      if (idx == NONE) {
+        throw new IndexOutOfBoundsException("Cant get from an empty Block.");
+      }
+      return stmts[blockStarts[idx + 1] - 1];
+    }
+
+    @Override
+    public String toString() {
+      return "Block " + getStmts();
     }
   }
 }
@@ -0,0 +1,253 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2022 Raja Vallee-Rai, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The natural loops of a {@link StmtGraph} and how they are nested. A natural loop is identified by
+ * its header, which dominates the sources of the back edges to it; back edges to the same header
+ * form one loop. Retreating edges of irreducible control flow, whose target does not dominate their
+ * source, do not form a loop.
+ *
+ * <p>The loops are discovered from the innermost to the outermost by visiting the headers in
+ * descending reverse postorder, and the body of an inner loop is skipped via its header when the
+ * body of an enclosing loop is collected. So each block is visited once per loop that directly
+ * contains it.
+ */
+public class LoopNestForest {
+
+  @Nonnull private final DominanceAnalysis dominators;
+
+  /** the loops from the innermost to the outermost */
+  @Nonnull private final List<Loop> loops;
+
+  @Nonnull private final List<Loop> rootLoops;
+
+  /** the innermost loop of each block, by id */
+  @Nonnull private final Loop[] innermostLoops;
+
+  public LoopNestForest(@Nonnull StmtGraph<?> graph) {
+    this(DominanceAnalysis.dominators(graph));
+  }
+
+  public LoopNestForest(@Nonnull DominanceAnalysis dominators) {
+    if (dominators.isPostDominance()) {
+      throw new IllegalArgumentException("Natural loops are defined via dominators.");
+    }
+    this.dominators = dominators;
+    this.innermostLoops = new Loop[dominators.size()];
+
+    final List<Loop> loops = new ArrayList<>();
+    int[] worklist = new int[dominators.size()];
+    final int[] latches = new int[dominators.size()];
+    for (int header = dominators.getReachableCount() - 1; header >= 0; header--) {
+      int latchCount = 0;
+      for (int pred : dominators.getPredecessorIds(header)) {
+        if (dominators.dominates(header, pred)) {
+          latches[latchCount++] = pred;
+        }
+      }
+      if (latchCount == 0) {
+        continue;
+      }
+
+      final Loop loop = new Loop(header, Arrays.copyOf(latches, latchCount));
+      innermostLoops[header] = loop;
+      loop.ownBlocks.add(header);
+      System.arraycopy(latches, 0, worklist, 0, latchCount);
+      int top = latchCount;
+      while (top > 0) {
+        final int block = worklist[--top];
+        final Loop innermost = innermostLoops[block];
+        if (innermost == null) {
+          innermostLoops[block] = loop;
+          loop.ownBlocks.add(block);
+          final int[] preds = dominators.getPredecessorIds(block);
+          worklist = push(worklist, top, preds);
+          top += preds.length;
+        } else {
+          // continue at the header of the outermost loop found so far that contains the block
+          Loop outermost = innermost;
+          while (outermost.parent != null) {
+            outermost = outermost.parent;
+          }
+          if (outermost == loop) {
+            continue;
+          }
+          outermost.parent = loop;
+          loop.children.add(outermost);
+          final int[] preds = dominators.getPredecessorIds(outermost.header);
+          worklist = push(worklist, top, preds);
+          top += preds.length;
+        }
+      }
+      loops.add(loop);
+    }
+
+    // the parent of a loop is discovered after the loop
+    final List<Loop> rootLoops = new ArrayList<>();
+    for (int i = loops.size() - 1; i >= 0; i--) {
+      final Loop loop = loops.get(i);
+      if (loop.parent == null) {
+        loop.depth = 1;
+        rootLoops.add(loop);
+      } else {
+        loop.depth = loop.parent.depth + 1;
+      }
+    }
+    Collections.reverse(rootLoops);
+    this.loops = Collections.unmodifiableList(loops);
+    this.rootLoops = Collections.unmodifiableList(rootLoops);
+  }
+
+  /** Appends the given ids to the worklist of the given size, which is grown if necessary. */
+  @Nonnull
+  private static int[] push(@Nonnull int[] worklist, int size, @Nonnull int[] ids) {
+    if (size + ids.length > worklist.length) {
+      worklist = Arrays.copyOf(worklist, Math.max(worklist.length * 2, size + ids.length));
+    }
+    System.arraycopy(ids, 0, worklist, size, ids.length);
+    return worklist;
+  }
+
+  /** Returns the dominators the loops have been computed from. */
+  @Nonnull
+  public DominanceAnalysis getDominators() {
+    return dominators;
+  }
+
+  /** Returns all loops, inner loops precede the loops that contain them. */
+  @Nonnull
+  public List<Loop> getLoops() {
+    return loops;
+  }
+
+  /** Returns the loops that are not contained in another loop. */
+  @Nonnull
+  public List<Loop> getRootLoops() {
+    return rootLoops;
+  }
+
+  /** Returns the innermost loop that contains the given block or null if it is in no loop. */
+  @Nullable
+  public Loop getInnermostLoop(@Nonnull BasicBlock<?> block) {
+    final int id = dominators.getId(block);
+    return id == -1 ? null : innermostLoops[id];
+  }
+
+  /** Returns the number of loops that contain the given block. */
+  public int getLoopDepth(@Nonnull BasicBlock<?> block) {
+    final Loop loop = getInnermostLoop(block);
+    return loop == null ? 0 : loop.depth;
+  }
+
+  /** A natural loop. */
+  public final class Loop {
+
+    private final int header;
+    @Nonnull private final int[] latches;
+    @Nonnull private final List<Integer> ownBlocks = new ArrayList<>();
+    @Nonnull private final List<Loop> children = new ArrayList<>();
+    @Nullable private Loop parent;
+    private int depth;
+
+    private Loop(int header, @Nonnull int[] latches) {
+      this.header = header;
+      this.latches = latches;
+    }
+
+    @Nonnull
+    public BasicBlock<?> getHeader() {
+      return dominators.getBlock(header);
+    }
+
+    /** Returns the id of the header in the {@link DominanceAnalysis} of this forest. */
+    public int getHeaderId() {
+      return header;
+    }
+
+    /** Returns the sources of the back edges to the header. */
+    @Nonnull
+    public List<BasicBlock<?>> getLatches() {
+      final List<BasicBlock<?>> result = new ArrayList<>(latches.length);
+      for (int latch : latches) {
+        result.add(dominators.getBlock(latch));
+      }
+      return result;
+    }
+
+    /** Returns the blocks of this loop including the blocks of its inner loops. */
+    @Nonnull
+    public List<BasicBlock<?>> getBlocks() {
+      final List<BasicBlock<?>> result = new ArrayList<>();
+      final List<Loop> pending = new ArrayList<>();
+      pending.add(this);
+      while (!pending.isEmpty()) {
+        final Loop loop = pending.remove(pending.size() - 1);
+        for (int block : loop.ownBlocks) {
+          result.add(dominators.getBlock(block));
+        }
+        pending.addAll(loop.children);
+      }
+      return result;
+    }
+
+    /** Whether the given block is part of this loop or one of its inner loops. */
+    public boolean contains(@Nonnull BasicBlock<?> block) {
+      for (Loop loop = getInnermostLoop(block); loop != null; loop = loop.parent) {
+        if (loop == this) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Returns the loop that immediately contains this loop or null. */
+    @Nullable
+    public Loop getParent() {
+      return parent;
+    }
+
+    /** Returns the loops that are immediately contained in this loop. */
+    @Nonnull
+    public List<Loop> getChildren() {
+      return Collections.unmodifiableList(children);
+    }
+
+    /** Returns the number of loops that contain this loop, including itself. */
+    public int getDepth() {
+      return depth;
+    }
+
+    @Override
+    public String toString() {
+      return "Loop(" + getHeader() + ", depth " + depth + ")";
+    }
+  }
+}
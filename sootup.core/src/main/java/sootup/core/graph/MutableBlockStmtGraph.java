@@ -32,6 +32,9 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Nonnull private final Set<MutableBasicBlock> blocks = new HashSet<>();
 
+  /** incremented by every modification, see {@link #getModificationCount()} */
+  private int modificationCount = 0;
+
   public MutableBlockStmtGraph() {}
 
   public MutableBlockStmtGraph(boolean isStatic, MethodSignature sig, LocalGenerator localgen) {
@@ -94,6 +97,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<BranchingStmt, List<Stmt>> branchingMap,
       @Nonnull List<Trap> traps) {
+    modificationCount++;
 
     if (stmts.isEmpty()) {
       return;
@@ -348,6 +352,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   @Override
   public void addExceptionalEdge(
       @Nonnull Stmt stmt, @Nonnull ClassType exceptionType, @Nonnull Stmt traphandlerStmt) {
+    modificationCount++;
 
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
@@ -369,6 +374,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeExceptionalEdge(@Nonnull Stmt node, @Nonnull ClassType exceptionType) {
+    modificationCount++;
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
@@ -379,6 +385,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void clearExceptionalEdges(@Nonnull Stmt node) {
+    modificationCount++;
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
@@ -407,6 +414,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
    */
   @Override
   public void addBlock(@Nonnull List<Stmt> stmts, @Nonnull Map<ClassType, Stmt> trapMap) {
+    modificationCount++;
     if (stmts.isEmpty()) {
       return;
     }
@@ -474,6 +482,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void addNode(@Nonnull Stmt stmt, @Nonnull Map<ClassType, Stmt> exceptions) {
+    modificationCount++;
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
       // Stmt does not exist in the graph -> create
@@ -723,6 +732,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void removeNode(@Nonnull Stmt stmt, boolean keepFlow) {
+    modificationCount++;
 
     MutableBasicBlock blockOfRemovedStmt = stmtToBlock.remove(stmt);
     if (blockOfRemovedStmt == null) {
@@ -780,6 +790,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void replaceNode(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    modificationCount++;
 
     final MutableBasicBlock blockOfOldStmt = stmtToBlock.get(oldStmt);
     if (blockOfOldStmt == null) {
@@ -823,6 +834,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull Stmt beforeStmt,
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<ClassType, Stmt> exceptionMap) {
+    modificationCount++;
     if (stmts.isEmpty()) {
       return;
     }
@@ -860,6 +872,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void putEdge(@Nonnull Stmt stmtA, @Nonnull Stmt stmtB) {
+    modificationCount++;
     MutableBasicBlock blockA = stmtToBlock.get(stmtA);
     MutableBasicBlock blockB = stmtToBlock.get(stmtB);
 
@@ -958,6 +971,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeEdge(@Nonnull Stmt from, @Nonnull Stmt to) {
+    modificationCount++;
     // FIXME: how to handle "partial" removals of targets of flows starting from a Branching Stmt..
     // e.g. because one of the targets are removed.. that changes the whole logic there..
 
@@ -1044,6 +1058,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void setEdges(@Nonnull Stmt fromStmt, @Nonnull List<Stmt> targets) {
+    modificationCount++;
     if (fromStmt.getExpectedSuccessorCount() != targets.size()) {
       throw new IllegalArgumentException(
           "Size of Targets is not the amount of from's expected successors.");
@@ -1082,6 +1097,11 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     return new ForwardingBasicBlock<>(mutableBasicBlock);
   }
 
+  @Override
+  public int getModificationCount() {
+    return modificationCount;
+  }
+
   @Nonnull
   @Override
   public StmtGraph<?> unmodifiableStmtGraph() {
@@ -1089,6 +1109,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void setStartingStmt(@Nonnull Stmt startingStmt) {
+    modificationCount++;
     if (stmtToBlock.get(startingStmt) == null) {
       MutableBasicBlock block = stmtToBlock.get(startingStmt);
       if (block == null) {
@@ -38,6 +38,12 @@ public abstract class MutableStmtGraph extends StmtGraph<MutableBasicBlock> {
 
   public abstract void setStartingStmt(@Nonnull Stmt firstStmt);
 
+  /**
+   * Returns a counter that changes whenever the graph is modified. Analysis results that are
+   * derived from the graph can compare it to detect that they are outdated.
+   */
+  public abstract int getModificationCount();
+
   /** inserts a "stmt" into the StmtGraph */
   public void addNode(@Nonnull Stmt stmt) {
     addNode(stmt, Collections.emptyMap());
@@ -0,0 +1,388 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2022 Raja Vallee-Rai, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * Computes which definitions of {@link Local}s reach which {@link Stmt}s of a {@link StmtGraph},
+ * i.e. its use-def and def-use chains. The analysis is done once for the whole graph, so that
+ * querying the definitions of every use in a body is linear instead of quadratic in its size.
+ *
+ * <p>The Stmts and Locals are numbered densely, and the definitions reaching each block are kept as
+ * a bitset over the Stmt numbers. Within a block, the nearest preceding definition of each used
+ * Local is resolved upfront. The control flow follows {@link StmtGraph#predecessors(Stmt)}, i.e. a
+ * trap handler is entered from the end of the blocks it covers.
+ *
+ * <p>The result describes the graph at the time of its creation. It has to be recomputed when the
+ * graph changes, except for the replacement of a Stmt with one that defines the same Local (see
+ * {@link #replaceStmt(Stmt, Stmt)}).
+ */
+public class ReachingDefinitions {
+
+  private static final int NONE = -1;
+
+  @Nonnull private final Map<Stmt, Integer> stmtIds;
+  @Nonnull private final Stmt[] stmts;
+  /** the block of each Stmt; the Stmts of a block have consecutive numbers */
+  @Nonnull private final int[] blockOf;
+
+  @Nonnull private final int[] blockStart;
+
+  @Nonnull private final Map<Local, Integer> localIds = new HashMap<>();
+  /** the definitions of each Local */
+  @Nonnull private final List<BitSet> defsOfLocal = new ArrayList<>();
+  /** the Local defined by each Stmt or {@link #NONE} */
+  @Nonnull private final int[] definedLocal;
+
+  /** the Locals used by each Stmt */
+  @Nonnull private final int[][] usedLocals;
+  /**
+   * for each Local used by a Stmt: the preceding definition in the same block or {@link #NONE} if
+   * the definitions come from the beginning of the block
+   */
+  @Nonnull private final int[][] usedLocalDefs;
+
+  /** the definitions that reach the beginning of each block */
+  @Nonnull private final BitSet[] in;
+
+  /** the uses of each definition; computed on demand */
+  @Nullable private List<Stmt>[] usesOfDef = null;
+
+  public ReachingDefinitions(@Nonnull StmtGraph<?> graph) {
+    List<? extends BasicBlock<?>> blocks = graph.getBlocksSorted();
+    int blockCount = blocks.size();
+    Map<BasicBlock<?>, Integer> blockIds = new HashMap<>(blockCount * 2);
+    int stmtCount = 0;
+    for (BasicBlock<?> block : blocks) {
+      blockIds.put(block, blockIds.size());
+      stmtCount += block.getStmtCount();
+    }
+
+    stmtIds = new HashMap<>(stmtCount * 2);
+    stmts = new Stmt[stmtCount];
+    blockOf = new int[stmtCount];
+    blockStart = new int[blockCount];
+    definedLocal = new int[stmtCount];
+    usedLocals = new int[stmtCount][];
+    usedLocalDefs = new int[stmtCount][];
+
+    int stmtId = 0;
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      blockStart[blockId] = stmtId;
+      for (Stmt stmt : blocks.get(blockId).getStmts()) {
+        stmtIds.put(stmt, stmtId);
+        stmts[stmtId] = stmt;
+        blockOf[stmtId] = blockId;
+        Local local = definedLocalOf(stmt);
+        definedLocal[stmtId] = local == null ? NONE : localIdOf(local);
+        if (local != null) {
+          defsOfLocal.get(definedLocal[stmtId]).set(stmtId);
+        }
+        stmtId++;
+      }
+    }
+
+    // resolve the uses within each block and collect the generated and killed definitions
+    BitSet[] gen = new BitSet[blockCount];
+    BitSet[] kill = new BitSet[blockCount];
+    int[] lastDef = new int[localIds.size()];
+    int[] lastDefBlock = new int[localIds.size()];
+    Arrays.fill(lastDefBlock, NONE);
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      gen[blockId] = new BitSet(stmtCount);
+      kill[blockId] = new BitSet(stmtCount);
+      int end = blockId + 1 < blockCount ? blockStart[blockId + 1] : stmtCount;
+      for (int id = blockStart[blockId]; id < end; id++) {
+        resolveUses(id, lastDef, lastDefBlock);
+        int local = definedLocal[id];
+        if (local != NONE) {
+          if (lastDefBlock[local] == blockId) {
+            gen[blockId].clear(lastDef[local]);
+          } else {
+            kill[blockId].or(defsOfLocal.get(local));
+          }
+          gen[blockId].set(id);
+          lastDef[local] = id;
+          lastDefBlock[local] = blockId;
+        }
+      }
+    }
+
+    // the successors of each block along the flow of StmtGraph.predecessors()
+    List<List<Integer>> successors = new ArrayList<>(blockCount);
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      successors.add(new ArrayList<>());
+    }
+    int[][] predecessors = new int[blockCount][];
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      List<? extends BasicBlock<?>> predecessorBlocks = blocks.get(blockId).getPredecessors();
+      int[] predecessorIds = new int[predecessorBlocks.size()];
+      int count = 0;
+      for (BasicBlock<?> predecessorBlock : predecessorBlocks) {
+        Integer predecessorId = blockIds.get(predecessorBlock);
+        if (predecessorId != null) {
+          predecessorIds[count++] = predecessorId;
+          successors.get(predecessorId).add(blockId);
+        }
+      }
+      predecessors[blockId] = Arrays.copyOf(predecessorIds, count);
+    }
+
+    // solve IN(b) = union of OUT(p), OUT(b) = gen(b) + (IN(b) - kill(b)) with a worklist
+    in = new BitSet[blockCount];
+    BitSet[] out = new BitSet[blockCount];
+    Deque<Integer> worklist = new ArrayDeque<>(blockCount);
+    BitSet queued = new BitSet(blockCount);
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      in[blockId] = new BitSet(stmtCount);
+      out[blockId] = (BitSet) gen[blockId].clone();
+      worklist.add(blockId);
+      queued.set(blockId);
+    }
+    while (!worklist.isEmpty()) {
+      int blockId = worklist.removeFirst();
+      queued.clear(blockId);
+      BitSet blockIn = in[blockId];
+      for (int predecessorId : predecessors[blockId]) {
+        blockIn.or(out[predecessorId]);
+      }
+      BitSet blockOut = (BitSet) blockIn.clone();
+      blockOut.andNot(kill[blockId]);
+      blockOut.or(gen[blockId]);
+      if (!blockOut.equals(out[blockId])) {
+        out[blockId] = blockOut;
+        for (int successorId : successors.get(blockId)) {
+          if (!queued.get(successorId)) {
+            queued.set(successorId);
+            worklist.addLast(successorId);
+          }
+        }
+      }
+    }
+  }
+
+  private int localIdOf(@Nonnull Local local) {
+    Integer localId = localIds.get(local);
+    if (localId == null) {
+      localId = localIds.size();
+      localIds.put(local, localId);
+      defsOfLocal.add(new BitSet());
+    }
+    return localId;
+  }
+
+  /** Records the Locals used by the given Stmt and their preceding definitions in its block. */
+  private void resolveUses(int id, @Nonnull int[] lastDef, @Nonnull int[] lastDefBlock) {
+    int[] locals = usedLocalIdsOf(stmts[id]);
+    int[] defs = new int[locals.length];
+    for (int i = 0; i < locals.length; i++) {
+      int local = locals[i];
+      defs[i] =
+          local < lastDefBlock.length && lastDefBlock[local] == blockOf[id] ? lastDef[local] : NONE;
+    }
+    usedLocals[id] = locals;
+    usedLocalDefs[id] = defs;
+  }
+
+  @Nonnull
+  private int[] usedLocalIdsOf(@Nonnull Stmt stmt) {
+    List<Value> uses = stmt.getUses();
+    int[] locals = new int[uses.size()];
+    int count = 0;
+    for (Value use : uses) {
+      if (use instanceof Local) {
+        int local = localIdOf((Local) use);
+        boolean known = false;
+        for (int i = 0; i < count && !known; i++) {
+          known = locals[i] == local;
+        }
+        if (!known) {
+          locals[count++] = local;
+        }
+      }
+    }
+    return Arrays.copyOf(locals, count);
+  }
+
+  @Nullable
+  private static Local definedLocalOf(@Nonnull Stmt stmt) {
+    if (stmt instanceof AbstractDefinitionStmt) {
+      Value leftOp = ((AbstractDefinitionStmt<?, ?>) stmt).getLeftOp();
+      if (leftOp instanceof Local) {
+        return (Local) leftOp;
+      }
+    }
+    return null;
+  }
+
+  private int idOf(@Nonnull Stmt stmt) {
+    Integer id = stmtIds.get(stmt);
+    if (id == null) {
+      throw new IllegalArgumentException("Stmt '" + stmt + "' is not contained in the StmtGraph");
+    }
+    return id;
+  }
+
+  /**
+   * Returns the Stmts whose definition of the given Local reaches the given Stmt, i.e. the
+   * definitions that the Stmt sees when it is executed. If the Stmt itself defines the Local, its
+   * own definition is not included, unless it is reached through a loop.
+   *
+   * @param local a Local, usually one that is used by the given Stmt
+   * @param stmt a Stmt of the analyzed StmtGraph
+   */
+  @Nonnull
+  public List<Stmt> getDefsOfUse(@Nonnull Local local, @Nonnull Stmt stmt) {
+    int id = idOf(stmt);
+    Integer localId = localIds.get(local);
+    if (localId == null) {
+      return Collections.emptyList();
+    }
+    int def = precedingDefInBlock(id, localId);
+    if (def != NONE) {
+      return Collections.singletonList(stmts[def]);
+    }
+    BitSet defs = (BitSet) in[blockOf[id]].clone();
+    defs.and(defsOfLocal.get(localId));
+    List<Stmt> result = new ArrayList<>(defs.cardinality());
+    for (int i = defs.nextSetBit(0); i >= 0; i = defs.nextSetBit(i + 1)) {
+      result.add(stmts[i]);
+    }
+    return result;
+  }
+
+  private int precedingDefInBlock(int id, int local) {
+    int[] locals = usedLocals[id];
+    for (int i = 0; i < locals.length; i++) {
+      if (locals[i] == local) {
+        return usedLocalDefs[id][i];
+      }
+    }
+    for (int i = id - 1; i >= blockStart[blockOf[id]]; i--) {
+      if (definedLocal[i] == local) {
+        return i;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Returns the Stmts that use the Local defined by the given Stmt and that are reached by this
+   * definition. The list is empty if the Stmt does not define a Local.
+   */
+  @Nonnull
+  public List<Stmt> getUsesOfDef(@Nonnull Stmt defStmt) {
+    int id = idOf(defStmt);
+    if (definedLocal[id] == NONE) {
+      return Collections.emptyList();
+    }
+    if (usesOfDef == null) {
+      usesOfDef = collectUsesOfDefs();
+    }
+    List<Stmt> uses = usesOfDef[id];
+    return uses == null ? Collections.emptyList() : Collections.unmodifiableList(uses);
+  }
+
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  private List<Stmt>[] collectUsesOfDefs() {
+    List<Stmt>[] result = new List[stmts.length];
+    for (int id = 0; id < stmts.length; id++) {
+      int[] locals = usedLocals[id];
+      for (int i = 0; i < locals.length; i++) {
+        int def = usedLocalDefs[id][i];
+        if (def != NONE) {
+          addUse(result, def, id);
+          continue;
+        }
+        BitSet defs = in[blockOf[id]];
+        BitSet localDefs = defsOfLocal.get(locals[i]);
+        for (int d = localDefs.nextSetBit(0); d >= 0; d = localDefs.nextSetBit(d + 1)) {
+          if (defs.get(d)) {
+            addUse(result, d, id);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private void addUse(@Nonnull List<Stmt>[] uses, int def, int use) {
+    if (uses[def] == null) {
+      uses[def] = new ArrayList<>();
+    }
+    uses[def].add(stmts[use]);
+  }
+
+  /**
+   * Adapts the result to the replacement of a Stmt in the graph, if the new Stmt defines the same
+   * Local as the old one (or both define none). Otherwise the definitions change and the result has
+   * to be recomputed.
+   *
+   * @return whether the result is still valid
+   */
+  public boolean replaceStmt(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    Integer id = stmtIds.get(oldStmt);
+    if (id == null) {
+      return false;
+    }
+    Local newLocal = definedLocalOf(newStmt);
+    Integer newLocalId = newLocal == null ? Integer.valueOf(NONE) : localIds.get(newLocal);
+    if (newLocalId == null || newLocalId != definedLocal[id]) {
+      return false;
+    }
+    stmtIds.remove(oldStmt);
+    stmtIds.put(newStmt, id);
+    stmts[id] = newStmt;
+
+    // keep the resolved definitions of the Locals that were already used by the old Stmt
+    int[] oldLocals = usedLocals[id];
+    int[] oldDefs = usedLocalDefs[id];
+    int[] locals = usedLocalIdsOf(newStmt);
+    int[] defs = new int[locals.length];
+    for (int i = 0; i < locals.length; i++) {
+      defs[i] = NONE;
+      boolean resolved = false;
+      for (int j = 0; j < oldLocals.length && !resolved; j++) {
+        if (oldLocals[j] == locals[i]) {
+          defs[i] = oldDefs[j];
+          resolved = true;
+        }
+      }
+      if (!resolved) {
+        defs[i] = precedingDefInBlock(id, locals[i]);
+      }
+    }
+    usedLocals[id] = locals;
+    usedLocalDefs[id] = defs;
+    usesOfDef = null;
+    return true;
+  }
+}
@@ -176,15 +176,19 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
   public void validateStmtConnectionsInGraph() {
     try {
 
+      final Stmt startingStmt = getStartingStmt();
+      // collected once, when the first Stmt without predecessors is found
+      Set<Stmt> trapHandlers = null;
+
       for (Stmt stmt : getNodes()) {
         final List<Stmt> successors = successors(stmt);
         final int successorCount = successors.size();
 
-        if (predecessors(stmt).size() == 0) {
-          if (!(stmt == getStartingStmt()
-              || getTraps().stream()
-                  .map(Trap::getHandlerStmt)
-                  .anyMatch(handler -> handler == stmt))) {
+        if (stmt != startingStmt && predecessors(stmt).size() == 0) {
+          if (trapHandlers == null) {
+            trapHandlers = collectTrapHandlers();
+          }
+          if (!trapHandlers.contains(stmt)) {
             throw new IllegalStateException(
                 "Stmt '"
                     + stmt
@@ -243,6 +247,18 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
     }
   }
 
+  /** Returns the heads of all blocks which are exceptional successors of a block. */
+  @Nonnull
+  private Set<Stmt> collectTrapHandlers() {
+    Set<Stmt> trapHandlers = new HashSet<>();
+    for (BasicBlock<?> block : getBlocks()) {
+      for (BasicBlock<?> handlerBlock : block.getExceptionalSuccessors().values()) {
+        trapHandlers.add(handlerBlock.getHead());
+      }
+    }
+    return trapHandlers;
+  }
+
   /**
    * Look for a path in graph, from def to use. This path has to lie inside an extended basic block
    * (and this property implies uniqueness.). The path returned includes from and to.
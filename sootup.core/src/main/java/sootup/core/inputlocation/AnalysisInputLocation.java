@@ -23,6 +23,7 @@ package sootup.core.inputlocation;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.frontend.AbstractClassSource;
@@ -65,6 +66,18 @@ public interface AnalysisInputLocation<T extends AbstractClass> {
   @Nonnull
   Collection<? extends AbstractClassSource<T>> getClassSources(@Nonnull View<?> view);
 
+  /**
+   * Like {@link #getClassSources(View)}, but the input location may create the class sources in
+   * parallel on the given pool. The default implementation ignores the pool.
+   *
+   * @return The source entries.
+   */
+  @Nonnull
+  default Collection<? extends AbstractClassSource<T>> getClassSources(
+      @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+    return getClassSources(view);
+  }
+
   /**
    * If the AnalysisInputLocation is initialized with the SourceType then this method should return
    * that specific SourceType. This is the default implementation and it returns null when no source
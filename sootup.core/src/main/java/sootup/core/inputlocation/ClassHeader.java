@@ -0,0 +1,102 @@
+package sootup.core.inputlocation;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.model.Modifier;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * The header of a class, i.e. everything that is needed to place it in a type hierarchy: whether it
+ * is an interface, its superclass and the interfaces it implements or extends directly.
+ */
+public final class ClassHeader {
+
+  @Nonnull private final ClassType type;
+  private final boolean isInterface;
+  @Nullable private final ClassType superclass;
+  @Nonnull private final Set<ClassType> interfaces;
+
+  public ClassHeader(
+      @Nonnull ClassType type,
+      boolean isInterface,
+      @Nullable ClassType superclass,
+      @Nonnull Collection<? extends ClassType> interfaces) {
+    this.type = type;
+    this.isInterface = isInterface;
+    this.superclass = superclass;
+    this.interfaces = Collections.unmodifiableSet(new HashSet<>(interfaces));
+  }
+
+  /** Creates the header of a class that has already been built. */
+  @Nonnull
+  public static ClassHeader of(@Nonnull SootClass<?> sootClass) {
+    return new ClassHeader(
+        sootClass.getType(),
+        sootClass.isInterface(),
+        sootClass.getSuperclass().orElse(null),
+        sootClass.getInterfaces());
+  }
+
+  /** Creates the header of a class from its class source without building the class. */
+  @Nonnull
+  public static ClassHeader of(@Nonnull SootClassSource<?> classSource) {
+    return new ClassHeader(
+        classSource.getClassType(),
+        Modifier.isInterface(classSource.resolveModifiers()),
+        classSource.resolveSuperclass().orElse(null),
+        classSource.resolveInterfaces());
+  }
+
+  @Nonnull
+  public ClassType getType() {
+    return type;
+  }
+
+  public boolean isInterface() {
+    return isInterface;
+  }
+
+  @Nonnull
+  public Optional<ClassType> getSuperclass() {
+    return Optional.ofNullable(superclass);
+  }
+
+  @Nonnull
+  public Set<ClassType> getInterfaces() {
+    return interfaces;
+  }
+
+  @Override
+  public String toString() {
+    return type.toString();
+  }
+}
@@ -0,0 +1,89 @@
+package sootup.core.inputlocation;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * An {@link AnalysisInputLocation} that can read the headers of its classes without creating class
+ * sources - e.g. from the first bytes of a class file. Such locations let the {@link
+ * sootup.core.typehierarchy.LazyTypeHierarchy} build the hierarchy without parsing the members of
+ * the classes.
+ */
+public interface ClassHeaderAnalysisInputLocation {
+
+  /**
+   * Reads the header of the class of the given type.
+   *
+   * @return empty if this location does not contain the class
+   */
+  @Nonnull
+  Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view);
+
+  /**
+   * Reads the headers of all classes of this location. If a type is contained several times, the
+   * header which {@link #getClassHeader(ClassType, View)} would return is contained first.
+   */
+  @Nonnull
+  Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view);
+
+  /**
+   * Reads the header of the class of the given type from the given location. If the location can
+   * not read headers, the header is taken from the class source.
+   */
+  @Nonnull
+  static Optional<ClassHeader> readClassHeader(
+      @Nonnull AnalysisInputLocation<?> location, @Nonnull ClassType type, @Nonnull View<?> view) {
+    if (location instanceof ClassHeaderAnalysisInputLocation) {
+      return ((ClassHeaderAnalysisInputLocation) location).getClassHeader(type, view);
+    }
+    Optional<? extends AbstractClassSource<?>> classSource = location.getClassSource(type, view);
+    if (classSource.isPresent() && classSource.get() instanceof SootClassSource) {
+      return Optional.of(ClassHeader.of((SootClassSource<?>) classSource.get()));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Reads the headers of all classes of the given location. If the location can not read headers,
+   * they are taken from its class sources.
+   */
+  @Nonnull
+  static Collection<ClassHeader> readClassHeaders(
+      @Nonnull AnalysisInputLocation<?> location, @Nonnull View<?> view) {
+    if (location instanceof ClassHeaderAnalysisInputLocation) {
+      return ((ClassHeaderAnalysisInputLocation) location).getClassHeaders(view);
+    }
+    return location.getClassSources(view).stream()
+        .filter(classSource -> classSource instanceof SootClassSource)
+        .map(classSource -> ClassHeader.of((SootClassSource<?>) classSource))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,324 @@
+package sootup.core.inputlocation;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.model.AbstractClass;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * Maps the fully qualified name of a class to the input location which contains it, so that a
+ * lookup does not have to search every input location of a classpath. The classes of all {@link
+ * IndexableAnalysisInputLocation}s are listed once and in parallel. Locations that can not be
+ * listed are still searched in their order for every lookup - so like the sequential search, the
+ * first location that contains a class wins (see split packages).
+ *
+ * <p>The index is a snapshot: classes that are added to a location after it has been listed are not
+ * found. The listings can be persisted e.g. next to the inputs via {@link #load(List, Path)}.
+ */
+public class ClassIndex<T extends AbstractClass> {
+
+  private static final int MAGIC = 0x53434958; // "SCIX"
+  private static final int VERSION = 1;
+
+  @Nonnull private final List<? extends AnalysisInputLocation<? extends T>> locations;
+  /** the listing of each location or null if the location can not be listed */
+  @Nonnull private final List<Listing> listings;
+  /** the indices of the locations which can not be listed in ascending order */
+  @Nonnull private final int[] searchedLocations;
+
+  @Nonnull private final Map<String, Owner> owners;
+
+  private ClassIndex(
+      @Nonnull List<? extends AnalysisInputLocation<? extends T>> locations,
+      @Nonnull List<Listing> listings) {
+    this.locations = Collections.unmodifiableList(new ArrayList<>(locations));
+    this.listings = listings;
+    this.searchedLocations =
+        IntStream.range(0, listings.size()).filter(i -> listings.get(i) == null).toArray();
+
+    int classCount = listings.stream().mapToInt(l -> l == null ? 0 : l.classNames.length).sum();
+    owners = new HashMap<>(classCount * 4 / 3 + 1);
+    for (int locationIdx = 0; locationIdx < listings.size(); locationIdx++) {
+      final Listing listing = listings.get(locationIdx);
+      if (listing == null) {
+        continue;
+      }
+      for (int classIdx = 0; classIdx < listing.classNames.length; classIdx++) {
+        // like javas behaviour: the first location that contains a class wins
+        owners.putIfAbsent(listing.classNames[classIdx], new Owner(locationIdx, classIdx));
+      }
+    }
+  }
+
+  /** Lists the classes of the given locations in parallel. */
+  @Nonnull
+  public static <T extends AbstractClass> ClassIndex<T> build(
+      @Nonnull List<? extends AnalysisInputLocation<? extends T>> locations) {
+    return list(locations, Collections.emptyMap());
+  }
+
+  /**
+   * Like {@link #build(List)}, but reuses the persisted listings of the given index file whose
+   * stamp (see {@link IndexableAnalysisInputLocation#getIndexStamp()}) is unchanged. The index file
+   * is written if a listing was missing or outdated. A missing or unreadable index file is ignored.
+   */
+  @Nonnull
+  public static <T extends AbstractClass> ClassIndex<T> load(
+      @Nonnull List<? extends AnalysisInputLocation<? extends T>> locations,
+      @Nonnull Path indexFile) {
+    Map<String, Listing> persistedListings = readListings(indexFile);
+    ClassIndex<T> index = list(locations, persistedListings);
+
+    boolean isOutdated =
+        index.listings.stream()
+            .anyMatch(
+                listing ->
+                    listing != null
+                        && listing.stamp != null
+                        && persistedListings.get(listing.stamp) != listing);
+    if (isOutdated) {
+      try {
+        index.save(indexFile);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not write the class index " + indexFile, e);
+      }
+    }
+    return index;
+  }
+
+  @Nonnull
+  private static <T extends AbstractClass> ClassIndex<T> list(
+      @Nonnull List<? extends AnalysisInputLocation<? extends T>> locations,
+      @Nonnull Map<String, Listing> persistedListings) {
+    List<Listing> listings =
+        locations
+            .parallelStream()
+            .map(
+                location -> {
+                  if (!(location instanceof IndexableAnalysisInputLocation)) {
+                    return null;
+                  }
+                  final IndexableAnalysisInputLocation indexable =
+                      (IndexableAnalysisInputLocation) location;
+                  final String stamp = indexable.getIndexStamp();
+                  if (stamp != null && persistedListings.containsKey(stamp)) {
+                    return persistedListings.get(stamp);
+                  }
+                  return Listing.of(indexable, stamp);
+                })
+            .collect(Collectors.toList());
+    return new ClassIndex<>(locations, listings);
+  }
+
+  /**
+   * Writes the listings of the locations which have a stamp to the given file, so that they can be
+   * reused by {@link #load(List, Path)}.
+   */
+  public void save(@Nonnull Path indexFile) throws IOException {
+    final List<Listing> persistableListings =
+        listings.stream()
+            .filter(listing -> listing != null && listing.stamp != null)
+            .collect(Collectors.toList());
+
+    // write to a temporary file first so that a concurrent reader never sees a partial index
+    final Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+    try (DataOutputStream out =
+        new DataOutputStream(
+            new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmpFile))))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(persistableListings.size());
+      for (Listing listing : persistableListings) {
+        out.writeUTF(listing.stamp);
+        out.writeInt(listing.classNames.length);
+        for (int i = 0; i < listing.classNames.length; i++) {
+          out.writeUTF(listing.classNames[i]);
+          out.writeUTF(listing.entries[i]);
+        }
+      }
+    }
+    Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  @Nonnull
+  private static Map<String, Listing> readListings(@Nonnull Path indexFile) {
+    if (!Files.isRegularFile(indexFile)) {
+      return Collections.emptyMap();
+    }
+    try (DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(Files.newInputStream(indexFile))))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return Collections.emptyMap();
+      }
+      final int listingCount = in.readInt();
+      final Map<String, Listing> listings = new HashMap<>();
+      for (int i = 0; i < listingCount; i++) {
+        final String stamp = in.readUTF();
+        final int classCount = in.readInt();
+        final String[] classNames = new String[classCount];
+        final String[] entries = new String[classCount];
+        for (int j = 0; j < classCount; j++) {
+          classNames[j] = in.readUTF();
+          entries[j] = in.readUTF();
+        }
+        listings.put(stamp, new Listing(stamp, classNames, entries));
+      }
+      return listings;
+    } catch (IOException e) {
+      // an unreadable index is rebuilt
+      return Collections.emptyMap();
+    }
+  }
+
+  @Nonnull
+  public List<? extends AnalysisInputLocation<? extends T>> getLocations() {
+    return locations;
+  }
+
+  /** Returns the number of distinct classes in the listed locations. */
+  public int size() {
+    return owners.size();
+  }
+
+  /**
+   * Returns the first listed location which contains the class. Note that a location which can not
+   * be listed and precedes the returned location may contain the class, too.
+   */
+  @Nonnull
+  public Optional<AnalysisInputLocation<? extends T>> getLocation(@Nonnull String className) {
+    final Owner owner = owners.get(className);
+    return owner == null ? Optional.empty() : Optional.of(locations.get(owner.locationIdx));
+  }
+
+  /** Returns the entry of the class in its location given by {@link #getLocation(String)}. */
+  @Nonnull
+  public Optional<String> getEntry(@Nonnull String className) {
+    final Owner owner = owners.get(className);
+    return owner == null
+        ? Optional.empty()
+        : Optional.of(listings.get(owner.locationIdx).entries[owner.classIdx]);
+  }
+
+  /**
+   * Finds the class source of the given type in the first location which contains it - like
+   * searching the locations in their order, but only the location given by the index and the
+   * locations which can not be listed are asked.
+   */
+  @Nonnull
+  public Optional<? extends AbstractClassSource<? extends T>> getClassSource(
+      @Nonnull ClassType type, @Nonnull View<?> view) {
+    final Owner owner = owners.get(type.getFullyQualifiedName());
+    final int ownerIdx = owner == null ? locations.size() : owner.locationIdx;
+
+    for (int locationIdx : searchedLocations) {
+      if (locationIdx > ownerIdx) {
+        break;
+      }
+      final Optional<? extends AbstractClassSource<? extends T>> classSource =
+          locations.get(locationIdx).getClassSource(type, view);
+      if (classSource.isPresent()) {
+        return classSource;
+      }
+    }
+    if (owner == null) {
+      return Optional.empty();
+    }
+
+    final Optional<? extends AbstractClassSource<? extends T>> classSource =
+        locations.get(ownerIdx).getClassSource(type, view);
+    if (classSource.isPresent()) {
+      return classSource;
+    }
+    // the listing is outdated: search all locations
+    return locations.stream()
+        .map(location -> location.getClassSource(type, view))
+        .filter(Optional::isPresent)
+        .limit(1)
+        .map(Optional::get)
+        .findAny();
+  }
+
+  private static final class Owner {
+    private final int locationIdx;
+    private final int classIdx;
+
+    private Owner(int locationIdx, int classIdx) {
+      this.locationIdx = locationIdx;
+      this.classIdx = classIdx;
+    }
+  }
+
+  /** The fully qualified names and the entries of the classes of a location. */
+  private static final class Listing {
+    @Nullable private final String stamp;
+    @Nonnull private final String[] classNames;
+    @Nonnull private final String[] entries;
+
+    private Listing(
+        @Nullable String stamp, @Nonnull String[] classNames, @Nonnull String[] entries) {
+      this.stamp = stamp;
+      this.classNames = classNames;
+      this.entries = entries;
+    }
+
+    @Nullable
+    private static Listing of(
+        @Nonnull IndexableAnalysisInputLocation location, @Nullable String stamp) {
+      final List<String> classNames = new ArrayList<>();
+      final List<String> entries = new ArrayList<>();
+      final boolean isListed =
+          location.listClasses(
+              (className, entry) -> {
+                classNames.add(className);
+                entries.add(entry);
+              });
+      if (!isListed) {
+        return null;
+      }
+      return new Listing(stamp, classNames.toArray(new String[0]), entries.toArray(new String[0]));
+    }
+  }
+}
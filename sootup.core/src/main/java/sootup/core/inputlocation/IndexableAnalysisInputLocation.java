@@ -0,0 +1,57 @@
+package sootup.core.inputlocation;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An {@link AnalysisInputLocation} that can list the names of its classes without creating class
+ * sources - e.g. from the central directory of an archive. Such locations can be part of a {@link
+ * ClassIndex}.
+ */
+public interface IndexableAnalysisInputLocation {
+
+  /**
+   * Passes the fully qualified name of each class of this location and its entry i.e. the path of
+   * its file inside of the location to the consumer.
+   *
+   * @return false if the classes of this location can not be listed e.g. because the location of a
+   *     class depends on the lookup. Then the location is searched for every lookup.
+   */
+  boolean listClasses(@Nonnull BiConsumer<String, String> consumer);
+
+  /**
+   * Returns a stamp which identifies this location and the state of its contents e.g. the path, the
+   * size and the time of the last modification of an archive. A persisted listing of this location
+   * is reused if its stamp is equal to the current one.
+   *
+   * @return null if the state of the contents can not be determined cheaply i.e. the location is
+   *     listed every time.
+   */
+  @Nullable
+  default String getIndexStamp() {
+    return null;
+  }
+}
@@ -137,6 +137,9 @@ public class Local implements Immediate, Copyable, Acceptor<ImmediateVisitor> {
   /**
    * Get all definition-stmts which define the given local used by the given stmt.
    *
+   * <p>Each call traverses the graph. To query the definitions of many uses of the same graph, use
+   * {@link sootup.core.graph.ReachingDefinitions} instead.
+   *
    * @param graph a stmt graph which contains the given stmts.
    * @param stmt a stmt which uses the given local.
    */
@@ -26,6 +26,7 @@ import com.google.common.collect.Lists;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.graph.*;
@@ -72,6 +73,11 @@ public class Body implements Copyable {
           new CheckVoidLocalesValidator(),
           new CheckEscapingValidator());
 
+  /** The ValidationLevel which is used by new BodyBuilders. */
+  @Nonnull
+  private static volatile ValidationLevel defaultValidationLevel =
+      ValidationLevel.fromSystemProperty();
+
   /**
    * Creates an body which is not associated to any method.
    *
@@ -84,8 +90,11 @@ public class Body implements Copyable {
       @Nonnull Position position) {
     this.methodSignature = methodSignature;
     this.locals = Collections.unmodifiableSet(locals);
-    this.graph = /* FIXME: [ms] make immutable when availabe */
-        new MutableBlockStmtGraph(stmtGraph).unmodifiableStmtGraph();
+    // an ImmutableBlockStmtGraph can be shared e.g. by the copies created by the with*() methods
+    this.graph =
+        stmtGraph instanceof ImmutableBlockStmtGraph
+            ? stmtGraph
+            : new ImmutableBlockStmtGraph(stmtGraph);
     this.position = position;
     // FIXME: [JMP] Virtual method call in constructor
     checkInit();
@@ -121,6 +130,62 @@ public class Body implements Copyable {
     return locals.size();
   }
 
+  @Nonnull
+  public static ValidationLevel getDefaultValidationLevel() {
+    return defaultValidationLevel;
+  }
+
+  /** Sets the ValidationLevel of BodyBuilders which are created from now on. */
+  public static void setDefaultValidationLevel(@Nonnull ValidationLevel validationLevel) {
+    defaultValidationLevel = validationLevel;
+  }
+
+  /**
+   * Runs the structural checks of the StmtGraph and all registered {@link BodyValidator}s on this
+   * Body.
+   *
+   * @return the found violations - empty if the Body is valid
+   */
+  @Nonnull
+  public List<ValidationException> validate() {
+    final List<ValidationException> exceptionList = new ArrayList<>();
+    try {
+      graph.validateStmtConnectionsInGraph();
+    } catch (IllegalStateException e) {
+      exceptionList.add(
+          new ValidationException("StmtGraph of " + methodSignature + " is invalid.", e));
+    }
+    runValidators(exceptionList);
+    return exceptionList;
+  }
+
+  private void runValidators(@Nonnull List<ValidationException> exceptionList) {
+    for (BodyValidator validator : validators) {
+      validator.validate(this, exceptionList);
+    }
+  }
+
+  /**
+   * Validates the given Bodies in parallel, see {@link #validate()}.
+   *
+   * @return the found violations of each invalid Body
+   */
+  @Nonnull
+  public static Map<MethodSignature, List<ValidationException>> validate(
+      @Nonnull Collection<Body> bodies) {
+    final Map<MethodSignature, List<ValidationException>> violations = new ConcurrentHashMap<>();
+    bodies
+        .parallelStream()
+        .forEach(
+            body -> {
+              final List<ValidationException> exceptionList = body.validate();
+              if (!exceptionList.isEmpty()) {
+                violations.put(body.getMethodSignature(), exceptionList);
+              }
+            });
+    return violations;
+  }
+
   private void runValidation(BodyValidator validator) {
     final List<ValidationException> exceptionList = new ArrayList<>();
     validator.validate(this, exceptionList);
@@ -373,6 +438,11 @@ public class Body implements Copyable {
     @Nullable private MethodSignature methodSig = null;
 
     @Nullable private List<Stmt> cachedLinearizedStmts = null;
+    @Nullable private ReachingDefinitions reachingDefinitions = null;
+    /** the modification count of the graph the reaching definitions are valid for */
+    private int reachingDefinitionsModificationCount;
+
+    @Nonnull private ValidationLevel validationLevel = defaultValidationLevel;
 
     BodyBuilder() {
       graph = new MutableBlockStmtGraph();
@@ -402,6 +472,24 @@ public class Body implements Copyable {
       return cachedLinearizedStmts;
     }
 
+    /**
+     * Returns the reaching definitions of the StmtGraph. They are computed on the first call and
+     * kept until the StmtGraph is modified - either via this builder or directly.
+     */
+    @Nonnull
+    public ReachingDefinitions getReachingDefinitions() {
+      if (!hasValidReachingDefinitions()) {
+        reachingDefinitions = new ReachingDefinitions(graph);
+        reachingDefinitionsModificationCount = graph.getModificationCount();
+      }
+      return reachingDefinitions;
+    }
+
+    private boolean hasValidReachingDefinitions() {
+      return reachingDefinitions != null
+          && reachingDefinitionsModificationCount == graph.getModificationCount();
+    }
+
     @Nonnull
     public Set<Local> getLocals() {
       return Collections.unmodifiableSet(locals);
@@ -463,7 +551,13 @@ public class Body implements Copyable {
     /** replace the oldStmt with newStmt in stmtGraph and branches */
     @Nonnull
     public BodyBuilder replaceStmt(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+      boolean patchReachingDefinitions = hasValidReachingDefinitions();
       graph.replaceNode(oldStmt, newStmt);
+      if (patchReachingDefinitions && reachingDefinitions.replaceStmt(oldStmt, newStmt)) {
+        reachingDefinitionsModificationCount = graph.getModificationCount();
+      } else {
+        reachingDefinitions = null;
+      }
       return this;
     }
 
@@ -557,13 +651,35 @@ public class Body implements Copyable {
                 + "' does not exist in the StmtGraph.");
       }
       // validate statements
-      try {
-        graph.validateStmtConnectionsInGraph();
-      } catch (Exception e) {
-        throw new RuntimeException("StmtGraph of " + methodSig + " is invalid.", e);
+      if (validationLevel != ValidationLevel.NONE) {
+        try {
+          graph.validateStmtConnectionsInGraph();
+        } catch (Exception e) {
+          throw new RuntimeException("StmtGraph of " + methodSig + " is invalid.", e);
+        }
       }
 
-      return new Body(methodSig, locals, graph, position);
+      final Body body = new Body(methodSig, locals, graph, position);
+      if (validationLevel == ValidationLevel.FULL) {
+        final List<ValidationException> exceptionList = new ArrayList<>();
+        body.runValidators(exceptionList);
+        if (!exceptionList.isEmpty()) {
+          throw exceptionList.get(0);
+        }
+      }
+      return body;
+    }
+
+    @Nonnull
+    public ValidationLevel getValidationLevel() {
+      return validationLevel;
+    }
+
+    /** Sets the checks which are run by {@link #build()}. */
+    @Nonnull
+    public BodyBuilder setValidationLevel(@Nonnull ValidationLevel validationLevel) {
+      this.validationLevel = validationLevel;
+      return this;
     }
 
     @Nonnull
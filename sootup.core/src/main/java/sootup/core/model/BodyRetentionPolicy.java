@@ -0,0 +1,106 @@
+package sootup.core.model;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2023 Raja Vallee-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Decides how long the {@link Body} of a {@link SootMethod} is kept in memory once it has been
+ * resolved from its {@link sootup.core.frontend.BodySource}. A body that is not retained anymore is
+ * resolved again from the BodySource on the next {@link SootMethod#getBody()}.
+ *
+ * <p>Note: a body that has been resolved again consists of new {@link
+ * sootup.core.jimple.common.stmt.Stmt} objects i.e. analyses which identify Stmts by reference
+ * across multiple {@link SootMethod#getBody()} calls need the {@link #STRONG} policy.
+ *
+ * @see SootMethod#setBodyRetentionPolicy(sootup.core.views.View, BodyRetentionPolicy)
+ */
+@FunctionalInterface
+public interface BodyRetentionPolicy {
+
+  /** Keeps every resolved body for the lifetime of its SootMethod. This is the default. */
+  BodyRetentionPolicy STRONG = bodyResolver -> Suppliers.memoize(bodyResolver::get);
+
+  /**
+   * Wraps the given body resolver into a supplier which decides how long the resolved body is
+   * retained. The returned supplier must be thread-safe.
+   *
+   * @param bodyResolver resolves a new body on every call
+   */
+  @Nonnull
+  Supplier<Body> retain(@Nonnull Supplier<Body> bodyResolver);
+
+  /**
+   * Keeps resolved bodies via {@link SoftReference}s, i.e. the garbage collector may release them
+   * when the heap runs short.
+   */
+  @Nonnull
+  static BodyRetentionPolicy soft() {
+    return bodyResolver ->
+        new Supplier<Body>() {
+          @Nonnull private SoftReference<Body> reference = new SoftReference<>(null);
+
+          @Override
+          public synchronized Body get() {
+            Body body = reference.get();
+            if (body == null) {
+              body = bodyResolver.get();
+              reference = new SoftReference<>(body);
+            }
+            return body;
+          }
+        };
+  }
+
+  /**
+   * Keeps at most maximumBodies resolved bodies (of all SootMethods that use the returned policy,
+   * i.e. usually of one view) and evicts the least recently used ones.
+   */
+  @Nonnull
+  static BodyRetentionPolicy bounded(long maximumBodies) {
+    // weak keys: entries are compared by identity and vanish together with their SootMethod
+    final Cache<Supplier<Body>, Body> cache =
+        CacheBuilder.newBuilder().maximumSize(maximumBodies).weakKeys().build();
+    return bodyResolver ->
+        new Supplier<Body>() {
+          @Override
+          public synchronized Body get() {
+            try {
+              return cache.get(this, bodyResolver::get);
+            } catch (ExecutionException | UncheckedExecutionException e) {
+              if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+              }
+              throw new IllegalStateException(e.getCause());
+            }
+          }
+        };
+  }
+}
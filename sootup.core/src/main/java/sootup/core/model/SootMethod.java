@@ -22,7 +22,6 @@ package sootup.core.model;
  * #L%
  */
 
-import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.nio.file.Paths;
@@ -45,6 +44,7 @@ import sootup.core.types.Type;
 import sootup.core.util.Copyable;
 import sootup.core.util.ImmutableUtils;
 import sootup.core.util.printer.StmtPrinter;
+import sootup.core.views.View;
 
 /**
  * Soot's counterpart of the source language's method concept. Soot representation of a Java method.
@@ -79,6 +79,7 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
     this.bodySource = source;
     this.parameterTypes = ImmutableUtils.immutableListOf(methodSignature.getParameterTypes());
     this.exceptions = ImmutableUtils.immutableListOf(thrownExceptions);
+    this._lazyBody = source.getBodyRetentionPolicy().retain(this::lazyBodyInitializer);
   }
 
   @Nonnull
@@ -126,7 +127,34 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
     return parameterTypes;
   }
 
-  @Nonnull private final Supplier<Body> _lazyBody = Suppliers.memoize(this::lazyBodyInitializer);
+  /**
+   * Sets the {@link BodyRetentionPolicy} which is used by the SootMethods of the given view that
+   * are created afterwards to decide how long their resolved {@link Body} is kept in memory. The
+   * policy is applied by frontends whose {@link BodySource} supports it (e.g. the bytecode
+   * frontend).
+   */
+  public static void setBodyRetentionPolicy(
+      @Nonnull View<?> view, @Nonnull BodyRetentionPolicy policy) {
+    view.putModuleData(BodyRetentionPolicyKey.instance, policy);
+  }
+
+  /**
+   * Returns the policy of the given view, which is {@link BodyRetentionPolicy#STRONG} by default.
+   */
+  @Nonnull
+  public static BodyRetentionPolicy getBodyRetentionPolicy(@Nonnull View<?> view) {
+    final BodyRetentionPolicy policy = view.getModuleData(BodyRetentionPolicyKey.instance);
+    return policy == null ? BodyRetentionPolicy.STRONG : policy;
+  }
+
+  private static final class BodyRetentionPolicyKey
+      extends View.ModuleDataKey<BodyRetentionPolicy> {
+    private static final BodyRetentionPolicyKey instance = new BodyRetentionPolicyKey();
+
+    private BodyRetentionPolicyKey() {}
+  }
+
+  @Nonnull private final Supplier<Body> _lazyBody;
 
   /** Retrieves the active body for this method. */
   @Nonnull
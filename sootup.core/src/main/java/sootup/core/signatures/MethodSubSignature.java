@@ -45,6 +45,9 @@ public class MethodSubSignature extends SootClassMemberSubSignature
 
   @Nonnull private final List<Type> parameterTypes;
 
+  /** the hash code of the name and type, combined with the parameter types */
+  private final int hashCode;
+
   /**
    * Creates a new instance of the {@link FieldSubSignature} class.
    *
@@ -57,6 +60,7 @@ public class MethodSubSignature extends SootClassMemberSubSignature
     super(name, type);
 
     this.parameterTypes = ImmutableList.copyOf(parameterTypes);
+    this.hashCode = Objects.hashCode(super.hashCode(), this.parameterTypes);
   }
 
   /**
@@ -90,7 +94,7 @@ public class MethodSubSignature extends SootClassMemberSubSignature
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(super.hashCode(), getParameterTypes());
+    return hashCode;
   }
 
   @Override
@@ -43,10 +43,14 @@ public abstract class SootClassMemberSubSignature {
   @Nonnull private final String name;
   @Nonnull private final Type type;
 
+  /** subsignatures are immutable and keys of many maps, so the hash code is computed only once */
+  private final int hashCode;
+
   /** Creates a new instance of the {@link SootClassMemberSubSignature} class. */
   protected SootClassMemberSubSignature(@Nonnull String name, @Nonnull Type type) {
     this.name = name;
     this.type = type;
+    this.hashCode = Objects.hashCode(name, type);
   }
 
   /**
@@ -80,12 +84,14 @@ public abstract class SootClassMemberSubSignature {
 
     SootClassMemberSubSignature that = (SootClassMemberSubSignature) o;
 
-    return Objects.equal(getName(), that.getName()) && Objects.equal(getType(), that.getType());
+    return hashCode() == that.hashCode()
+        && Objects.equal(getName(), that.getName())
+        && Objects.equal(getType(), that.getType());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(getName(), getType());
+    return hashCode;
   }
 
   protected int compareTo(@Nonnull SootClassMemberSubSignature o) {
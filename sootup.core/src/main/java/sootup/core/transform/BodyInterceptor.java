@@ -23,6 +23,7 @@ package sootup.core.transform;
  */
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.model.Body;
 import sootup.core.views.View;
 
@@ -37,4 +38,16 @@ public interface BodyInterceptor {
    * @param view
    */
   void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view);
+
+  /**
+   * Returns a key that identifies what this interceptor does, so that bodies which have been
+   * transformed by it can be cached: interceptors with equal keys have to transform every body in
+   * the same way. By default, an interceptor is identified by its class. Interceptors whose result
+   * depends on their configuration have to include it in the key or return null, which prevents the
+   * caching of the bodies that they transform.
+   */
+  @Nullable
+  default String getConfigurationKey() {
+    return getClass().getName();
+  }
 }
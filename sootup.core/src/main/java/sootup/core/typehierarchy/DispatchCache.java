@@ -0,0 +1,128 @@
+package sootup.core.typehierarchy;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2019-2022 Christian Brüggemann, Jonas Klauke
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * Caches the results of the {@link MethodDispatchResolver} for a view. The dispatch results are
+ * keyed by the method signature, i.e. by the declaring type and the subsignature of the called
+ * method. Additionally, the methods declared by each class are kept in a table indexed by their
+ * subsignature.
+ *
+ * <p>The cache only holds signatures, never {@link SootClass}es or {@link SootMethod}s: it neither
+ * keeps classes alive that the class cache of the view has evicted, nor does it hand out methods of
+ * an evicted class after the class has been resolved again. The cache is stored as module data of
+ * its view and is invalidated whenever types are added to the type hierarchy of the view or classes
+ * of a mutable view change.
+ */
+final class DispatchCache {
+
+  private static final class Key extends View.ModuleDataKey<DispatchCache> {
+    private static final Key instance = new Key();
+
+    private Key() {}
+  }
+
+  /** A method declared by a class, reduced to what the dispatch resolution needs. */
+  static final class DeclaredMethod {
+    @Nonnull private final MethodSignature signature;
+    private final boolean isAbstract;
+
+    private DeclaredMethod(@Nonnull SootMethod method) {
+      this.signature = method.getSignature();
+      this.isAbstract = method.isAbstract();
+    }
+
+    @Nonnull
+    MethodSignature getSignature() {
+      return signature;
+    }
+
+    boolean isAbstract() {
+      return isAbstract;
+    }
+  }
+
+  @Nonnull
+  final Map<MethodSignature, Set<MethodSignature>> allDispatches = new ConcurrentHashMap<>();
+
+  @Nonnull
+  final Map<MethodSignature, Set<MethodSignature>> abstractDispatches = new ConcurrentHashMap<>();
+
+  @Nonnull
+  final Map<MethodSignature, Optional<MethodSignature>> concreteDispatches =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<ClassType, Map<MethodSubSignature, DeclaredMethod>> methodTables =
+      new ConcurrentHashMap<>();
+
+  private DispatchCache() {}
+
+  /** Returns the dispatch cache of the given view and creates it if it does not exist yet. */
+  @Nonnull
+  static DispatchCache of(@Nonnull View<?> view) {
+    return view.computeModuleDataIfAbsent(Key.instance, DispatchCache::new);
+  }
+
+  /**
+   * Discards the cached dispatch results of the given view, if there are any. The cache is replaced
+   * by a fresh instance instead of being cleared, so that results which are still being computed
+   * from the outdated hierarchy end up in the discarded instance.
+   */
+  static void invalidate(@Nonnull View<?> view) {
+    if (view.getModuleData(Key.instance) != null) {
+      view.putModuleData(Key.instance, new DispatchCache());
+    }
+  }
+
+  /** Returns the method of the given class with the given subsignature, if there is one. */
+  @Nonnull
+  Optional<DeclaredMethod> findMethod(
+      @Nonnull SootClass<?> sootClass, @Nonnull MethodSubSignature subSignature) {
+    Map<MethodSubSignature, DeclaredMethod> methodTable =
+        methodTables.computeIfAbsent(sootClass.getType(), type -> createMethodTable(sootClass));
+    return Optional.ofNullable(methodTable.get(subSignature));
+  }
+
+  @Nonnull
+  private static Map<MethodSubSignature, DeclaredMethod> createMethodTable(
+      @Nonnull SootClass<?> sootClass) {
+    Map<MethodSubSignature, DeclaredMethod> methodTable = new HashMap<>();
+    for (SootMethod method : sootClass.getMethods()) {
+      methodTable.putIfAbsent(method.getSignature().getSubSignature(), new DeclaredMethod(method));
+    }
+    return methodTable;
+  }
+}
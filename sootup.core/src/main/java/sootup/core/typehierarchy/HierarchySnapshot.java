@@ -0,0 +1,315 @@
+package sootup.core.typehierarchy;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2019-2022 Christian Brüggemann and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Edge;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
+import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
+import sootup.core.types.ClassType;
+
+/**
+ * An immutable, compiled form of the graph of a {@link ViewTypeHierarchy} that answers subtype
+ * queries without traversing the graph:
+ *
+ * <ul>
+ *   <li>Each type gets a dense id. Interfaces get the lowest ids, so that the bitsets below stay
+ *       small.
+ *   <li>The classes form a tree along their superclasses. Each class is labelled with its pre- and
+ *       post-order number of a depth-first traversal of that tree, so a class is a subclass of
+ *       another one iff its interval is nested in the interval of the other one.
+ *   <li>For each type, a bitset holds all interfaces it implements or extends, directly or
+ *       transitively.
+ *   <li>For each type, an array holds the ids of all its subtypes.
+ * </ul>
+ *
+ * <p>The snapshot is built from the scan result of the hierarchy and has to be rebuilt when types
+ * are added to it.
+ */
+final class HierarchySnapshot {
+
+  private static final int NONE = -1;
+
+  @Nonnull private final Map<ClassType, Integer> ids;
+  @Nonnull private final ClassType[] types;
+  /** the ids <code>[0, interfaceCount)</code> belong to interfaces */
+  private final int interfaceCount;
+
+  @Nonnull private final int[] superClass;
+  @Nonnull private final int[] preOrder;
+  @Nonnull private final int[] postOrder;
+  @Nonnull private final BitSet[] superInterfaces;
+  @Nonnull private final int[][] subtypes;
+
+  private HierarchySnapshot(@Nonnull ScanResult scanResult) {
+    Graph<Vertex, Edge> graph = scanResult.graph;
+    List<Vertex> vertices = new ArrayList<>(scanResult.typeToVertex.values());
+    vertices.sort((a, b) -> Boolean.compare(!isInterface(a), !isInterface(b)));
+
+    int size = vertices.size();
+    ids = new HashMap<>(size * 2);
+    types = new ClassType[size];
+    int interfaces = 0;
+    for (int id = 0; id < size; id++) {
+      Vertex vertex = vertices.get(id);
+      types[id] = vertex.javaClassType;
+      ids.put(vertex.javaClassType, id);
+      if (isInterface(vertex)) {
+        interfaces++;
+      }
+    }
+    interfaceCount = interfaces;
+
+    superClass = new int[size];
+    int[][] directInterfaces = new int[size][];
+    for (int id = 0; id < size; id++) {
+      superClass[id] = NONE;
+      List<Integer> interfaceIds = new ArrayList<>();
+      for (Edge edge : graph.outgoingEdgesOf(vertices.get(id))) {
+        int target = ids.get(graph.getEdgeTarget(edge).javaClassType);
+        if (edge.type == EdgeType.ClassDirectlyExtends) {
+          superClass[id] = target;
+        } else {
+          interfaceIds.add(target);
+        }
+      }
+      directInterfaces[id] = interfaceIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    superInterfaces = new BitSet[size];
+    for (int id = 0; id < size; id++) {
+      computeSuperInterfaces(id, directInterfaces);
+    }
+
+    preOrder = new int[size];
+    postOrder = new int[size];
+    labelClassTree();
+
+    subtypes = collectSubtypes();
+  }
+
+  @Nonnull
+  static HierarchySnapshot of(@Nonnull ScanResult scanResult) {
+    return new HierarchySnapshot(scanResult);
+  }
+
+  private static boolean isInterface(@Nonnull Vertex vertex) {
+    return vertex.type == VertexType.Interface;
+  }
+
+  /**
+   * Collects the transitive superinterfaces of the given type, after those of its superclass and
+   * its direct interfaces. Types on a (malformed) cycle in the hierarchy see an empty set for the
+   * type that closes the cycle.
+   */
+  @Nonnull
+  private BitSet computeSuperInterfaces(int root, @Nonnull int[][] directInterfaces) {
+    if (superInterfaces[root] != null) {
+      return superInterfaces[root];
+    }
+    // iterative post-order traversal, as the hierarchy can be deep
+    BitSet onStack = new BitSet();
+    Deque<Integer> stack = new ArrayDeque<>();
+    stack.push(root);
+    onStack.set(root);
+    while (!stack.isEmpty()) {
+      int id = stack.peek();
+      boolean ready = true;
+      int superClassId = superClass[id];
+      if (superClassId != NONE && superInterfaces[superClassId] == null) {
+        if (!onStack.get(superClassId)) {
+          stack.push(superClassId);
+          onStack.set(superClassId);
+          ready = false;
+        }
+      }
+      for (int interfaceId : directInterfaces[id]) {
+        if (superInterfaces[interfaceId] == null && !onStack.get(interfaceId)) {
+          stack.push(interfaceId);
+          onStack.set(interfaceId);
+          ready = false;
+        }
+      }
+      if (!ready) {
+        continue;
+      }
+      stack.pop();
+      onStack.clear(id);
+      BitSet result = new BitSet(interfaceCount);
+      if (superClassId != NONE && superInterfaces[superClassId] != null) {
+        result.or(superInterfaces[superClassId]);
+      }
+      for (int interfaceId : directInterfaces[id]) {
+        result.set(interfaceId);
+        if (superInterfaces[interfaceId] != null) {
+          result.or(superInterfaces[interfaceId]);
+        }
+      }
+      superInterfaces[id] = result;
+    }
+    return superInterfaces[root];
+  }
+
+  /** Labels the classes with their pre- and post-order number in the tree of superclasses. */
+  private void labelClassTree() {
+    int size = types.length;
+    int[] childCount = new int[size];
+    for (int id = interfaceCount; id < size; id++) {
+      preOrder[id] = NONE;
+      postOrder[id] = NONE;
+      if (superClass[id] != NONE) {
+        childCount[superClass[id]]++;
+      }
+    }
+    int[][] children = new int[size][];
+    for (int id = 0; id < size; id++) {
+      children[id] = new int[childCount[id]];
+      childCount[id] = 0;
+    }
+    for (int id = interfaceCount; id < size; id++) {
+      if (superClass[id] != NONE) {
+        children[superClass[id]][childCount[superClass[id]]++] = id;
+      }
+    }
+
+    int counter = 0;
+    int[] nextChild = new int[size];
+    Deque<Integer> stack = new ArrayDeque<>();
+    for (int root = interfaceCount; root < size; root++) {
+      if (superClass[root] != NONE) {
+        continue;
+      }
+      preOrder[root] = counter++;
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        int id = stack.peek();
+        if (nextChild[id] < children[id].length) {
+          int child = children[id][nextChild[id]++];
+          preOrder[child] = counter++;
+          stack.push(child);
+        } else {
+          stack.pop();
+          postOrder[id] = counter++;
+        }
+      }
+    }
+  }
+
+  /** Collects the subtypes of each type from its superclasses and superinterfaces. */
+  @Nonnull
+  private int[][] collectSubtypes() {
+    int size = types.length;
+    int[] count = new int[size];
+    forEachSupertypePair((supertype, subtype) -> count[supertype]++);
+    int[][] result = new int[size][];
+    for (int id = 0; id < size; id++) {
+      result[id] = new int[count[id]];
+      count[id] = 0;
+    }
+    forEachSupertypePair((supertype, subtype) -> result[supertype][count[supertype]++] = subtype);
+    return result;
+  }
+
+  private interface IntPairConsumer {
+    void accept(int supertype, int subtype);
+  }
+
+  private void forEachSupertypePair(@Nonnull IntPairConsumer consumer) {
+    for (int id = 0; id < types.length; id++) {
+      BitSet interfaces = superInterfaces[id];
+      for (int interfaceId = interfaces.nextSetBit(0);
+          interfaceId >= 0;
+          interfaceId = interfaces.nextSetBit(interfaceId + 1)) {
+        if (interfaceId != id) {
+          consumer.accept(interfaceId, id);
+        }
+      }
+      // bounded, in case the superclasses form a (malformed) cycle
+      int superClassId = superClass[id];
+      for (int steps = 0; superClassId != NONE && superClassId != id && steps < types.length; ) {
+        consumer.accept(superClassId, id);
+        superClassId = superClass[superClassId];
+        steps++;
+      }
+    }
+  }
+
+  /** Returns whether the given type is part of the snapshot. */
+  boolean contains(@Nonnull ClassType type) {
+    return ids.containsKey(type);
+  }
+
+  /**
+   * Returns whether <code>potentialSubtype</code> is a strict subtype of <code>supertype</code>.
+   * Both types have to be part of the snapshot.
+   */
+  boolean isSubtype(@Nonnull ClassType supertype, @Nonnull ClassType potentialSubtype) {
+    int supertypeId = ids.get(supertype);
+    int subtypeId = ids.get(potentialSubtype);
+    if (supertypeId == subtypeId) {
+      return false;
+    }
+    if (supertypeId < interfaceCount) {
+      return superInterfaces[subtypeId].get(supertypeId);
+    }
+    if (subtypeId < interfaceCount) {
+      // an interface only extends java.lang.Object, which is not part of its graph
+      return false;
+    }
+    if (preOrder[supertypeId] == NONE || preOrder[subtypeId] == NONE) {
+      // on a (malformed) cycle of superclasses
+      for (int id : subtypes[supertypeId]) {
+        if (id == subtypeId) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return preOrder[supertypeId] < preOrder[subtypeId]
+        && postOrder[subtypeId] < postOrder[supertypeId];
+  }
+
+  /** Returns the number of subtypes of the given type, which has to be part of the snapshot. */
+  int subtypeCount(@Nonnull ClassType type) {
+    return subtypes[ids.get(type)].length;
+  }
+
+  /**
+   * Passes each subtype of the given type to the action. The type has to be part of the snapshot.
+   */
+  void forEachSubtype(@Nonnull ClassType type, @Nonnull Consumer<ClassType> action) {
+    for (int id : subtypes[ids.get(type)]) {
+      action.accept(types[id]);
+    }
+  }
+}
@@ -0,0 +1,318 @@
+package sootup.core.typehierarchy;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2019-2022 Christian Brüggemann, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassHeader;
+import sootup.core.inputlocation.ClassHeaderAnalysisInputLocation;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * A type hierarchy that only uses the headers of classes, i.e. their modifiers, superclass and
+ * interfaces, and that collects them lazily. In contrast to the {@link ViewTypeHierarchy}, it does
+ * not resolve all classes of the view on the first query:
+ *
+ * <ul>
+ *   <li>Queries towards the supertypes of a type (e.g. {@link #superClassOf(ClassType)}, {@link
+ *       #implementedInterfacesOf(ClassType)} and {@link #isSubtype}) only read the headers of the
+ *       type and its supertypes. The hierarchy grows incrementally with each of these queries.
+ *   <li>Queries towards the subtypes of a type (e.g. {@link #subtypesOf(ClassType)}) need to know
+ *       all types. On the first of them, the headers of all class sources of the input locations
+ *       are read once, without building {@link SootClass}es.
+ * </ul>
+ *
+ * <p>Neither {@link SootClass}es nor their methods and fields are resolved to answer a query. The
+ * headers are read via {@link ClassHeaderAnalysisInputLocation}s, e.g. the bytecode input locations
+ * read only the beginning of a class file. Other input locations create a class source for every
+ * header they are asked for. Classes that are resolved by the view anyway are added to the
+ * hierarchy without reading their headers again (see {@link #addResolvedClass(SootClass)}).
+ *
+ * <p>Use it via {@code view.setTypeHierarchy(new LazyTypeHierarchy(view))}.
+ */
+public class LazyTypeHierarchy implements MutableTypeHierarchy {
+
+  @Nonnull private final View<? extends SootClass<?>> view;
+
+  @Nonnull private final Map<ClassType, ClassHeader> headers = new ConcurrentHashMap<>();
+
+  /** direct subtypes of each type; null until all headers have been read */
+  @Nullable private volatile Map<ClassType, Set<ClassType>> directSubtypes;
+
+  private volatile int modificationCount;
+
+  public LazyTypeHierarchy(@Nonnull View<? extends SootClass<?>> view) {
+    this.view = view;
+  }
+
+  /** Returns the header of the given type and resolves it if it is not known yet. */
+  @Nonnull
+  private ClassHeader headerOf(@Nonnull ClassType type) {
+    ClassHeader header = findHeader(type);
+    if (header == null) {
+      throw new ResolveException("Could not find " + type + " in hierarchy for view " + view);
+    }
+    return header;
+  }
+
+  @Nullable
+  private ClassHeader findHeader(@Nonnull ClassType type) {
+    ClassHeader header = headers.get(type);
+    if (header == null) {
+      header = readHeader(type);
+      if (header == null) {
+        return null;
+      }
+      ClassHeader existingHeader = headers.putIfAbsent(type, header);
+      if (existingHeader != null) {
+        header = existingHeader;
+      }
+    }
+    return header;
+  }
+
+  /** Reads the header of the given type from the first input location that contains it. */
+  @Nullable
+  private ClassHeader readHeader(@Nonnull ClassType type) {
+    List<? extends AnalysisInputLocation<?>> inputLocations = view.getProject().getInputLocations();
+    for (AnalysisInputLocation<?> inputLocation : inputLocations) {
+      Optional<ClassHeader> header =
+          ClassHeaderAnalysisInputLocation.readClassHeader(inputLocation, type, view);
+      if (header.isPresent()) {
+        return header.get();
+      }
+    }
+    return null;
+  }
+
+  /** Returns the direct subtypes of all types and reads the headers of all types if necessary. */
+  @Nonnull
+  private Map<ClassType, Set<ClassType>> directSubtypes() {
+    Map<ClassType, Set<ClassType>> result = directSubtypes;
+    if (result == null) {
+      synchronized (this) {
+        result = directSubtypes;
+        if (result == null) {
+          result = scanHeaders();
+          directSubtypes = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads the headers of all classes of the input locations of the view. If a type is contained in
+   * several input locations, the first one wins.
+   */
+  @Nonnull
+  private Map<ClassType, Set<ClassType>> scanHeaders() {
+    List<? extends AnalysisInputLocation<?>> inputLocations = view.getProject().getInputLocations();
+    for (AnalysisInputLocation<?> inputLocation : inputLocations) {
+      for (ClassHeader header :
+          ClassHeaderAnalysisInputLocation.readClassHeaders(inputLocation, view)) {
+        headers.putIfAbsent(header.getType(), header);
+      }
+    }
+
+    Map<ClassType, Set<ClassType>> subtypes = new ConcurrentHashMap<>();
+    headers.forEach((type, header) -> addDirectSubtypeEdges(subtypes, type, header));
+    return subtypes;
+  }
+
+  private static void addDirectSubtypeEdges(
+      @Nonnull Map<ClassType, Set<ClassType>> subtypes,
+      @Nonnull ClassType type,
+      @Nonnull ClassHeader header) {
+    if (header.getSuperclass().isPresent() && !header.isInterface()) {
+      subtypes
+          .computeIfAbsent(header.getSuperclass().get(), key -> ConcurrentHashMap.newKeySet())
+          .add(type);
+    }
+    for (ClassType implementedInterface : header.getInterfaces()) {
+      subtypes
+          .computeIfAbsent(implementedInterface, key -> ConcurrentHashMap.newKeySet())
+          .add(type);
+    }
+  }
+
+  /**
+   * Adds the header of a class that has been resolved from the input locations of the view, so that
+   * the hierarchy grows with the classes of the view without reading their headers again. In
+   * contrast to {@link #addType(SootClass)}, a known type is not replaced and the cached dispatch
+   * results stay valid, because the header of a class of the input locations does not change.
+   */
+  public void addResolvedClass(@Nonnull SootClass<?> sootClass) {
+    if (headers.containsKey(sootClass.getType())) {
+      return;
+    }
+    synchronized (this) {
+      ClassHeader header = ClassHeader.of(sootClass);
+      if (headers.putIfAbsent(sootClass.getType(), header) == null) {
+        Map<ClassType, Set<ClassType>> subtypes = directSubtypes;
+        if (subtypes != null) {
+          addDirectSubtypeEdges(subtypes, sootClass.getType(), header);
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized void addType(@Nonnull SootClass<?> sootClass) {
+    ClassHeader header = ClassHeader.of(sootClass);
+    headers.put(sootClass.getType(), header);
+    Map<ClassType, Set<ClassType>> subtypes = directSubtypes;
+    if (subtypes != null) {
+      addDirectSubtypeEdges(subtypes, sootClass.getType(), header);
+    }
+    modificationCount++;
+    DispatchCache.invalidate(view);
+  }
+
+  @Override
+  public int getModificationCount() {
+    return modificationCount;
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
+    if (!isInterface(interfaceType)) {
+      throw new IllegalArgumentException(interfaceType + " is not an interface.");
+    }
+    return subtypesOf(interfaceType);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
+    if (isInterface(classType)) {
+      throw new IllegalArgumentException(classType + " is not a class.");
+    }
+    return subtypesOf(classType);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    Map<ClassType, Set<ClassType>> subtypes = directSubtypes();
+    if (!subtypes.containsKey(type)) {
+      // ensure that the type exists
+      headerOf(type);
+    }
+
+    Set<ClassType> result = new HashSet<>();
+    Deque<ClassType> worklist =
+        new ArrayDeque<>(subtypes.getOrDefault(type, Collections.emptySet()));
+    while (!worklist.isEmpty()) {
+      ClassType subtype = worklist.pop();
+      if (result.add(subtype)) {
+        worklist.addAll(subtypes.getOrDefault(subtype, Collections.emptySet()));
+      }
+    }
+    return result;
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
+    Map<ClassType, Set<ClassType>> subtypes = directSubtypes();
+    if (!subtypes.containsKey(type)) {
+      // ensure that the type exists
+      headerOf(type);
+    }
+    return new HashSet<>(subtypes.getOrDefault(type, Collections.emptySet()));
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+    ClassHeader header = headerOf(type);
+    Set<ClassType> interfaces = new HashSet<>();
+    if (header.isInterface()) {
+      header
+          .getInterfaces()
+          .forEach(extendedInterface -> addSelfAndSuperInterfaces(extendedInterface, interfaces));
+      return interfaces;
+    }
+    // ascend through the superclasses as long as they are known
+    while (header != null) {
+      header
+          .getInterfaces()
+          .forEach(
+              implementedInterface -> addSelfAndSuperInterfaces(implementedInterface, interfaces));
+      header = header.getSuperclass().map(this::findHeader).orElse(null);
+    }
+    return interfaces;
+  }
+
+  private void addSelfAndSuperInterfaces(
+      @Nonnull ClassType interfaceType, @Nonnull Set<ClassType> interfaces) {
+    if (!interfaces.add(interfaceType)) {
+      return;
+    }
+    ClassHeader header = findHeader(interfaceType);
+    if (header != null) {
+      header
+          .getInterfaces()
+          .forEach(extendedInterface -> addSelfAndSuperInterfaces(extendedInterface, interfaces));
+    }
+  }
+
+  @Nullable
+  @Override
+  public ClassType superClassOf(@Nonnull ClassType classType) {
+    return headerOf(classType).getSuperclass().orElse(null);
+  }
+
+  /** Returns whether the given type is an interface. */
+  public boolean isInterface(@Nonnull ClassType type) {
+    return headerOf(type).isInterface();
+  }
+
+  /** Returns the interfaces that the given class implements directly. */
+  @Nonnull
+  public Set<ClassType> directlyImplementedInterfacesOf(@Nonnull ClassType classType) {
+    ClassHeader header = headerOf(classType);
+    if (header.isInterface()) {
+      throw new IllegalArgumentException(classType + " is not a class.");
+    }
+    return header.getInterfaces();
+  }
+
+  /** Returns the interfaces that the given interface extends directly. */
+  @Nonnull
+  public Set<ClassType> directlyExtendedInterfacesOf(@Nonnull ClassType interfaceType) {
+    ClassHeader header = headerOf(interfaceType);
+    if (!header.isInterface()) {
+      throw new IllegalArgumentException(interfaceType + " is not an interface.");
+    }
+    return header.getInterfaces();
+  }
+}
@@ -23,6 +23,8 @@ package sootup.core.typehierarchy;
 
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -30,16 +32,30 @@ import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import sootup.core.frontend.ResolveException;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
-import sootup.core.model.Method;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.types.ClassType;
 import sootup.core.views.View;
 
+/**
+ * Resolves the possible targets of method calls. The results of {@link #resolveAllDispatches},
+ * {@link #resolveAbstractDispatch} and {@link #resolveConcreteDispatch} are cached per view, see
+ * {@link #invalidateCache(View)}.
+ */
 public final class MethodDispatchResolver {
   private MethodDispatchResolver() {}
 
+  /**
+   * Discards the cached dispatch results of the given view. This is done automatically when a type
+   * is added to the {@link MutableTypeHierarchy} of the view or a class of a {@link
+   * sootup.core.views.MutableView} is added or removed; it has to be called explicitly if the
+   * classes of the view are changed otherwise.
+   */
+  public static void invalidateCache(@Nonnull View<?> view) {
+    DispatchCache.invalidate(view);
+  }
+
   /**
    * Searches the view for classes that are subtypes of the class contained in the signature.
    * returns method signatures to all subtypes. Abstract methods are filtered the returned set can
@@ -48,6 +64,18 @@ public final class MethodDispatchResolver {
   @Nonnull
   public static Set<MethodSignature> resolveAllDispatches(
       View<? extends SootClass<?>> view, MethodSignature m) {
+    DispatchCache cache = DispatchCache.of(view);
+    Set<MethodSignature> dispatches = cache.allDispatches.get(m);
+    if (dispatches == null) {
+      dispatches = Collections.unmodifiableSet(computeAllDispatches(view, cache, m));
+      cache.allDispatches.put(m, dispatches);
+    }
+    return new HashSet<>(dispatches);
+  }
+
+  @Nonnull
+  private static Set<MethodSignature> computeAllDispatches(
+      View<? extends SootClass<?>> view, DispatchCache cache, MethodSignature m) {
     TypeHierarchy hierarchy = view.getTypeHierarchy();
 
     return hierarchy.subtypesOf(m.getDeclClassType()).stream()
@@ -60,9 +88,10 @@ public final class MethodDispatchResolver {
                                 "Could not resolve " + subtype + ", but found it in hierarchy.")))
         .filter(
             sootClass -> {
-              SootMethod sootMethod = sootClass.getMethod(m.getSubSignature()).orElse(null);
+              DispatchCache.DeclaredMethod method =
+                  cache.findMethod(sootClass, m.getSubSignature()).orElse(null);
               // method is not implemented or not abstract
-              return sootMethod == null || !sootMethod.isAbstract();
+              return method == null || !method.isAbstract();
             })
         .map(sootClass -> new MethodSignature(sootClass.getType(), m.getSubSignature()))
         .collect(Collectors.toSet());
@@ -75,6 +104,18 @@ public final class MethodDispatchResolver {
   @Nonnull
   public static Set<MethodSignature> resolveAbstractDispatch(
       View<? extends SootClass<?>> view, MethodSignature m) {
+    DispatchCache cache = DispatchCache.of(view);
+    Set<MethodSignature> dispatches = cache.abstractDispatches.get(m);
+    if (dispatches == null) {
+      dispatches = Collections.unmodifiableSet(computeAbstractDispatch(view, cache, m));
+      cache.abstractDispatches.put(m, dispatches);
+    }
+    return new HashSet<>(dispatches);
+  }
+
+  @Nonnull
+  private static Set<MethodSignature> computeAbstractDispatch(
+      View<? extends SootClass<?>> view, DispatchCache cache, MethodSignature m) {
     TypeHierarchy hierarchy = view.getTypeHierarchy();
 
     return hierarchy.subtypesOf(m.getDeclClassType()).stream()
@@ -85,11 +126,11 @@ public final class MethodDispatchResolver {
                         () ->
                             new ResolveException(
                                 "Could not resolve " + subtype + ", but found it in hierarchy.")))
-        .map(sootClass -> findConcreteMethodInSootClass(sootClass, m))
+        .map(sootClass -> cache.findMethod(sootClass, m.getSubSignature()))
         .filter(Optional::isPresent)
         .map(Optional::get)
         .filter(method -> !method.isAbstract())
-        .map(Method::getSignature)
+        .map(DispatchCache.DeclaredMethod::getSignature)
         .collect(Collectors.toSet());
   }
 
@@ -100,6 +141,7 @@ public final class MethodDispatchResolver {
   @Nonnull
   public static Set<MethodSignature> resolveAllDispatchesInClasses(
       View<? extends SootClass<?>> view, MethodSignature m, Set<ClassType> classes) {
+    DispatchCache cache = DispatchCache.of(view);
     TypeHierarchy hierarchy = view.getTypeHierarchy();
 
     return hierarchy.subtypesOf(m.getDeclClassType()).stream()
@@ -111,11 +153,11 @@ public final class MethodDispatchResolver {
                             new ResolveException(
                                 "Could not resolve " + subtype + ", but found it in hierarchy.")))
         .filter(c -> classes.contains(c.getType()))
-        .map(sootClass -> findConcreteMethodInSootClass(sootClass, m))
+        .map(sootClass -> cache.findMethod(sootClass, m.getSubSignature()))
         .filter(Optional::isPresent)
         .map(Optional::get)
         .filter(method -> !method.isAbstract())
-        .map(Method::getSignature)
+        .map(DispatchCache.DeclaredMethod::getSignature)
         .collect(Collectors.toSet());
   }
 
@@ -180,6 +222,18 @@ public final class MethodDispatchResolver {
   @Nonnull
   public static Optional<MethodSignature> resolveConcreteDispatch(
       View<? extends SootClass<?>> view, MethodSignature m) {
+    DispatchCache cache = DispatchCache.of(view);
+    Optional<MethodSignature> dispatch = cache.concreteDispatches.get(m);
+    if (dispatch == null) {
+      dispatch = computeConcreteDispatch(view, cache, m);
+      cache.concreteDispatches.put(m, dispatch);
+    }
+    return dispatch;
+  }
+
+  @Nonnull
+  private static Optional<MethodSignature> computeConcreteDispatch(
+      View<? extends SootClass<?>> view, DispatchCache cache, MethodSignature m) {
     TypeHierarchy hierarchy = view.getTypeHierarchy();
     ClassType superClassType = m.getDeclClassType();
     SootClass<?> startClass = view.getClass(superClassType).orElse(null);
@@ -197,14 +251,15 @@ public final class MethodDispatchResolver {
 
       classesInHierachyOrder.add(superClass);
 
-      SootMethod concreteMethod = findConcreteMethodInSootClass(superClass, m).orElse(null);
+      DispatchCache.DeclaredMethod concreteMethod =
+          cache.findMethod(superClass, m.getSubSignature()).orElse(null);
       if (concreteMethod != null && !concreteMethod.isAbstract()) {
         // found method is not abstract
         return Optional.of(concreteMethod.getSignature());
       }
       if (concreteMethod != null && concreteMethod.isAbstract()) {
         if (startClass.isAbstract()
-            && !startClass.getType().equals(concreteMethod.getDeclaringClassType())) {
+            && !startClass.getType().equals(concreteMethod.getSignature().getDeclClassType())) {
           // A not implemented method of an abstract class results into an abstract method
           return Optional.empty();
         }
@@ -223,7 +278,7 @@ public final class MethodDispatchResolver {
             .flatMap(sootClass -> getSootClassesOfInterfaces(view, sootClass).stream())
             .collect(Collectors.toList());
     ArrayList<SootClass<?>> processedInterface = new ArrayList<>();
-    ArrayList<SootMethod> possibleDefaultMethods = new ArrayList<>();
+    ArrayList<DispatchCache.DeclaredMethod> possibleDefaultMethods = new ArrayList<>();
     while (!worklist.isEmpty()) {
       SootClass<?> currentInterface = worklist.remove(0);
       if (processedInterface.contains(currentInterface)) {
@@ -232,8 +287,8 @@ public final class MethodDispatchResolver {
       }
 
       // add found default method to possibleDefaultMethods
-      Optional<? extends SootMethod> concreteMethod =
-          findConcreteMethodInSootClass(currentInterface, m);
+      Optional<DispatchCache.DeclaredMethod> concreteMethod =
+          cache.findMethod(currentInterface, m.getSubSignature());
       concreteMethod.ifPresent(possibleDefaultMethods::add);
 
       // if no default message is found search the default message in super interfaces
@@ -249,10 +304,12 @@ public final class MethodDispatchResolver {
           (interface1, interface2) -> {
             // interface1 is a sub-interface of interface2
             if (hierarchy.isSubtype(
-                interface2.getDeclaringClassType(), interface1.getDeclaringClassType())) return -1;
+                interface2.getSignature().getDeclClassType(),
+                interface1.getSignature().getDeclClassType())) return -1;
             // interface1 is a super-interface of interface2
             if (hierarchy.isSubtype(
-                interface1.getDeclaringClassType(), interface2.getDeclaringClassType())) return 1;
+                interface1.getSignature().getDeclClassType(),
+                interface2.getSignature().getDeclClassType())) return 1;
             // due to multiple inheritance in interfaces
             return 0;
           });
@@ -282,29 +339,6 @@ public final class MethodDispatchResolver {
         .collect(Collectors.toList());
   }
 
-  /**
-   * finds the concrete method in a SootClass
-   *
-   * <p>this method returns the concrete method of given method signature in a SootClass. Due to
-   * covariant, the given method signature can differ from the concrete method at the return type
-   * The method goes through all methods of the given SootClass and searches for a method which can
-   * dispatch.
-   *
-   * @param sootClass The method is searched in this SootClass
-   * @param methodSignature the signature of the searched method
-   * @return an Optional Object that can contain the found concrete method in the given SootClass
-   */
-  private static Optional<? extends SootMethod> findConcreteMethodInSootClass(
-      SootClass<?> sootClass, MethodSignature methodSignature) {
-    return sootClass.getMethods().stream()
-        .filter(
-            potentialTarget ->
-                methodSignature
-                    .getSubSignature()
-                    .equals(potentialTarget.getSignature().getSubSignature()))
-        .findAny();
-  }
-
   /**
    * Resolves the actual method called by the <code>specialInvokeExpr</code> that is contained by
    * <code>container</code>.
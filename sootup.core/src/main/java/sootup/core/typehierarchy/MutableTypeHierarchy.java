@@ -32,4 +32,10 @@ public interface MutableTypeHierarchy extends TypeHierarchy {
    * <p>For internal use only.
    */
   void addType(SootClass<?> sootClass);
+
+  /**
+   * Returns how often types have been added to this hierarchy. Caches that are derived from the
+   * hierarchy can compare it to detect that they are outdated.
+   */
+  int getModificationCount();
 }
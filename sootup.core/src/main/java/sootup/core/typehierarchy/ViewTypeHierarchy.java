@@ -43,6 +43,7 @@ import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
 import sootup.core.types.ClassType;
+import sootup.core.types.Type;
 import sootup.core.views.View;
 
 /**
@@ -55,8 +56,13 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
 
   private final Supplier<ScanResult> lazyScanResult = Suppliers.memoize(this::scanView);
 
+  /** compiled form of the scan result; null until needed and after types have been added */
+  @Nullable private volatile HierarchySnapshot snapshot;
+
   @Nonnull private final View<? extends SootClass<?>> view;
 
+  private volatile int modificationCount;
+
   /** to allow caching use Typehierarchy.fromView() to get/create the Typehierarchy. */
   public ViewTypeHierarchy(@Nonnull View<? extends SootClass<?>> view) {
     this.view = view;
@@ -97,13 +103,59 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
       throw new ResolveException("Could not find " + type + " in hierarchy.");
     }
 
-    Set<ClassType> subclasses = new HashSet<>();
-    // We now traverse the subgraph of the vertex to find all its subtypes
-    visitSubgraph(
-        scanResult.graph, vertex, false, subvertex -> subclasses.add(subvertex.javaClassType));
+    HierarchySnapshot snapshot = snapshot();
+    Set<ClassType> subclasses = new HashSet<>(snapshot.subtypeCount(type) * 2);
+    snapshot.forEachSubtype(type, subclasses::add);
     return subclasses;
   }
 
+  /**
+   * Passes each subtype of the given type to the action, in the same way as {@link
+   * #subtypesOf(ClassType)} but without collecting them in a new set.
+   */
+  public void forEachSubtypeOf(@Nonnull ClassType type, @Nonnull Consumer<ClassType> action) {
+    if (!lazyScanResult.get().typeToVertex.containsKey(type)) {
+      throw new ResolveException("Could not find " + type + " in hierarchy.");
+    }
+    snapshot().forEachSubtype(type, action);
+  }
+
+  /**
+   * Answers the query from the compiled {@link HierarchySnapshot} if both types are class types
+   * that are part of this hierarchy, and falls back to {@link TypeHierarchy#isSubtype(Type, Type)}
+   * otherwise.
+   */
+  @Override
+  public boolean isSubtype(@Nonnull Type supertype, @Nonnull Type potentialSubtype) {
+    if (supertype instanceof ClassType && potentialSubtype instanceof ClassType) {
+      ClassType superClassType = (ClassType) supertype;
+      ClassType potentialSubClassType = (ClassType) potentialSubtype;
+      if (superClassType.getFullyQualifiedName().equals("java.lang.Object")) {
+        return !potentialSubClassType.getFullyQualifiedName().equals("java.lang.Object");
+      }
+      HierarchySnapshot snapshot = snapshot();
+      if (snapshot.contains(superClassType) && snapshot.contains(potentialSubClassType)) {
+        return snapshot.isSubtype(superClassType, potentialSubClassType);
+      }
+    }
+    return MutableTypeHierarchy.super.isSubtype(supertype, potentialSubtype);
+  }
+
+  @Nonnull
+  private HierarchySnapshot snapshot() {
+    HierarchySnapshot result = snapshot;
+    if (result == null) {
+      synchronized (this) {
+        result = snapshot;
+        if (result == null) {
+          result = HierarchySnapshot.of(lazyScanResult.get());
+          snapshot = result;
+        }
+      }
+    }
+    return result;
+  }
+
   @Nonnull
   @Override
   public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
@@ -307,37 +359,6 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     }
     return vertex.type == VertexType.Class;
   }
-  /**
-   * Visits the subgraph of the specified <code>vertex</code> and calls the <code>visitor</code> for
-   * each vertex in the subgraph. If <code>includeSelf</code> is true, the <code>visitor</code> is
-   * also called with the <code>vertex</code>.
-   */
-  private static void visitSubgraph(
-      Graph<Vertex, Edge> graph, Vertex vertex, boolean includeSelf, Consumer<Vertex> visitor) {
-    if (includeSelf) {
-      visitor.accept(vertex);
-    }
-    switch (vertex.type) {
-      case Interface:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(
-                edge ->
-                    edge.type == EdgeType.ClassDirectlyImplements
-                        || edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubtype -> visitSubgraph(graph, directSubtype, true, visitor));
-        break;
-      case Class:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> visitSubgraph(graph, directSubclass, true, visitor));
-        break;
-      default:
-        throw new AssertionError("Unknown vertex type!");
-    }
-  }
-
   /**
    * This method scans the view by iterating over its classes and creating a graph vertex for each
    * one. When a class is encountered that extends another one or implements an interface, the graph
@@ -412,9 +433,17 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   }
 
   @Override
-  public void addType(@Nonnull SootClass<?> sootClass) {
+  public synchronized void addType(@Nonnull SootClass<?> sootClass) {
     ScanResult scanResult = lazyScanResult.get();
     addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+    snapshot = null;
+    modificationCount++;
+    DispatchCache.invalidate(view);
+  }
+
+  @Override
+  public int getModificationCount() {
+    return modificationCount;
   }
 
   /** Holds a vertex for each {@link ClassType} encountered during the scan. */
@@ -70,7 +70,7 @@ public class JimplePrinter {
   }
 
   private final Set<Option> options = EnumSet.noneOf(Option.class);
-  private static int jimpleLnNum = 0; // actual line number
+  private int jimpleLnNum = 0; // actual line number
 
   public JimplePrinter(Option... options) {
     this.options.addAll(Arrays.asList(options));
@@ -0,0 +1,257 @@
+package sootup.core.util.printer;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2003-2020 Ondrej Lhotak, linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * Prints many classes at once e.g. all classes of a {@link View} into a directory or a zip archive.
+ * The classes are rendered in parallel by a {@link JimplePrinter} per class into buffers that are
+ * reused per thread, while the rendered classes are written by the calling thread in the order of
+ * their fully qualified names - so the output is deterministic.
+ *
+ * <p>The file of a class is named like {@code package/subpackage/ClassName.jimple} which can be
+ * read by the JimpleAnalysisInputLocation again.
+ */
+public class JimpleViewPrinter {
+
+  /** the number of classes that are rendered ahead per thread of the pool */
+  private static final int CLASSES_PER_THREAD = 16;
+  /** larger buffers are not kept for the next class, so a huge class does not pin its memory */
+  private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+
+  @Nonnull
+  private final ThreadLocal<ByteArrayOutputStream> buffers =
+      ThreadLocal.withInitial(() -> new ByteArrayOutputStream(1 << 14));
+
+  @Nonnull private final JimplePrinter.Option[] options;
+
+  public JimpleViewPrinter(@Nonnull JimplePrinter.Option... options) {
+    this.options = options.clone();
+  }
+
+  /** Prints all classes of the view into the given directory using the common pool. */
+  public int printToDirectory(@Nonnull View<? extends SootClass<?>> view, @Nonnull Path directory)
+      throws IOException {
+    return printToDirectory(view.getClasses(), directory, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Prints the classes into the given directory. Existing files are overwritten.
+   *
+   * @param pool renders the classes
+   * @return the number of printed classes
+   */
+  public int printToDirectory(
+      @Nonnull Collection<? extends SootClass<?>> classes,
+      @Nonnull Path directory,
+      @Nonnull ForkJoinPool pool)
+      throws IOException {
+    return print(
+        classes,
+        pool,
+        (relativePath, content) -> {
+          Path file = directory.resolve(relativePath);
+          Files.createDirectories(file.getParent());
+          Files.write(file, content);
+        });
+  }
+
+  /** Prints all classes of the view into the given zip archive using the common pool. */
+  public int printToArchive(@Nonnull View<? extends SootClass<?>> view, @Nonnull Path archive)
+      throws IOException {
+    return printToArchive(view.getClasses(), archive, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Prints the classes into the given zip archive. An existing archive is overwritten.
+   *
+   * @param pool renders the classes
+   * @return the number of printed classes
+   */
+  public int printToArchive(
+      @Nonnull Collection<? extends SootClass<?>> classes,
+      @Nonnull Path archive,
+      @Nonnull ForkJoinPool pool)
+      throws IOException {
+    try (OutputStream out = Files.newOutputStream(archive);
+        ZipOutputStream zip = new ZipOutputStream(out)) {
+      return print(
+          classes,
+          pool,
+          (relativePath, content) -> {
+            zip.putNextEntry(new ZipEntry(relativePath));
+            zip.write(content);
+            zip.closeEntry();
+          });
+    }
+  }
+
+  /**
+   * Returns the path of the file of the given class relative to the output directory i.e. the
+   * package as directories and the class name with the ".jimple" extension.
+   *
+   * <p>Non-ASCII chars (and the escape char '%') are percent-encoded as their UTF-8 bytes e.g.
+   * {@code ä} becomes {@code %C3%A4}. Otherwise such a path can not be created if the file system
+   * encoding of the JVM is ASCII, e.g. in the POSIX locale. The class name of a printed file is
+   * read from its content, so the escaping does not change the classes that are read again.
+   */
+  @Nonnull
+  public static String getRelativePath(@Nonnull ClassType classType) {
+    final String packageName = escape(classType.getPackageName().getPackageName());
+    final String fileName = escape(classType.getClassName()) + ".jimple";
+    if (packageName.isEmpty()) {
+      return fileName;
+    }
+    return packageName.replace('.', '/') + '/' + fileName;
+  }
+
+  @Nonnull
+  private static String escape(@Nonnull String name) {
+    int i = 0;
+    while (i < name.length() && name.charAt(i) < 0x80 && name.charAt(i) != '%') {
+      i++;
+    }
+    if (i == name.length()) {
+      return name;
+    }
+
+    final StringBuilder sb = new StringBuilder(name.length() + 16).append(name, 0, i);
+    while (i < name.length()) {
+      final int codePoint = name.codePointAt(i);
+      if (codePoint < 0x80 && codePoint != '%') {
+        sb.append((char) codePoint);
+      } else {
+        for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8)) {
+          sb.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)));
+          sb.append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+        }
+      }
+      i += Character.charCount(codePoint);
+    }
+    return sb.toString();
+  }
+
+  private int print(
+      @Nonnull Collection<? extends SootClass<?>> classes,
+      @Nonnull ForkJoinPool pool,
+      @Nonnull ClassWriter writer)
+      throws IOException {
+    List<SootClass<?>> sortedClasses = new ArrayList<>(classes);
+    sortedClasses.sort(Comparator.comparing(c -> c.getType().getFullyQualifiedName()));
+
+    // render the next chunk while the current one is written
+    final int chunkSize = Math.max(1, pool.getParallelism() * CLASSES_PER_THREAD);
+    ForkJoinTask<List<byte[]>> nextChunk = renderChunk(sortedClasses, 0, chunkSize, pool);
+    for (int from = 0; nextChunk != null; from += chunkSize) {
+      final List<byte[]> rendered = join(nextChunk);
+      nextChunk = renderChunk(sortedClasses, from + chunkSize, chunkSize, pool);
+
+      try {
+        for (int i = 0; i < rendered.size(); i++) {
+          writer.write(getRelativePath(sortedClasses.get(from + i).getType()), rendered.get(i));
+        }
+      } catch (IOException | RuntimeException e) {
+        // the classes of the next chunk would not be written anyway
+        if (nextChunk != null) {
+          nextChunk.cancel(true);
+        }
+        throw e;
+      }
+    }
+    return sortedClasses.size();
+  }
+
+  @Nullable
+  private ForkJoinTask<List<byte[]>> renderChunk(
+      @Nonnull List<SootClass<?>> classes, int from, int chunkSize, @Nonnull ForkJoinPool pool) {
+    if (from >= classes.size()) {
+      return null;
+    }
+    final List<SootClass<?>> chunk =
+        classes.subList(from, Math.min(classes.size(), from + chunkSize));
+    return pool.submit(() -> chunk.parallelStream().map(this::render).collect(Collectors.toList()));
+  }
+
+  @Nonnull
+  private byte[] render(@Nonnull SootClass<?> sootClass) {
+    final ByteArrayOutputStream buffer = buffers.get();
+    buffer.reset();
+    final PrintWriter writer =
+        new PrintWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+    new JimplePrinter(options).printTo(sootClass, writer);
+    writer.flush();
+
+    final byte[] content = buffer.toByteArray();
+    if (buffer.size() > MAX_POOLED_BUFFER_SIZE) {
+      buffers.remove();
+    }
+    return content;
+  }
+
+  @Nonnull
+  private static <T> T join(@Nonnull ForkJoinTask<T> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while printing classes", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Could not print classes", cause);
+    }
+  }
+
+  /** Writes the rendered content of a class. */
+  private interface ClassWriter {
+    void write(@Nonnull String relativePath, @Nonnull byte[] content) throws IOException;
+  }
+}
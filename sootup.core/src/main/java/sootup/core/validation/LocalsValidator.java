@@ -30,13 +30,15 @@ import sootup.core.model.Body;
 
 public class LocalsValidator implements BodyValidator {
 
-  /** Verifies that each Local of getUses() and getDefs() belongs to this body's locals. */
+  /**
+   * Verifies that each Local of getUses() and getDefs() belongs to this body's locals. Runs
+   * sequentially, as the given list is not synchronized and Bodies are validated in parallel.
+   */
   @Override
   public void validate(@Nonnull Body body, @Nonnull List<ValidationException> exception) {
     final Set<Local> locals = body.getLocals();
 
-    body.getUses()
-        .parallelStream()
+    body.getUses().stream()
         .filter(value -> value instanceof Local && !locals.contains(value))
         .forEach(
             value ->
@@ -45,8 +47,7 @@ public class LocalsValidator implements BodyValidator {
                         value,
                         "Local not in chain : " + value + " in " + body.getMethodSignature())));
 
-    body.getDefs()
-        .parallelStream()
+    body.getDefs().stream()
         .filter(value -> value instanceof Local && !locals.contains(value))
         .forEach(
             value ->
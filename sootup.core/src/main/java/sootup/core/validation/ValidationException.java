@@ -30,32 +30,30 @@ import sootup.core.model.SootMethod;
 public class ValidationException extends RuntimeException {
 
   public ValidationException(SootMethod sm, String void_parameter_types_are_invalid) {
-    // TODO: auto generated stub
-
+    super(void_parameter_types_are_invalid);
   }
 
   public ValidationException(SootClass curClass, String circular_outer_class_chain) {
-    // TODO: auto generated stub
-
+    super(circular_outer_class_chain);
   }
 
   public ValidationException(Local ls, String s) {
-    // TODO: auto generated stub
-
+    super(s);
   }
 
   public ValidationException(Value value, String s) {
-    // TODO: auto generated stub
-
+    super(s);
   }
 
   public ValidationException(Local l, String s, String s1) {
-    // TODO: auto generated stub
-
+    super(s);
   }
 
   public ValidationException(SootMethod method, String s, String s1) {
-    // TODO: auto generated stub
+    super(s);
+  }
 
+  public ValidationException(String message, Throwable cause) {
+    super(message, cause);
   }
 }
@@ -0,0 +1,73 @@
+package sootup.core.validation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, linghui Luo and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Locale;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Determines which checks are run when a {@link sootup.core.model.Body} is built.
+ *
+ * <p>The default level of the BodyBuilders can be set via the system property {@value
+ * #SYSTEM_PROPERTY}, e.g. <code>-Dsootup.validationLevel=FULL</code> for test runs.
+ */
+public enum ValidationLevel {
+  /** no checks at all, e.g. for production runs on trusted input. */
+  NONE,
+  /** checks the flows of the StmtGraph i.e. {@code StmtGraph#validateStmtConnectionsInGraph()}. */
+  STRUCTURAL,
+  /**
+   * the structural checks and all {@link BodyValidator}s of the Body. Note that most of the
+   * validators are not implemented yet (see their TODOs) - currently only the {@link
+   * LocalsValidator} reports violations.
+   */
+  FULL;
+
+  public static final String SYSTEM_PROPERTY = "sootup.validationLevel";
+
+  private static final Logger logger = LoggerFactory.getLogger(ValidationLevel.class);
+
+  /**
+   * Returns the level given by the system property {@value #SYSTEM_PROPERTY} or {@link #STRUCTURAL}
+   * if it is not set or does not name a level.
+   */
+  @Nonnull
+  public static ValidationLevel fromSystemProperty() {
+    final String level = System.getProperty(SYSTEM_PROPERTY);
+    if (level == null) {
+      return STRUCTURAL;
+    }
+    try {
+      return valueOf(level.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      logger.warn(
+          "Unknown value '{}' of the system property {} - using {} instead.",
+          level,
+          SYSTEM_PROPERTY,
+          STRUCTURAL);
+      return STRUCTURAL;
+    }
+  }
+}
@@ -22,9 +22,10 @@ package sootup.core.views;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
@@ -35,6 +36,8 @@ import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.LazyTypeHierarchy;
+import sootup.core.typehierarchy.MethodDispatchResolver;
 import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 
@@ -47,9 +50,9 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
 
   @Nonnull private final Project<T, ? extends View<T>> project;
 
-  @Nonnull private final Map<ModuleDataKey<?>, Object> moduleData = new HashMap<>();
+  @Nonnull private final Map<ModuleDataKey<?>, Object> moduleData = new ConcurrentHashMap<>();
 
-  @Nullable private TypeHierarchy typeHierarchy;
+  @Nullable private volatile TypeHierarchy typeHierarchy;
 
   @Override
   @Nonnull
@@ -60,6 +63,27 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
     return typeHierarchy;
   }
 
+  /**
+   * Replaces the type hierarchy of this view, e.g. by a {@link
+   * sootup.core.typehierarchy.LazyTypeHierarchy} which does not resolve all classes of the view.
+   * The cached dispatch results of the view are discarded.
+   */
+  public void setTypeHierarchy(@Nonnull TypeHierarchy typeHierarchy) {
+    this.typeHierarchy = typeHierarchy;
+    MethodDispatchResolver.invalidateCache(this);
+  }
+
+  /**
+   * Has to be called by the view whenever it has built a class from its class source, so that a
+   * {@link LazyTypeHierarchy} of this view grows with the resolved classes.
+   */
+  protected void onClassResolved(@Nonnull T sootClass) {
+    TypeHierarchy hierarchy = typeHierarchy;
+    if (hierarchy instanceof LazyTypeHierarchy) {
+      ((LazyTypeHierarchy) hierarchy).addResolvedClass(sootClass);
+    }
+  }
+
   public AbstractView(@Nonnull Project<?, ? extends View<?>> project) {
     this.project = (Project<T, ? extends View<T>>) project;
     this.typeHierarchy = new ViewTypeHierarchy(this);
@@ -117,6 +141,14 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
     moduleData.put(key, value);
   }
 
+  /** Computes the module data atomically, i.e. the supplier is called at most once per key. */
+  @SuppressWarnings("unchecked") // Safe because we only put K for a ModuleDataKey<K>
+  @Override
+  public <K> K computeModuleDataIfAbsent(
+      @Nonnull ModuleDataKey<K> key, @Nonnull Supplier<K> dataSupplier) {
+    return (K) moduleData.computeIfAbsent(key, k -> dataSupplier.get());
+  }
+
   @Override
   @Nonnull
   public Project<? extends T, ? extends View<T>> getProject() {
@@ -0,0 +1,348 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+
+@Category(Java8Test.class)
+public class DominanceAnalysisTest {
+
+  private final ClassType throwableSig =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return "java.lang.Throwable";
+        }
+
+        @Override
+        public String getClassName() {
+          return "Throwable";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  /**
+   * Builds a graph with one block per node: nodes without successors return, nodes with one
+   * successor jump and nodes with two successors branch.
+   */
+  private static MutableBlockStmtGraph createGraph(int[][] successors, List<Stmt> stmts) {
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    for (int[] targets : successors) {
+      final Stmt stmt;
+      if (targets.length == 0) {
+        stmt = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+      } else if (targets.length == 1) {
+        stmt = new JGotoStmt(StmtPositionInfo.createNoStmtPositionInfo());
+      } else {
+        stmt =
+            new JIfStmt(
+                new JLeExpr(IntConstant.getInstance(stmts.size()), IntConstant.getInstance(0)),
+                StmtPositionInfo.createNoStmtPositionInfo());
+      }
+      stmts.add(stmt);
+      graph.addNode(stmt, Collections.emptyMap());
+    }
+    graph.setStartingStmt(stmts.get(0));
+    for (int i = 0; i < successors.length; i++) {
+      for (int target : successors[i]) {
+        graph.putEdge(stmts.get(i), stmts.get(target));
+      }
+    }
+    return graph;
+  }
+
+  private static BasicBlock<?> block(StmtGraph<?> graph, List<Stmt> stmts, int node) {
+    return graph.getBlockOf(stmts.get(node));
+  }
+
+  @Test
+  public void testLoopWithDiamond() {
+    // 0 -> 1; 1 -> 2, 5; 2 -> 3, 4; 3 -> 4; 4 -> 1; 5 exits
+    final List<Stmt> stmts = new ArrayList<>();
+    final MutableBlockStmtGraph graph =
+        createGraph(new int[][] {{1}, {2, 5}, {3, 4}, {4}, {1}, {}}, stmts);
+
+    final DominanceAnalysis dominators = DominanceAnalysis.dominators(graph);
+    assertEquals(6, dominators.size());
+    assertEquals(6, dominators.getReachableCount());
+    assertEquals(block(graph, stmts, 0), dominators.getBlock(0));
+    assertNull(dominators.getImmediateDominator(block(graph, stmts, 0)));
+    assertEquals(block(graph, stmts, 0), dominators.getImmediateDominator(block(graph, stmts, 1)));
+    assertEquals(block(graph, stmts, 2), dominators.getImmediateDominator(block(graph, stmts, 4)));
+    assertEquals(block(graph, stmts, 1), dominators.getImmediateDominator(block(graph, stmts, 5)));
+    assertTrue(dominators.dominates(block(graph, stmts, 1), block(graph, stmts, 3)));
+    assertFalse(dominators.dominates(block(graph, stmts, 3), block(graph, stmts, 4)));
+    assertEquals(
+        Collections.singletonList(block(graph, stmts, 4)),
+        dominators.getDominanceFrontier(block(graph, stmts, 3)));
+    assertEquals(
+        Collections.singletonList(block(graph, stmts, 1)),
+        dominators.getDominanceFrontier(block(graph, stmts, 4)));
+
+    final DominanceAnalysis postDominators = DominanceAnalysis.postDominators(graph);
+    assertEquals(6, postDominators.getReachableCount());
+    assertNull(postDominators.getImmediateDominator(block(graph, stmts, 5)));
+    assertEquals(
+        block(graph, stmts, 4), postDominators.getImmediateDominator(block(graph, stmts, 2)));
+    assertEquals(
+        block(graph, stmts, 1), postDominators.getImmediateDominator(block(graph, stmts, 4)));
+    assertEquals(
+        block(graph, stmts, 5), postDominators.getImmediateDominator(block(graph, stmts, 1)));
+    // 3 is control dependent on 2
+    assertEquals(
+        Collections.singletonList(block(graph, stmts, 2)),
+        postDominators.getDominanceFrontier(block(graph, stmts, 3)));
+
+    final LoopNestForest forest = new LoopNestForest(dominators);
+    assertEquals(1, forest.getLoops().size());
+    final LoopNestForest.Loop loop = forest.getRootLoops().get(0);
+    assertEquals(block(graph, stmts, 1), loop.getHeader());
+    assertEquals(Collections.singletonList(block(graph, stmts, 4)), loop.getLatches());
+    assertEquals(4, loop.getBlocks().size());
+    assertTrue(loop.contains(block(graph, stmts, 3)));
+    assertFalse(loop.contains(block(graph, stmts, 5)));
+    assertEquals(1, forest.getLoopDepth(block(graph, stmts, 2)));
+    assertEquals(0, forest.getLoopDepth(block(graph, stmts, 0)));
+  }
+
+  @Test
+  public void testNestedLoopsAndUnreachableBlocks() {
+    // outer loop 1..5, inner loop 2..3, self loop 4; 7 is unreachable, 8 can not reach the exit
+    final List<Stmt> stmts = new ArrayList<>();
+    final MutableBlockStmtGraph graph =
+        createGraph(new int[][] {{1}, {2, 6}, {3}, {2, 4}, {4, 5}, {1, 8}, {}, {6}, {8}}, stmts);
+
+    final DominanceAnalysis dominators = DominanceAnalysis.dominators(graph);
+    assertEquals(8, dominators.getReachableCount());
+    final int unreachable = dominators.getId(block(graph, stmts, 7));
+    assertFalse(dominators.isReachable(unreachable));
+    assertEquals(-1, dominators.getImmediateDominator(unreachable));
+
+    final DominanceFinder finder = new DominanceFinder(dominators);
+    assertEquals(0, finder.getImmediateDominators()[0]);
+    assertEquals(-1, finder.getImmediateDominators()[unreachable]);
+    final DominanceTree tree = new DominanceTree(finder);
+    assertEquals(8, tree.getAllNodesDFS().size());
+    assertNull(tree.getParent(block(graph, stmts, 7)));
+
+    final LoopNestForest forest = new LoopNestForest(dominators);
+    assertEquals(4, forest.getLoops().size());
+    assertEquals(2, forest.getRootLoops().size());
+    final LoopNestForest.Loop outer = forest.getInnermostLoop(block(graph, stmts, 1));
+    assertEquals(block(graph, stmts, 1), outer.getHeader());
+    assertNull(outer.getParent());
+    assertEquals(1, forest.getInnermostLoop(block(graph, stmts, 8)).getDepth());
+    assertEquals(2, outer.getChildren().size());
+    assertEquals(5, outer.getBlocks().size());
+    assertEquals(2, forest.getLoopDepth(block(graph, stmts, 3)));
+    assertEquals(2, forest.getLoopDepth(block(graph, stmts, 4)));
+    assertEquals(1, forest.getLoopDepth(block(graph, stmts, 5)));
+    assertEquals(outer, forest.getInnermostLoop(block(graph, stmts, 2)).getParent());
+
+    final DominanceAnalysis postDominators = DominanceAnalysis.postDominators(graph);
+    assertFalse(postDominators.isReachable(postDominators.getId(block(graph, stmts, 8))));
+    assertTrue(postDominators.isReachable(postDominators.getId(block(graph, stmts, 7))));
+  }
+
+  @Test
+  public void testExceptionalSuccessors() {
+    final List<Stmt> stmts = new ArrayList<>();
+    final MutableBlockStmtGraph graph = createGraph(new int[][] {{1}, {2}, {}, {}}, stmts);
+    graph.addExceptionalEdge(stmts.get(1), throwableSig, stmts.get(3));
+
+    final DominanceAnalysis dominators = DominanceAnalysis.dominators(graph);
+    assertEquals(4, dominators.getReachableCount());
+    assertEquals(block(graph, stmts, 1), dominators.getImmediateDominator(block(graph, stmts, 3)));
+
+    final DominanceAnalysis postDominators = DominanceAnalysis.postDominators(graph);
+    assertNull(postDominators.getImmediateDominator(block(graph, stmts, 1)));
+    // the exits and the block which branches to both of them
+    assertEquals(3, postDominators.getExitChildren().length);
+  }
+
+  @Test
+  public void testRandomGraphsAgainstDataflow() {
+    final Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      final int size = 2 + random.nextInt(30);
+      final int[][] successors = new int[size][];
+      for (int i = 0; i < size; i++) {
+        final int degree = random.nextInt(8) == 0 ? 0 : 1 + random.nextInt(2);
+        final int first = random.nextInt(size);
+        int second = random.nextInt(size);
+        while (degree == 2 && second == first) {
+          second = random.nextInt(size);
+        }
+        successors[i] =
+            degree == 0 ? new int[0] : degree == 1 ? new int[] {first} : new int[] {first, second};
+      }
+      final List<Stmt> stmts = new ArrayList<>();
+      final MutableBlockStmtGraph graph = createGraph(successors, stmts);
+
+      assertMatchesDataflow(graph, stmts, successors, DominanceAnalysis.dominators(graph), false);
+      assertMatchesDataflow(
+          graph, stmts, successors, DominanceAnalysis.postDominators(graph), true);
+    }
+  }
+
+  /** Compares the analysis with the dominator sets of a straightforward dataflow analysis. */
+  private static void assertMatchesDataflow(
+      StmtGraph<?> graph,
+      List<Stmt> stmts,
+      int[][] cfgSuccessors,
+      DominanceAnalysis analysis,
+      boolean post) {
+    final int size = cfgSuccessors.length;
+    // the virtual exit of post-dominators is the node size
+    final int nodeCount = post ? size + 1 : size;
+    final List<List<Integer>> predecessors = new ArrayList<>();
+    for (int i = 0; i < nodeCount; i++) {
+      predecessors.add(new ArrayList<>());
+    }
+    for (int i = 0; i < size; i++) {
+      for (int target : cfgSuccessors[i]) {
+        if (post) {
+          predecessors.get(i).add(target);
+        } else {
+          predecessors.get(target).add(i);
+        }
+      }
+      if (post && cfgSuccessors[i].length == 0) {
+        predecessors.get(i).add(size);
+      }
+    }
+    final int root = post ? size : 0;
+
+    // reachability in the direction of the analysis
+    final BitSet reachable = new BitSet();
+    final Deque<Integer> worklist = new ArrayDeque<>();
+    worklist.add(root);
+    reachable.set(root);
+    while (!worklist.isEmpty()) {
+      final int node = worklist.remove();
+      for (int i = 0; i < nodeCount; i++) {
+        if (!reachable.get(i) && predecessors.get(i).contains(node)) {
+          reachable.set(i);
+          worklist.add(i);
+        }
+      }
+    }
+
+    final BitSet[] doms = new BitSet[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      doms[i] = new BitSet();
+      if (i == root) {
+        doms[i].set(root);
+      } else {
+        doms[i].set(0, nodeCount);
+      }
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < nodeCount; i++) {
+        if (i == root || !reachable.get(i)) {
+          continue;
+        }
+        final BitSet next = new BitSet();
+        next.set(0, nodeCount);
+        for (int pred : predecessors.get(i)) {
+          if (reachable.get(pred)) {
+            next.and(doms[pred]);
+          }
+        }
+        next.set(i);
+        if (!next.equals(doms[i])) {
+          doms[i] = next;
+          changed = true;
+        }
+      }
+    }
+
+    assertEquals(reachable.cardinality() - (post ? 1 : 0), analysis.getReachableCount());
+    for (int a = 0; a < size; a++) {
+      final BasicBlock<?> blockA = block(graph, stmts, a);
+      assertEquals(reachable.get(a), analysis.isReachable(analysis.getId(blockA)));
+      for (int b = 0; b < size; b++) {
+        final BasicBlock<?> blockB = block(graph, stmts, b);
+        final boolean expected = reachable.get(a) && reachable.get(b) && doms[b].get(a);
+        assertEquals(expected, analysis.dominates(blockA, blockB));
+      }
+
+      // the frontier of a: the blocks that have a predecessor dominated by a without being
+      // strictly dominated by a
+      final Set<BasicBlock<?>> expectedFrontier = new HashSet<>();
+      if (reachable.get(a)) {
+        for (int b = 0; b < size; b++) {
+          if (!reachable.get(b) || predecessors.get(b).size() < (b == root ? 1 : 2)) {
+            continue;
+          }
+          for (int pred : predecessors.get(b)) {
+            if (pred < size && reachable.get(pred) && doms[pred].get(a)) {
+              if (a == b || !doms[b].get(a)) {
+                expectedFrontier.add(block(graph, stmts, b));
+              }
+            }
+          }
+        }
+      }
+      assertEquals(expectedFrontier, new HashSet<>(analysis.getDominanceFrontier(blockA)));
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testLargeMethod() {
+    // a sequence of loops, each containing a diamond and a nested loop, as in a large generated
+    // method
+    final int loopCount = 5000;
+    final int[][] successors = new int[loopCount * 6 + 1][];
+    for (int i = 0; i < loopCount; i++) {
+      final int header = i * 6;
+      successors[header] = new int[] {header + 1, header + 6};
+      successors[header + 1] = new int[] {header + 2, header + 3};
+      successors[header + 2] = new int[] {header + 3};
+      successors[header + 3] = new int[] {header + 4};
+      successors[header + 4] = new int[] {header + 4, header + 5};
+      successors[header + 5] = new int[] {header};
+    }
+    successors[loopCount * 6] = new int[0];
+    final List<Stmt> stmts = new ArrayList<>();
+    final MutableBlockStmtGraph graph = createGraph(successors, stmts);
+
+    final DominanceAnalysis dominators = DominanceAnalysis.dominators(graph);
+    assertEquals(successors.length, dominators.getReachableCount());
+    final BasicBlock<?> lastHeader = block(graph, stmts, (loopCount - 1) * 6);
+    assertEquals(
+        block(graph, stmts, (loopCount - 2) * 6), dominators.getImmediateDominator(lastHeader));
+
+    final DominanceAnalysis postDominators = DominanceAnalysis.postDominators(graph);
+    assertEquals(
+        block(graph, stmts, loopCount * 6), postDominators.getImmediateDominator(lastHeader));
+
+    final LoopNestForest forest = new LoopNestForest(dominators);
+    assertEquals(loopCount * 2, forest.getLoops().size());
+    assertEquals(loopCount, forest.getRootLoops().size());
+    assertEquals(2, forest.getLoopDepth(block(graph, stmts, 4)));
+
+    final DominanceTree tree = new DominanceTree(new DominanceFinder(dominators));
+    assertEquals(successors.length, tree.getAllNodesDFS().size());
+  }
+}
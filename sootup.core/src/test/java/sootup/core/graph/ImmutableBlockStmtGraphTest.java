@@ -0,0 +1,136 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+
+@Category(Java8Test.class)
+public class ImmutableBlockStmtGraphTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  ClassType exceptionType =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return getPackageName() + "." + getClassName();
+        }
+
+        @Override
+        public String getClassName() {
+          return "Exception";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  Local a = new Local("a", PrimitiveType.getInt());
+  Local ex = new Local("ex", exceptionType);
+
+  Stmt assignA0 = Jimple.newAssignStmt(a, IntConstant.getInstance(0), noPosition);
+  Stmt ifStmt = Jimple.newIfStmt(Jimple.newLeExpr(a, IntConstant.getInstance(10)), noPosition);
+  Stmt incrementA =
+      Jimple.newAssignStmt(a, Jimple.newAddExpr(a, IntConstant.getInstance(1)), noPosition);
+  Stmt gotoStmt = Jimple.newGotoStmt(noPosition);
+  Stmt returnA = Jimple.newReturnStmt(a, noPosition);
+  Stmt catchStmt = Jimple.newIdentityStmt(ex, new JCaughtExceptionRef(exceptionType), noPosition);
+  Stmt throwStmt = Jimple.newThrowStmt(ex, noPosition);
+
+  /**
+   *
+   *
+   * <pre>
+   *    a = 0
+   * label1:
+   *    if a <= 10 goto label2
+   *    a = a + 1   // covered by a trap
+   *    goto label1
+   * label2:
+   *    return a
+   * handler:
+   *    ex := @caughtexception
+   *    throw ex
+   * </pre>
+   */
+  private MutableStmtGraph createGraph() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    graph.addBlock(Arrays.asList(assignA0, ifStmt));
+    graph.setEdges(ifStmt, Arrays.asList(incrementA, returnA));
+    graph.addBlock(
+        Arrays.asList(incrementA, gotoStmt), Collections.singletonMap(exceptionType, catchStmt));
+    graph.putEdge(gotoStmt, ifStmt);
+    graph.addBlock(Arrays.asList(catchStmt, throwStmt));
+    graph.setStartingStmt(assignA0);
+    return graph;
+  }
+
+  @Test
+  public void testFreeze() {
+    MutableStmtGraph graph = createGraph();
+    ImmutableBlockStmtGraph frozen = new ImmutableBlockStmtGraph(graph);
+
+    assertEquals(assignA0, frozen.getStartingStmt());
+    assertEquals(graph.getStmts(), frozen.getStmts());
+    assertEquals(graph.getTraps(), frozen.getTraps());
+    assertEquals(graph.getBlocks().size(), frozen.getBlocks().size());
+    assertEquals(graph, frozen);
+
+    for (Stmt stmt : graph.getNodes()) {
+      assertTrue(frozen.containsNode(stmt));
+      assertTrue(frozen.getNodes().contains(stmt));
+      assertEquals(graph.successors(stmt), frozen.successors(stmt));
+      assertEquals(
+          new HashSet<>(graph.predecessors(stmt)), new HashSet<>(frozen.predecessors(stmt)));
+      assertEquals(graph.exceptionalSuccessors(stmt), frozen.exceptionalSuccessors(stmt));
+      assertEquals(graph.inDegree(stmt), frozen.inDegree(stmt));
+      assertEquals(graph.outDegree(stmt), frozen.outDegree(stmt));
+      assertEquals(graph.getBlockOf(stmt).getStmts(), frozen.getBlockOf(stmt).getStmts());
+    }
+    assertTrue(frozen.hasEdgeConnecting(gotoStmt, ifStmt));
+    assertFalse(frozen.hasEdgeConnecting(ifStmt, gotoStmt));
+    assertEquals(Arrays.asList(incrementA, gotoStmt), frozen.exceptionalPredecessors(catchStmt));
+    assertTrue(frozen.exceptionalPredecessors(throwStmt).isEmpty());
+
+    // the blocks are linked to each other
+    BasicBlock<?> loopBlock = frozen.getBlockOf(incrementA);
+    assertSame(frozen.getBlockOf(ifStmt), loopBlock.getSuccessors().get(0));
+    assertSame(
+        frozen.getBlockOf(catchStmt), loopBlock.getExceptionalSuccessors().get(exceptionType));
+
+    // unfreezing results in the same graph
+    assertEquals(graph, new MutableBlockStmtGraph(frozen));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownStmt() {
+    new ImmutableBlockStmtGraph(createGraph()).successors(Jimple.newNopStmt(noPosition));
+  }
+
+  @Test
+  public void testEmptyGraph() {
+    ImmutableBlockStmtGraph frozen = new ImmutableBlockStmtGraph(new MutableBlockStmtGraph());
+    assertNull(frozen.getStartingStmt());
+    assertTrue(frozen.getStmts().isEmpty());
+    assertTrue(frozen.getTraps().isEmpty());
+  }
+}
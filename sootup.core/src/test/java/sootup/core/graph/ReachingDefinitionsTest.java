@@ -0,0 +1,130 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.PrimitiveType;
+
+@Category(Java8Test.class)
+public class ReachingDefinitionsTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  Local a = new Local("a", PrimitiveType.getInt());
+  Local b = new Local("b", PrimitiveType.getInt());
+
+  Stmt assignA0 = Jimple.newAssignStmt(a, IntConstant.getInstance(0), noPosition);
+  Stmt assignA1 = Jimple.newAssignStmt(a, IntConstant.getInstance(1), noPosition);
+  Stmt assignA2 = Jimple.newAssignStmt(a, IntConstant.getInstance(2), noPosition);
+  Stmt incrementA =
+      Jimple.newAssignStmt(a, Jimple.newAddExpr(a, IntConstant.getInstance(1)), noPosition);
+  Stmt ifStmt = Jimple.newIfStmt(Jimple.newLeExpr(a, IntConstant.getInstance(10)), noPosition);
+  Stmt gotoStmt = Jimple.newGotoStmt(noPosition);
+  Stmt returnA = Jimple.newReturnStmt(a, noPosition);
+
+  /**
+   *
+   *
+   * <pre>
+   *    a = 0
+   *    if a <= 10 goto label1
+   *    a = 1
+   *    goto label2
+   * label1:
+   *    a = 2
+   * label2:
+   *    return a
+   * </pre>
+   */
+  private MutableStmtGraph createBranchGraph() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    graph.addBlock(Arrays.asList(assignA0, ifStmt));
+    graph.setEdges(ifStmt, Arrays.asList(assignA1, assignA2));
+    graph.addBlock(Arrays.asList(assignA1, gotoStmt));
+    graph.addBlock(Arrays.asList(assignA2, returnA));
+    graph.putEdge(gotoStmt, returnA);
+    graph.setStartingStmt(assignA0);
+    return graph;
+  }
+
+  /**
+   *
+   *
+   * <pre>
+   *    a = 0
+   * label1:
+   *    if a <= 10 goto label2
+   *    a = a + 1
+   *    goto label1
+   * label2:
+   *    return a
+   * </pre>
+   */
+  private MutableStmtGraph createLoopGraph() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    graph.addBlock(Arrays.asList(assignA0, ifStmt));
+    graph.setEdges(ifStmt, Arrays.asList(incrementA, returnA));
+    graph.addBlock(Arrays.asList(incrementA, gotoStmt));
+    graph.putEdge(gotoStmt, ifStmt);
+    graph.setStartingStmt(assignA0);
+    return graph;
+  }
+
+  @Test
+  public void testBranches() {
+    ReachingDefinitions reachingDefinitions = new ReachingDefinitions(createBranchGraph());
+
+    assertEquals(Collections.singletonList(assignA0), reachingDefinitions.getDefsOfUse(a, ifStmt));
+    assertEquals(
+        new HashSet<>(Arrays.asList(assignA1, assignA2)),
+        new HashSet<>(reachingDefinitions.getDefsOfUse(a, returnA)));
+    // a definition does not reach itself
+    assertEquals(
+        Collections.singletonList(assignA0), reachingDefinitions.getDefsOfUse(a, assignA1));
+    assertTrue(reachingDefinitions.getDefsOfUse(b, returnA).isEmpty());
+
+    assertEquals(Collections.singletonList(ifStmt), reachingDefinitions.getUsesOfDef(assignA0));
+    assertEquals(Collections.singletonList(returnA), reachingDefinitions.getUsesOfDef(assignA1));
+    assertTrue(reachingDefinitions.getUsesOfDef(returnA).isEmpty());
+  }
+
+  @Test
+  public void testLoop() {
+    ReachingDefinitions reachingDefinitions = new ReachingDefinitions(createLoopGraph());
+
+    Set<Stmt> loopDefs = new HashSet<>(Arrays.asList(assignA0, incrementA));
+    assertEquals(loopDefs, new HashSet<>(reachingDefinitions.getDefsOfUse(a, ifStmt)));
+    assertEquals(loopDefs, new HashSet<>(reachingDefinitions.getDefsOfUse(a, incrementA)));
+    assertEquals(loopDefs, new HashSet<>(reachingDefinitions.getDefsOfUse(a, returnA)));
+
+    assertEquals(
+        new HashSet<>(Arrays.asList(ifStmt, incrementA, returnA)),
+        new HashSet<>(reachingDefinitions.getUsesOfDef(incrementA)));
+  }
+
+  @Test
+  public void testReplaceStmt() {
+    MutableStmtGraph graph = createBranchGraph();
+    ReachingDefinitions reachingDefinitions = new ReachingDefinitions(graph);
+
+    // same definition: the result stays valid
+    Stmt assignA3 = Jimple.newAssignStmt(a, IntConstant.getInstance(3), noPosition);
+    graph.replaceNode(assignA2, assignA3);
+    assertTrue(reachingDefinitions.replaceStmt(assignA2, assignA3));
+    assertEquals(
+        new HashSet<>(Arrays.asList(assignA1, assignA3)),
+        new HashSet<>(reachingDefinitions.getDefsOfUse(a, returnA)));
+    assertEquals(Collections.singletonList(returnA), reachingDefinitions.getUsesOfDef(assignA3));
+
+    // different definition: the result has to be recomputed
+    Stmt assignB = Jimple.newAssignStmt(b, IntConstant.getInstance(1), noPosition);
+    assertFalse(reachingDefinitions.replaceStmt(assignA1, assignB));
+  }
+}
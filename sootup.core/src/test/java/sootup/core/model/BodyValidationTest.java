@@ -0,0 +1,147 @@
+package sootup.core.model;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.VoidType;
+import sootup.core.validation.ValidationException;
+import sootup.core.validation.ValidationLevel;
+
+@Category(Java8Test.class)
+public class BodyValidationTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  ClassType classType =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return false;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return getPackageName() + "." + getClassName();
+        }
+
+        @Override
+        public String getClassName() {
+          return "A";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("a.b");
+        }
+      };
+
+  MethodSignature methodSignature =
+      new MethodSignature(
+          classType, new MethodSubSignature("m", Collections.emptyList(), VoidType.getInstance()));
+
+  Local a = new Local("a", PrimitiveType.getInt());
+
+  @After
+  public void resetDefaultValidationLevel() {
+    Body.setDefaultValidationLevel(ValidationLevel.STRUCTURAL);
+  }
+
+  /** a = 0; return; - the local is not declared in the Body */
+  private Body.BodyBuilder createUndeclaredLocalBuilder() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    Stmt assign = Jimple.newAssignStmt(a, IntConstant.getInstance(0), noPosition);
+    Stmt ret = Jimple.newReturnVoidStmt(noPosition);
+    graph.setStartingStmt(assign);
+    graph.putEdge(assign, ret);
+    return Body.builder(graph).setMethodSignature(methodSignature);
+  }
+
+  /** a nop which is neither the starting stmt nor a trap handler has no predecessor */
+  private Body.BodyBuilder createUnconnectedBuilder() {
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    Stmt ret = Jimple.newReturnVoidStmt(noPosition);
+    Stmt nop = Jimple.newNopStmt(noPosition);
+    graph.setStartingStmt(ret);
+    graph.putEdge(nop, Jimple.newReturnVoidStmt(noPosition));
+    return Body.builder(graph).setMethodSignature(methodSignature);
+  }
+
+  @Test
+  public void testValidationLevels() {
+    assertEquals(ValidationLevel.STRUCTURAL, Body.builder().getValidationLevel());
+
+    try {
+      createUnconnectedBuilder().build();
+      fail("an unconnected StmtGraph is invalid");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().contains("is invalid"));
+    }
+    assertNotNull(createUnconnectedBuilder().setValidationLevel(ValidationLevel.NONE).build());
+
+    // the undeclared local is only detected by the BodyValidators
+    assertNotNull(createUndeclaredLocalBuilder().build());
+    try {
+      createUndeclaredLocalBuilder().setValidationLevel(ValidationLevel.FULL).build();
+      fail("the local is not declared");
+    } catch (ValidationException e) {
+      assertTrue(e.getMessage().contains("Local not in chain"));
+    }
+
+    Body.setDefaultValidationLevel(ValidationLevel.NONE);
+    assertEquals(ValidationLevel.NONE, Body.builder().getValidationLevel());
+  }
+
+  @Test
+  public void testValidationLevelFromSystemProperty() {
+    String previous = System.getProperty(ValidationLevel.SYSTEM_PROPERTY);
+    try {
+      System.clearProperty(ValidationLevel.SYSTEM_PROPERTY);
+      assertEquals(ValidationLevel.STRUCTURAL, ValidationLevel.fromSystemProperty());
+
+      System.setProperty(ValidationLevel.SYSTEM_PROPERTY, " full ");
+      assertEquals(ValidationLevel.FULL, ValidationLevel.fromSystemProperty());
+
+      // an invalid value must not break the initialization of the Body class
+      System.setProperty(ValidationLevel.SYSTEM_PROPERTY, "everything");
+      assertEquals(ValidationLevel.STRUCTURAL, ValidationLevel.fromSystemProperty());
+    } finally {
+      if (previous == null) {
+        System.clearProperty(ValidationLevel.SYSTEM_PROPERTY);
+      } else {
+        System.setProperty(ValidationLevel.SYSTEM_PROPERTY, previous);
+      }
+    }
+  }
+
+  @Test
+  public void testValidateBodies() {
+    Body invalidBody = createUndeclaredLocalBuilder().build();
+    Body validBody = createUndeclaredLocalBuilder().setLocals(Collections.singleton(a)).build();
+    Body unconnectedBody =
+        createUnconnectedBuilder().setValidationLevel(ValidationLevel.NONE).build();
+
+    assertTrue(validBody.validate().isEmpty());
+    assertEquals(1, unconnectedBody.validate().size());
+
+    Map<MethodSignature, List<ValidationException>> violations =
+        Body.validate(Arrays.asList(invalidBody, validBody, invalidBody));
+    assertEquals(Collections.singleton(methodSignature), violations.keySet());
+    assertEquals(1, violations.get(methodSignature).size());
+  }
+}
@@ -21,14 +21,20 @@ package sootup.java.bytecode.frontend;
  * #L%
  */
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassHeader;
 import sootup.core.inputlocation.FileType;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.model.SootClass;
@@ -54,14 +60,39 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
       AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation,
       Path sourcePath,
       ClassType classType) {
-    SootClassNode classNode = new SootClassNode(analysisInputLocation);
-
+    final byte[] classFile;
     try {
-      AsmUtil.initAsmClassSource(sourcePath, classNode);
+      classFile = Files.readAllBytes(sourcePath);
     } catch (IOException exception) {
       throw new ResolveException(
           exception.getMessage(), sourcePath, NoPositionInformation.getInstance(), exception);
     }
+    return createClassSource(analysisInputLocation, sourcePath, classType, classFile);
+  }
+
+  /**
+   * Creates the class source from the content of a class file that has already been read, e.g. from
+   * an archive. The sourcePath only identifies the class file, it is not read again.
+   */
+  @Nonnull
+  public AbstractClassSource<JavaSootClass> createClassSource(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation,
+      @Nonnull Path sourcePath,
+      @Nonnull ClassType classType,
+      @Nonnull byte[] classFile) {
+    final String classFileHash =
+        PersistentBodyCache.getCache(view) != null
+            ? PersistentBodyCache.hashClassFile(classFile)
+            : null;
+    final SootClassNode classNode;
+    if (isMemoryLeanModeEnabled(view)) {
+      // keep only the compact class file; method code is loaded from it on demand
+      classNode = new SootClassNode(analysisInputLocation, classFile, classFileHash);
+      new ClassReader(classFile).accept(classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+    } else {
+      classNode = new SootClassNode(analysisInputLocation, null, classFileHash);
+      new ClassReader(classFile).accept(classNode, ClassReader.SKIP_FRAMES);
+    }
 
     JavaClassType klassType = (JavaClassType) classType;
     if (klassType instanceof ModuleJavaClassType
@@ -78,19 +109,66 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
     }
   }
 
+  /**
+   * Reads only the header of a class file, i.e. its access flags, superclass and interfaces, which
+   * are located in front of its fields and methods - the rest of the class file is not parsed.
+   */
+  @Nonnull
+  public static ClassHeader readClassHeader(
+      @Nonnull ClassType classType, @Nonnull byte[] classFile) {
+    final ClassReader classReader = new ClassReader(classFile);
+    final String superName = classReader.getSuperName();
+    return new ClassHeader(
+        classType,
+        (classReader.getAccess() & Opcodes.ACC_INTERFACE) != 0,
+        superName == null ? null : AsmUtil.toJimpleClassType(superName),
+        AsmUtil.asmIdToSignature(Arrays.asList(classReader.getInterfaces())));
+  }
+
   @Override
   @Nonnull
   public FileType getHandledFileType() {
     return FileType.CLASS;
   }
 
+  /**
+   * Enables the memory-lean mode for all classes that are loaded by the bytecode frontend in the
+   * given view. In this mode a class source keeps the (compact) class file instead of the ASM trees
+   * of its methods: the instructions of a method are parsed from the class file only when its body
+   * is resolved and are released as soon as the body has been built.
+   */
+  public static void enableMemoryLeanMode(@Nonnull View<?> view) {
+    view.putModuleData(MemoryLeanModeKey.instance, Boolean.TRUE);
+  }
+
+  public static boolean isMemoryLeanModeEnabled(@Nonnull View<?> view) {
+    return Boolean.TRUE.equals(view.getModuleData(MemoryLeanModeKey.instance));
+  }
+
+  private static final class MemoryLeanModeKey extends View.ModuleDataKey<Boolean> {
+    private static final MemoryLeanModeKey instance = new MemoryLeanModeKey();
+
+    private MemoryLeanModeKey() {}
+  }
+
   class SootClassNode extends ClassNode {
 
     private final AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation;
 
-    SootClassNode(AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation) {
+    /** the class file in memory-lean mode, otherwise null. */
+    @Nullable private final byte[] classFile;
+
+    /** the hash of the class file if bodies are cached, otherwise null. */
+    @Nullable private final String classFileHash;
+
+    SootClassNode(
+        AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation,
+        @Nullable byte[] classFile,
+        @Nullable String classFileHash) {
       super(AsmUtil.SUPPORTED_ASM_OPCODE);
       this.analysisInputLocation = analysisInputLocation;
+      this.classFile = classFile;
+      this.classFileHash = classFileHash;
     }
 
     @Override
@@ -110,7 +188,11 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
               signature,
               exceptions,
               view,
-              view.getBodyInterceptors(analysisInputLocation));
+              view.getBodyInterceptors(analysisInputLocation),
+              classFile);
+      if (classFileHash != null) {
+        mn.setClassFileHash(classFileHash);
+      }
       methods.add(mn);
       return mn;
     }
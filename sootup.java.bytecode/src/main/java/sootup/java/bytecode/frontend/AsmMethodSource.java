@@ -48,7 +48,10 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
 import org.objectweb.asm.tree.*;
 import sootup.core.frontend.BodySource;
@@ -131,6 +134,12 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
   private final View<?> view;
   private final List<BodyInterceptor> bodyInterceptors;
 
+  /** the class file of the declaring class in memory-lean mode, otherwise null. */
+  @Nullable private final byte[] classFile;
+
+  /** the hash of the class file of the declaring class if bodies are cached, otherwise null. */
+  @Nullable private String classFileHash;
+
   @Nonnull private final Set<LabelNode> inlineExceptionLabels = new HashSet<>();
 
   @Nonnull
@@ -159,9 +168,26 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       @Nonnull String[] exceptions,
       View<?> view,
       @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    this(access, name, desc, signature, exceptions, view, bodyInterceptors, null);
+  }
+
+  /**
+   * @param classFile if not null, the instructions of this method are not retained: they are parsed
+   *     from the given class file whenever the body is resolved and released afterwards.
+   */
+  AsmMethodSource(
+      int access,
+      @Nonnull String name,
+      @Nonnull String desc,
+      @Nonnull String signature,
+      @Nonnull String[] exceptions,
+      View<?> view,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nullable byte[] classFile) {
     super(AsmUtil.SUPPORTED_ASM_OPCODE, null, access, name, desc, signature, exceptions);
     this.bodyInterceptors = bodyInterceptors;
     this.view = view;
+    this.classFile = classFile;
   }
 
   @Override
@@ -174,12 +200,46 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     this.declaringClass = (JavaClassType) declaringClass;
   }
 
+  void setClassFileHash(@Nonnull String classFileHash) {
+    this.classFileHash = classFileHash;
+  }
+
   @Override
   @Nonnull
-  public Body resolveBody(@Nonnull Iterable<Modifier> modifierIt) {
+  public synchronized Body resolveBody(@Nonnull Iterable<Modifier> modifierIt) {
 
-    /* initialize */
+    // the cached bodies are read with the identifier factory of the view
+    final PersistentBodyCache cache =
+        classFileHash != null && view.getIdentifierFactory() instanceof JavaIdentifierFactory
+            ? PersistentBodyCache.getCache(view)
+            : null;
+    final String cacheKey =
+        cache == null
+            ? null
+            : cache.getKey(classFileHash, lazyMethodSignature.get(), bodyInterceptors).orElse(null);
+    if (cacheKey != null) {
+      final Optional<Body> cachedBody =
+          cache.load(
+              cacheKey,
+              lazyMethodSignature.get(),
+              (JavaIdentifierFactory) view.getIdentifierFactory());
+      if (cachedBody.isPresent()) {
+        return cachedBody.get();
+      }
+    }
+
+    if (classFile != null) {
+      loadCode();
+    }
+
+    /* initialize - the body can be resolved again if it is not retained by its SootMethod */
     nextLocal = maxLocals;
+    currentLineNumber = -1;
+    maxLineNumber = 0;
+    replacedStmt.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
     locals =
         new NonIndexOutofBoundsArrayList<>(
             maxLocals
@@ -244,6 +304,9 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     stmtsThatBranchToLabel = null;
     insnToStmt = null;
     operandStack = null;
+    if (classFile != null) {
+      releaseCode();
+    }
 
     bodyBuilder.setMethodSignature(lazyMethodSignature.get());
 
@@ -255,7 +318,57 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
             "Failed to apply " + bodyInterceptor + " to " + lazyMethodSignature.get(), e);
       }
     }
-    return bodyBuilder.build();
+    final Body body = bodyBuilder.build();
+    if (cacheKey != null) {
+      cache.store(cacheKey, body);
+    }
+    return body;
+  }
+
+  /** Parses the code of this method from the class file of its declaring class. */
+  private void loadCode() {
+    final MethodNode[] code = new MethodNode[1];
+    new ClassReader(classFile)
+        .accept(
+            new ClassVisitor(AsmUtil.SUPPORTED_ASM_OPCODE) {
+              @Override
+              public MethodVisitor visitMethod(
+                  int access, String name, String desc, String signature, String[] exceptions) {
+                if (!AsmMethodSource.this.name.equals(name)
+                    || !AsmMethodSource.this.desc.equals(desc)) {
+                  return null;
+                }
+                code[0] = new JSRInlinerAdapter(null, access, name, desc, signature, exceptions);
+                return code[0];
+              }
+            },
+            ClassReader.SKIP_FRAMES);
+
+    if (code[0] == null) {
+      throw new IllegalStateException(
+          "Could not find the code of " + lazyMethodSignature.get() + " in its class file.");
+    }
+    instructions = code[0].instructions;
+    tryCatchBlocks = code[0].tryCatchBlocks;
+    localVariables = code[0].localVariables;
+    visibleLocalVariableAnnotations = code[0].visibleLocalVariableAnnotations;
+    invisibleLocalVariableAnnotations = code[0].invisibleLocalVariableAnnotations;
+    maxLocals = code[0].maxLocals;
+    maxStack = code[0].maxStack;
+  }
+
+  /** Releases the ASM tree of the code of this method; it can be loaded again via loadCode(). */
+  private void releaseCode() {
+    instructions = new InsnList();
+    tryCatchBlocks = new ArrayList<>();
+    localVariables = null;
+    visibleLocalVariableAnnotations = null;
+    invisibleLocalVariableAnnotations = null;
+    trapHandler = null;
+    replacedStmt.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
   }
 
   @Override
@@ -263,6 +376,12 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     return resolveAnnotationsInDefaultValue(this.annotationDefault);
   }
 
+  @Nonnull
+  @Override
+  public BodyRetentionPolicy getBodyRetentionPolicy() {
+    return SootMethod.getBodyRetentionPolicy(view);
+  }
+
   private Object resolveAnnotationsInDefaultValue(Object a) {
     if (a instanceof AnnotationNode) {
       return AsmUtil.createAnnotationUsage(Collections.singletonList((AnnotationNode) a));
@@ -0,0 +1,222 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.views.View;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.serialization.BodySerializer;
+import sootup.java.core.serialization.JimpleInput;
+import sootup.java.core.serialization.JimpleOutput;
+
+/**
+ * A persistent cache of the bodies that are created by the bytecode frontend, so that a method is
+ * not converted again in a later run (e.g. of the same analysis on the same jars). A body is keyed
+ * by the content hash of its class file, its signature and the body interceptors that have been
+ * applied. The bodies are stored in a directory, one file per body - i.e. the directory can be
+ * shared by several views and processes.
+ *
+ * <p>The cache is enabled per view via {@link #setCache(View, PersistentBodyCache)}. Bodies that
+ * can not be serialized (see {@link BodySerializer}) are not cached; cache files that can not be
+ * read are treated as a cache miss.
+ */
+public class PersistentBodyCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(PersistentBodyCache.class);
+
+  private static final int MAGIC = 0x4A424459;
+
+  @Nonnull private final Path directory;
+
+  @Nonnull private final AtomicLong hits = new AtomicLong();
+  @Nonnull private final AtomicLong misses = new AtomicLong();
+
+  /** @param directory is created if it does not exist */
+  public PersistentBodyCache(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  @Nonnull
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Enables the given cache for all bodies that are created by the bytecode frontend of the view.
+   */
+  public static void setCache(@Nonnull View<?> view, @Nonnull PersistentBodyCache cache) {
+    view.putModuleData(CacheKey.instance, cache);
+  }
+
+  @Nullable
+  public static PersistentBodyCache getCache(@Nonnull View<?> view) {
+    return view.getModuleData(CacheKey.instance);
+  }
+
+  /** Hashes the content of a class file. */
+  @Nonnull
+  public static String hashClassFile(@Nonnull byte[] classFile) {
+    return Hashing.sha256().hashBytes(classFile).toString();
+  }
+
+  /**
+   * The interceptors are identified by their {@link BodyInterceptor#getConfigurationKey()
+   * configuration key}.
+   *
+   * @return the key of the body or an empty Optional if an interceptor has no configuration key,
+   *     i.e. if the body must not be cached
+   */
+  @Nonnull
+  public Optional<String> getKey(
+      @Nonnull String classFileHash,
+      @Nonnull MethodSignature signature,
+      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(BodySerializer.VERSION);
+    hasher.putString(classFileHash, StandardCharsets.UTF_8);
+    hasher.putString(signature.toString(), StandardCharsets.UTF_8);
+    for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+      final String configurationKey = bodyInterceptor.getConfigurationKey();
+      if (configurationKey == null) {
+        return Optional.empty();
+      }
+      hasher.putString(configurationKey, StandardCharsets.UTF_8);
+      // separates the keys, so that their concatenation is unambiguous
+      hasher.putInt(configurationKey.length());
+    }
+    return Optional.of(hasher.hash().toString());
+  }
+
+  /**
+   * @param identifierFactory creates the signatures and types of the body i.e. the factory of the
+   *     view that requests the body
+   * @return the cached body or an empty Optional if there is none
+   */
+  @Nonnull
+  public Optional<Body> load(
+      @Nonnull String key,
+      @Nonnull MethodSignature signature,
+      @Nonnull JavaIdentifierFactory identifierFactory) {
+    final Path file = getFile(key);
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      final JimpleInput input = new JimpleInput(in, identifierFactory);
+      if (input.readInt() != MAGIC || input.readVarInt() != BodySerializer.VERSION) {
+        throw new IOException("Unknown format");
+      }
+      final Body body = BodySerializer.read(input);
+      if (!body.getMethodSignature().equals(signature)) {
+        throw new IOException("Cached body of " + body.getMethodSignature());
+      }
+      hits.incrementAndGet();
+      return Optional.of(body);
+    } catch (NoSuchFileException e) {
+      misses.incrementAndGet();
+      return Optional.empty();
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Could not read the cached body of {} from {}", signature, file, e);
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the body unless it can not be serialized (see {@link
+   * BodySerializer#writeIfSupported(Body, JimpleOutput)}) or written.
+   *
+   * @return whether the body has been stored
+   */
+  public boolean store(@Nonnull String key, @Nonnull Body body) {
+    final Path file = getFile(key);
+    Path tmpFile = null;
+    try {
+      Files.createDirectories(file.getParent());
+      // a unique temporary file, as the same body can be stored concurrently
+      tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      final boolean isSupported;
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+        final JimpleOutput output = new JimpleOutput(out);
+        output.writeInt(MAGIC);
+        output.writeVarInt(BodySerializer.VERSION);
+        isSupported = BodySerializer.writeIfSupported(body, output);
+      }
+      if (!isSupported) {
+        logger.debug("The body of {} can not be serialized", body.getMethodSignature());
+        return false;
+      }
+      Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+      tmpFile = null;
+      return true;
+    } catch (IOException e) {
+      logger.debug("Could not cache the body of {}", body.getMethodSignature(), e);
+      return false;
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException ignored) {
+          // the temporary file is left behind
+        }
+      }
+    }
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Nonnull
+  private Path getFile(@Nonnull String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".body");
+  }
+
+  private static final class CacheKey extends View.ModuleDataKey<PersistentBodyCache> {
+    private static final CacheKey instance = new CacheKey();
+
+    private CacheKey() {}
+  }
+}
@@ -0,0 +1,344 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.views.View;
+
+/**
+ * Keeps archives (jar, zip, ...) open while they are in use, so that the central directory of an
+ * archive is read once instead of for every class that is loaded from it. An archive is read via
+ * {@link ZipFile} which gives random access to its entries.
+ *
+ * <p>An {@link Archive} is reference counted: it is acquired for a lookup and released by closing
+ * it. An archive that has not been acquired for the idle timeout is closed by a background (daemon)
+ * thread. Closing the pool closes all archives that are not in use and the others as soon as they
+ * are released.
+ *
+ * <p>By default all views share one pool. A view can get its own pool via {@link #setPool(View,
+ * ArchivePool)}, so that its archives are closed when the analysis closes the pool:
+ *
+ * <pre>
+ * try (ArchivePool pool = new ArchivePool(1, TimeUnit.MINUTES)) {
+ *   ArchivePool.setPool(view, pool);
+ *   // analyze the view
+ * }
+ * </pre>
+ */
+public class ArchivePool implements Closeable {
+
+  /** closes the idle archives of all pools; its thread does not keep the JVM alive */
+  @Nonnull private static final ScheduledThreadPoolExecutor evictionExecutor;
+
+  static {
+    evictionExecutor =
+        new ScheduledThreadPoolExecutor(
+            1,
+            runnable -> {
+              final Thread thread = new Thread(runnable, "ArchivePool-eviction");
+              thread.setDaemon(true);
+              return thread;
+            });
+    evictionExecutor.setRemoveOnCancelPolicy(true);
+  }
+
+  @Nonnull private static final ArchivePool defaultPool = new ArchivePool(30, TimeUnit.SECONDS);
+
+  private final long idleTimeoutNanos;
+
+  @Nonnull private final Map<Path, Archive> archives = new HashMap<>();
+
+  private boolean isClosed = false;
+  /** the next run of {@link #evictIdleArchives()} or null if no archive is idle */
+  @Nullable private ScheduledFuture<?> scheduledEviction = null;
+
+  /** @param idleTimeout the time an archive is kept open after it has been released */
+  public ArchivePool(long idleTimeout, @Nonnull TimeUnit unit) {
+    if (idleTimeout < 0) {
+      throw new IllegalArgumentException("The idle timeout must not be negative.");
+    }
+    this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+  }
+
+  /** Returns the pool that is shared by all views which do not have their own pool. */
+  @Nonnull
+  public static ArchivePool getDefault() {
+    return defaultPool;
+  }
+
+  /** Uses the given pool for all archives that are read for the given view. */
+  public static void setPool(@Nonnull View<?> view, @Nonnull ArchivePool pool) {
+    view.putModuleData(PoolKey.instance, pool);
+  }
+
+  /** Returns the pool of the given view or the default pool. */
+  @Nonnull
+  public static ArchivePool getPool(@Nonnull View<?> view) {
+    final ArchivePool pool = view.getModuleData(PoolKey.instance);
+    return pool == null ? defaultPool : pool;
+  }
+
+  /**
+   * Opens the given archive or returns the archive that is already open. The returned archive has
+   * to be closed by the caller.
+   *
+   * <p>The archive is opened outside of the pool lock, so that opening a large archive does not
+   * block the lookups in other archives. Concurrent callers for the same archive wait until it is
+   * open.
+   */
+  @Nonnull
+  public Archive acquire(@Nonnull Path path) throws IOException {
+    final Archive archive;
+    synchronized (this) {
+      if (isClosed) {
+        throw new IllegalStateException("The archive pool is closed.");
+      }
+      final Path key = path.toAbsolutePath().normalize();
+      Archive existing = archives.get(key);
+      if (existing == null) {
+        existing = new Archive(key);
+        archives.put(key, existing);
+      }
+      existing.referenceCount++;
+      archive = existing;
+    }
+
+    try {
+      archive.open();
+    } catch (IOException | RuntimeException e) {
+      discard(archive);
+      throw e;
+    }
+    return archive;
+  }
+
+  /** Drops the reference of an acquirer that could not open the archive. */
+  private synchronized void discard(@Nonnull Archive archive) {
+    archive.referenceCount--;
+    if (archive.referenceCount == 0) {
+      // the archive has not been opened, so there is nothing to close
+      archives.remove(archive.path, archive);
+    }
+  }
+
+  /** Returns the number of archives that are open. */
+  public synchronized int size() {
+    return archives.size();
+  }
+
+  private synchronized void release(@Nonnull Archive archive) throws IOException {
+    if (archive.referenceCount <= 0) {
+      throw new IllegalStateException("The archive " + archive.path + " is already released.");
+    }
+    archive.referenceCount--;
+    archive.lastReleased = System.nanoTime();
+
+    if (archive.referenceCount == 0) {
+      if (isClosed || idleTimeoutNanos == 0) {
+        archives.remove(archive.path);
+        archive.closeZipFile();
+      } else {
+        scheduleEviction(idleTimeoutNanos);
+      }
+    }
+  }
+
+  /**
+   * Schedules the eviction of idle archives unless it is already scheduled. Guarded by the pool.
+   */
+  private void scheduleEviction(long delayNanos) {
+    if (scheduledEviction == null) {
+      scheduledEviction =
+          evictionExecutor.schedule(this::evictIdleArchives, delayNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** Closes the archives which are idle for the timeout and reschedules itself for the others. */
+  private synchronized void evictIdleArchives() {
+    scheduledEviction = null;
+    final long now = System.nanoTime();
+    long nextDelay = Long.MAX_VALUE;
+    final Iterator<Archive> it = archives.values().iterator();
+    while (it.hasNext()) {
+      final Archive archive = it.next();
+      if (archive.referenceCount > 0) {
+        continue;
+      }
+      final long remaining = archive.lastReleased + idleTimeoutNanos - now;
+      if (remaining <= 0) {
+        it.remove();
+        try {
+          archive.closeZipFile();
+        } catch (IOException ignored) {
+          // nothing was written, so nothing can be lost
+        }
+      } else {
+        nextDelay = Math.min(nextDelay, remaining);
+      }
+    }
+    if (nextDelay != Long.MAX_VALUE && !isClosed) {
+      scheduleEviction(nextDelay);
+    }
+  }
+
+  /** Closes all archives that are not in use. Archives in use are closed when released. */
+  @Override
+  public synchronized void close() throws IOException {
+    isClosed = true;
+    if (scheduledEviction != null) {
+      scheduledEviction.cancel(false);
+      scheduledEviction = null;
+    }
+    IOException exception = null;
+    final Iterator<Archive> it = archives.values().iterator();
+    while (it.hasNext()) {
+      final Archive archive = it.next();
+      if (archive.referenceCount == 0) {
+        it.remove();
+        try {
+          archive.closeZipFile();
+        } catch (IOException e) {
+          exception = e;
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /** An open archive. Its entries can be read concurrently. */
+  public final class Archive implements Closeable {
+    @Nonnull private final Path path;
+    /** set by the first acquirer, guarded by the archive */
+    @Nullable private volatile ZipFile zipFile;
+
+    // guarded by the pool
+    private int referenceCount = 0;
+    private long lastReleased;
+
+    private Archive(@Nonnull Path path) {
+      this.path = path;
+    }
+
+    /** Opens the archive unless it is already open. */
+    private synchronized void open() throws IOException {
+      if (zipFile == null) {
+        zipFile = new ZipFile(path.toFile());
+      }
+    }
+
+    /** Called by the pool when the last reference has been released. */
+    private synchronized void closeZipFile() throws IOException {
+      if (zipFile != null) {
+        zipFile.close();
+      }
+    }
+
+    @Nonnull
+    public Path getPath() {
+      return path;
+    }
+
+    public boolean hasEntry(@Nonnull String entryName) {
+      return zipFile.getEntry(entryName) != null;
+    }
+
+    /** Returns the names of all files in the archive. */
+    @Nonnull
+    public List<String> getEntryNames() {
+      final List<String> entryNames = new ArrayList<>(zipFile.size());
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        final ZipEntry entry = entries.nextElement();
+        if (!entry.isDirectory()) {
+          entryNames.add(entry.getName());
+        }
+      }
+      return entryNames;
+    }
+
+    /** Returns the content of the given entry or null if the archive does not contain it. */
+    @Nullable
+    public byte[] read(@Nonnull String entryName) throws IOException {
+      final ZipEntry entry = zipFile.getEntry(entryName);
+      if (entry == null || entry.isDirectory()) {
+        return null;
+      }
+      try (InputStream in = zipFile.getInputStream(entry)) {
+        return readFully(in, entry.getSize());
+      }
+    }
+
+    /** Releases the archive. */
+    @Override
+    public void close() throws IOException {
+      release(this);
+    }
+  }
+
+  @Nonnull
+  private static byte[] readFully(@Nonnull InputStream in, long size) throws IOException {
+    byte[] buffer = new byte[size >= 0 && size < Integer.MAX_VALUE ? (int) size : 8192];
+    int length = 0;
+    while (true) {
+      if (length == buffer.length) {
+        final int next = in.read();
+        if (next < 0) {
+          return buffer;
+        }
+        // the size of the entry was unknown or wrong
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, 8192));
+        buffer[length++] = (byte) next;
+      }
+      final int read = in.read(buffer, length, buffer.length - length);
+      if (read < 0) {
+        return Arrays.copyOf(buffer, length);
+      }
+      length += read;
+    }
+  }
+
+  private static final class PoolKey extends View.ModuleDataKey<ArchivePool> {
+    private static final PoolKey instance = new PoolKey();
+
+    private PoolKey() {}
+  }
+}
@@ -25,6 +25,8 @@ package sootup.java.bytecode.inputlocation;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -35,6 +37,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassHeader;
+import sootup.core.inputlocation.ClassHeaderAnalysisInputLocation;
+import sootup.core.inputlocation.ClassIndex;
+import sootup.core.inputlocation.IndexableAnalysisInputLocation;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
@@ -50,12 +56,18 @@ import sootup.java.core.JavaSootClass;
  * @author Manuel Benz created on 22.05.18
  * @author Kaustubh Kelkar updated on 20.07.2020
  */
-public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation<JavaSootClass> {
+public class JavaClassPathAnalysisInputLocation
+    implements AnalysisInputLocation<JavaSootClass>,
+        IndexableAnalysisInputLocation,
+        ClassHeaderAnalysisInputLocation {
   private static final @Nonnull Logger logger =
       LoggerFactory.getLogger(JavaClassPathAnalysisInputLocation.class);
   private static final @Nonnull String WILDCARD_CHAR = "*";
 
-  @Nonnull private final Collection<AnalysisInputLocation<JavaSootClass>> cpEntries;
+  @Nonnull private final List<AnalysisInputLocation<JavaSootClass>> cpEntries;
+
+  /** if set, a lookup asks only the class path entry which contains the class */
+  @Nullable private volatile ClassIndex<JavaSootClass> classIndex = null;
 
   /** Variable to track if user has specified the SourceType. By default, it will be set to null. */
   private SourceType srcType = null;
@@ -187,10 +199,29 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return found;
   }
 
+  @Override
+  @Nonnull
+  public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+      @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+    Set<AbstractClassSource<JavaSootClass>> found = new HashSet<>();
+    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+      found.addAll(inputLocation.getClassSources(view, pool));
+    }
+    return found;
+  }
+
   @Override
   @Nonnull
   public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
       @Nonnull ClassType type, @Nonnull View<?> view) {
+    final ClassIndex<JavaSootClass> index = classIndex;
+    if (index != null) {
+      // the index contains only the class path entries
+      @SuppressWarnings("unchecked")
+      final Optional<? extends AbstractClassSource<JavaSootClass>> classSource =
+          (Optional<? extends AbstractClassSource<JavaSootClass>>) index.getClassSource(type, view);
+      return classSource;
+    }
     for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
       final Optional<? extends AbstractClassSource<JavaSootClass>> classSource =
           inputLocation.getClassSource(type, view);
@@ -201,6 +232,84 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return Optional.empty();
   }
 
+  /** Reads the header of the class of the given type from the first class path entry. */
+  @Override
+  @Nonnull
+  public Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view) {
+    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+      final Optional<ClassHeader> header =
+          ClassHeaderAnalysisInputLocation.readClassHeader(inputLocation, type, view);
+      if (header.isPresent()) {
+        return header;
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  @Nonnull
+  public Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view) {
+    final List<ClassHeader> headers = new ArrayList<>();
+    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+      headers.addAll(ClassHeaderAnalysisInputLocation.readClassHeaders(inputLocation, view));
+    }
+    return headers;
+  }
+
+  /**
+   * Indexes the classes of all class path entries in parallel, so that a lookup asks only the entry
+   * which contains the class instead of every entry. The first entry which contains a class still
+   * wins.
+   *
+   * @param indexFile if not null, the listings of unchanged archives are reused from this file and
+   *     it is updated if necessary - e.g. a file next to the class path.
+   */
+  @Nonnull
+  public ClassIndex<JavaSootClass> buildClassIndex(@Nullable Path indexFile) {
+    final ClassIndex<JavaSootClass> index =
+        indexFile == null ? ClassIndex.build(cpEntries) : ClassIndex.load(cpEntries, indexFile);
+    classIndex = index;
+    return index;
+  }
+
+  @Override
+  public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+    final List<String> classNames = new ArrayList<>();
+    final List<String> entries = new ArrayList<>();
+    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+      if (!(inputLocation instanceof IndexableAnalysisInputLocation)
+          || !((IndexableAnalysisInputLocation) inputLocation)
+              .listClasses(
+                  (className, entry) -> {
+                    classNames.add(className);
+                    entries.add(entry);
+                  })) {
+        return false;
+      }
+    }
+    for (int i = 0; i < classNames.size(); i++) {
+      consumer.accept(classNames.get(i), entries.get(i));
+    }
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public String getIndexStamp() {
+    final StringBuilder stamp = new StringBuilder();
+    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+      final String entryStamp =
+          inputLocation instanceof IndexableAnalysisInputLocation
+              ? ((IndexableAnalysisInputLocation) inputLocation).getIndexStamp()
+              : null;
+      if (entryStamp == null) {
+        return null;
+      }
+      stamp.append(entryStamp).append(File.pathSeparatorChar);
+    }
+    return stamp.toString();
+  }
+
   @Nonnull
   private Optional<AnalysisInputLocation<JavaSootClass>> inputLocationForPath(@Nonnull Path path) {
     if (Files.exists(path) && (Files.isDirectory(path) || PathUtils.isArchive(path))) {
@@ -30,14 +30,17 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.IndexableAnalysisInputLocation;
 import sootup.core.types.ClassType;
 import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
@@ -56,7 +59,8 @@ import sootup.java.core.types.JavaClassType;
  *
  * @author Andreas Dann created on 06.06.18
  */
-public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInputLocation {
+public class JrtFileSystemAnalysisInputLocation
+    implements ModuleInfoAnalysisInputLocation, IndexableAnalysisInputLocation {
 
   private static final FileSystem theFileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
   Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
@@ -170,6 +174,37 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
         .collect(Collectors.toList());
   }
 
+  @Override
+  public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+    final Path moduleRoot = theFileSystem.getPath("modules");
+    try (Stream<Path> walk = Files.walk(moduleRoot)) {
+      walk.filter(Files::isRegularFile)
+          .forEach(
+              file -> {
+                // i.e. /modules/<module>/package/Class.class
+                final String className =
+                    PathBasedAnalysisInputLocation.toClassName(
+                        file.subpath(2, file.getNameCount()).toString());
+                if (className != null) {
+                  consumer.accept(className, file.toString());
+                }
+              });
+    } catch (IOException e) {
+      throw new ResolveException("Error while listing the classes", moduleRoot, e);
+    }
+    return true;
+  }
+
+  /** The runtime image changes only with the installation of the jvm. */
+  @Nullable
+  @Override
+  public String getIndexStamp() {
+    return "jrt:"
+        + System.getProperty("java.home")
+        + ":"
+        + System.getProperty("java.runtime.version");
+  }
+
   /**
    * Discover and return all modules contained in the jrt filesystem.
    *
@@ -1,19 +1,17 @@
 package sootup.java.bytecode.inputlocation;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalNotification;
 import com.googlecode.dex2jar.tools.Dex2jarCmd;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import javax.annotation.Nonnull;
@@ -29,12 +27,16 @@ import org.xml.sax.SAXException;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.ResolveException;
+import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassHeader;
+import sootup.core.inputlocation.ClassHeaderAnalysisInputLocation;
 import sootup.core.inputlocation.FileType;
+import sootup.core.inputlocation.IndexableAnalysisInputLocation;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
-import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
 import sootup.java.bytecode.frontend.AsmModuleSource;
@@ -75,7 +77,11 @@ import sootup.java.core.types.ModuleJavaClassType;
  * @author Manuel Benz created on 22.05.18
  * @author Kaustubh Kelkar updated on 30.07.2020
  */
-public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<JavaSootClass> {
+public class PathBasedAnalysisInputLocation
+    implements AnalysisInputLocation<JavaSootClass>,
+        IndexableAnalysisInputLocation,
+        ClassHeaderAnalysisInputLocation,
+        Closeable {
   protected Path path;
 
   /**
@@ -156,11 +162,89 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     return pathBasedAnalysisInputLocationObj.getClassSources(view);
   }
 
+  @Nonnull
+  @Override
+  public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+      @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+    return pathBasedAnalysisInputLocationObj.getClassSources(view, pool);
+  }
+
+  /**
+   * Reads the header of the class of the given type. Class files in directories and archives are
+   * read without parsing their fields and methods, otherwise the header is taken from the class
+   * source.
+   */
+  @Nonnull
+  @Override
+  public Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view) {
+    if (pathBasedAnalysisInputLocationObj != null) {
+      return pathBasedAnalysisInputLocationObj.getClassHeader(type, view);
+    }
+    // e.g. a multi release jar which chooses the class file by the language version of the view
+    Optional<? extends AbstractClassSource<JavaSootClass>> classSource = getClassSource(type, view);
+    if (classSource.isPresent() && classSource.get() instanceof SootClassSource) {
+      return Optional.of(ClassHeader.of((SootClassSource<?>) classSource.get()));
+    }
+    return Optional.empty();
+  }
+
+  @Nonnull
+  @Override
+  public Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view) {
+    if (pathBasedAnalysisInputLocationObj != null) {
+      return pathBasedAnalysisInputLocationObj.getClassHeaders(view);
+    }
+    return getClassSources(view).stream()
+        .filter(classSource -> classSource instanceof SootClassSource)
+        .map(classSource -> ClassHeader.of((SootClassSource<?>) classSource))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public SourceType getSourceType() {
     return srcType;
   }
 
+  @Override
+  public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+    return pathBasedAnalysisInputLocationObj != null
+        && pathBasedAnalysisInputLocationObj.listClasses(consumer);
+  }
+
+  @Nullable
+  @Override
+  public String getIndexStamp() {
+    return pathBasedAnalysisInputLocationObj == null
+        ? null
+        : pathBasedAnalysisInputLocationObj.getIndexStamp();
+  }
+
+  /**
+   * Releases the resources that are held for the lifetime of this location, i.e. the file system of
+   * a multi release jar. Archives are opened via the {@link ArchivePool} and are not affected.
+   */
+  @Override
+  public void close() throws IOException {
+    if (pathBasedAnalysisInputLocationObj != null) {
+      pathBasedAnalysisInputLocationObj.close();
+    }
+  }
+
+  /**
+   * Returns the fully qualified name of the class in the file with the given path (separated by
+   * '/') relative to the root of this location or null if the file does not contain a class.
+   */
+  @Nullable
+  static String toClassName(@Nonnull String relativePath) {
+    final String extension = "." + FileType.CLASS.getExtension();
+    if (!relativePath.endsWith(extension)
+        || relativePath.startsWith("META-INF/")
+        || relativePath.endsWith(JavaModuleIdentifierFactory.MODULE_INFO_FILE + extension)) {
+      return null;
+    }
+    return relativePath.substring(0, relativePath.length() - extension.length()).replace('/', '.');
+  }
+
   private static boolean isMultiReleaseJar(Path path) {
     try {
       FileInputStream inputStream = new FileInputStream(path.toFile());
@@ -185,29 +269,45 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     return false;
   }
 
+  /**
+   * Creates class sources for all files in the given directory that can be handled by the given
+   * classProvider.
+   *
+   * @param pool parses the files in parallel or null to parse them sequentially
+   */
   @Nonnull
   Collection<? extends AbstractClassSource<JavaSootClass>> walkDirectory(
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
-      @Nonnull ClassProvider<JavaSootClass> classProvider) {
-    try {
-      final FileType handledFileType = classProvider.getHandledFileType();
-      final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
-      return Files.walk(dirPath)
-          .filter(
-              filePath ->
-                  PathUtils.hasExtension(filePath, handledFileType)
-                      && !filePath.toString().endsWith(moduleInfoFilename))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      Optional.of(
-                          classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)))))
-          .collect(Collectors.toList());
-
+      @Nonnull ClassProvider<JavaSootClass> classProvider,
+      @Nullable ForkJoinPool pool) {
+    final FileType handledFileType = classProvider.getHandledFileType();
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+    final List<Path> files;
+    try (Stream<Path> walk = Files.walk(dirPath)) {
+      files =
+          walk.filter(
+                  filePath ->
+                      PathUtils.hasExtension(filePath, handledFileType)
+                          && !filePath.toString().endsWith(moduleInfoFilename))
+              .collect(Collectors.toList());
     } catch (IOException e) {
       throw new IllegalArgumentException(e);
     }
+
+    return map(
+        files, p -> classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)), pool);
+  }
+
+  /** Maps the given elements in parallel on the given pool or sequentially if it is null. */
+  @Nonnull
+  static <T, R> List<R> map(
+      @Nonnull List<T> elements, @Nonnull Function<T, R> mapper, @Nullable ForkJoinPool pool) {
+    if (pool == null) {
+      return elements.stream().map(mapper).collect(Collectors.toList());
+    }
+    return pool.submit(() -> elements.parallelStream().map(mapper).collect(Collectors.toList()))
+        .join();
   }
 
   @Nonnull
@@ -242,7 +342,14 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
-      return walkDirectory(path, view.getIdentifierFactory(), new AsmJavaClassProvider(view));
+      return walkDirectory(path, view.getIdentifierFactory(), new AsmJavaClassProvider(view), null);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+      return walkDirectory(path, view.getIdentifierFactory(), new AsmJavaClassProvider(view), pool);
     }
 
     @Override
@@ -251,6 +358,75 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
         @Nonnull ClassType type, @Nonnull View<?> view) {
       return getClassSourceInternal((JavaClassType) type, path, new AsmJavaClassProvider(view));
     }
+
+    @Override
+    @Nonnull
+    public Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view) {
+      final Path pathToClass =
+          path.resolve(
+              path.getFileSystem()
+                  .getPath(
+                      type.getFullyQualifiedName().replace('.', '/')
+                          + "."
+                          + FileType.CLASS.getExtension()));
+      if (!Files.exists(pathToClass)) {
+        return Optional.empty();
+      }
+      return Optional.of(readClassHeader(type, pathToClass));
+    }
+
+    @Override
+    @Nonnull
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view) {
+      final IdentifierFactory factory = view.getIdentifierFactory();
+      try (Stream<Path> walk = Files.walk(path)) {
+        return walk.filter(
+                file ->
+                    Files.isRegularFile(file)
+                        && toClassName(
+                                path.relativize(file).toString().replace(File.separatorChar, '/'))
+                            != null)
+            .map(file -> readClassHeader(factory.fromPath(path, file), file))
+            .collect(Collectors.toList());
+      } catch (IOException e) {
+        throw new ResolveException("Could not list the classes", path, e);
+      }
+    }
+
+    @Nonnull
+    private static ClassHeader readClassHeader(@Nonnull ClassType type, @Nonnull Path classFile) {
+      try {
+        return AsmJavaClassProvider.readClassHeader(type, Files.readAllBytes(classFile));
+      } catch (IOException e) {
+        throw new ResolveException("Could not read the class file", classFile, e);
+      }
+    }
+
+    @Override
+    public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+      try (Stream<Path> walk = Files.walk(path)) {
+        walk.filter(Files::isRegularFile)
+            .forEach(
+                file -> {
+                  final String entry =
+                      path.relativize(file).toString().replace(File.separatorChar, '/');
+                  final String className = toClassName(entry);
+                  if (className != null) {
+                    consumer.accept(className, entry);
+                  }
+                });
+      } catch (IOException e) {
+        throw new ResolveException("Could not list the classes", path, e);
+      }
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public String getIndexStamp() {
+      // the modification time of a directory does not cover changes in its subdirectories
+      return null;
+    }
   }
 
   public static class MultiReleaseJarAnalysisInputLocation extends ArchiveBasedAnalysisInputLocation
@@ -271,20 +447,30 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
 
     boolean isResolved = false;
 
+    /**
+     * the contained input locations are directories in this file system, so it is open until this
+     * location is closed
+     */
+    @Nonnull private final FileSystem fileSystem;
+
     private MultiReleaseJarAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
       super(path, srcType);
 
+      try {
+        fileSystem = FileSystems.newFileSystem(path, (ClassLoader) null);
+      } catch (IOException e) {
+        throw new ResolveException("Could not open the archive", path, e);
+      }
+
       int[] tmp;
       try {
-        FileSystem fs = fileSystemCache.get(path);
-        final Path archiveRoot = fs.getPath("/");
         tmp =
-            Files.list(archiveRoot.getFileSystem().getPath("/META-INF/versions/"))
+            Files.list(fileSystem.getPath("/META-INF/versions/"))
                 .map(dir -> dir.getFileName().toString().replace("/", ""))
                 .mapToInt(Integer::new)
                 .sorted()
                 .toArray();
-      } catch (IOException | ExecutionException e) {
+      } catch (IOException e) {
         e.printStackTrace();
         tmp = new int[] {};
       }
@@ -293,15 +479,14 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       discoverInputLocations(srcType);
     }
 
+    @Override
+    public void close() throws IOException {
+      fileSystem.close();
+    }
+
     /** Discovers all input locations for different java versions in this multi release jar */
     private void discoverInputLocations(@Nullable SourceType srcType) {
-      FileSystem fs = null;
-      try {
-        fs = fileSystemCache.get(path);
-      } catch (ExecutionException e) {
-        e.printStackTrace();
-      }
-      final Path archiveRoot = fs.getPath("/");
+      final Path archiveRoot = fileSystem.getPath("/");
       final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
 
       baseInputLocations.add(new PathBasedAnalysisInputLocation(archiveRoot, srcType));
@@ -513,6 +698,18 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
           .collect(Collectors.toSet());
     }
 
+    @Override
+    public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+      // the entry of a class depends on the language version of the view
+      return false;
+    }
+
+    @Nullable
+    @Override
+    public String getIndexStamp() {
+      return null;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (!(o instanceof PathBasedAnalysisInputLocation)) {
@@ -548,32 +745,6 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
 
   private static class ArchiveBasedAnalysisInputLocation extends PathBasedAnalysisInputLocation {
 
-    // We cache the FileSystem instances as their creation is expensive.
-    // The Guava Cache is thread-safe (see JavaDoc of LoadingCache) hence this
-    // cache can be safely shared in a static variable.
-    protected static final LoadingCache<Path, FileSystem> fileSystemCache =
-        CacheBuilder.newBuilder()
-            .removalListener(
-                (RemovalNotification<Path, FileSystem> removalNotification) -> {
-                  try {
-                    removalNotification.getValue().close();
-                  } catch (IOException e) {
-                    throw new RuntimeException(
-                        "Could not close file system of " + removalNotification.getKey(), e);
-                  }
-                })
-            .expireAfterAccess(1, TimeUnit.SECONDS)
-            .build(
-                CacheLoader.from(
-                    path -> {
-                      try {
-                        return FileSystems.newFileSystem(
-                            Objects.requireNonNull(path), (ClassLoader) null);
-                      } catch (IOException e) {
-                        throw new RuntimeException("Could not open file system of " + path, e);
-                      }
-                    }));
-
     private ArchiveBasedAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
       super(path);
       super.setSpecifiedAsBuiltInByUser(srcType);
@@ -583,13 +754,54 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
-      try {
-        FileSystem fs = fileSystemCache.get(path);
-        final Path archiveRoot = fs.getPath("/");
-        return getClassSourceInternal(
-            (JavaClassType) type, archiveRoot, new AsmJavaClassProvider(view));
-      } catch (ExecutionException e) {
-        throw new RuntimeException("Failed to retrieve file system from cache for " + path, e);
+      final String entryName =
+          type.getFullyQualifiedName().replace('.', '/') + "." + FileType.CLASS.getExtension();
+      try (ArchivePool.Archive archive = ArchivePool.getPool(view).acquire(path)) {
+        final byte[] classFile = archive.read(entryName);
+        if (classFile == null) {
+          return Optional.empty();
+        }
+        return Optional.of(
+            new AsmJavaClassProvider(view)
+                .createClassSource(this, path.resolve(entryName), type, classFile));
+      } catch (IOException e) {
+        throw new ResolveException("Could not read the archive", path, e);
+      }
+    }
+
+    @Override
+    @Nonnull
+    public Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view) {
+      final String entryName =
+          type.getFullyQualifiedName().replace('.', '/') + "." + FileType.CLASS.getExtension();
+      try (ArchivePool.Archive archive = ArchivePool.getPool(view).acquire(path)) {
+        final byte[] classFile = archive.read(entryName);
+        if (classFile == null) {
+          return Optional.empty();
+        }
+        return Optional.of(AsmJavaClassProvider.readClassHeader(type, classFile));
+      } catch (IOException e) {
+        throw new ResolveException("Could not read the archive", path, e);
+      }
+    }
+
+    @Override
+    @Nonnull
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view) {
+      final IdentifierFactory factory = view.getIdentifierFactory();
+      try (ArchivePool.Archive archive = ArchivePool.getPool(view).acquire(path)) {
+        final List<ClassHeader> headers = new ArrayList<>();
+        for (String entryName : archive.getEntryNames()) {
+          final String className = toClassName(entryName);
+          if (className != null) {
+            headers.add(
+                AsmJavaClassProvider.readClassHeader(
+                    factory.getClassType(className), archive.read(entryName)));
+          }
+        }
+        return headers;
+      } catch (IOException e) {
+        throw new ResolveException("Could not read the archive", path, e);
       }
     }
 
@@ -597,14 +809,82 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
-      // we don't use the filesystem cache here as it could close the filesystem after the timeout
-      // while we are still iterating
-      try (FileSystem fs = FileSystems.newFileSystem(path, (ClassLoader) null)) {
-        final Path archiveRoot = fs.getPath("/");
-        return walkDirectory(
-            archiveRoot, view.getProject().getIdentifierFactory(), new AsmJavaClassProvider(view));
+      return readArchive(view, null);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+      return readArchive(view, pool);
+    }
+
+    /**
+     * Reads all classes from the archive.
+     *
+     * @param pool parses the classes in parallel or null to parse them sequentially
+     */
+    @Nonnull
+    private Collection<? extends AbstractClassSource<JavaSootClass>> readArchive(
+        @Nonnull View<?> view, @Nullable ForkJoinPool pool) {
+      final IdentifierFactory factory = view.getProject().getIdentifierFactory();
+      final AsmJavaClassProvider classProvider = new AsmJavaClassProvider(view);
+      try (ArchivePool.Archive archive = ArchivePool.getPool(view).acquire(path)) {
+        final List<String> entryNames =
+            archive.getEntryNames().stream()
+                .filter(entryName -> toClassName(entryName) != null)
+                .collect(Collectors.toList());
+        return map(
+            entryNames,
+            entryName -> {
+              final byte[] classFile;
+              try {
+                classFile = archive.read(entryName);
+              } catch (IOException e) {
+                throw new ResolveException("Could not read " + entryName, path, e);
+              }
+              return classProvider.createClassSource(
+                  this,
+                  path.resolve(entryName),
+                  factory.getClassType(toClassName(entryName)),
+                  classFile);
+            },
+            pool);
       } catch (IOException e) {
-        throw new RuntimeException(e);
+        throw new ResolveException("Could not read the archive", path, e);
+      }
+    }
+
+    /**
+     * Lists the classes from the central directory of the archive. The listing is not bound to a
+     * view, so the archive is opened via the {@link ArchivePool#getDefault() default pool}.
+     */
+    @Override
+    public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+      try (ArchivePool.Archive archive = ArchivePool.getDefault().acquire(path)) {
+        for (String entryName : archive.getEntryNames()) {
+          final String className = toClassName(entryName);
+          if (className != null) {
+            consumer.accept(className, entryName);
+          }
+        }
+      } catch (IOException e) {
+        throw new ResolveException("Could not list the classes", path, e);
+      }
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public String getIndexStamp() {
+      try {
+        return path.toAbsolutePath()
+            + ":"
+            + Files.size(path)
+            + ":"
+            + Files.getLastModifiedTime(path).toMillis();
+      } catch (IOException e) {
+        return null;
       }
     }
   }
@@ -663,6 +943,19 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       return foundClasses;
     }
 
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+
+      Set<AbstractClassSource<JavaSootClass>> foundClasses = new HashSet<>();
+
+      for (AnalysisInputLocation<JavaSootClass> inputLoc : containedInputLocations) {
+        foundClasses.addAll(inputLoc.getClassSources(view, pool));
+      }
+      return foundClasses;
+    }
+
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
@@ -679,6 +972,35 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       return Optional.empty();
     }
 
+    @Override
+    @Nonnull
+    public Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view) {
+      for (AnalysisInputLocation<JavaSootClass> inputLocation : containedInputLocations) {
+        final Optional<ClassHeader> header =
+            ClassHeaderAnalysisInputLocation.readClassHeader(inputLocation, type, view);
+        if (header.isPresent()) {
+          return header;
+        }
+      }
+      return Optional.empty();
+    }
+
+    @Override
+    @Nonnull
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view) {
+      final List<ClassHeader> headers = new ArrayList<>();
+      for (AnalysisInputLocation<JavaSootClass> inputLocation : containedInputLocations) {
+        headers.addAll(ClassHeaderAnalysisInputLocation.readClassHeaders(inputLocation, view));
+      }
+      return headers;
+    }
+
+    @Override
+    public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+      // the classes are in the contained locations
+      return false;
+    }
+
     /**
      * Extracts the war file at the temporary location to analyze underlying class and jar files
      *
@@ -53,6 +53,12 @@ public class Aggregator implements BodyInterceptor {
     this.onlyStackVars = onlyStackVars;
   }
 
+  @Nonnull
+  @Override
+  public String getConfigurationKey() {
+    return getClass().getName() + "(onlyStackVars=" + onlyStackVars + ")";
+  }
+
   /**
    * Traverse the statements in the given body, looking for aggregation possibilities; that is,
    * given a def d and a use u, d has no other uses, u has no other defs, collapse d and u.
@@ -21,7 +21,6 @@ package sootup.java.bytecode.interceptors;
  * #L%
  */
 import com.google.common.collect.Lists;
-import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
@@ -31,7 +30,6 @@ import sootup.core.jimple.common.constant.Constant;
 import sootup.core.jimple.common.constant.NullConstant;
 import sootup.core.jimple.common.constant.NumericConstant;
 import sootup.core.jimple.common.constant.StringConstant;
-import sootup.core.jimple.common.expr.AbstractBinopExpr;
 import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.JReturnStmt;
@@ -50,29 +48,18 @@ public class ConstantPropagatorAndFolder implements BodyInterceptor {
 
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
-    List<Stmt> defs = new ArrayList<>();
-
     // Perform a constant/local propagation pass
     // go through each use in each statement
     for (Stmt stmt : Lists.newArrayList(builder.getStmts())) {
       // propagation pass
-      if (stmt instanceof JAssignStmt) {
-        Value rhs = ((AbstractDefinitionStmt) stmt).getRightOp();
-        if (rhs instanceof AbstractBinopExpr) {
-          Value op1 = ((AbstractBinopExpr) rhs).getOp1();
-          Value op2 = ((AbstractBinopExpr) rhs).getOp2();
-
-          if (op1 instanceof NumericConstant && op2 instanceof NumericConstant) {
-            defs.add(stmt);
-          }
-        }
-      } else if (stmt instanceof JReturnStmt) {
+      if (stmt instanceof JReturnStmt) {
         for (Value value : stmt.getUses()) {
           if (value instanceof Local) {
-            List<AbstractDefinitionStmt<Local, Value>> defsOfUse =
-                ((Local) value).getDefsOfLocal(defs);
+            List<Stmt> defsOfUse =
+                builder.getReachingDefinitions().getDefsOfUse((Local) value, stmt);
             if (defsOfUse.size() == 1) {
-              AbstractDefinitionStmt<?, ?> definitionStmt = defsOfUse.get(0);
+              AbstractDefinitionStmt<?, ?> definitionStmt =
+                  (AbstractDefinitionStmt<?, ?>) defsOfUse.get(0);
               Value rhs = definitionStmt.getRightOp();
               if (rhs instanceof NumericConstant
                   || rhs instanceof StringConstant
@@ -80,7 +67,6 @@ public class ConstantPropagatorAndFolder implements BodyInterceptor {
                 JReturnStmt returnStmt = new JReturnStmt((Immediate) rhs, stmt.getPositionInfo());
                 builder.replaceStmt(stmt, returnStmt);
                 stmt = returnStmt;
-                defs.add(returnStmt);
               }
             }
           }
@@ -95,8 +81,6 @@ public class ConstantPropagatorAndFolder implements BodyInterceptor {
             if (stmt instanceof JAssignStmt) {
               JAssignStmt assignStmt = ((JAssignStmt) stmt).withRValue(value);
               builder.replaceStmt(stmt, assignStmt);
-              defs.remove(stmt);
-              defs.add(assignStmt);
             } else if (stmt instanceof JReturnStmt && value != null) {
               JReturnStmt returnStmt = ((JReturnStmt) stmt).withReturnValue((Immediate) value);
               builder.replaceStmt(stmt, returnStmt);
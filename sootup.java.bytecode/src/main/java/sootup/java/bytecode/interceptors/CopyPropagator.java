@@ -46,17 +46,19 @@ public class CopyPropagator implements BodyInterceptor {
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
     final StmtGraph<?> stmtGraph = builder.getStmtGraph();
-    for (Stmt stmt : Lists.newArrayList(stmtGraph)) {
-      for (Value use : stmt.getUses()) {
+    for (Stmt originalStmt : Lists.newArrayList(stmtGraph)) {
+      // the stmt is replaced after each propagation, so keep track of its current version
+      Stmt stmt = originalStmt;
+      for (Value use : originalStmt.getUses()) {
         if (use instanceof Local) {
-          List<Stmt> defsOfUse = ((Local) use).getDefsForLocalUse(stmtGraph, stmt);
+          List<Stmt> defsOfUse = builder.getReachingDefinitions().getDefsOfUse((Local) use, stmt);
 
           if (isPropagable(defsOfUse)) {
             AbstractDefinitionStmt<?, ?> defStmt = (AbstractDefinitionStmt<?, ?>) defsOfUse.get(0);
             Value rhs = defStmt.getRightOp();
             // if rhs is a constant, then replace use, if it is possible
             if (rhs instanceof Constant) {
-              replaceUse(builder, stmt, use, rhs);
+              stmt = replaceUse(builder, stmt, use, rhs);
             }
             // if rhs is a cast expr with a ref type and its op is 0 (IntConstant or LongConstant)
             // then replace use, if it is possible
@@ -64,12 +66,12 @@ public class CopyPropagator implements BodyInterceptor {
               Value op = ((JCastExpr) rhs).getOp();
               if ((op instanceof IntConstant && op.equals(IntConstant.getInstance(0)))
                   || (op instanceof LongConstant && op.equals(LongConstant.getInstance(0)))) {
-                replaceUse(builder, stmt, use, NullConstant.getInstance());
+                stmt = replaceUse(builder, stmt, use, NullConstant.getInstance());
               }
             }
             // if rhs is a local, then replace use, if it is possible
             else if (rhs instanceof Local && !rhs.equivTo(use)) {
-              replaceUse(builder, stmt, use, rhs);
+              stmt = replaceUse(builder, stmt, use, rhs);
             }
           }
         }
@@ -77,13 +79,16 @@ public class CopyPropagator implements BodyInterceptor {
     }
   }
 
-  private void replaceUse(
+  @Nonnull
+  private Stmt replaceUse(
       @Nonnull Body.BodyBuilder builder, @Nonnull Stmt stmt, Value use, Value rhs) {
     Stmt newStmt = stmt.withNewUse(use, rhs);
     // TODO: [ms] check if the following check could be obsolete as checks are already done?
-    if (!stmt.equivTo(newStmt)) {
+    if (newStmt != null && !stmt.equivTo(newStmt)) {
       builder.replaceStmt(stmt, newStmt);
+      return newStmt;
     }
+    return stmt;
   }
 
   private boolean isPropagable(List<Stmt> defsOfUse) {
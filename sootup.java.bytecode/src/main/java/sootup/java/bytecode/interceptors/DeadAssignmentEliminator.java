@@ -23,6 +23,7 @@ package sootup.java.bytecode.interceptors;
 import java.util.*;
 import javax.annotation.Nonnull;
 import sootup.core.graph.MutableBasicBlock;
+import sootup.core.graph.ReachingDefinitions;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.Local;
@@ -62,8 +63,11 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
     this.eliminateOnlyStackLocals = eliminateOnlyStackLocals;
   }
 
-  Map<Local, Collection<Stmt>> allDefs = new HashMap<>();
-  Map<Local, Collection<Stmt>> allUses = new HashMap<>();
+  @Nonnull
+  @Override
+  public String getConfigurationKey() {
+    return getClass().getName() + "(eliminateOnlyStackLocals=" + eliminateOnlyStackLocals + ")";
+  }
 
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
@@ -78,8 +82,8 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
     boolean containsInvoke = false;
     Local thisLocal = null;
 
-    for (Iterator<Stmt> iterator = stmtGraph.getNodes().iterator(); iterator.hasNext(); ) {
-      Stmt stmt = iterator.next();
+    List<Stmt> selfAssignments = new ArrayList<>();
+    for (Stmt stmt : stmts) {
       boolean isEssential = true;
 
       if (stmt instanceof JAssignStmt) {
@@ -89,7 +93,7 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
 
         // Stmt is of the form a = a which is useless
         if (lhs == rhs && lhs instanceof Local) {
-          iterator.remove();
+          selfAssignments.add(stmt);
           continue;
         }
 
@@ -174,10 +178,15 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
       allEssential &= isEssential;
     }
 
+    if (!selfAssignments.isEmpty()) {
+      selfAssignments.forEach(builder::removeStmt);
+      stmts = builder.getStmts();
+    }
+
     if (containsInvoke || !allEssential) {
       // Add all the statements which are used to compute values for the essential statements,
       // recursively
-      allDefs = Body.collectDefs(builder.getStmts());
+      ReachingDefinitions reachingDefinitions = builder.getReachingDefinitions();
 
       if (!allEssential) {
         Set<Stmt> essentialStmts = new HashSet<>(stmts.size());
@@ -186,11 +195,7 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
           if (essentialStmts.add(stmt)) {
             for (Value value : stmt.getUses()) {
               if (value instanceof Local) {
-                Local local = (Local) value;
-                Collection<Stmt> defs = allDefs.get(local);
-                if (defs != null) {
-                  deque.addAll(defs);
-                }
+                deque.addAll(reachingDefinitions.getDefsOfUse((Local) value, stmt));
               }
             }
           }
@@ -205,18 +210,16 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
       }
 
       if (containsInvoke) {
-        allUses = Body.collectUses(builder.getStmts());
         // Eliminate dead assignments from invokes such as x = f(), where x is no longer used
         List<JAssignStmt<?, ?>> postProcess = new ArrayList<>();
         for (Stmt stmt : stmts) {
-          if (stmt instanceof JAssignStmt) {
+          if (stmt instanceof JAssignStmt && stmtGraph.containsNode(stmt)) {
             JAssignStmt<?, ?> assignStmt = (JAssignStmt<?, ?>) stmt;
-            if (assignStmt.containsInvokeExpr()) {
+            if (assignStmt.containsInvokeExpr() && assignStmt.getLeftOp() instanceof Local) {
               // Just find one use of local which is essential
               boolean deadAssignment = true;
-              Local local = (Local) assignStmt.getRightOp();
-              for (Stmt use : allUses.get(local)) {
-                if (builder.getStmts().contains(use)) {
+              for (Stmt use : reachingDefinitions.getUsesOfDef(assignStmt)) {
+                if (stmtGraph.containsNode(use)) {
                   deadAssignment = false;
                   break;
                 }
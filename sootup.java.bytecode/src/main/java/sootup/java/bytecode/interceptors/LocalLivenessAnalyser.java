@@ -23,134 +23,387 @@ package sootup.java.bytecode.interceptors;
  */
 
 import java.util.*;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
 
-/** @author Zun Wang */
+/**
+ * Computes which locals are live before and after each stmt of a StmtGraph. A local is live at a
+ * point if its current value may be used later on.
+ *
+ * <p>The locals are numbered densely and sets of them are stored as <code>long[]</code> bitsets.
+ * The fixpoint is computed per block with a worklist that starts with the blocks in postorder, so
+ * that the successors of a block are usually done before the block itself. The liveness of the
+ * single stmts of a block is derived from the liveness at its end on the first query for the block.
+ *
+ * <p>Exceptional flow is taken into account: the locals that are live at a trap handler are live
+ * after each stmt of the blocks it covers.
+ *
+ * @author Zun Wang
+ */
 public class LocalLivenessAnalyser {
 
-  // Each stmt(node) has out-edges and in-edges
-  // A local is live-in at a node if it is live on any its in-edges
-  private final Map<Stmt, Set<Local>> liveIn = new HashMap<>();
-  // A local is live-out at a node if it is live on any of its out-edges.
-  // e.g: a = b + c; live-in={b,c}  live-out={a,b,c}
-  private final Map<Stmt, Set<Local>> liveOut = new HashMap<>();
+  private static final int NONE = -1;
+
+  @Nonnull private final Map<Local, Integer> localIds = new HashMap<>();
+  @Nonnull private final List<Local> locals = new ArrayList<>();
+  /** the number of words of each bitset */
+  private final int words;
+
+  @Nonnull private final Map<Stmt, Integer> stmtIds;
+  /** the block of each stmt; the stmts of a block have consecutive numbers */
+  @Nonnull private final int[] blockOf;
+
+  @Nonnull private final int[] blockStart;
+  /** the local defined by each stmt or {@link #NONE} */
+  @Nonnull private final int[] defOf;
+  /** the locals used by each stmt */
+  @Nonnull private final int[][] usesOf;
+
+  /** the live locals at the end of each block, including those of its trap handlers */
+  @Nonnull private final long[][] blockLiveOut;
+  /** the live locals at the trap handlers of each block */
+  @Nonnull private final long[][] exceptionalLiveOut;
+
+  /** the live locals after each stmt; computed for a whole block on the first query */
+  @Nonnull private final long[][] stmtLiveOut;
 
   public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph) {
-    // initial liveIn and liveOut
-    List<Stmt> startingStmts = new ArrayList<>();
-    for (Stmt stmt : graph.getNodes()) {
-      liveIn.put(stmt, Collections.emptySet());
-      liveOut.put(stmt, Collections.emptySet());
-      if (graph.successors(stmt).isEmpty() && graph.exceptionalSuccessors(stmt).isEmpty()) {
-        startingStmts.add(stmt);
-      }
+    List<? extends BasicBlock<?>> blocks = graph.getBlocksSorted();
+    int blockCount = blocks.size();
+    Map<BasicBlock<?>, Integer> blockIds = new HashMap<>(blockCount * 2);
+    int stmtCount = 0;
+    for (BasicBlock<?> block : blocks) {
+      blockIds.put(block, blockIds.size());
+      stmtCount += block.getStmtCount();
     }
 
-    boolean fixed = false;
-    while (!fixed) {
-      fixed = true;
-      Deque<Stmt> queue = new ArrayDeque<>(startingStmts);
-      HashSet<Stmt> visitedStmts = new HashSet<>();
-      while (!queue.isEmpty()) {
-        Stmt stmt = queue.removeFirst();
-        visitedStmts.add(stmt);
+    stmtIds = new HashMap<>(stmtCount * 2);
+    blockOf = new int[stmtCount];
+    blockStart = new int[blockCount + 1];
+    defOf = new int[stmtCount];
+    usesOf = new int[stmtCount][];
+    stmtLiveOut = new long[stmtCount][];
 
-        Set<Local> out = new HashSet<>(liveOut.get(stmt));
-        for (Stmt succ : graph.successors(stmt)) {
-          out = merge(out, liveIn.get(succ));
-        }
-        for (Stmt esucc : graph.exceptionalSuccessors(stmt).values()) {
-          out = merge(out, liveIn.get(esucc));
-        }
-        if (isNotEqual(out, liveOut.get(stmt))) {
-          fixed = false;
-          liveOut.put(stmt, new HashSet<>(out));
+    int stmtId = 0;
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      blockStart[blockId] = stmtId;
+      for (Stmt stmt : blocks.get(blockId).getStmts()) {
+        stmtIds.put(stmt, stmtId);
+        blockOf[stmtId] = blockId;
+        defOf[stmtId] = NONE;
+        final List<Value> defs = stmt.getDefs();
+        if (!defs.isEmpty() && defs.get(0) instanceof Local) {
+          defOf[stmtId] = localIdOf((Local) defs.get(0));
         }
-
-        Set<Local> in = new HashSet<>();
-        for (Value use : stmt.getUses()) {
+        List<Value> uses = stmt.getUses();
+        int[] useIds = new int[uses.size()];
+        int useCount = 0;
+        for (Value use : uses) {
           if (use instanceof Local) {
-            in.add((Local) use);
+            useIds[useCount++] = localIdOf((Local) use);
           }
         }
-        final List<Value> defs = stmt.getDefs();
-        if (!defs.isEmpty()) {
-          final Value value = defs.get(0);
-          if (value instanceof Local) {
-            out.remove(value);
+        usesOf[stmtId] = Arrays.copyOf(useIds, useCount);
+        stmtId++;
+      }
+    }
+    blockStart[blockCount] = stmtCount;
+    words = (locals.size() + 63) >>> 6;
+
+    // summarize each block: upward exposed uses, defined locals and the local defined by its head
+    long[][] upwardUses = new long[blockCount][];
+    long[][] blockDefs = new long[blockCount][];
+    int[] headDef = new int[blockCount];
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      long[] uses = new long[words];
+      long[] defs = new long[words];
+      for (int id = blockStart[blockId]; id < blockStart[blockId + 1]; id++) {
+        for (int use : usesOf[id]) {
+          if (!get(defs, use)) {
+            set(uses, use);
           }
         }
-        in = merge(in, out);
-        if (isNotEqual(in, liveIn.get(stmt))) {
-          fixed = false;
-          liveIn.put(stmt, in);
+        if (defOf[id] != NONE) {
+          set(defs, defOf[id]);
         }
-        for (Stmt pred : graph.predecessors(stmt)) {
-          if (!visitedStmts.contains(pred)) {
-            queue.addLast(pred);
-          }
+      }
+      upwardUses[blockId] = uses;
+      blockDefs[blockId] = defs;
+      headDef[blockId] =
+          blockStart[blockId] < blockStart[blockId + 1] ? defOf[blockStart[blockId]] : NONE;
+    }
+
+    int[][] successors = new int[blockCount][];
+    int[][] exceptionalSuccessors = new int[blockCount][];
+    List<List<Integer>> predecessors = new ArrayList<>(blockCount);
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      predecessors.add(new ArrayList<>());
+    }
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      BasicBlock<?> block = blocks.get(blockId);
+      successors[blockId] = toIds(block.getSuccessors(), blockIds);
+      exceptionalSuccessors[blockId] = toIds(block.getExceptionalSuccessors().values(), blockIds);
+      for (int successorId : successors[blockId]) {
+        predecessors.get(successorId).add(blockId);
+      }
+      for (int successorId : exceptionalSuccessors[blockId]) {
+        predecessors.get(successorId).add(blockId);
+      }
+    }
+
+    // solve OUT(b) = union of IN(s) over all (exceptional) successors s
+    // and IN(b) = UE(b) + (OUT(b) - DEF(b)) + (EXC(b) - DEF(head of b))
+    long[][] blockLiveIn = new long[blockCount][];
+    blockLiveOut = new long[blockCount][];
+    exceptionalLiveOut = new long[blockCount][];
+    for (int blockId = 0; blockId < blockCount; blockId++) {
+      blockLiveIn[blockId] = upwardUses[blockId].clone();
+      blockLiveOut[blockId] = new long[words];
+      exceptionalLiveOut[blockId] = new long[words];
+    }
+    Deque<Integer> worklist = new ArrayDeque<>(blockCount);
+    BitSet queued = new BitSet(blockCount);
+    for (int blockId : postOrder(graph, blocks, blockIds, successors, exceptionalSuccessors)) {
+      worklist.add(blockId);
+      queued.set(blockId);
+    }
+    while (!worklist.isEmpty()) {
+      int blockId = worklist.removeFirst();
+      queued.clear(blockId);
+
+      long[] exceptionalOut = exceptionalLiveOut[blockId];
+      for (int successorId : exceptionalSuccessors[blockId]) {
+        or(exceptionalOut, blockLiveIn[successorId]);
+      }
+      long[] out = blockLiveOut[blockId];
+      or(out, exceptionalOut);
+      for (int successorId : successors[blockId]) {
+        or(out, blockLiveIn[successorId]);
+      }
+
+      long[] in = blockLiveIn[blockId];
+      long[] defs = blockDefs[blockId];
+      long[] uses = upwardUses[blockId];
+      boolean changed = false;
+      for (int i = 0; i < words; i++) {
+        long newIn = uses[i] | (out[i] & ~defs[i]) | exceptionalOut[i];
+        if (headDef[blockId] != NONE && headDef[blockId] >>> 6 == i) {
+          // the head is followed by the trap handlers too, but it kills its own def before them
+          newIn &= ~(1L << headDef[blockId]) | uses[i] | (out[i] & ~defs[i]);
         }
-        for (Stmt epred : graph.exceptionalPredecessors(stmt)) {
-          if (!visitedStmts.contains(epred)) {
-            queue.addLast(epred);
+        if (newIn != in[i]) {
+          in[i] = newIn;
+          changed = true;
+        }
+      }
+      if (changed) {
+        for (int predecessorId : predecessors.get(blockId)) {
+          if (!queued.get(predecessorId)) {
+            queued.set(predecessorId);
+            worklist.addLast(predecessorId);
           }
         }
       }
     }
   }
 
-  /** Get all live locals before the given stmt. */
-  @Nonnull
-  public Set<Local> getLiveLocalsBeforeStmt(@Nonnull Stmt stmt) {
-    if (!liveIn.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
+  private int localIdOf(@Nonnull Local local) {
+    Integer localId = localIds.get(local);
+    if (localId == null) {
+      localId = locals.size();
+      localIds.put(local, localId);
+      locals.add(local);
     }
-    return liveIn.get(stmt);
+    return localId;
   }
 
-  /** Get all live locals after the given stmt. */
   @Nonnull
-  public Set<Local> getLiveLocalsAfterStmt(@Nonnull Stmt stmt) {
-    if (!liveOut.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
+  private static int[] toIds(
+      @Nonnull Collection<? extends BasicBlock<?>> blocks,
+      @Nonnull Map<BasicBlock<?>, Integer> blockIds) {
+    int[] ids = new int[blocks.size()];
+    int count = 0;
+    for (BasicBlock<?> block : blocks) {
+      Integer id = blockIds.get(block);
+      if (id != null) {
+        ids[count++] = id;
+      }
     }
-    return liveOut.get(stmt);
+    return Arrays.copyOf(ids, count);
   }
 
   /**
-   * Merge two local sets into one set.
-   *
-   * @return a merged local set
+   * Returns the blocks in postorder of a depth-first traversal from the starting block, i.e. the
+   * reverse of their reverse postorder. Blocks that are not reachable from the starting block
+   * follow in their original order.
    */
   @Nonnull
-  private Set<Local> merge(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.isEmpty()) {
-      return set2;
-    } else {
-      set1.addAll(set2);
-      return set1;
+  private static List<Integer> postOrder(
+      @Nonnull StmtGraph<?> graph,
+      @Nonnull List<? extends BasicBlock<?>> blocks,
+      @Nonnull Map<BasicBlock<?>, Integer> blockIds,
+      @Nonnull int[][] successors,
+      @Nonnull int[][] exceptionalSuccessors) {
+    int blockCount = blocks.size();
+    List<Integer> order = new ArrayList<>(blockCount);
+    BitSet visited = new BitSet(blockCount);
+    Integer startId =
+        graph.getStartingStmt() == null ? null : blockIds.get(graph.getStartingStmtBlock());
+    if (startId != null) {
+      // iterative depth-first traversal; each entry holds a block and its next successor index
+      Deque<int[]> stack = new ArrayDeque<>();
+      stack.push(new int[] {startId, 0});
+      visited.set(startId);
+      while (!stack.isEmpty()) {
+        int[] top = stack.peek();
+        int blockId = top[0];
+        int normalCount = successors[blockId].length;
+        if (top[1] < normalCount + exceptionalSuccessors[blockId].length) {
+          int next =
+              top[1] < normalCount
+                  ? successors[blockId][top[1]]
+                  : exceptionalSuccessors[blockId][top[1] - normalCount];
+          top[1]++;
+          if (!visited.get(next)) {
+            visited.set(next);
+            stack.push(new int[] {next, 0});
+          }
+        } else {
+          stack.pop();
+          order.add(blockId);
+        }
+      }
+    }
+    for (int blockId = visited.nextClearBit(0);
+        blockId < blockCount;
+        blockId = visited.nextClearBit(blockId + 1)) {
+      order.add(blockId);
     }
+    return order;
   }
 
-  /**
-   * Check whether two sets contains same locals.
-   *
-   * @return if same return true, else return false;
-   */
-  private boolean isNotEqual(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.size() != set2.size()) {
-      return true;
-    } else {
-      for (Local local : set1) {
-        if (!set2.contains(local)) {
-          return true;
-        }
+  private int idOf(@Nonnull Stmt stmt) {
+    Integer id = stmtIds.get(stmt);
+    if (id == null) {
+      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
+    }
+    return id;
+  }
+
+  /** Returns the live locals after the given stmt as a bitset, which must not be modified. */
+  @Nonnull
+  private long[] liveOut(int id) {
+    long[] result = stmtLiveOut[id];
+    if (result == null) {
+      computeStmtLiveness(blockOf[id]);
+      result = stmtLiveOut[id];
+    }
+    return result;
+  }
+
+  /** Derives the liveness after each stmt of the given block from the liveness at its end. */
+  private void computeStmtLiveness(int blockId) {
+    long[] live = blockLiveOut[blockId].clone();
+    long[] exceptionalOut = exceptionalLiveOut[blockId];
+    for (int id = blockStart[blockId + 1] - 1; id >= blockStart[blockId]; id--) {
+      stmtLiveOut[id] = live.clone();
+      if (defOf[id] != NONE) {
+        clear(live, defOf[id]);
+      }
+      for (int use : usesOf[id]) {
+        set(live, use);
+      }
+      or(live, exceptionalOut);
+    }
+  }
+
+  /** Checks whether the given local is live before the given stmt. */
+  public boolean isLiveBeforeStmt(@Nonnull Local local, @Nonnull Stmt stmt) {
+    int id = idOf(stmt);
+    Integer localId = localIds.get(local);
+    if (localId == null) {
+      return false;
+    }
+    for (int use : usesOf[id]) {
+      if (use == localId) {
+        return true;
       }
     }
-    return false;
+    return defOf[id] != localId && get(liveOut(id), localId);
+  }
+
+  /** Checks whether the given local is live after the given stmt. */
+  public boolean isLiveAfterStmt(@Nonnull Local local, @Nonnull Stmt stmt) {
+    int id = idOf(stmt);
+    Integer localId = localIds.get(local);
+    return localId != null && get(liveOut(id), localId);
+  }
+
+  /** Passes each local that is live before the given stmt to the action. */
+  public void forEachLiveLocalBeforeStmt(@Nonnull Stmt stmt, @Nonnull Consumer<Local> action) {
+    int id = idOf(stmt);
+    long[] live = liveOut(id).clone();
+    if (defOf[id] != NONE) {
+      clear(live, defOf[id]);
+    }
+    for (int use : usesOf[id]) {
+      set(live, use);
+    }
+    forEach(live, action);
+  }
+
+  /** Passes each local that is live after the given stmt to the action. */
+  public void forEachLiveLocalAfterStmt(@Nonnull Stmt stmt, @Nonnull Consumer<Local> action) {
+    forEach(liveOut(idOf(stmt)), action);
+  }
+
+  /** Get all live locals before the given stmt. */
+  @Nonnull
+  public Set<Local> getLiveLocalsBeforeStmt(@Nonnull Stmt stmt) {
+    Set<Local> result = new HashSet<>();
+    forEachLiveLocalBeforeStmt(stmt, result::add);
+    return result;
+  }
+
+  /** Get all live locals after the given stmt. */
+  @Nonnull
+  public Set<Local> getLiveLocalsAfterStmt(@Nonnull Stmt stmt) {
+    Set<Local> result = new HashSet<>();
+    forEachLiveLocalAfterStmt(stmt, result::add);
+    return result;
+  }
+
+  private void forEach(@Nonnull long[] bits, @Nonnull Consumer<Local> action) {
+    for (int i = 0; i < bits.length; i++) {
+      long word = bits[i];
+      while (word != 0) {
+        int bit = Long.numberOfTrailingZeros(word);
+        action.accept(locals.get((i << 6) + bit));
+        word &= word - 1;
+      }
+    }
+  }
+
+  private static boolean get(@Nonnull long[] bits, int index) {
+    return (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  private static void set(@Nonnull long[] bits, int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+
+  private static void clear(@Nonnull long[] bits, int index) {
+    bits[index >>> 6] &= ~(1L << index);
+  }
+
+  private static void or(@Nonnull long[] target, @Nonnull long[] bits) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] |= bits[i];
+    }
   }
 }
@@ -217,33 +217,29 @@ public class LocalPacker implements BodyInterceptor {
 
         Local def = (Local) stmt.getDefs().get(0);
 
-        Set<Local> aliveLocals = new HashSet<>();
-        for (Stmt succ : graph.successors(stmt)) {
-          aliveLocals.addAll(analyser.getLiveLocalsBeforeStmt(succ));
-        }
-        for (Stmt esucc : graph.exceptionalSuccessors(stmt).values()) {
-          aliveLocals.addAll(analyser.getLiveLocalsBeforeStmt(esucc));
-        }
-        for (Local aliveLocal : aliveLocals) {
-          if (aliveLocal != def && aliveLocal.getType().equals(def.getType())) {
-            // set interference for both locals: aliveLocal, def
-            if (localToLocals.containsKey(def)) {
-              localToLocals.get(def).add(aliveLocal);
-            } else {
-              Set<Local> locals = new HashSet<>();
-              locals.add(aliveLocal);
-              localToLocals.put(def, locals);
-            }
+        // the locals alive before the (exceptional) successors of the stmt
+        analyser.forEachLiveLocalAfterStmt(
+            stmt,
+            aliveLocal -> {
+              if (!aliveLocal.equals(def) && aliveLocal.getType().equals(def.getType())) {
+                // set interference for both locals: aliveLocal, def
+                if (localToLocals.containsKey(def)) {
+                  localToLocals.get(def).add(aliveLocal);
+                } else {
+                  Set<Local> locals = new HashSet<>();
+                  locals.add(aliveLocal);
+                  localToLocals.put(def, locals);
+                }
 
-            if (localToLocals.containsKey(aliveLocal)) {
-              localToLocals.get(aliveLocal).add(def);
-            } else {
-              Set<Local> locals = new HashSet<>();
-              locals.add(def);
-              localToLocals.put(aliveLocal, locals);
-            }
-          }
-        }
+                if (localToLocals.containsKey(aliveLocal)) {
+                  localToLocals.get(aliveLocal).add(def);
+                } else {
+                  Set<Local> locals = new HashSet<>();
+                  locals.add(def);
+                  localToLocals.put(aliveLocal, locals);
+                }
+              }
+            });
       }
     }
     return localToLocals;
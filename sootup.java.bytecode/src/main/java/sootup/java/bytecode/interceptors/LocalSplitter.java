@@ -25,17 +25,13 @@ package sootup.java.bytecode.interceptors;
 import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import sootup.core.graph.StmtGraph;
+import sootup.core.graph.ReachingDefinitions;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.ref.JCaughtExceptionRef;
 import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
-import sootup.core.jimple.common.stmt.JIdentityStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
-import sootup.core.model.Body.BodyBuilder;
 import sootup.core.transform.BodyInterceptor;
-import sootup.core.types.ClassType;
 import sootup.core.views.View;
 
 /**
@@ -90,316 +86,124 @@ public class LocalSplitter implements BodyInterceptor {
         }
       }
     }
+    if (toSplitLocals.isEmpty()) {
+      return;
+    }
 
-    StmtGraph<?> graph = builder.getStmtGraph();
+    // Group the definitions into webs: definitions which reach a common use must keep a common
+    // name. The webs are stored as a union-find structure over the definition stmts.
+    ReachingDefinitions reachingDefinitions = builder.getReachingDefinitions();
+    Map<Stmt, Stmt> webs = new HashMap<>();
+    for (Stmt stmt : stmts) {
+      for (Value use : stmt.getUses()) {
+        if (use instanceof Local && toSplitLocals.contains(use)) {
+          List<Stmt> defsOfUse = reachingDefinitions.getDefsOfUse((Local) use, stmt);
+          for (int i = 1; i < defsOfUse.size(); i++) {
+            union(webs, defsOfUse.get(0), defsOfUse.get(i));
+          }
+        }
+      }
+    }
 
-    // Create a new Local-Set for the modified new body.
+    // Create a new Local-Set for the modified new body, and name the webs in the order of their
+    // first definition.
     Set<Local> newLocals = new LinkedHashSet<>(builder.getLocals());
+    Map<Stmt, Local> webLocals = new HashMap<>();
     int localIndex = 1;
-
-    // iterate stmts
-    while (!stmts.isEmpty()) {
-      Stmt currentStmt = stmts.remove(0);
-      // At first Check the definition(left side) of the currentStmt is a local which must be split:
-      final List<Value> defs = currentStmt.getDefs();
-      if (!defs.isEmpty() && defs.get(0) instanceof Local && toSplitLocals.contains(defs.get(0))) {
-        // then assign a new name to the oriLocal to get a new local which is called newLocal
-        Local oriLocal = (Local) defs.get(0);
-        Local newLocal = oriLocal.withName(oriLocal.getName() + "#" + localIndex);
-        newLocals.add(newLocal);
-        localIndex++;
-
-        // create newStmt whose definition is replaced with the newLocal,
-        Stmt newStmt = ((AbstractDefinitionStmt<?, ?>) currentStmt).withNewDef(newLocal);
-        // replace corresponding oldStmt with newStmt in builder
-        replaceStmtInBuilder(builder, stmts, currentStmt, newStmt);
-
-        // Build the forwardsQueue which is used to iterate all Stmts before the orilocal is defined
-        // again.
-        // The direction of iteration is from root of the StmtGraph to leafs. So the successors of
-        // the newStmt are added into the forwardsQueue.
-        Deque<Stmt> forwardsQueue = new ArrayDeque<>(graph.successors(newStmt));
-        // Create the visitedStmt to store the visited Stmts for the forwardsQueue, to avoid, a
-        // Stmt is added twice into the forwardQueue.
-        Set<Stmt> visitedStmts = new HashSet<>();
-
-        while (!forwardsQueue.isEmpty()) {
-          Stmt head = forwardsQueue.remove();
-          visitedStmts.add(head);
-
-          // 1.case: if useList of head contains oriLocal, then replace the oriLocal with
-          // newLocal.
-          if (head.getUses().contains(oriLocal)) {
-            Stmt newHead = head.withNewUse(oriLocal, newLocal);
-            replaceStmtInBuilder(builder, stmts, head, newHead);
-
-            // if head doesn't define the the oriLocal again, then add all successors which are
-            // not in forwardsQueue and visitedUsesStmt, into the forwardsQueue.
-            if (newHead.getDefs().isEmpty() || !newHead.getDefs().get(0).equivTo(oriLocal)) {
-              for (Stmt succ : graph.successors(newHead)) {
-                if (!visitedStmts.contains(succ) && !forwardsQueue.contains(succ)) {
-                  forwardsQueue.addLast(succ);
-                }
-              }
-            }
-          }
-
-          // 2.case: if uses of head contains the modified orilocal, so a conflict maybe arise,
-          // then trace the StmtGraph backwards to resolve the conflict.
-          else if (hasModifiedUse(head, oriLocal)) {
-
-            Local modifiedLocal = getModifiedUse(head, oriLocal);
-            if (modifiedLocal == null) {
-              throw new IllegalStateException("Modified Use is not found.");
-            }
-
-            // if modifed name is not same as the newLocal's name then -> conflict arises -> trace
-            // backwards
-            if (!modifiedLocal.getName().equals(newLocal.getName())) {
-              localIndex--;
-
-              // Build the backwardsQueue which is used to iterate all Stmts between head and the
-              // Stmts which define the oriLocal in last time.
-              // The direction of iteration is from leave of the StmtGraph to the root. So the
-              // predecessors of head are added into the BackwardsQueue.
-              Deque<Stmt> backwardsQueue = new ArrayDeque<>(graph.predecessors(head));
-
-              while (!backwardsQueue.isEmpty()) {
-                // Remove the first Stmt of backwardQueue, and name it as backStmt.
-                Stmt backStmt = backwardsQueue.remove();
-
-                // 2.1 case: if backStmt's definition is the modified and has a higher
-                // local-name-index than the modifiedLocal of head
-                // then replace the definition of backStmt with the modifiedLocal of head, and
-                // remove the corresponding Local(definition of backStmt) from the set: newLocals
-                if (hasModifiedDef(backStmt, oriLocal)) {
-                  if (hasHigherLocalName((Local) backStmt.getDefs().get(0), modifiedLocal)) {
-                    Stmt newBackStmt =
-                        ((AbstractDefinitionStmt<?, ?>) backStmt).withNewDef(modifiedLocal);
-                    replaceStmtInBuilder(builder, stmts, backStmt, newBackStmt);
-                    newLocals.remove(newLocal);
-                  }
-                }
-                // 2.2 case: if backStmt's uses contains the modified oriLocal, and this
-                // modified oriLocal has a higher local-name-index that the modifiedLocal of head
-                // then replace the corresponding use of backStmt with modifiedLocal of head, and
-                // add all predecessors of the backStmt into the backwardsQueue.
-                else if (hasModifiedUse(backStmt, oriLocal)) {
-                  Local modifiedUse = getModifiedUse(backStmt, oriLocal);
-                  if (hasHigherLocalName(modifiedUse, modifiedLocal)) {
-                    Stmt newBackStmt = backStmt.withNewUse(modifiedUse, modifiedLocal);
-                    replaceStmtInBuilder(builder, stmts, backStmt, newBackStmt);
-                    backwardsQueue.addAll(graph.predecessors(newBackStmt));
-                  }
-                }
-                // 2.3 case: if there's no relationship between backStmt's defs/uses and
-                // oriLocal, then add all predecessors of the backStmt into the backwardsQueue.
-                else {
-                  backwardsQueue.addAll(graph.predecessors(backStmt));
-                }
-              }
-            }
-          }
-          // 3.case: if uses of head contains neither orilocal nor the modified orilocal,
-          // then add all successors of head which are not in forwardsQueue and visitedStmts,
-          // into the forwardsQueue.
-          else {
-            final List<Value> headDefs = head.getDefs();
-            if (headDefs.isEmpty() || !headDefs.get(0).equivTo(oriLocal)) {
-              for (Stmt succ : graph.successors(head)) {
-                if (!visitedStmts.contains(succ) && !forwardsQueue.contains(succ)) {
-                  forwardsQueue.addLast(succ);
-                }
-              }
-            }
-          }
+    for (Stmt stmt : stmts) {
+      Local oriLocal = getSplitDef(stmt, toSplitLocals);
+      if (oriLocal != null) {
+        Stmt web = find(webs, stmt);
+        if (!webLocals.containsKey(web)) {
+          Local newLocal = oriLocal.withName(oriLocal.getName() + "#" + localIndex);
+          localIndex++;
+          webLocals.put(web, newLocal);
+          newLocals.add(newLocal);
         }
-        // Then check the uses of currentStmt:
-      } else {
-        // For each Local(oriL) which is to be split, check whether it is used in currentStmt
-        // without definition before.
-        // We define a StmtGraph consists of a mainStmtGraph and none or more trapStmtGraphs.
-        // This situation could arise just in a trapStmtGraph.
-        for (Local oriLocal : toSplitLocals) {
-          // If so:
-          // 1.step: find out all trapStmtGraphs' root(handlerStmts) which contain currentStmt,
-          // namely a set of handlerStmts.
-          // 2.step: find out all stmts whose exceptional destination-traps are with the found
-          // handlerStmts.
-          // 3.step: iterate these stmts, find a modified oriL((Local) with a maximum name index.
-          // 4.step: Use this modified oriL to modify the visitedStmt
-          if (currentStmt.getUses().contains(oriLocal)) {
-            // 1.step:
-            Set<Stmt> handlerStmts = traceHandlerStmts(graph, currentStmt);
-            // 2.step:
-            Set<Stmt> stmtsWithDests = new HashSet<>();
-            for (Stmt handlerStmt : handlerStmts) {
-              for (Stmt exceptionalPred : graph.predecessors(handlerStmt)) {
-                Map<ClassType, Stmt> dests = graph.exceptionalSuccessors(exceptionalPred);
-                List<Stmt> destHandlerStmts = new ArrayList<>();
-                dests.forEach((key, dest) -> destHandlerStmts.add(dest));
-                if (destHandlerStmts.contains(handlerStmt)) {
-                  stmtsWithDests.add(exceptionalPred);
-                }
-              }
-            }
-            // 3.step:
-            Local lastChange = null;
-            for (Stmt stmt : stmtsWithDests) {
-              if (hasModifiedDef(stmt, oriLocal)) {
-                Local modifiedLocal = (Local) stmt.getDefs().get(0);
-                if (lastChange == null || hasHigherLocalName(modifiedLocal, lastChange)) {
-                  lastChange = modifiedLocal;
-                }
-              }
-            }
-            // 4.step:
-            if (lastChange != null) {
-              Stmt newStmt = currentStmt.withNewUse(oriLocal, lastChange);
-              replaceStmtInBuilder(builder, stmts, currentStmt, newStmt);
+      }
+    }
+
+    // Rename the definitions and uses. All queries are done before the body is modified, as the
+    // renaming changes the reaching definitions.
+    Map<Stmt, Stmt> replacements = new LinkedHashMap<>();
+    for (Stmt stmt : stmts) {
+      Stmt newStmt = stmt;
+      for (Value use : stmt.getUses()) {
+        if (use instanceof Local && toSplitLocals.contains(use)) {
+          List<Stmt> defsOfUse = reachingDefinitions.getDefsOfUse((Local) use, stmt);
+          if (!defsOfUse.isEmpty()) {
+            Stmt replacedStmt =
+                newStmt.withNewUse(use, webLocals.get(find(webs, defsOfUse.get(0))));
+            if (replacedStmt != null) {
+              newStmt = replacedStmt;
             }
           }
         }
       }
+      if (getSplitDef(stmt, toSplitLocals) != null) {
+        newStmt =
+            ((AbstractDefinitionStmt<?, ?>) newStmt).withNewDef(webLocals.get(find(webs, stmt)));
+      }
+      if (newStmt != stmt) {
+        replacements.put(stmt, newStmt);
+      }
     }
+    replacements.forEach(builder::replaceStmt);
     builder.setLocals(newLocals);
   }
 
   // ******************assist_functions*************************
 
   /**
-   * Replace corresponding oldStmt with newStmt in BodyBuilder and visitList
-   *
-   * @param builder
-   * @param stmtIterationList
-   * @param oldStmt
-   * @param newStmt
-   */
-  private void replaceStmtInBuilder(
-      @Nonnull BodyBuilder builder,
-      @Nonnull List<Stmt> stmtIterationList,
-      @Nonnull Stmt oldStmt,
-      @Nonnull Stmt newStmt) {
-
-    builder.replaceStmt(oldStmt, newStmt);
-
-    // adapt VisitList
-    final int index = stmtIterationList.indexOf(oldStmt);
-    if (index > -1) {
-      stmtIterationList.set(index, newStmt);
-    }
-  }
-
-  /**
-   * Check whether a Stmt's useList contains the given modified oriLocal.
+   * Get the Local defined by a Stmt, if it is one of the Locals to split.
    *
    * @param stmt: a stmt is to be checked
-   * @param oriLocal: a local is to be checked
-   * @return if so, return true, else return false
-   */
-  private boolean hasModifiedUse(@Nonnull Stmt stmt, @Nonnull Local oriLocal) {
-    for (Value use : stmt.getUses()) {
-      return isLocalFromSameOrigin(oriLocal, use);
-    }
-    return false;
-  }
-
-  /**
-   * Get the modified Local if a Stmt's useList contains the given modified oriLocal
-   *
-   * @param stmt: a stmt is to be checked
-   * @param oriLocal: a local is to be checked.
-   * @return if so, return this modified local, else return null
+   * @param toSplitLocals: the locals which are to be split
+   * @return if so, return the defined local, else return null
    */
   @Nullable
-  private Local getModifiedUse(@Nonnull Stmt stmt, @Nonnull Local oriLocal) {
-    if (hasModifiedUse(stmt, oriLocal)) {
-      List<Value> useList = stmt.getUses();
-      for (Value use : useList) {
-        if (isLocalFromSameOrigin(oriLocal, use)) {
-          return (Local) use;
-        }
-      }
+  private Local getSplitDef(@Nonnull Stmt stmt, @Nonnull Set<Local> toSplitLocals) {
+    final List<Value> defs = stmt.getDefs();
+    if (!defs.isEmpty() && defs.get(0) instanceof Local && toSplitLocals.contains(defs.get(0))) {
+      return (Local) defs.get(0);
     }
     return null;
   }
 
   /**
-   * Check whether a local is modified from the given oriLocal
+   * Find the representative definition of the web which contains the given definition.
    *
-   * @param local: a local is to be checked
-   * @param oriLocal: the given oriLocal
-   * @return if so, return true, else return false.
+   * @param webs: the union-find structure of the webs
+   * @param def: a definition stmt
+   * @return the representative definition stmt
    */
-  private boolean isLocalFromSameOrigin(@Nonnull Local oriLocal, Value local) {
-    if (local instanceof Local) {
-      final String name = ((Local) local).getName();
-      final String origName = oriLocal.getName();
-      final int origLength = origName.length();
-      return name.length() > origLength
-          && name.startsWith(origName)
-          && name.charAt(origLength) == '#';
+  @Nonnull
+  private Stmt find(@Nonnull Map<Stmt, Stmt> webs, @Nonnull Stmt def) {
+    Stmt root = def;
+    Stmt parent;
+    while ((parent = webs.get(root)) != null) {
+      root = parent;
     }
-    return false;
-  }
-
-  /**
-   * Check whether a Stmt's def is the modified oriLocal
-   *
-   * @param stmt: a stmt is to be checked
-   * @param oriLocal: a local is to be checked
-   * @return if so, return true, else return false
-   */
-  private boolean hasModifiedDef(@Nonnull Stmt stmt, @Nonnull Local oriLocal) {
-    final List<Value> defs = stmt.getDefs();
-    if (!defs.isEmpty() && defs.get(0) instanceof Local) {
-      return isLocalFromSameOrigin(oriLocal, defs.get(0));
+    // compress the path to the root
+    while ((parent = webs.get(def)) != null && parent != root) {
+      webs.put(def, root);
+      def = parent;
     }
-    return false;
+    return root;
   }
 
   /**
-   * Check whether leftLocal's name has higher index than rightLocal's.
+   * Merge the webs of two definitions.
    *
-   * @param leftLocal: a local in form oriLocal#num1
-   * @param rightLocal: a local in form oriLocal#num2
-   * @return if so return true, else return false
+   * @param webs: the union-find structure of the webs
+   * @param def1: a definition stmt
+   * @param def2: another definition stmt
    */
-  private boolean hasHigherLocalName(@Nonnull Local leftLocal, @Nonnull Local rightLocal) {
-    String leftName = leftLocal.getName();
-    String rightName = rightLocal.getName();
-    int lIdx = leftName.lastIndexOf('#');
-    int rIdx = rightName.lastIndexOf('#');
-    int leftNum = Integer.parseInt(leftName.substring(lIdx + 1));
-    int rightNum = Integer.parseInt(rightName.substring(rIdx + 1));
-    return leftNum > rightNum;
-  }
-
-  /**
-   * A given entryStmt may be in one or several trapStmtGraphs, return these trapStmtGraphs'
-   * handlerStmts
-   *
-   * @param entryStmt a given entryStmt which is in one or several trapStmtGraphs
-   * @param graph to trace handlerStmts
-   * @return a set of handlerStmts
-   */
-  @Nonnull
-  private Set<Stmt> traceHandlerStmts(@Nonnull StmtGraph<?> graph, @Nonnull Stmt entryStmt) {
-
-    Set<Stmt> handlerStmts = new HashSet<>();
-
-    Deque<Stmt> queue = new ArrayDeque<>();
-    queue.add(entryStmt);
-    while (!queue.isEmpty()) {
-      Stmt stmt = queue.removeFirst();
-      if (stmt instanceof JIdentityStmt
-          && ((JIdentityStmt<?>) stmt).getRightOp() instanceof JCaughtExceptionRef) {
-        handlerStmts.add(stmt);
-      } else {
-        final List<Stmt> predecessors = graph.predecessors(stmt);
-        queue.addAll(predecessors);
-      }
+  private void union(@Nonnull Map<Stmt, Stmt> webs, @Nonnull Stmt def1, @Nonnull Stmt def2) {
+    Stmt root1 = find(webs, def1);
+    Stmt root2 = find(webs, def2);
+    if (root1 != root2) {
+      webs.put(root2, root1);
     }
-    return handlerStmts;
   }
 }
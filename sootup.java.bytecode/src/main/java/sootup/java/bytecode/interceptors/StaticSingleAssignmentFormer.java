@@ -85,12 +85,14 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
     }
 
     DominanceFinder dominanceFinder = new DominanceFinder(stmtGraph);
+    LocalLivenessAnalyser livenessAnalyser = new LocalLivenessAnalyser(stmtGraph);
 
     // decide which block should be add a phi assignStmt, and store such info in a map
     // key: Block which contains phiStmts. Values : a set of phiStmts which contained by
     // corresponding Block
     Map<BasicBlock<?>, Set<Stmt>> blockToPhiStmts =
-        decideBlockToPhiStmts(builder, dominanceFinder, blockToDefs, localToBlocks);
+        decideBlockToPhiStmts(
+            builder, dominanceFinder, livenessAnalyser, blockToDefs, localToBlocks);
 
     // delete meaningless phiStmts and add other phiStmts into stmtGraph
     addPhiStmts(blockToPhiStmts, stmtGraph, blockToDefs);
@@ -198,6 +200,8 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
    *
    * @param dominanceFinder an object of DomimanceFinder, it should be created by the given
    *     blockGraph
+   * @param livenessAnalyser the liveness of the locals in the given blockGraph; a block gets no
+   *     phiStmt for a local which is not alive at its beginning
    * @param blockToDefs maps each block to the set of defs' local in itself
    * @param localToBlocks maps each def local to the set of blocks where it is defined.
    * @return a map, key: block, value: a set of phiStmts that are added in front of the
@@ -206,6 +210,7 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
   private Map<BasicBlock<?>, Set<Stmt>> decideBlockToPhiStmts(
       Body.BodyBuilder builder,
       DominanceFinder dominanceFinder,
+      LocalLivenessAnalyser livenessAnalyser,
       Map<BasicBlock<?>, Set<Local>> blockToDefs,
       Map<Local, Set<BasicBlock<?>>> localToBlocks) {
     Map<BasicBlock<?>, Set<Stmt>> blockToPhiStmts = new HashMap<>();
@@ -221,7 +226,7 @@ public class StaticSingleAssignmentFormer implements BodyInterceptor {
         // Only dominance frontiers of a block can add a phiStmt
         for (BasicBlock<?> df : dfs) {
           final Set<BasicBlock<?>> basicBlocks = localToPhiBlocks.get(local);
-          if (!basicBlocks.contains(df)) {
+          if (!basicBlocks.contains(df) && livenessAnalyser.isLiveBeforeStmt(local, df.getHead())) {
             basicBlocks.add(df);
 
             // create an empty phiStmt
@@ -33,7 +33,6 @@ import sootup.core.jimple.common.expr.*;
 import sootup.core.jimple.common.ref.*;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
-import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.ArrayType;
 import sootup.core.types.ClassType;
 import sootup.core.types.PrimitiveType;
@@ -48,9 +47,11 @@ public class AugEvalFunction {
   IdentifierFactory factory = JavaIdentifierFactory.getInstance();
   View<? extends SootClass<?>> view;
   PrimitiveHierarchy primitiveHierarchy = new PrimitiveHierarchy();
+  BytecodeHierarchy hierarchy;
 
   public AugEvalFunction(View<? extends SootClass<?>> view) {
     this.view = view;
+    this.hierarchy = BytecodeHierarchy.of(view);
   }
 
   /**
@@ -225,7 +226,6 @@ public class AugEvalFunction {
    * type
    */
   private Deque<ClassType> getExceptionPath(@Nonnull ClassType exceptionType) {
-    ViewTypeHierarchy hierarchy = new ViewTypeHierarchy(view);
     ClassType throwable = factory.getClassType("java.lang.Throwable");
     Deque<ClassType> path = new ArrayDeque<>();
     path.push(exceptionType);
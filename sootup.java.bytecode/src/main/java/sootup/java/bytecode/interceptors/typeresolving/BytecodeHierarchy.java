@@ -21,26 +21,72 @@ package sootup.java.bytecode.interceptors.typeresolving;
  * #L%
  */
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
+import sootup.core.ViewChangeListener;
 import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.typehierarchy.LazyTypeHierarchy;
+import sootup.core.typehierarchy.MutableTypeHierarchy;
+import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.*;
+import sootup.core.views.MutableView;
 import sootup.core.views.View;
 import sootup.java.bytecode.interceptors.typeresolving.types.BottomType;
 
-/** @author Zun Wang */
+/**
+ * The hierarchy of types used by the {@link TypeResolver}. Use {@link #of(View)} to share one
+ * instance per view across all bodies that are typed: it keeps the subtypes, the ancestry paths and
+ * the least common ancestors of class types that have been computed so far, so that the cost of
+ * typing a body does not depend on the size of the program.
+ *
+ * @author Zun Wang
+ */
 public class BytecodeHierarchy implements IHierarchy {
 
-  private final ViewTypeHierarchy typeHierarchy;
+  private static final class Key extends View.ModuleDataKey<BytecodeHierarchy> {
+    private static final Key instance = new Key();
+
+    private Key() {}
+  }
+
+  @Nonnull private final View<? extends SootClass<?>> view;
   private final ClassType object;
   private final ClassType serializable;
   private final ClassType cloneable;
   private final PrimitiveHierarchy primitiveHierarchy;
 
+  /**
+   * The cached results. They are replaced as a whole on invalidation, so that results which are
+   * still being computed from an outdated hierarchy end up in the discarded instance.
+   */
+  @Nonnull private volatile Caches caches;
+
+  /** The results derived from one state of the type hierarchy of the view. */
+  private static final class Caches {
+    /** the type hierarchy of the view that the cached results are derived from */
+    @Nonnull private final TypeHierarchy typeHierarchy;
+
+    /** the modification count of the type hierarchy when the cached results were started */
+    private final int modificationCount;
+
+    private final Map<ClassType, Set<ClassType>> subtypes = new ConcurrentHashMap<>();
+    private final Map<ClassType, Set<AncestryPath>> ancestryPaths = new ConcurrentHashMap<>();
+    private final Map<List<ClassType>, Collection<Type>> leastCommonAncestors =
+        new ConcurrentHashMap<>();
+
+    private Caches(@Nonnull TypeHierarchy typeHierarchy) {
+      this.typeHierarchy = typeHierarchy;
+      this.modificationCount = modificationCountOf(typeHierarchy);
+    }
+  }
+
   public BytecodeHierarchy(View<? extends SootClass<?>> view) {
-    this.typeHierarchy = new ViewTypeHierarchy(view);
+    this.view = view;
+    this.caches = new Caches(view.getTypeHierarchy());
     IdentifierFactory factory = view.getIdentifierFactory();
     object = factory.getClassType("java.lang.Object");
     serializable = factory.getClassType("java.io.Serializable");
@@ -48,6 +94,114 @@ public class BytecodeHierarchy implements IHierarchy {
     primitiveHierarchy = new PrimitiveHierarchy();
   }
 
+  /**
+   * Returns the hierarchy that is shared by all users of the given view and creates it if it does
+   * not exist yet. The cached results are discarded whenever the type hierarchy of the view is
+   * replaced or types are added to it, and - if the view is a {@link MutableView} - whenever
+   * classes are added or removed.
+   */
+  @Nonnull
+  public static BytecodeHierarchy of(@Nonnull View<? extends SootClass<?>> view) {
+    BytecodeHierarchy hierarchy =
+        view.computeModuleDataIfAbsent(
+            Key.instance,
+            () -> {
+              BytecodeHierarchy newHierarchy = new BytecodeHierarchy(view);
+              if (view instanceof MutableView) {
+                ((MutableView) view).addChangeListener(newHierarchy.new CacheInvalidator());
+              }
+              return newHierarchy;
+            });
+    hierarchy.invalidateIfOutdated();
+    return hierarchy;
+  }
+
+  /** Discards the cached results if the type hierarchy of the view has changed since. */
+  private void invalidateIfOutdated() {
+    TypeHierarchy viewTypeHierarchy = view.getTypeHierarchy();
+    Caches current = caches;
+    if (viewTypeHierarchy != current.typeHierarchy
+        || modificationCountOf(viewTypeHierarchy) != current.modificationCount) {
+      caches = new Caches(viewTypeHierarchy);
+    }
+  }
+
+  private static int modificationCountOf(@Nonnull TypeHierarchy typeHierarchy) {
+    return typeHierarchy instanceof MutableTypeHierarchy
+        ? ((MutableTypeHierarchy) typeHierarchy).getModificationCount()
+        : 0;
+  }
+
+  private void invalidate() {
+    caches = new Caches(view.getTypeHierarchy());
+  }
+
+  /** Discards the cached results when the classes of a mutable view change. */
+  private class CacheInvalidator implements ViewChangeListener {
+    @Override
+    public void classAdded(SootClass sc) {
+      invalidate();
+    }
+
+    @Override
+    public void classRemoved(SootClass sc) {
+      invalidate();
+    }
+
+    @Override
+    public void methodAdded(SootMethod m) {}
+
+    @Override
+    public void methodRemoved(SootMethod m) {}
+  }
+
+  /** Returns the direct superclass of the given class. */
+  @Nullable
+  ClassType directSuperClassOf(@Nonnull ClassType classType) {
+    TypeHierarchy hierarchy = caches.typeHierarchy;
+    if (hierarchy instanceof ViewTypeHierarchy) {
+      // avoids resolving the class
+      return ((ViewTypeHierarchy) hierarchy).directSuperClassOf(classType);
+    }
+    return hierarchy.superClassOf(classType);
+  }
+
+  /**
+   * Returns the interfaces that the given type directly implements (if it is a class) or extends
+   * (if it is an interface). The structural queries are offered by the {@link ViewTypeHierarchy}
+   * and the {@link LazyTypeHierarchy}; for any other hierarchy the class is resolved.
+   */
+  @Nonnull
+  private Set<? extends ClassType> directSuperInterfacesOf(
+      @Nonnull ClassType type, boolean isInterface) {
+    TypeHierarchy hierarchy = caches.typeHierarchy;
+    if (hierarchy instanceof ViewTypeHierarchy) {
+      ViewTypeHierarchy viewTypeHierarchy = (ViewTypeHierarchy) hierarchy;
+      return isInterface
+          ? viewTypeHierarchy.directlyExtendedInterfacesOf(type)
+          : viewTypeHierarchy.directlyImplementedInterfacesOf(type);
+    }
+    if (hierarchy instanceof LazyTypeHierarchy) {
+      LazyTypeHierarchy lazyTypeHierarchy = (LazyTypeHierarchy) hierarchy;
+      return isInterface
+          ? lazyTypeHierarchy.directlyExtendedInterfacesOf(type)
+          : lazyTypeHierarchy.directlyImplementedInterfacesOf(type);
+    }
+    return view.getClassOrThrow(type).getInterfaces();
+  }
+
+  /** Returns whether the given type is an interface, see {@link #directSuperInterfacesOf}. */
+  private boolean isInterface(@Nonnull ClassType type) {
+    TypeHierarchy hierarchy = caches.typeHierarchy;
+    if (hierarchy instanceof ViewTypeHierarchy) {
+      return ((ViewTypeHierarchy) hierarchy).isInterface(type);
+    }
+    if (hierarchy instanceof LazyTypeHierarchy) {
+      return ((LazyTypeHierarchy) hierarchy).isInterface(type);
+    }
+    return view.getClassOrThrow(type).isInterface();
+  }
+
   @Override
   public boolean isAncestor(@Nonnull Type ancestor, @Nonnull Type child) {
     boolean isAncestor = primitiveHierarchy.isAncestor(ancestor, child);
@@ -95,7 +249,7 @@ public class BytecodeHierarchy implements IHierarchy {
 
   @Override
   public Collection<Type> getLeastCommonAncestor(Type a, Type b) {
-    Collection<Type> ret = new HashSet<>();
+    Set<Type> ret = new HashSet<>();
     if (a instanceof BottomType) {
       return Collections.singleton(b);
     } else if (b instanceof BottomType) {
@@ -145,6 +299,12 @@ public class BytecodeHierarchy implements IHierarchy {
       }
     } else {
       // if a and b are both ClassType
+      List<ClassType> key = Arrays.asList((ClassType) a, (ClassType) b);
+      Map<List<ClassType>, Collection<Type>> leastCommonAncestors = caches.leastCommonAncestors;
+      Collection<Type> cached = leastCommonAncestors.get(key);
+      if (cached != null) {
+        return cached;
+      }
       Set<AncestryPath> pathsA = buildAncestryPaths((ClassType) a);
       Set<AncestryPath> pathsB = buildAncestryPaths((ClassType) b);
       for (AncestryPath pathA : pathsA) {
@@ -171,6 +331,8 @@ public class BytecodeHierarchy implements IHierarchy {
       if (ret.isEmpty()) {
         ret.add(object);
       }
+      ret = Collections.unmodifiableSet(ret);
+      leastCommonAncestors.put(key, ret);
     }
     return ret;
   }
@@ -179,11 +341,25 @@ public class BytecodeHierarchy implements IHierarchy {
     if (ancestor.equals(object)) {
       return true;
     } else {
-      return typeHierarchy.subtypesOf(ancestor).contains(child);
+      Caches current = caches;
+      return current
+          .subtypes
+          .computeIfAbsent(ancestor, current.typeHierarchy::subtypesOf)
+          .contains(child);
     }
   }
 
   private Set<AncestryPath> buildAncestryPaths(ClassType type) {
+    Map<ClassType, Set<AncestryPath>> ancestryPaths = caches.ancestryPaths;
+    Set<AncestryPath> paths = ancestryPaths.get(type);
+    if (paths == null) {
+      paths = Collections.unmodifiableSet(computeAncestryPaths(type));
+      ancestryPaths.put(type, paths);
+    }
+    return paths;
+  }
+
+  private Set<AncestryPath> computeAncestryPaths(ClassType type) {
     Deque<AncestryPath> pathNodes = new ArrayDeque<>();
     pathNodes.add(new AncestryPath(type, null));
     Set<AncestryPath> paths = new HashSet<>();
@@ -192,8 +368,8 @@ public class BytecodeHierarchy implements IHierarchy {
       if (node.type.getFullyQualifiedName().equals("java.lang.Object")) {
         paths.add(node);
       } else {
-        if (typeHierarchy.isInterface(node.type)) {
-          Set<ClassType> superInterfaces = typeHierarchy.directlyExtendedInterfacesOf(node.type);
+        if (isInterface(node.type)) {
+          Set<? extends ClassType> superInterfaces = directSuperInterfacesOf(node.type, true);
           if (superInterfaces.isEmpty()) {
             paths.add(node);
           } else {
@@ -203,12 +379,12 @@ public class BytecodeHierarchy implements IHierarchy {
             }
           }
         } else {
-          Set<ClassType> superInterfaces = typeHierarchy.directlyImplementedInterfacesOf(node.type);
+          Set<? extends ClassType> superInterfaces = directSuperInterfacesOf(node.type, false);
           for (ClassType superInterface : superInterfaces) {
             AncestryPath superNode = new AncestryPath(superInterface, node);
             pathNodes.add(superNode);
           }
-          ClassType superClass = typeHierarchy.directSuperClassOf(node.type);
+          ClassType superClass = directSuperClassOf(node.type);
           AncestryPath superNode = new AncestryPath(superClass, node);
           pathNodes.add(superNode);
         }
@@ -229,8 +405,8 @@ public class BytecodeHierarchy implements IHierarchy {
   }
 
   private static class AncestryPath {
-    public AncestryPath next;
-    public ClassType type;
+    public final AncestryPath next;
+    public final ClassType type;
 
     public AncestryPath(@Nonnull ClassType type, @Nullable AncestryPath next) {
       this.type = type;
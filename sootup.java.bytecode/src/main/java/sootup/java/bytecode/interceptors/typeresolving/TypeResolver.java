@@ -57,7 +57,7 @@ public class TypeResolver {
 
   public boolean resolve(@Nonnull Body.BodyBuilder builder) {
     init(builder);
-    BytecodeHierarchy hierarchy = new BytecodeHierarchy(view);
+    BytecodeHierarchy hierarchy = BytecodeHierarchy.of(view);
     AugEvalFunction evalFunction = new AugEvalFunction(view);
     final Collection<Local> locals = Lists.newArrayList(builder.getLocals());
     Typing iniTyping = new Typing(locals);
@@ -0,0 +1,173 @@
+package sootup.java.bytecode.frontend;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.model.Body;
+import sootup.core.model.LinePosition;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.bytecode.interceptors.Aggregator;
+import sootup.java.bytecode.interceptors.DeadAssignmentEliminator;
+import sootup.java.bytecode.interceptors.TypeAssigner;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class PersistentBodyCacheTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  final Path jar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+
+  @Test
+  public void testCachedBodiesAreEqual() throws IOException {
+    final PersistentBodyCache cache = new PersistentBodyCache(tempFolder.getRoot().toPath());
+
+    final Map<String, String> convertedBodies = resolveBodies(createView(cache));
+    assertFalse(convertedBodies.isEmpty());
+    assertEquals(0, cache.getHitCount());
+    assertTrue(cache.getMissCount() >= convertedBodies.size());
+    final long cachedBodyCount;
+    try (Stream<Path> files = Files.walk(cache.getDirectory())) {
+      cachedBodyCount = files.filter(file -> file.toString().endsWith(".body")).count();
+    }
+    assertTrue(cachedBodyCount > 0);
+
+    final PersistentBodyCache secondCache = new PersistentBodyCache(cache.getDirectory());
+    final Map<String, String> cachedBodies = resolveBodies(createView(secondCache));
+    assertEquals(cachedBodyCount, secondCache.getHitCount());
+    assertEquals(convertedBodies, cachedBodies);
+  }
+
+  @Test
+  public void testCorruptCacheFile() throws IOException {
+    final PersistentBodyCache cache = new PersistentBodyCache(tempFolder.getRoot().toPath());
+    final Map<String, String> convertedBodies = resolveBodies(createView(cache));
+
+    try (Stream<Path> files = Files.walk(cache.getDirectory())) {
+      files
+          .filter(file -> file.toString().endsWith(".body"))
+          .forEach(
+              file -> {
+                try {
+                  Files.write(file, new byte[] {1, 2, 3});
+                } catch (IOException e) {
+                  throw new RuntimeException(e);
+                }
+              });
+    }
+
+    final PersistentBodyCache secondCache = new PersistentBodyCache(cache.getDirectory());
+    assertEquals(convertedBodies, resolveBodies(createView(secondCache)));
+    assertEquals(0, secondCache.getHitCount());
+  }
+
+  @Test
+  public void testStoreAndLoad() {
+    final PersistentBodyCache cache = new PersistentBodyCache(tempFolder.getRoot().toPath());
+    final Body body =
+        createView(cache).getClasses().stream()
+            .flatMap(sootClass -> sootClass.getMethods().stream())
+            .filter(SootMethod::hasBody)
+            .findFirst()
+            .get()
+            .getBody();
+    final MethodSignature signature = body.getMethodSignature();
+
+    final String key = cache.getKey("hash", signature, Collections.emptyList()).get();
+    assertTrue(cache.store(key, body));
+    // the body is read with the given identifier factory
+    final JavaIdentifierFactory factory = JavaIdentifierFactory.createCanonicalizing();
+    final Optional<Body> loadedBody = cache.load(key, signature, factory);
+    assertTrue(loadedBody.isPresent());
+    assertEquals(body.toString(), loadedBody.get().toString());
+    assertSame(
+        factory.getMethodSignature(signature.getDeclClassType(), signature.getSubSignature()),
+        loadedBody.get().getMethodSignature());
+
+    // a LinePosition has no binary representation
+    final Body unsupportedBody =
+        Body.builder(body, Collections.emptySet()).setPosition(new LinePosition()).build();
+    final String unsupportedKey =
+        cache.getKey("other hash", signature, Collections.emptyList()).get();
+    assertFalse(cache.store(unsupportedKey, unsupportedBody));
+    assertFalse(cache.load(unsupportedKey, signature, factory).isPresent());
+  }
+
+  @Test
+  public void testConfigurationKeys() {
+    final PersistentBodyCache cache = new PersistentBodyCache(tempFolder.getRoot().toPath());
+    final MethodSignature signature =
+        JavaIdentifierFactory.getInstance().parseMethodSignature("<ds.Employee: int getSalary()>");
+
+    // the configuration of an interceptor is part of the key
+    assertNotEquals(
+        cache.getKey("hash", signature, Collections.singletonList(new Aggregator(true))),
+        cache.getKey("hash", signature, Collections.singletonList(new Aggregator(false))));
+    assertEquals(
+        cache.getKey("hash", signature, Collections.singletonList(new TypeAssigner(false))),
+        cache.getKey("hash", signature, Collections.singletonList(new TypeAssigner(false))));
+
+    // bodies of interceptors without a configuration key are not cached
+    final BodyInterceptor unkeyed =
+        new BodyInterceptor() {
+          @Override
+          public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {}
+
+          @Override
+          public String getConfigurationKey() {
+            return null;
+          }
+        };
+    assertFalse(
+        cache
+            .getKey("hash", signature, Arrays.asList(new DeadAssignmentEliminator(), unkeyed))
+            .isPresent());
+  }
+
+  private JavaView createView(PersistentBodyCache cache) {
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+            .build()
+            .createView();
+    PersistentBodyCache.setCache(view, cache);
+    return view;
+  }
+
+  private static Map<String, String> resolveBodies(JavaView view) {
+    final Map<String, String> bodies = new TreeMap<>();
+    view.getClasses()
+        .forEach(
+            sootClass -> {
+              for (SootMethod method : sootClass.getMethods()) {
+                if (method.hasBody()) {
+                  final Body body = method.getBody();
+                  bodies.put(method.getSignature().toString(), body.toString());
+                }
+              }
+            });
+    return bodies;
+  }
+}
@@ -0,0 +1,101 @@
+package sootup.java.bytecode.inputlocation;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class ArchivePoolTest {
+
+  final Path jar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+
+  @Test
+  public void testReferenceCounting() throws IOException {
+    final ArchivePool pool = new ArchivePool(1, TimeUnit.HOURS);
+    final ArchivePool.Archive first = pool.acquire(jar);
+    final ArchivePool.Archive second = pool.acquire(jar);
+    assertSame(first, second);
+    assertTrue(first.hasEntry("ds/Employee.class"));
+    assertNotNull(first.read("ds/Employee.class"));
+    assertNull(first.read("ds/DoesNotExist.class"));
+
+    first.close();
+    pool.close();
+    // the archive is still in use
+    assertEquals(1, pool.size());
+    assertNotNull(second.read("ds/Employee.class"));
+    second.close();
+    assertEquals(0, pool.size());
+    assertThrows(IllegalStateException.class, () -> pool.acquire(jar));
+  }
+
+  @Test
+  public void testIdleEviction() throws IOException {
+    final ArchivePool pool = new ArchivePool(0, TimeUnit.SECONDS);
+    try (ArchivePool.Archive archive = pool.acquire(jar)) {
+      assertEquals(1, pool.size());
+    }
+    assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void testFailedOpen() throws IOException {
+    final ArchivePool pool = new ArchivePool(1, TimeUnit.HOURS);
+    final Path missing = Paths.get("../shared-test-resources/java-miniapps/DoesNotExist.jar");
+    assertThrows(IOException.class, () -> pool.acquire(missing));
+    // the failed archive is not kept
+    assertEquals(0, pool.size());
+    try (ArchivePool.Archive archive = pool.acquire(jar)) {
+      assertEquals(1, pool.size());
+    }
+    pool.close();
+  }
+
+  @Test
+  public void testIdleEvictionWithoutFurtherAccess() throws IOException, InterruptedException {
+    final ArchivePool pool = new ArchivePool(50, TimeUnit.MILLISECONDS);
+    try (ArchivePool.Archive archive = pool.acquire(jar)) {
+      assertEquals(1, pool.size());
+    }
+    // the idle archive is closed in the background
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (pool.size() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, pool.size());
+    pool.close();
+  }
+
+  @Test
+  public void testViewScopedPool() throws IOException {
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+            .build()
+            .createView();
+    final ClassType employee = JavaIdentifierFactory.getInstance().getClassType("Employee", "ds");
+
+    try (ArchivePool pool = new ArchivePool(1, TimeUnit.HOURS)) {
+      ArchivePool.setPool(view, pool);
+      assertSame(pool, ArchivePool.getPool(view));
+
+      final JavaSootClass sootClass = view.getClass(employee).get();
+      assertEquals(1, pool.size());
+      assertTrue(sootClass.getClassSource().getSourcePath().endsWith("ds/Employee.class"));
+      assertFalse(sootClass.getMethods().isEmpty());
+      assertTrue(view.getClasses().size() > 1);
+    }
+  }
+}
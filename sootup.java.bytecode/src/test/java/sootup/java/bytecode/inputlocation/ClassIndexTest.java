@@ -0,0 +1,109 @@
+package sootup.java.bytecode.inputlocation;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassIndex;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class ClassIndexTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  final Path jar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  final Path mrj = Paths.get("../shared-test-resources/multi-release-jar/mrjar.jar");
+  final Path binaryDir = Paths.get("../shared-test-resources/miniTestSuite/java6/binary");
+
+  final ClassType employee = JavaIdentifierFactory.getInstance().getClassType("Employee", "ds");
+  final ClassType utility =
+      JavaIdentifierFactory.getInstance().getClassType("Utility", "de.upb.swt.multirelease");
+
+  @Test
+  public void testFirstLocationWins() {
+    // a split package: both archives contain the same classes
+    final PathBasedAnalysisInputLocation first = new PathBasedAnalysisInputLocation(jar, null);
+    final PathBasedAnalysisInputLocation second = new PathBasedAnalysisInputLocation(jar, null);
+    final PathBasedAnalysisInputLocation dir = new PathBasedAnalysisInputLocation(binaryDir, null);
+
+    final ClassIndex<JavaSootClass> index = ClassIndex.build(Arrays.asList(dir, first, second));
+    assertSame(first, index.getLocation("ds.Employee").get());
+    assertEquals("ds/Employee.class", index.getEntry("ds.Employee").get());
+    assertSame(dir, index.getLocation("Employee").get());
+    assertFalse(index.getLocation("ds.DoesNotExist").isPresent());
+  }
+
+  @Test
+  public void testViewLookups() {
+    // the multi release jar can not be listed, so it is searched for every lookup
+    final JavaProject project =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(mrj, null))
+            .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+            .build();
+    final JavaView view = project.createView();
+    final ClassIndex<JavaSootClass> index = view.buildClassIndex(null);
+    assertEquals(project.getInputLocations(), index.getLocations());
+    assertFalse(index.getLocation(utility.getFullyQualifiedName()).isPresent());
+
+    assertTrue(view.getClass(employee).isPresent());
+    assertTrue(view.getClass(utility).isPresent());
+    assertFalse(
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("DoesNotExist", "ds"))
+            .isPresent());
+  }
+
+  @Test
+  public void testClassPathIndex() throws IOException {
+    final JavaClassPathAnalysisInputLocation classPath =
+        new JavaClassPathAnalysisInputLocation(binaryDir + File.pathSeparator + jar);
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8)).addInputLocation(classPath).build().createView();
+
+    final Path indexFile = tempFolder.getRoot().toPath().resolve("classpath.index");
+    final ClassIndex<JavaSootClass> index = classPath.buildClassIndex(indexFile);
+    // the listing of the archive is persisted, the directory is listed every time
+    assertTrue(Files.exists(indexFile));
+    assertEquals(index.size(), ClassIndex.load(getEntries(binaryDir, jar), indexFile).size());
+
+    assertEquals(employee, classPath.getClassSource(employee, view).get().getClassType());
+    assertFalse(
+        classPath
+            .getClassSource(JavaIdentifierFactory.getInstance().getClassType("DoesNotExist"), view)
+            .isPresent());
+  }
+
+  @Test
+  public void testUnreadableIndexFile() throws IOException {
+    final Path indexFile = tempFolder.newFile("broken.index").toPath();
+    Files.write(indexFile, new byte[] {1, 2, 3});
+    final ClassIndex<JavaSootClass> index = ClassIndex.load(getEntries(jar), indexFile);
+    assertTrue(index.getLocation("MiniApp").isPresent());
+    assertEquals(Optional.of("MiniApp.class"), index.getEntry("MiniApp"));
+  }
+
+  private static List<AnalysisInputLocation<JavaSootClass>> getEntries(Path... paths) {
+    return Arrays.stream(paths)
+        .<AnalysisInputLocation<JavaSootClass>>map(p -> new PathBasedAnalysisInputLocation(p, null))
+        .collect(Collectors.toList());
+  }
+}
@@ -28,6 +28,8 @@ import static org.junit.Assert.assertTrue;
 
 import categories.Java8Test;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
@@ -170,6 +172,18 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
         view_min.getClass(classType2).get().getClassSource().getSourcePath().toString());
   }
 
+  @Test
+  public void closeMultiReleaseJar() throws IOException {
+    final ClassType classType = getIdentifierFactory().getClassType("de.upb.swt.multirelease.Main");
+    final PathBasedAnalysisInputLocation location = new PathBasedAnalysisInputLocation(mrj, null);
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(9)).addInputLocation(location).build().createView();
+    assertTrue(location.getClassSource(classType, view).isPresent());
+
+    location.close();
+    assertThrows(ClosedFileSystemException.class, () -> location.getClassSource(classType, view));
+  }
+
   @Test
   public void modularMultiReleaseJar() {
     final ClassType utilityNoModule =
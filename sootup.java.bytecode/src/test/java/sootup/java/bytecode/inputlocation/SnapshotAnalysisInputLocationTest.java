@@ -0,0 +1,122 @@
+package sootup.java.bytecode.inputlocation;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.frontend.ResolveException;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaAnnotationSootClass;
+import sootup.java.core.JavaAnnotationSootMethod;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.serialization.SnapshotAnalysisInputLocation;
+import sootup.java.core.serialization.SnapshotWriter;
+import sootup.java.core.types.AnnotationType;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class SnapshotAnalysisInputLocationTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  final Path jar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  final Path annotationDir = Paths.get("../shared-test-resources/miniTestSuite/java8/binary");
+
+  final AnnotationType annotationType =
+      JavaIdentifierFactory.getInstance().getAnnotationType("AnnotationData$FutureSootAnnotation");
+
+  @Test
+  public void testSnapshotEqualsOriginal() throws IOException {
+    final JavaView original =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+            .addInputLocation(new PathBasedAnalysisInputLocation(annotationDir, null))
+            .build()
+            .createView();
+    final List<JavaSootClass> classes = new ArrayList<>(original.getClasses());
+    classes.removeIf(sootClass -> !sootClass.getClassSource().getSourcePath().startsWith(jar));
+    classes.add(original.getClass(annotationType).get());
+
+    final Path snapshot = tempFolder.getRoot().toPath().resolve("MiniApp.snapshot");
+    SnapshotWriter.write(snapshot, classes);
+    assertFalse(Files.exists(snapshot.resolveSibling("MiniApp.snapshot.tmp")));
+
+    final SnapshotAnalysisInputLocation location = new SnapshotAnalysisInputLocation(snapshot);
+    assertEquals(classes.size(), location.getClassNames().size());
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build().createView();
+
+    for (JavaSootClass expected : classes) {
+      final ClassType type = expected.getType();
+      final JavaSootClass actual = view.getClass(type).get();
+      assertEquals(expected.getModifiers(), actual.getModifiers());
+      assertEquals(expected.getSuperclass(), actual.getSuperclass());
+      assertEquals(expected.getInterfaces(), actual.getInterfaces());
+      assertEquals(expected.getOuterClass(), actual.getOuterClass());
+      assertEquals(describe(expected), describe(actual));
+    }
+
+    final JavaSootClass annotationClass = view.getClass(annotationType).get();
+    assertTrue(annotationClass instanceof JavaAnnotationSootClass);
+    for (JavaSootMethod method : annotationClass.getMethods()) {
+      final Object expectedDefault =
+          ((JavaAnnotationSootMethod)
+                  original
+                      .getClass(annotationType)
+                      .get()
+                      .getMethod(method.getSignature().getSubSignature())
+                      .get())
+              .getDefaultValue();
+      assertEquals(expectedDefault, ((JavaAnnotationSootMethod) method).getDefaultValue());
+    }
+    assertFalse(
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("Dummy")).isPresent());
+  }
+
+  @Test(expected = ResolveException.class)
+  public void testInvalidSnapshot() throws IOException {
+    final Path snapshot = tempFolder.newFile("invalid.snapshot").toPath();
+    Files.write(snapshot, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+    new SnapshotAnalysisInputLocation(snapshot);
+  }
+
+  /** The members and the bodies of the methods of a class, sorted by their signature. */
+  private static Map<String, List<Object>> describe(JavaSootClass sootClass) {
+    final Map<String, List<Object>> members = new TreeMap<>();
+    for (JavaSootField field : sootClass.getFields()) {
+      final List<Object> annotations = new ArrayList<>();
+      field.getDeclaredAnnotations().forEach(annotations::add);
+      members.put(
+          field.getSignature().toString(), Arrays.asList(field.getModifiers(), annotations));
+    }
+    for (JavaSootMethod method : sootClass.getMethods()) {
+      final List<Object> annotations = new ArrayList<>();
+      method.getDeclaredAnnotations().forEach(annotations::add);
+      members.put(
+          method.getSignature().toString(),
+          Arrays.asList(
+              method.getModifiers(),
+              method.getExceptionSignatures(),
+              annotations,
+              method.hasBody() ? method.getBody().toString() : ""));
+    }
+    return members;
+  }
+}
@@ -76,6 +76,8 @@ public class CopyPropagatorTest {
   Stmt estmt3 = JavaJimple.newAssignStmt(r3, r1, noStmtPositionInfo);
   // r4 = r1
   Stmt estmt4 = JavaJimple.newAssignStmt(r4, r1, noStmtPositionInfo);
+  // r4 = r2
+  Stmt dstmt4 = JavaJimple.newAssignStmt(r4, r2, noStmtPositionInfo);
 
   // i1 = 5
   Stmt stmt5 = JavaJimple.newAssignStmt(i1, IntConstant.getInstance(5), noStmtPositionInfo);
@@ -137,6 +139,26 @@ public class CopyPropagatorTest {
     AssertUtils.assertStmtGraphEquiv(expectedBody, builder.build());
   }
 
+  @Test
+  /** Test the copy propagation after a previous interceptor modified the StmtGraph directly */
+  public void testDirectlyModifiedStmtGraph() {
+
+    Body body = createChainBody();
+    Body.BodyBuilder builder = Body.builder(body, Collections.emptySet());
+    // compute the reaching definitions before the modification
+    assertTrue(builder.getReachingDefinitions().getDefsOfUse(r2, stmt3).contains(stmt2));
+
+    // remove r2 = r1 without the builder - like e.g. the ConditionalBranchFolder does
+    builder.getStmtGraph().removeNode(stmt2);
+    assertTrue(builder.getReachingDefinitions().getDefsOfUse(r2, stmt3).isEmpty());
+
+    CopyPropagator propagator = new CopyPropagator();
+    propagator.interceptBody(builder, null);
+
+    Body expectedBody = createExpectedDirectlyModifiedBody();
+    AssertUtils.assertStmtGraphEquiv(expectedBody, builder.build());
+  }
+
   @Test
   /** Test the copy propagation for loop */
   public void testLoopBody() {
@@ -219,6 +241,33 @@ public class CopyPropagatorTest {
     return builder.build();
   }
 
+  /** r0 := @this Test; r1 = new ref; r3 = r2; r4 = r2; return */
+  private Body createExpectedDirectlyModifiedBody() {
+
+    // build an instance of BodyBuilder
+    Body.BodyBuilder builder = Body.builder();
+    builder.setMethodSignature(methodSignature);
+
+    // add locals into builder
+    Set<Local> locals = ImmutableUtils.immutableSet(r0, r1, r2, r3, r4);
+
+    builder.setLocals(locals);
+
+    // build stmtsGraph for the builder
+    builder.addFlow(startingStmt, stmt1);
+    builder.addFlow(stmt1, stmt3);
+    builder.addFlow(stmt3, dstmt4);
+    builder.addFlow(dstmt4, ret);
+
+    // set startingStmt
+    builder.setStartingStmt(startingStmt);
+
+    // set Position
+    builder.setPosition(NoPositionInformation.getInstance());
+
+    return builder.build();
+  }
+
   /**
    * l0 := @this Test; i1 = 5; i2 = 0; if i2 > i1 goto label2; i3 = i1 + 1; i2 = i2 + 1; goto
    * label1; return
@@ -1,7 +1,11 @@
 package sootup.java.bytecode.interceptors;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import categories.Java8Test;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -84,6 +88,25 @@ public class LocalLivenessAnalyserTest {
     AssertUtils.assertSetsEquiv(Collections.emptySet(), analyser.getLiveLocalsAfterStmt(ret));
   }
 
+  @Test
+  public void testLivenessQueries() {
+    Body body = createBody();
+    Body.BodyBuilder builder = Body.builder(body, Collections.emptySet());
+    LocalLivenessAnalyser analyser = new LocalLivenessAnalyser(builder.getStmtGraph());
+
+    assertTrue(analyser.isLiveBeforeStmt(c, aeq0));
+    assertFalse(analyser.isLiveBeforeStmt(a, aeq0));
+    assertTrue(analyser.isLiveAfterStmt(a, aeq0));
+    // a is used by the stmt, but not alive after it
+    assertTrue(analyser.isLiveBeforeStmt(a, beqaplus1));
+    assertFalse(analyser.isLiveAfterStmt(a, beqaplus1));
+    assertFalse(analyser.isLiveAfterStmt(c, ret));
+
+    Set<Local> liveLocals = new HashSet<>();
+    analyser.forEachLiveLocalAfterStmt(aeqbplus2, liveLocals::add);
+    AssertUtils.assertSetsEquiv(ImmutableUtils.immutableSet(a, c), liveLocals);
+  }
+
   private Body createBody() {
 
     Body.BodyBuilder builder = Body.builder();
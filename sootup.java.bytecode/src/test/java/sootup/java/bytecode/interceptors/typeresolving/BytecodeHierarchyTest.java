@@ -11,6 +11,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.IdentifierFactory;
+import sootup.core.typehierarchy.LazyTypeHierarchy;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.*;
 import sootup.core.util.ImmutableUtils;
@@ -145,6 +146,39 @@ public class BytecodeHierarchyTest {
     Assert.assertFalse(hierarchy.isAncestor(seriArr, class3Arr));
   }
 
+  @Test
+  public void testSharedHierarchy() {
+    setUp();
+    BytecodeHierarchy hierarchy = BytecodeHierarchy.of(view);
+    Assert.assertSame(hierarchy, BytecodeHierarchy.of(view));
+
+    // cached results are the same as the computed ones
+    Collection<Type> expectedSet = ImmutableUtils.immutableSet(number, comparable);
+    Assert.assertEquals(expectedSet, hierarchy.getLeastCommonAncestor(double_class1, int_class));
+    Assert.assertEquals(expectedSet, hierarchy.getLeastCommonAncestor(double_class1, int_class));
+    Assert.assertTrue(hierarchy.isAncestor(rootInterface1, class2));
+    Assert.assertTrue(hierarchy.isAncestor(rootInterface1, class2));
+
+    // replacing the type hierarchy of the view discards the cached results
+    view.setTypeHierarchy(new ViewTypeHierarchy(view));
+    Assert.assertSame(hierarchy, BytecodeHierarchy.of(view));
+    Assert.assertEquals(expectedSet, hierarchy.getLeastCommonAncestor(double_class1, int_class));
+    Assert.assertTrue(hierarchy.isAncestor(rootInterface1, class2));
+  }
+
+  @Test
+  public void testSharedHierarchyUsesLazyTypeHierarchy() {
+    setUp();
+    view.setTypeHierarchy(new LazyTypeHierarchy(view));
+    BytecodeHierarchy hierarchy = BytecodeHierarchy.of(view);
+
+    // the ancestors are found in the headers of the classes, no class is resolved
+    Assert.assertEquals(
+        ImmutableUtils.immutableSet(number, comparable),
+        hierarchy.getLeastCommonAncestor(double_class1, int_class));
+    Assert.assertEquals(0, view.getAmountOfStoredClasses());
+  }
+
   @Test
   public void testLCA() {
     // setup view and ViewTypeHierarchy
@@ -24,6 +24,8 @@ package sootup.java.core;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Maps;
 import java.nio.file.Path;
 import java.util.*;
@@ -71,11 +73,85 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Nonnull
   protected final Map<String, PrimitiveType> primitiveTypeMap = Maps.newHashMapWithExpectedSize(8);
 
+  /**
+   * Whether class types and method signatures are canonicalized.
+   *
+   * @see #createCanonicalizing()
+   */
+  private final boolean canonicalizing;
+
+  /** Interns the class types, if canonicalizing. */
+  @Nonnull private final Interner<ClassType> classTypes = Interners.newWeakInterner();
+
+  /** Interns the method subsignatures, if canonicalizing. */
+  @Nonnull
+  private final Interner<MethodSubSignature> methodSubSignatures = Interners.newWeakInterner();
+
+  /** Interns the method signatures, if canonicalizing. */
+  @Nonnull private final Interner<MethodSignature> methodSignatures = Interners.newWeakInterner();
+
+  /** Caches the parsed method signatures, if canonicalizing. */
+  @Nonnull
+  private final Cache<String, MethodSignature> parsedMethodSignatures =
+      CacheBuilder.newBuilder().softValues().build();
+
   public static JavaIdentifierFactory getInstance() {
     return INSTANCE;
   }
 
+  /**
+   * Creates a new factory that canonicalizes class types, method subsignatures and method
+   * signatures: equal identifiers that are created by it are the same instance, so maps keyed by
+   * them compare by reference in most cases, and parsed method signatures are cached. The
+   * identifiers are kept in weak tables, so they do not outlive their users.
+   *
+   * <p>The shared instance returned by {@link #getInstance()} never canonicalizes, as existing code
+   * relies on getting distinct instances from it. Pass the canonicalizing factory explicitly where
+   * it is wanted.
+   */
+  @Nonnull
+  public static JavaIdentifierFactory createCanonicalizing() {
+    return new JavaIdentifierFactory(true);
+  }
+
+  public boolean isCanonicalizing() {
+    return canonicalizing;
+  }
+
+  /** Returns the canonical instance of the given class type, if canonicalizing. */
+  @SuppressWarnings("unchecked") // equal class types are instances of the same class
+  @Nonnull
+  protected <T extends ClassType> T canonical(@Nonnull T classType) {
+    return canonicalizing ? (T) classTypes.intern(classType) : classType;
+  }
+
+  /** Returns the canonical instance of the given method subsignature, if canonicalizing. */
+  @Nonnull
+  protected MethodSubSignature canonical(@Nonnull MethodSubSignature subSignature) {
+    return canonicalizing ? methodSubSignatures.intern(subSignature) : subSignature;
+  }
+
+  /** Returns the canonical instance of the given method signature, if canonicalizing. */
+  @Nonnull
+  protected MethodSignature canonical(@Nonnull MethodSignature methodSignature) {
+    if (!canonicalizing) {
+      return methodSignature;
+    }
+    ClassType declClassType = canonical(methodSignature.getDeclClassType());
+    MethodSubSignature subSignature = canonical(methodSignature.getSubSignature());
+    if (declClassType != methodSignature.getDeclClassType()
+        || subSignature != methodSignature.getSubSignature()) {
+      methodSignature = new MethodSignature(declClassType, subSignature);
+    }
+    return methodSignatures.intern(methodSignature);
+  }
+
   JavaIdentifierFactory() {
+    this(false);
+  }
+
+  JavaIdentifierFactory(boolean canonicalizing) {
+    this.canonicalizing = canonicalizing;
     /* Represents the default package. */
     packages.put(PackageName.DEFAULT_PACKAGE.getPackageName(), PackageName.DEFAULT_PACKAGE);
 
@@ -99,8 +175,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   }
 
   /**
-   * Always creates a new ClassSignature. In opposite to PackageSignatures, ClassSignatures are not
-   * cached because the are unique per class, and thus reusing them does not make sense.
+   * Creates a new ClassSignature, unless the factory is {@link #createCanonicalizing()
+   * canonicalizing}.
    *
    * @param className the simple class name
    * @param packageName the Java package name; must not be null use empty string for the default
@@ -112,11 +188,12 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Override
   public JavaClassType getClassType(final String className, final String packageName) {
     PackageName packageIdentifier = getPackageName(packageName);
-    return new JavaClassType(className, packageIdentifier);
+    return canonical(new JavaClassType(className, packageIdentifier));
   }
 
   /**
-   * Always creates a new ClassSignature.
+   * Creates a new ClassSignature, unless the factory is {@link #createCanonicalizing()
+   * canonicalizing}.
    *
    * @param fullyQualifiedClassName the fully-qualified name of the class
    * @return a ClassSignature for a Java Class
@@ -264,7 +341,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   }
 
   /**
-   * Always creates a new MethodSignature AND a new ClassSignature.
+   * Creates a new MethodSignature AND a new ClassSignature, unless the factory is {@link
+   * #createCanonicalizing() canonicalizing}.
    *
    * @param methodName the method's name
    * @param fullyQualifiedNameDeclClass the fully-qualified name of the declaring class
@@ -285,11 +363,13 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       Type parameterSignature = getType(fqParameterName);
       parameterSignatures.add(parameterSignature);
     }
-    return new MethodSignature(declaringClass, methodName, parameterSignatures, returnType);
+    return canonical(
+        new MethodSignature(declaringClass, methodName, parameterSignatures, returnType));
   }
 
   /**
-   * Always creates a new MethodSignature reusing the given ClassSignature.
+   * Creates a new MethodSignature reusing the given ClassSignature, unless the factory is {@link
+   * #createCanonicalizing() canonicalizing}.
    *
    * @param declaringClassSignature the ClassSignature of the declaring class
    * @param methodName the method's name
@@ -309,8 +389,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       Type parameterSignature = getType(fqParameterName);
       parameterSignatures.add(parameterSignature);
     }
-    return new MethodSignature(
-        declaringClassSignature, methodName, parameterSignatures, returnType);
+    return canonical(
+        new MethodSignature(declaringClassSignature, methodName, parameterSignatures, returnType));
   }
 
   @Override
@@ -320,7 +400,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       final Type fqReturnType,
       final List<Type> parameters) {
 
-    return new MethodSignature(declaringClassSignature, methodName, parameters, fqReturnType);
+    return canonical(
+        new MethodSignature(declaringClassSignature, methodName, parameters, fqReturnType));
   }
 
   @Override
@@ -334,7 +415,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Nonnull
   public MethodSignature getMethodSignature(
       @Nonnull ClassType declaringClassSignature, @Nonnull MethodSubSignature subSignature) {
-    return new MethodSignature(declaringClassSignature, subSignature);
+    return canonical(new MethodSignature(declaringClassSignature, subSignature));
   }
 
   private static final class MethodSignatureParserPatternHolder {
@@ -389,6 +470,19 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Override
   @Nonnull
   public MethodSignature parseMethodSignature(@Nonnull String methodSignature) {
+    if (canonicalizing) {
+      MethodSignature parsed = parsedMethodSignatures.getIfPresent(methodSignature);
+      if (parsed == null) {
+        parsed = parseMethodSignatureUncached(methodSignature);
+        parsedMethodSignatures.put(methodSignature, parsed);
+      }
+      return parsed;
+    }
+    return parseMethodSignatureUncached(methodSignature);
+  }
+
+  @Nonnull
+  private MethodSignature parseMethodSignatureUncached(@Nonnull String methodSignature) {
     Matcher matcher =
         MethodSignatureParserPatternHolder.SOOT_METHOD_SIGNATURE_PATTERN.matcher(methodSignature);
 
@@ -436,7 +530,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       @Nonnull String name,
       @Nonnull Type returnType,
       @Nonnull Iterable<? extends Type> parameterSignatures) {
-    return new MethodSubSignature(name, parameterSignatures, returnType);
+    return canonical(new MethodSubSignature(name, parameterSignatures, returnType));
   }
 
   @Nonnull
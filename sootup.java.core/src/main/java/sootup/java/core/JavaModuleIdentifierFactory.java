@@ -100,9 +100,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
   }
 
   /**
-   * Always creates a new ClassSignature. In opposite to PackageSignatures and ModuleSignatures,
-   * ClassSignatures are not cached because the are unique per class, and thus reusing them does not
-   * make sense.
+   * Creates a new ClassSignature, unless the factory is {@link #isCanonicalizing() canonicalizing}.
    *
    * @param className the simple name of the class
    * @param packageName the declaring package
@@ -116,7 +114,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
       final @Nonnull String packageName,
       final @Nonnull String moduleName) {
     ModulePackageName packageIdentifier = getPackageName(packageName, moduleName);
-    return new ModuleJavaClassType(className, packageIdentifier);
+    return canonical(new ModuleJavaClassType(className, packageIdentifier));
   }
 
   public ModuleJavaClassType getClassType(
@@ -124,7 +122,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
       final @Nonnull String packageName,
       final @Nonnull ModuleSignature moduleSignature) {
     ModulePackageName packageIdentifier = getPackageName(packageName, moduleSignature);
-    return new ModuleJavaClassType(className, packageIdentifier);
+    return canonical(new ModuleJavaClassType(className, packageIdentifier));
   }
 
   /**
@@ -34,6 +34,7 @@ import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.inputlocation.DefaultSourceTypeSpecifier;
 import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.ConcurrentJavaView;
 import sootup.java.core.views.JavaView;
 import sootup.java.core.views.MutableJavaView;
 
@@ -57,6 +58,15 @@ public class JavaProject extends Project<JavaSootClass, JavaView> {
     return new MutableJavaView(this);
   }
 
+  /**
+   * Creates a {@link ConcurrentJavaView} whose classes can be resolved by multiple threads in
+   * parallel.
+   */
+  @Nonnull
+  public ConcurrentJavaView createConcurrentView() {
+    return new ConcurrentJavaView(this);
+  }
+
   @Nonnull
   public JavaView createView(
       @Nonnull
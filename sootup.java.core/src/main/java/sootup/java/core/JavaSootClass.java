@@ -49,6 +49,15 @@ public class JavaSootClass extends SootClass<JavaSootClassSource> {
     super(classSource, sourceType);
   }
 
+  /**
+   * Get the annotations which are declared on this class i.e. without inherited annotations and
+   * without resolving the default values of the annotation types.
+   */
+  @Nonnull
+  public Iterable<AnnotationUsage> getDeclaredAnnotations() {
+    return classSource.resolveAnnotations();
+  }
+
   /**
    * Get all annotations on this class. If provided with a View, will also resolve all inherited
    * annotations from super classes.
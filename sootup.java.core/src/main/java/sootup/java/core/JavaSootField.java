@@ -52,6 +52,12 @@ public class JavaSootField extends SootField {
     this.annotations = annotations;
   }
 
+  /** Get the annotations of this field without resolving the default values of their types. */
+  @Nonnull
+  public Iterable<AnnotationUsage> getDeclaredAnnotations() {
+    return annotations;
+  }
+
   @Nonnull
   public Iterable<AnnotationUsage> getAnnotations(@Nonnull Optional<JavaView> view) {
     annotations.forEach(e -> e.getAnnotation().getDefaultValues(view));
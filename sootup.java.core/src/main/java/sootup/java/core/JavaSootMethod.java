@@ -66,6 +66,12 @@ public class JavaSootMethod extends SootMethod {
     return this.getSignature().getName().equals(STATIC_INITIALIZER_NAME);
   }
 
+  /** Get the annotations of this method without resolving the default values of their types. */
+  @Nonnull
+  public Iterable<AnnotationUsage> getDeclaredAnnotations() {
+    return annotations;
+  }
+
   @Nonnull
   public Iterable<AnnotationUsage> getAnnotations(@Nonnull Optional<JavaView> view) {
     annotations.forEach(e -> e.getAnnotation().getDefaultValues(view));
@@ -0,0 +1,1063 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.BooleanConstant;
+import sootup.core.jimple.common.constant.ClassConstant;
+import sootup.core.jimple.common.constant.DoubleConstant;
+import sootup.core.jimple.common.constant.EnumConstant;
+import sootup.core.jimple.common.constant.FloatConstant;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.LongConstant;
+import sootup.core.jimple.common.constant.MethodHandle;
+import sootup.core.jimple.common.constant.MethodType;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.expr.AbstractBinopExpr;
+import sootup.core.jimple.common.expr.AbstractConditionExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JAndExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.expr.JCmpExpr;
+import sootup.core.jimple.common.expr.JCmpgExpr;
+import sootup.core.jimple.common.expr.JCmplExpr;
+import sootup.core.jimple.common.expr.JDivExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JEqExpr;
+import sootup.core.jimple.common.expr.JGeExpr;
+import sootup.core.jimple.common.expr.JGtExpr;
+import sootup.core.jimple.common.expr.JInstanceOfExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.expr.JLengthExpr;
+import sootup.core.jimple.common.expr.JLtExpr;
+import sootup.core.jimple.common.expr.JMulExpr;
+import sootup.core.jimple.common.expr.JNeExpr;
+import sootup.core.jimple.common.expr.JNegExpr;
+import sootup.core.jimple.common.expr.JNewArrayExpr;
+import sootup.core.jimple.common.expr.JNewExpr;
+import sootup.core.jimple.common.expr.JNewMultiArrayExpr;
+import sootup.core.jimple.common.expr.JOrExpr;
+import sootup.core.jimple.common.expr.JRemExpr;
+import sootup.core.jimple.common.expr.JShlExpr;
+import sootup.core.jimple.common.expr.JShrExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.expr.JSubExpr;
+import sootup.core.jimple.common.expr.JUshrExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.expr.JXorExpr;
+import sootup.core.jimple.common.ref.IdentityRef;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.ref.JParameterRef;
+import sootup.core.jimple.common.ref.JStaticFieldRef;
+import sootup.core.jimple.common.ref.JThisRef;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JGotoStmt;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
+import sootup.core.jimple.common.stmt.JIfStmt;
+import sootup.core.jimple.common.stmt.JInvokeStmt;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.JReturnVoidStmt;
+import sootup.core.jimple.common.stmt.JThrowStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.jimple.javabytecode.stmt.JBreakpointStmt;
+import sootup.core.jimple.javabytecode.stmt.JEnterMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JExitMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JRetStmt;
+import sootup.core.jimple.javabytecode.stmt.JSwitchStmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+import sootup.core.validation.ValidationLevel;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.jimple.basic.JavaLocal;
+import sootup.java.core.types.AnnotationType;
+
+/**
+ * Writes a {@link Body} in a compact binary format and reads it back. The StmtGraph is stored block
+ * by block: the Stmts of each block, followed by the successors and the exceptional successors of
+ * the blocks as block indices. Locals are pooled per body, everything else is pooled by the given
+ * {@link JimpleOutput}, so writing several bodies into one output shares e.g. the signatures.
+ *
+ * <p>Stmts and values that are not created by the Java frontends (e.g. phi expressions) can not be
+ * written: {@link #write(Body, JimpleOutput)} rejects them with an {@link
+ * UnsupportedOperationException}, while {@link #writeIfSupported(Body, JimpleOutput)} reports them
+ * via its result. A body that has been read is not validated again.
+ */
+public class BodySerializer {
+
+  /** the version of the format, which changes whenever the format changes */
+  public static final int VERSION = 1;
+
+  // tags of the values
+  private static final int LOCAL = 0;
+  private static final int INT_CONSTANT = 1;
+  private static final int LONG_CONSTANT = 2;
+  private static final int FLOAT_CONSTANT = 3;
+  private static final int DOUBLE_CONSTANT = 4;
+  private static final int NULL_CONSTANT = 5;
+  private static final int BOOLEAN_CONSTANT = 6;
+  private static final int STRING_CONSTANT = 7;
+  private static final int CLASS_CONSTANT = 8;
+  private static final int ENUM_CONSTANT = 9;
+  private static final int METHOD_HANDLE = 10;
+  private static final int METHOD_TYPE = 11;
+  private static final int ADD = 12;
+  private static final int AND = 13;
+  private static final int CMP = 14;
+  private static final int CMPG = 15;
+  private static final int CMPL = 16;
+  private static final int DIV = 17;
+  private static final int EQ = 18;
+  private static final int GE = 19;
+  private static final int GT = 20;
+  private static final int LE = 21;
+  private static final int LT = 22;
+  private static final int MUL = 23;
+  private static final int NE = 24;
+  private static final int OR = 25;
+  private static final int REM = 26;
+  private static final int SHL = 27;
+  private static final int SHR = 28;
+  private static final int SUB = 29;
+  private static final int USHR = 30;
+  private static final int XOR = 31;
+  private static final int NEG = 32;
+  private static final int LENGTH = 33;
+  private static final int CAST = 34;
+  private static final int INSTANCE_OF = 35;
+  private static final int NEW = 36;
+  private static final int NEW_ARRAY = 37;
+  private static final int NEW_MULTI_ARRAY = 38;
+  private static final int STATIC_INVOKE = 39;
+  private static final int SPECIAL_INVOKE = 40;
+  private static final int VIRTUAL_INVOKE = 41;
+  private static final int INTERFACE_INVOKE = 42;
+  private static final int DYNAMIC_INVOKE = 43;
+  private static final int ARRAY_REF = 44;
+  private static final int INSTANCE_FIELD_REF = 45;
+  private static final int STATIC_FIELD_REF = 46;
+  private static final int PARAMETER_REF = 47;
+  private static final int THIS_REF = 48;
+  private static final int CAUGHT_EXCEPTION_REF = 49;
+
+  // tags of the stmts
+  private static final int ASSIGN_STMT = 0;
+  private static final int IDENTITY_STMT = 1;
+  private static final int IF_STMT = 2;
+  private static final int GOTO_STMT = 3;
+  private static final int INVOKE_STMT = 4;
+  private static final int NOP_STMT = 5;
+  private static final int RETURN_STMT = 6;
+  private static final int RETURN_VOID_STMT = 7;
+  private static final int THROW_STMT = 8;
+  private static final int BREAKPOINT_STMT = 9;
+  private static final int ENTER_MONITOR_STMT = 10;
+  private static final int EXIT_MONITOR_STMT = 11;
+  private static final int RET_STMT = 12;
+  private static final int TABLE_SWITCH_STMT = 13;
+  private static final int LOOKUP_SWITCH_STMT = 14;
+
+  // tags of the local kinds and the annotation values of a JavaLocal
+  private static final int PLAIN_LOCAL = 0;
+  private static final int JAVA_LOCAL = 1;
+  private static final int ANNOTATION_VALUE_CONSTANT = 0;
+  private static final int ANNOTATION_VALUE_LIST = 1;
+  private static final int ANNOTATION_VALUE_ANNOTATION = 2;
+
+  private BodySerializer() {}
+
+  /** Writes the given body. */
+  public static void write(@Nonnull Body body, @Nonnull JimpleOutput out) throws IOException {
+    new Writer(out).writeBody(body);
+  }
+
+  /**
+   * Writes the given body if the format covers all of its constructs.
+   *
+   * @return false if the body contains a construct which can not be written - the output is
+   *     incomplete then and has to be discarded
+   */
+  public static boolean writeIfSupported(@Nonnull Body body, @Nonnull JimpleOutput out)
+      throws IOException {
+    try {
+      write(body, out);
+      return true;
+    } catch (UnsupportedConstructException e) {
+      return false;
+    }
+  }
+
+  /** Reads a body which has been written by {@link #write(Body, JimpleOutput)}. */
+  @Nonnull
+  public static Body read(@Nonnull JimpleInput in) throws IOException {
+    return new Reader(in).readBody();
+  }
+
+  /** Writes annotations e.g. of a class or a member, whose values are constants. */
+  static void writeAnnotations(
+      @Nonnull Iterable<AnnotationUsage> annotations, @Nonnull JimpleOutput out)
+      throws IOException {
+    new Writer(out).writeAnnotations(annotations);
+  }
+
+  @Nonnull
+  static List<AnnotationUsage> readAnnotations(@Nonnull JimpleInput in) throws IOException {
+    return new Reader(in).readAnnotations();
+  }
+
+  /**
+   * Writes a value of an annotation or the default value of an annotation method i.e. a constant,
+   * an annotation or a list of values.
+   */
+  static void writeAnnotationValue(@Nonnull Object value, @Nonnull JimpleOutput out)
+      throws IOException {
+    new Writer(out).writeAnnotationValue(value);
+  }
+
+  @Nonnull
+  static Object readAnnotationValue(@Nonnull JimpleInput in) throws IOException {
+    return new Reader(in).readAnnotationValue();
+  }
+
+  private static final class Writer {
+    @Nonnull private final JimpleOutput out;
+    @Nonnull private final Map<Local, Integer> locals = new IdentityHashMap<>();
+
+    private Writer(@Nonnull JimpleOutput out) {
+      this.out = out;
+    }
+
+    private void writeBody(@Nonnull Body body) throws IOException {
+      out.writeMethodSignature(body.getMethodSignature());
+      out.writePosition(body.getPosition());
+
+      final Set<Local> bodyLocals = body.getLocals();
+      out.writeVarInt(bodyLocals.size());
+      for (Local local : bodyLocals) {
+        writeLocal(local);
+      }
+
+      final StmtGraph<?> graph = body.getStmtGraph();
+      final List<BasicBlock<?>> blocks = new ArrayList<>(graph.getBlocks().size());
+      graph.getBlockIterator().forEachRemaining(blocks::add);
+      if (blocks.size() != graph.getBlocks().size()) {
+        throw new UnsupportedConstructException("Not all blocks of the StmtGraph are iterated.");
+      }
+      final Map<BasicBlock<?>, Integer> blockToIdx = new IdentityHashMap<>();
+      for (BasicBlock<?> block : blocks) {
+        blockToIdx.put(block, blockToIdx.size());
+      }
+
+      out.writeVarInt(blocks.size());
+      if (blocks.isEmpty()) {
+        return;
+      }
+      final BasicBlock<?> startingBlock = graph.getStartingStmtBlock();
+      if (startingBlock == null || startingBlock.getHead() != graph.getStartingStmt()) {
+        throw new UnsupportedConstructException("The starting Stmt is not the head of a block.");
+      }
+      out.writeVarInt(blockToIdx.get(startingBlock));
+
+      for (BasicBlock<?> block : blocks) {
+        final List<Stmt> stmts = block.getStmts();
+        out.writeVarInt(stmts.size());
+        for (Stmt stmt : stmts) {
+          writeStmt(stmt);
+        }
+      }
+      for (BasicBlock<?> block : blocks) {
+        final List<? extends BasicBlock<?>> successors = block.getSuccessors();
+        out.writeVarInt(successors.size());
+        for (BasicBlock<?> successor : successors) {
+          out.writeVarInt(blockToIdx.get(successor));
+        }
+        final Map<? extends ClassType, ? extends BasicBlock<?>> exceptionalSuccessors =
+            block.getExceptionalSuccessors();
+        out.writeVarInt(exceptionalSuccessors.size());
+        for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+            exceptionalSuccessors.entrySet()) {
+          out.writeType(entry.getKey());
+          out.writeVarInt(blockToIdx.get(entry.getValue()));
+        }
+      }
+    }
+
+    /** Locals are compared by their identity, as they are equal if their names are equal. */
+    private void writeLocal(@Nonnull Local local) throws IOException {
+      final Integer idx = locals.get(local);
+      if (idx != null) {
+        out.writeVarInt(idx + 1);
+        return;
+      }
+      out.writeVarInt(0);
+      out.writeString(local.getName());
+      out.writeType(local.getType());
+      if (local.getClass() == JavaLocal.class) {
+        out.writeByte(JAVA_LOCAL);
+        writeAnnotations(((JavaLocal) local).getAnnotations());
+      } else if (local.getClass() == Local.class) {
+        out.writeByte(PLAIN_LOCAL);
+      } else {
+        throw new UnsupportedConstructException("Unsupported local " + local.getClass());
+      }
+      locals.put(local, locals.size());
+    }
+
+    private void writeAnnotations(@Nonnull Iterable<AnnotationUsage> annotationIt)
+        throws IOException {
+      final List<AnnotationUsage> annotations = new ArrayList<>();
+      annotationIt.forEach(annotations::add);
+      out.writeVarInt(annotations.size());
+      for (AnnotationUsage annotation : annotations) {
+        out.writeType(annotation.getAnnotation());
+        // sorted, so that equal annotations are written equally
+        final Map<String, Object> values = new TreeMap<>(annotation.getValues());
+        out.writeVarInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+          out.writeString(entry.getKey());
+          writeAnnotationValue(entry.getValue());
+        }
+      }
+    }
+
+    private void writeAnnotationValue(@Nonnull Object value) throws IOException {
+      if (value instanceof Value) {
+        out.writeByte(ANNOTATION_VALUE_CONSTANT);
+        writeValue((Value) value);
+      } else if (value instanceof AnnotationUsage) {
+        out.writeByte(ANNOTATION_VALUE_ANNOTATION);
+        writeAnnotations(Collections.singletonList((AnnotationUsage) value));
+      } else if (value instanceof List) {
+        out.writeByte(ANNOTATION_VALUE_LIST);
+        final List<?> list = (List<?>) value;
+        out.writeVarInt(list.size());
+        for (Object element : list) {
+          writeAnnotationValue(element);
+        }
+      } else {
+        throw new UnsupportedConstructException("Unsupported annotation value " + value);
+      }
+    }
+
+    private void writeStmt(@Nonnull Stmt stmt) throws IOException {
+      if (stmt instanceof JAssignStmt) {
+        out.writeByte(ASSIGN_STMT);
+        writeValue(((JAssignStmt<?, ?>) stmt).getLeftOp());
+        writeValue(((JAssignStmt<?, ?>) stmt).getRightOp());
+      } else if (stmt instanceof JIdentityStmt) {
+        out.writeByte(IDENTITY_STMT);
+        writeLocal(((JIdentityStmt<?>) stmt).getLeftOp());
+        writeValue(((JIdentityStmt<?>) stmt).getRightOp());
+      } else if (stmt instanceof JIfStmt) {
+        out.writeByte(IF_STMT);
+        writeValue(((JIfStmt) stmt).getCondition());
+      } else if (stmt instanceof JGotoStmt) {
+        out.writeByte(GOTO_STMT);
+      } else if (stmt instanceof JInvokeStmt) {
+        out.writeByte(INVOKE_STMT);
+        writeValue(((JInvokeStmt) stmt).getInvokeExpr());
+      } else if (stmt instanceof JNopStmt) {
+        out.writeByte(NOP_STMT);
+      } else if (stmt instanceof JReturnStmt) {
+        out.writeByte(RETURN_STMT);
+        writeValue(((JReturnStmt) stmt).getOp());
+      } else if (stmt instanceof JReturnVoidStmt) {
+        out.writeByte(RETURN_VOID_STMT);
+      } else if (stmt instanceof JThrowStmt) {
+        out.writeByte(THROW_STMT);
+        writeValue(((JThrowStmt) stmt).getOp());
+      } else if (stmt instanceof JBreakpointStmt) {
+        out.writeByte(BREAKPOINT_STMT);
+      } else if (stmt instanceof JEnterMonitorStmt) {
+        out.writeByte(ENTER_MONITOR_STMT);
+        writeValue(((JEnterMonitorStmt) stmt).getOp());
+      } else if (stmt instanceof JExitMonitorStmt) {
+        out.writeByte(EXIT_MONITOR_STMT);
+        writeValue(((JExitMonitorStmt) stmt).getOp());
+      } else if (stmt instanceof JRetStmt) {
+        out.writeByte(RET_STMT);
+        writeValue(((JRetStmt) stmt).getStmtAddress());
+      } else if (stmt instanceof JSwitchStmt) {
+        final JSwitchStmt switchStmt = (JSwitchStmt) stmt;
+        final List<IntConstant> values = switchStmt.getValues();
+        if (switchStmt.isTableSwitch()) {
+          out.writeByte(TABLE_SWITCH_STMT);
+          writeValue(switchStmt.getKey());
+          out.writeSignedVarInt(values.isEmpty() ? 0 : values.get(0).getValue());
+          out.writeSignedVarInt(values.isEmpty() ? -1 : values.get(values.size() - 1).getValue());
+        } else {
+          out.writeByte(LOOKUP_SWITCH_STMT);
+          writeValue(switchStmt.getKey());
+          out.writeVarInt(values.size());
+          for (IntConstant value : values) {
+            out.writeSignedVarInt(value.getValue());
+          }
+        }
+      } else {
+        throw new UnsupportedConstructException("Unsupported Stmt " + stmt.getClass());
+      }
+      out.writeStmtPositionInfo(stmt.getPositionInfo());
+    }
+
+    private void writeValues(@Nonnull List<? extends Value> values) throws IOException {
+      out.writeVarInt(values.size());
+      for (Value value : values) {
+        writeValue(value);
+      }
+    }
+
+    private void writeValue(@Nonnull Value value) throws IOException {
+      if (value instanceof Local) {
+        out.writeByte(LOCAL);
+        writeLocal((Local) value);
+      } else if (value instanceof IntConstant) {
+        out.writeByte(INT_CONSTANT);
+        out.writeSignedVarInt(((IntConstant) value).getValue());
+      } else if (value instanceof LongConstant) {
+        out.writeByte(LONG_CONSTANT);
+        out.writeSignedVarLong(((LongConstant) value).getValue());
+      } else if (value instanceof FloatConstant) {
+        out.writeByte(FLOAT_CONSTANT);
+        out.writeInt(Float.floatToRawIntBits(((FloatConstant) value).getValue()));
+      } else if (value instanceof DoubleConstant) {
+        out.writeByte(DOUBLE_CONSTANT);
+        out.writeLong(Double.doubleToRawLongBits(((DoubleConstant) value).getValue()));
+      } else if (value instanceof NullConstant) {
+        out.writeByte(NULL_CONSTANT);
+      } else if (value instanceof BooleanConstant) {
+        out.writeByte(BOOLEAN_CONSTANT);
+        out.writeBoolean(value == BooleanConstant.getTrue());
+      } else if (value instanceof StringConstant) {
+        out.writeByte(STRING_CONSTANT);
+        out.writeString(((StringConstant) value).getValue());
+        out.writeType(value.getType());
+      } else if (value instanceof ClassConstant) {
+        out.writeByte(CLASS_CONSTANT);
+        out.writeString(((ClassConstant) value).getValue());
+        out.writeType(value.getType());
+      } else if (value instanceof EnumConstant) {
+        out.writeByte(ENUM_CONSTANT);
+        out.writeString(((EnumConstant) value).getValue());
+        out.writeType(value.getType());
+      } else if (value instanceof MethodHandle) {
+        final MethodHandle handle = (MethodHandle) value;
+        if (handle.getMethodSignature() == null) {
+          throw new UnsupportedConstructException("Unsupported field handle " + handle);
+        }
+        out.writeByte(METHOD_HANDLE);
+        out.writeMethodSignature(handle.getMethodSignature());
+        out.writeSignedVarInt(handle.tag);
+        out.writeType(handle.getType());
+      } else if (value instanceof MethodType) {
+        out.writeByte(METHOD_TYPE);
+        out.writeTypes(((MethodType) value).getParameterTypes());
+        out.writeType(((MethodType) value).getReturnType());
+        out.writeType(value.getType());
+      } else if (value instanceof AbstractBinopExpr) {
+        out.writeByte(getBinopTag((AbstractBinopExpr) value));
+        writeValue(((AbstractBinopExpr) value).getOp1());
+        writeValue(((AbstractBinopExpr) value).getOp2());
+      } else if (value instanceof JNegExpr) {
+        out.writeByte(NEG);
+        writeValue(((JNegExpr) value).getOp());
+      } else if (value instanceof JLengthExpr) {
+        out.writeByte(LENGTH);
+        writeValue(((JLengthExpr) value).getOp());
+      } else if (value instanceof JCastExpr) {
+        out.writeByte(CAST);
+        writeValue(((JCastExpr) value).getOp());
+        out.writeType(value.getType());
+      } else if (value instanceof JInstanceOfExpr) {
+        out.writeByte(INSTANCE_OF);
+        writeValue(((JInstanceOfExpr) value).getOp());
+        out.writeType(((JInstanceOfExpr) value).getCheckType());
+      } else if (value instanceof JNewExpr) {
+        out.writeByte(NEW);
+        out.writeType(value.getType());
+      } else if (value instanceof JNewArrayExpr) {
+        out.writeByte(NEW_ARRAY);
+        out.writeType(((JNewArrayExpr) value).getBaseType());
+        writeValue(((JNewArrayExpr) value).getSize());
+      } else if (value instanceof JNewMultiArrayExpr) {
+        out.writeByte(NEW_MULTI_ARRAY);
+        out.writeType(((JNewMultiArrayExpr) value).getBaseType());
+        writeValues(((JNewMultiArrayExpr) value).getSizes());
+      } else if (value instanceof AbstractInvokeExpr) {
+        writeInvokeExpr((AbstractInvokeExpr) value);
+      } else if (value instanceof JArrayRef) {
+        out.writeByte(ARRAY_REF);
+        writeLocal(((JArrayRef) value).getBase());
+        writeValue(((JArrayRef) value).getIndex());
+      } else if (value instanceof JInstanceFieldRef) {
+        out.writeByte(INSTANCE_FIELD_REF);
+        writeLocal(((JInstanceFieldRef) value).getBase());
+        out.writeFieldSignature(((JInstanceFieldRef) value).getFieldSignature());
+      } else if (value instanceof JStaticFieldRef) {
+        out.writeByte(STATIC_FIELD_REF);
+        out.writeFieldSignature(((JStaticFieldRef) value).getFieldSignature());
+      } else if (value instanceof JParameterRef) {
+        out.writeByte(PARAMETER_REF);
+        out.writeType(value.getType());
+        out.writeVarInt(((JParameterRef) value).getIndex());
+      } else if (value instanceof JThisRef) {
+        out.writeByte(THIS_REF);
+        out.writeType(value.getType());
+      } else if (value instanceof JCaughtExceptionRef) {
+        out.writeByte(CAUGHT_EXCEPTION_REF);
+        out.writeType(value.getType());
+      } else {
+        throw new UnsupportedConstructException("Unsupported value " + value.getClass());
+      }
+    }
+
+    private void writeInvokeExpr(@Nonnull AbstractInvokeExpr expr) throws IOException {
+      if (expr instanceof JStaticInvokeExpr) {
+        out.writeByte(STATIC_INVOKE);
+      } else if (expr instanceof JSpecialInvokeExpr) {
+        out.writeByte(SPECIAL_INVOKE);
+        writeLocal(((JSpecialInvokeExpr) expr).getBase());
+      } else if (expr instanceof JVirtualInvokeExpr) {
+        out.writeByte(VIRTUAL_INVOKE);
+        writeLocal(((JVirtualInvokeExpr) expr).getBase());
+      } else if (expr instanceof JInterfaceInvokeExpr) {
+        out.writeByte(INTERFACE_INVOKE);
+        writeLocal(((JInterfaceInvokeExpr) expr).getBase());
+      } else if (expr instanceof JDynamicInvokeExpr) {
+        final JDynamicInvokeExpr dynamicExpr = (JDynamicInvokeExpr) expr;
+        out.writeByte(DYNAMIC_INVOKE);
+        out.writeMethodSignature(dynamicExpr.getBootstrapMethodSignature());
+        writeValues(dynamicExpr.getBootstrapArgs());
+        out.writeSignedVarInt(dynamicExpr.getHandleTag());
+      } else {
+        throw new UnsupportedConstructException("Unsupported invoke " + expr.getClass());
+      }
+      out.writeMethodSignature(expr.getMethodSignature());
+      writeValues(expr.getArgs());
+    }
+  }
+
+  private static int getBinopTag(@Nonnull AbstractBinopExpr expr) {
+    final Integer tag = BINOP_TAGS.get(expr.getClass());
+    if (tag == null) {
+      throw new UnsupportedConstructException("Unsupported expression " + expr.getClass());
+    }
+    return tag;
+  }
+
+  @Nonnull private static final Map<Class<?>, Integer> BINOP_TAGS = new HashMap<>();
+
+  static {
+    BINOP_TAGS.put(JAddExpr.class, ADD);
+    BINOP_TAGS.put(JAndExpr.class, AND);
+    BINOP_TAGS.put(JCmpExpr.class, CMP);
+    BINOP_TAGS.put(JCmpgExpr.class, CMPG);
+    BINOP_TAGS.put(JCmplExpr.class, CMPL);
+    BINOP_TAGS.put(JDivExpr.class, DIV);
+    BINOP_TAGS.put(JEqExpr.class, EQ);
+    BINOP_TAGS.put(JGeExpr.class, GE);
+    BINOP_TAGS.put(JGtExpr.class, GT);
+    BINOP_TAGS.put(JLeExpr.class, LE);
+    BINOP_TAGS.put(JLtExpr.class, LT);
+    BINOP_TAGS.put(JMulExpr.class, MUL);
+    BINOP_TAGS.put(JNeExpr.class, NE);
+    BINOP_TAGS.put(JOrExpr.class, OR);
+    BINOP_TAGS.put(JRemExpr.class, REM);
+    BINOP_TAGS.put(JShlExpr.class, SHL);
+    BINOP_TAGS.put(JShrExpr.class, SHR);
+    BINOP_TAGS.put(JSubExpr.class, SUB);
+    BINOP_TAGS.put(JUshrExpr.class, USHR);
+    BINOP_TAGS.put(JXorExpr.class, XOR);
+  }
+
+  private static final class Reader {
+    @Nonnull private final JimpleInput in;
+    @Nonnull private final List<Local> locals = new ArrayList<>();
+
+    private Reader(@Nonnull JimpleInput in) {
+      this.in = in;
+    }
+
+    @Nonnull
+    private Body readBody() throws IOException {
+      final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+      final Body.BodyBuilder builder = Body.builder(graph);
+      builder.setMethodSignature(in.readMethodSignature());
+      builder.setPosition(in.readPosition());
+
+      final int localCount = in.readCount();
+      final Set<Local> bodyLocals = new LinkedHashSet<>();
+      for (int i = 0; i < localCount; i++) {
+        bodyLocals.add(readLocal());
+      }
+      builder.setLocals(bodyLocals);
+
+      final int blockCount = in.readCount();
+      if (blockCount > 0) {
+        final int startingBlockIdx = in.readVarInt();
+        final List<List<Stmt>> blocks = new ArrayList<>(Math.min(blockCount, 1024));
+        for (int i = 0; i < blockCount; i++) {
+          final int stmtCount = in.readCount();
+          if (stmtCount == 0) {
+            throw new IOException("Empty block");
+          }
+          final List<Stmt> stmts = new ArrayList<>(Math.min(stmtCount, 1024));
+          for (int j = 0; j < stmtCount; j++) {
+            stmts.add(readStmt());
+          }
+          blocks.add(stmts);
+        }
+        graph.setStartingStmt(getBlock(blocks, startingBlockIdx).get(0));
+
+        final int[][] successors = new int[blockCount][];
+        for (int i = 0; i < blockCount; i++) {
+          final int successorCount = in.readCount();
+          successors[i] = new int[successorCount];
+          for (int j = 0; j < successorCount; j++) {
+            successors[i][j] = in.readVarInt();
+          }
+          final int exceptionalSuccessorCount = in.readCount();
+          final Map<ClassType, Stmt> exceptionalSuccessors = new LinkedHashMap<>();
+          for (int j = 0; j < exceptionalSuccessorCount; j++) {
+            final ClassType exceptionType = in.readClassType();
+            exceptionalSuccessors.put(exceptionType, getBlock(blocks, in.readVarInt()).get(0));
+          }
+          graph.addBlock(blocks.get(i), exceptionalSuccessors);
+        }
+
+        // branches first: a fall through edge merges two blocks only if the second block is not
+        // a branch target i.e. like in the written graph
+        for (boolean isBranch : new boolean[] {true, false}) {
+          for (int i = 0; i < blockCount; i++) {
+            final List<Stmt> block = blocks.get(i);
+            final Stmt tail = block.get(block.size() - 1);
+            if (tail.branches() != isBranch) {
+              continue;
+            }
+            for (int successorIdx : successors[i]) {
+              graph.putEdge(tail, getBlock(blocks, successorIdx).get(0));
+            }
+          }
+        }
+      }
+
+      return builder.setValidationLevel(ValidationLevel.NONE).build();
+    }
+
+    @Nonnull
+    private static List<Stmt> getBlock(@Nonnull List<List<Stmt>> blocks, int idx)
+        throws IOException {
+      if (idx < 0 || idx >= blocks.size()) {
+        throw new IOException("Unknown block " + idx);
+      }
+      return blocks.get(idx);
+    }
+
+    @Nonnull
+    private Local readLocal() throws IOException {
+      final int idx = in.readVarInt();
+      if (idx != 0) {
+        if (idx > locals.size()) {
+          throw new IOException("Unknown local " + idx);
+        }
+        return locals.get(idx - 1);
+      }
+      final String name = in.readString();
+      final Type type = in.readType();
+      final int kind = in.readByte();
+      final Local local;
+      if (kind == JAVA_LOCAL) {
+        local = new JavaLocal(name, type, readAnnotations());
+      } else if (kind == PLAIN_LOCAL) {
+        local = new Local(name, type);
+      } else {
+        throw new IOException("Unknown local kind " + kind);
+      }
+      locals.add(local);
+      return local;
+    }
+
+    @Nonnull
+    private List<AnnotationUsage> readAnnotations() throws IOException {
+      final int count = in.readCount();
+      if (count == 0) {
+        return Collections.emptyList();
+      }
+      final List<AnnotationUsage> annotations = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        final Type annotationType = in.readType();
+        if (!(annotationType instanceof AnnotationType)) {
+          throw new IOException("Expected an annotation type instead of " + annotationType);
+        }
+        final int valueCount = in.readCount();
+        final Map<String, Object> values = new HashMap<>();
+        for (int j = 0; j < valueCount; j++) {
+          final String key = in.readString();
+          values.put(key, readAnnotationValue());
+        }
+        annotations.add(new AnnotationUsage((AnnotationType) annotationType, values));
+      }
+      return annotations;
+    }
+
+    @Nonnull
+    private Object readAnnotationValue() throws IOException {
+      final int tag = in.readByte();
+      switch (tag) {
+        case ANNOTATION_VALUE_CONSTANT:
+          return readValue();
+        case ANNOTATION_VALUE_ANNOTATION:
+          final List<AnnotationUsage> annotations = readAnnotations();
+          if (annotations.size() != 1) {
+            throw new IOException("Expected one annotation");
+          }
+          return annotations.get(0);
+        case ANNOTATION_VALUE_LIST:
+          final int count = in.readCount();
+          final List<Object> list = new ArrayList<>(Math.min(count, 1024));
+          for (int i = 0; i < count; i++) {
+            list.add(readAnnotationValue());
+          }
+          return list;
+        default:
+          throw new IOException("Unknown annotation value tag " + tag);
+      }
+    }
+
+    @Nonnull
+    private Stmt readStmt() throws IOException {
+      final int tag = in.readByte();
+      switch (tag) {
+        case ASSIGN_STMT:
+          {
+            final Value leftOp = readValue();
+            final Value rightOp = readValue();
+            return Jimple.newAssignStmt(leftOp, rightOp, in.readStmtPositionInfo());
+          }
+        case IDENTITY_STMT:
+          {
+            final Local local = readLocal();
+            final Value identityRef = readValue();
+            if (!(identityRef instanceof IdentityRef)) {
+              throw new IOException("Expected an identity ref instead of " + identityRef);
+            }
+            return Jimple.newIdentityStmt(
+                local, (IdentityRef) identityRef, in.readStmtPositionInfo());
+          }
+        case IF_STMT:
+          {
+            final Value condition = readValue();
+            if (!(condition instanceof AbstractConditionExpr)) {
+              throw new IOException("Expected a condition instead of " + condition);
+            }
+            return Jimple.newIfStmt((AbstractConditionExpr) condition, in.readStmtPositionInfo());
+          }
+        case GOTO_STMT:
+          return Jimple.newGotoStmt(in.readStmtPositionInfo());
+        case INVOKE_STMT:
+          {
+            final Value invokeExpr = readValue();
+            if (!(invokeExpr instanceof AbstractInvokeExpr)) {
+              throw new IOException("Expected an invoke instead of " + invokeExpr);
+            }
+            return Jimple.newInvokeStmt((AbstractInvokeExpr) invokeExpr, in.readStmtPositionInfo());
+          }
+        case NOP_STMT:
+          return Jimple.newNopStmt(in.readStmtPositionInfo());
+        case RETURN_STMT:
+          {
+            final Immediate op = readImmediate();
+            return Jimple.newReturnStmt(op, in.readStmtPositionInfo());
+          }
+        case RETURN_VOID_STMT:
+          return Jimple.newReturnVoidStmt(in.readStmtPositionInfo());
+        case THROW_STMT:
+          {
+            final Immediate op = readImmediate();
+            return Jimple.newThrowStmt(op, in.readStmtPositionInfo());
+          }
+        case BREAKPOINT_STMT:
+          return Jimple.newBreakpointStmt(in.readStmtPositionInfo());
+        case ENTER_MONITOR_STMT:
+          {
+            final Immediate op = readImmediate();
+            return Jimple.newEnterMonitorStmt(op, in.readStmtPositionInfo());
+          }
+        case EXIT_MONITOR_STMT:
+          {
+            final Immediate op = readImmediate();
+            return Jimple.newExitMonitorStmt(op, in.readStmtPositionInfo());
+          }
+        case RET_STMT:
+          {
+            final Immediate stmtAddress = readImmediate();
+            return Jimple.newRetStmt(stmtAddress, in.readStmtPositionInfo());
+          }
+        case TABLE_SWITCH_STMT:
+          {
+            final Immediate key = readImmediate();
+            final int lowIndex = in.readSignedVarInt();
+            final int highIndex = in.readSignedVarInt();
+            return Jimple.newTableSwitchStmt(key, lowIndex, highIndex, in.readStmtPositionInfo());
+          }
+        case LOOKUP_SWITCH_STMT:
+          {
+            final Immediate key = readImmediate();
+            final int count = in.readCount();
+            final List<IntConstant> values = new ArrayList<>(Math.min(count, 1024));
+            for (int i = 0; i < count; i++) {
+              values.add(IntConstant.getInstance(in.readSignedVarInt()));
+            }
+            return Jimple.newLookupSwitchStmt(key, values, in.readStmtPositionInfo());
+          }
+        default:
+          throw new IOException("Unknown Stmt tag " + tag);
+      }
+    }
+
+    @Nonnull
+    private Immediate readImmediate() throws IOException {
+      final Value value = readValue();
+      if (!(value instanceof Immediate)) {
+        throw new IOException("Expected an immediate instead of " + value);
+      }
+      return (Immediate) value;
+    }
+
+    @Nonnull
+    private List<Immediate> readImmediates() throws IOException {
+      final int count = in.readCount();
+      final List<Immediate> values = new ArrayList<>(Math.min(count, 256));
+      for (int i = 0; i < count; i++) {
+        values.add(readImmediate());
+      }
+      return values;
+    }
+
+    @Nonnull
+    private Local readBase() throws IOException {
+      return readLocal();
+    }
+
+    @Nonnull
+    private Value readValue() throws IOException {
+      final int tag = in.readByte();
+      switch (tag) {
+        case LOCAL:
+          return readLocal();
+        case INT_CONSTANT:
+          return IntConstant.getInstance(in.readSignedVarInt());
+        case LONG_CONSTANT:
+          return LongConstant.getInstance(in.readSignedVarLong());
+        case FLOAT_CONSTANT:
+          return FloatConstant.getInstance(Float.intBitsToFloat(in.readInt()));
+        case DOUBLE_CONSTANT:
+          return DoubleConstant.getInstance(Double.longBitsToDouble(in.readLong()));
+        case NULL_CONSTANT:
+          return NullConstant.getInstance();
+        case BOOLEAN_CONSTANT:
+          return BooleanConstant.getInstance(in.readBoolean());
+        case STRING_CONSTANT:
+          {
+            final String value = in.readString();
+            return new StringConstant(value, in.readType());
+          }
+        case CLASS_CONSTANT:
+          {
+            final String value = in.readString();
+            return new ClassConstant(value, in.readType());
+          }
+        case ENUM_CONSTANT:
+          {
+            final String value = in.readString();
+            return new EnumConstant(value, in.readClassType());
+          }
+        case METHOD_HANDLE:
+          {
+            final MethodSignature signature = in.readMethodSignature();
+            final int handleTag = in.readSignedVarInt();
+            return new MethodHandle(signature, handleTag, in.readType());
+          }
+        case METHOD_TYPE:
+          {
+            final List<Type> parameterTypes = in.readTypes();
+            final Type returnType = in.readType();
+            return new MethodType(
+                in.getIdentifierFactory()
+                    .getMethodSubSignature("__METHODTYPE__", returnType, parameterTypes),
+                in.readClassType());
+          }
+        case ADD:
+          return Jimple.newAddExpr(readImmediate(), readImmediate());
+        case AND:
+          return Jimple.newAndExpr(readImmediate(), readImmediate());
+        case CMP:
+          return Jimple.newCmpExpr(readImmediate(), readImmediate());
+        case CMPG:
+          return Jimple.newCmpgExpr(readImmediate(), readImmediate());
+        case CMPL:
+          return Jimple.newCmplExpr(readImmediate(), readImmediate());
+        case DIV:
+          return Jimple.newDivExpr(readImmediate(), readImmediate());
+        case EQ:
+          return Jimple.newEqExpr(readImmediate(), readImmediate());
+        case GE:
+          return Jimple.newGeExpr(readImmediate(), readImmediate());
+        case GT:
+          return Jimple.newGtExpr(readImmediate(), readImmediate());
+        case LE:
+          return Jimple.newLeExpr(readImmediate(), readImmediate());
+        case LT:
+          return Jimple.newLtExpr(readImmediate(), readImmediate());
+        case MUL:
+          return Jimple.newMulExpr(readImmediate(), readImmediate());
+        case NE:
+          return Jimple.newNeExpr(readImmediate(), readImmediate());
+        case OR:
+          return Jimple.newOrExpr(readImmediate(), readImmediate());
+        case REM:
+          return Jimple.newRemExpr(readImmediate(), readImmediate());
+        case SHL:
+          return Jimple.newShlExpr(readImmediate(), readImmediate());
+        case SHR:
+          return Jimple.newShrExpr(readImmediate(), readImmediate());
+        case SUB:
+          return Jimple.newSubExpr(readImmediate(), readImmediate());
+        case USHR:
+          return Jimple.newUshrExpr(readImmediate(), readImmediate());
+        case XOR:
+          return Jimple.newXorExpr(readImmediate(), readImmediate());
+        case NEG:
+          return Jimple.newNegExpr(readImmediate());
+        case LENGTH:
+          return Jimple.newLengthExpr(readImmediate());
+        case CAST:
+          {
+            final Immediate op = readImmediate();
+            return Jimple.newCastExpr(op, in.readType());
+          }
+        case INSTANCE_OF:
+          {
+            final Immediate op = readImmediate();
+            return Jimple.newInstanceOfExpr(op, in.readType());
+          }
+        case NEW:
+          return Jimple.newNewExpr(in.readClassType());
+        case NEW_ARRAY:
+          {
+            final Type baseType = in.readType();
+            return new JNewArrayExpr(baseType, readImmediate(), in.getIdentifierFactory());
+          }
+        case NEW_MULTI_ARRAY:
+          {
+            final Type baseType = in.readType();
+            if (!(baseType instanceof ArrayType)) {
+              throw new IOException("Expected an array type instead of " + baseType);
+            }
+            return Jimple.newNewMultiArrayExpr((ArrayType) baseType, readImmediates());
+          }
+        case STATIC_INVOKE:
+          {
+            final MethodSignature signature = in.readMethodSignature();
+            return Jimple.newStaticInvokeExpr(signature, readImmediates());
+          }
+        case SPECIAL_INVOKE:
+          {
+            final Local base = readBase();
+            final MethodSignature signature = in.readMethodSignature();
+            return Jimple.newSpecialInvokeExpr(base, signature, readImmediates());
+          }
+        case VIRTUAL_INVOKE:
+          {
+            final Local base = readBase();
+            final MethodSignature signature = in.readMethodSignature();
+            return Jimple.newVirtualInvokeExpr(base, signature, readImmediates());
+          }
+        case INTERFACE_INVOKE:
+          {
+            final Local base = readBase();
+            final MethodSignature signature = in.readMethodSignature();
+            return Jimple.newInterfaceInvokeExpr(base, signature, readImmediates());
+          }
+        case DYNAMIC_INVOKE:
+          {
+            final MethodSignature bootstrapSignature = in.readMethodSignature();
+            final List<Immediate> bootstrapArgs = readImmediates();
+            final int handleTag = in.readSignedVarInt();
+            final MethodSignature signature = in.readMethodSignature();
+            return new JDynamicInvokeExpr(
+                bootstrapSignature, bootstrapArgs, signature, handleTag, readImmediates());
+          }
+        case ARRAY_REF:
+          {
+            final Local base = readBase();
+            return new JArrayRef(base, readImmediate());
+          }
+        case INSTANCE_FIELD_REF:
+          {
+            final Local base = readBase();
+            return Jimple.newInstanceFieldRef(base, in.readFieldSignature());
+          }
+        case STATIC_FIELD_REF:
+          return Jimple.newStaticFieldRef(in.readFieldSignature());
+        case PARAMETER_REF:
+          {
+            final Type type = in.readType();
+            return Jimple.newParameterRef(type, in.readVarInt());
+          }
+        case THIS_REF:
+          return Jimple.newThisRef(in.readClassType());
+        case CAUGHT_EXCEPTION_REF:
+          return new JCaughtExceptionRef(in.readType());
+        default:
+          throw new IOException("Unknown value tag " + tag);
+      }
+    }
+  }
+}
@@ -0,0 +1,279 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.SimpleStmtPositionInfo;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.model.FullPosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+import sootup.java.core.JavaIdentifierFactory;
+
+/**
+ * Reads the binary representation of Jimple that is written by {@link JimpleOutput}. Malformed
+ * input is reported by an {@link IOException}.
+ */
+public class JimpleInput {
+
+  @Nonnull private final InputStream in;
+  @Nonnull private final JavaIdentifierFactory identifierFactory;
+
+  @Nonnull private final List<String> strings = new ArrayList<>();
+  @Nonnull private final List<Type> types = new ArrayList<>();
+  @Nonnull private final List<MethodSignature> methodSignatures = new ArrayList<>();
+  @Nonnull private final List<FieldSignature> fieldSignatures = new ArrayList<>();
+
+  /** @param in is not closed, it should be buffered. */
+  public JimpleInput(@Nonnull InputStream in, @Nonnull JavaIdentifierFactory identifierFactory) {
+    this.in = in;
+    this.identifierFactory = identifierFactory;
+  }
+
+  @Nonnull
+  public JavaIdentifierFactory getIdentifierFactory() {
+    return identifierFactory;
+  }
+
+  public int readByte() throws IOException {
+    final int value = in.read();
+    if (value < 0) {
+      throw new EOFException();
+    }
+    return value;
+  }
+
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  public int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      final int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  public int readSignedVarInt() throws IOException {
+    final int zigzag = readVarInt();
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+
+  public long readSignedVarLong() throws IOException {
+    long zigzag = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      final int b = readByte();
+      zigzag |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    }
+    throw new IOException("Malformed varlong");
+  }
+
+  public int readInt() throws IOException {
+    return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+  }
+
+  public long readLong() throws IOException {
+    return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+  }
+
+  /** Reads a count, e.g. the length of a list, which is plausible for the remaining input. */
+  public int readCount() throws IOException {
+    final int count = readVarInt();
+    if (count < 0) {
+      throw new IOException("Malformed count " + count);
+    }
+    return count;
+  }
+
+  @Nonnull
+  public String readRawString() throws IOException {
+    final byte[] bytes = new byte[readCount()];
+    int length = 0;
+    while (length < bytes.length) {
+      final int read = in.read(bytes, length, bytes.length - length);
+      if (read < 0) {
+        throw new EOFException();
+      }
+      length += read;
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Nonnull
+  public String readString() throws IOException {
+    final int idx = readVarInt();
+    if (idx != 0) {
+      return get(strings, idx);
+    }
+    final String value = readRawString();
+    strings.add(value);
+    return value;
+  }
+
+  @Nonnull
+  public Type readType() throws IOException {
+    final int idx = readVarInt();
+    if (idx != 0) {
+      return get(types, idx);
+    }
+    final Type type;
+    final int tag = readByte();
+    switch (tag) {
+      case JimpleOutput.TYPE_PRIMITIVE:
+        final String name = readString();
+        type =
+            identifierFactory
+                .getPrimitiveType(name)
+                .orElseThrow(() -> new IOException("Unknown primitive type " + name));
+        break;
+      case JimpleOutput.TYPE_CLASS:
+        type = identifierFactory.getClassType(readString());
+        break;
+      case JimpleOutput.TYPE_ANNOTATION:
+        type = identifierFactory.getAnnotationType(readString());
+        break;
+      case JimpleOutput.TYPE_ARRAY:
+        final Type baseType = readType();
+        type = identifierFactory.getArrayType(baseType, readVarInt());
+        break;
+      case JimpleOutput.TYPE_VOID:
+        type = VoidType.getInstance();
+        break;
+      case JimpleOutput.TYPE_NULL:
+        type = NullType.getInstance();
+        break;
+      case JimpleOutput.TYPE_UNKNOWN:
+        type = UnknownType.getInstance();
+        break;
+      default:
+        throw new IOException("Unknown type tag " + tag);
+    }
+    types.add(type);
+    return type;
+  }
+
+  @Nonnull
+  public ClassType readClassType() throws IOException {
+    final Type type = readType();
+    if (!(type instanceof ClassType)) {
+      throw new IOException("Expected a class type instead of " + type);
+    }
+    return (ClassType) type;
+  }
+
+  @Nonnull
+  public List<Type> readTypes() throws IOException {
+    final int count = readCount();
+    final List<Type> result = new ArrayList<>(Math.min(count, 256));
+    for (int i = 0; i < count; i++) {
+      result.add(readType());
+    }
+    return result;
+  }
+
+  @Nonnull
+  public MethodSignature readMethodSignature() throws IOException {
+    final int idx = readVarInt();
+    if (idx != 0) {
+      return get(methodSignatures, idx);
+    }
+    final ClassType declaringClass = readClassType();
+    final String name = readString();
+    final Type returnType = readType();
+    final List<Type> parameterTypes = readTypes();
+    final MethodSignature signature =
+        identifierFactory.getMethodSignature(declaringClass, name, returnType, parameterTypes);
+    methodSignatures.add(signature);
+    return signature;
+  }
+
+  @Nonnull
+  public FieldSignature readFieldSignature() throws IOException {
+    final int idx = readVarInt();
+    if (idx != 0) {
+      return get(fieldSignatures, idx);
+    }
+    final ClassType declaringClass = readClassType();
+    final String name = readString();
+    final FieldSignature signature =
+        identifierFactory.getFieldSignature(name, declaringClass, readType());
+    fieldSignatures.add(signature);
+    return signature;
+  }
+
+  @Nonnull
+  public Position readPosition() throws IOException {
+    final int tag = readByte();
+    switch (tag) {
+      case JimpleOutput.POSITION_NONE:
+        return NoPositionInformation.getInstance();
+      case JimpleOutput.POSITION_FULL:
+        return new FullPosition(
+            readSignedVarInt(), readSignedVarInt(), readSignedVarInt(), readSignedVarInt());
+      default:
+        throw new IOException("Unknown position tag " + tag);
+    }
+  }
+
+  @Nonnull
+  public StmtPositionInfo readStmtPositionInfo() throws IOException {
+    final int tag = readByte();
+    switch (tag) {
+      case JimpleOutput.POSITION_NONE:
+        return StmtPositionInfo.createNoStmtPositionInfo();
+      case JimpleOutput.POSITION_FULL:
+        return new SimpleStmtPositionInfo(readPosition());
+      default:
+        throw new IOException("Unknown position info tag " + tag);
+    }
+  }
+
+  @Nonnull
+  private static <T> T get(@Nonnull List<T> pool, int idx) throws IOException {
+    if (idx > pool.size()) {
+      throw new IOException("Unknown pool index " + idx);
+    }
+    return pool.get(idx - 1);
+  }
+}
@@ -0,0 +1,244 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.SimpleStmtPositionInfo;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.model.FullPosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.types.AnnotationType;
+import sootup.java.core.types.JavaClassType;
+
+/**
+ * Writes the binary representation of Jimple that is read by {@link JimpleInput}. Numbers are
+ * written as varints. Strings, types and signatures are pooled like in a constant pool: the first
+ * occurrence is written inline and gets the next index of its pool, every later occurrence is
+ * written as that index.
+ *
+ * <p>Values which have no binary representation (yet) are rejected with an {@link
+ * UnsupportedOperationException}.
+ */
+public class JimpleOutput {
+
+  // tags of the pooled types
+  static final int TYPE_PRIMITIVE = 0;
+  static final int TYPE_CLASS = 1;
+  static final int TYPE_ANNOTATION = 2;
+  static final int TYPE_ARRAY = 3;
+  static final int TYPE_VOID = 4;
+  static final int TYPE_NULL = 5;
+  static final int TYPE_UNKNOWN = 6;
+
+  // tags of the positions
+  static final int POSITION_NONE = 0;
+  static final int POSITION_FULL = 1;
+
+  @Nonnull private final OutputStream out;
+
+  @Nonnull private final Map<String, Integer> strings = new HashMap<>();
+  @Nonnull private final Map<Type, Integer> types = new HashMap<>();
+  @Nonnull private final Map<MethodSignature, Integer> methodSignatures = new HashMap<>();
+  @Nonnull private final Map<FieldSignature, Integer> fieldSignatures = new HashMap<>();
+
+  /** @param out is not closed, it should be buffered. */
+  public JimpleOutput(@Nonnull OutputStream out) {
+    this.out = out;
+  }
+
+  public void writeByte(int value) throws IOException {
+    out.write(value);
+  }
+
+  public void writeBoolean(boolean value) throws IOException {
+    out.write(value ? 1 : 0);
+  }
+
+  /** Writes a non-negative int in 1 to 5 bytes. */
+  public void writeVarInt(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /** Writes an int whose absolute value is small in few bytes (zigzag encoding). */
+  public void writeSignedVarInt(int value) throws IOException {
+    writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  public void writeSignedVarLong(long value) throws IOException {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & ~0x7FL) != 0) {
+      out.write((int) ((zigzag & 0x7F) | 0x80));
+      zigzag >>>= 7;
+    }
+    out.write((int) zigzag);
+  }
+
+  public void writeInt(int value) throws IOException {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  public void writeLong(long value) throws IOException {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  /** Writes a string without pooling it. */
+  public void writeRawString(@Nonnull String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    out.write(bytes);
+  }
+
+  public void writeString(@Nonnull String value) throws IOException {
+    final Integer idx = strings.get(value);
+    if (idx != null) {
+      writeVarInt(idx + 1);
+      return;
+    }
+    writeVarInt(0);
+    writeRawString(value);
+    strings.put(value, strings.size());
+  }
+
+  public void writeType(@Nonnull Type type) throws IOException {
+    final Integer idx = types.get(type);
+    if (idx != null) {
+      writeVarInt(idx + 1);
+      return;
+    }
+    writeVarInt(0);
+    if (type instanceof PrimitiveType) {
+      final PrimitiveType primitiveType = (PrimitiveType) type;
+      // e.g. the augmented integer types of the type assigner are not part of a body
+      if (JavaIdentifierFactory.getInstance().getPrimitiveType(primitiveType.getName()).orElse(null)
+          != type) {
+        throw new UnsupportedConstructException("Unsupported primitive type " + type.getClass());
+      }
+      writeByte(TYPE_PRIMITIVE);
+      writeString(primitiveType.getName());
+    } else if (type.getClass() == JavaClassType.class) {
+      writeByte(TYPE_CLASS);
+      writeString(((JavaClassType) type).getFullyQualifiedName());
+    } else if (type.getClass() == AnnotationType.class) {
+      writeByte(TYPE_ANNOTATION);
+      writeString(((AnnotationType) type).getFullyQualifiedName());
+    } else if (type instanceof ArrayType) {
+      writeByte(TYPE_ARRAY);
+      writeType(((ArrayType) type).getBaseType());
+      writeVarInt(((ArrayType) type).getDimension());
+    } else if (type == VoidType.getInstance()) {
+      writeByte(TYPE_VOID);
+    } else if (type == NullType.getInstance()) {
+      writeByte(TYPE_NULL);
+    } else if (type == UnknownType.getInstance()) {
+      writeByte(TYPE_UNKNOWN);
+    } else {
+      throw new UnsupportedConstructException("Unsupported type " + type.getClass());
+    }
+    // nested types are pooled first - like when they are read
+    types.put(type, types.size());
+  }
+
+  public void writeTypes(@Nonnull List<Type> types) throws IOException {
+    writeVarInt(types.size());
+    for (Type type : types) {
+      writeType(type);
+    }
+  }
+
+  public void writeMethodSignature(@Nonnull MethodSignature signature) throws IOException {
+    final Integer idx = methodSignatures.get(signature);
+    if (idx != null) {
+      writeVarInt(idx + 1);
+      return;
+    }
+    writeVarInt(0);
+    writeType(signature.getDeclClassType());
+    writeString(signature.getName());
+    writeType(signature.getType());
+    writeTypes(signature.getParameterTypes());
+    methodSignatures.put(signature, methodSignatures.size());
+  }
+
+  public void writeFieldSignature(@Nonnull FieldSignature signature) throws IOException {
+    final Integer idx = fieldSignatures.get(signature);
+    if (idx != null) {
+      writeVarInt(idx + 1);
+      return;
+    }
+    writeVarInt(0);
+    writeType(signature.getDeclClassType());
+    writeString(signature.getName());
+    writeType(signature.getType());
+    fieldSignatures.put(signature, fieldSignatures.size());
+  }
+
+  public void writePosition(@Nonnull Position position) throws IOException {
+    if (position == NoPositionInformation.getInstance()) {
+      writeByte(POSITION_NONE);
+    } else if (position.getClass() == FullPosition.class) {
+      writeByte(POSITION_FULL);
+      writeSignedVarInt(position.getFirstLine());
+      writeSignedVarInt(position.getFirstCol());
+      writeSignedVarInt(position.getLastLine());
+      writeSignedVarInt(position.getLastCol());
+    } else {
+      throw new UnsupportedConstructException("Unsupported position " + position.getClass());
+    }
+  }
+
+  public void writeStmtPositionInfo(@Nonnull StmtPositionInfo positionInfo) throws IOException {
+    if (positionInfo == StmtPositionInfo.createNoStmtPositionInfo()) {
+      writeByte(POSITION_NONE);
+    } else if (positionInfo.getClass() == SimpleStmtPositionInfo.class) {
+      writeByte(POSITION_FULL);
+      writePosition(positionInfo.getStmtPosition());
+    } else {
+      throw new UnsupportedConstructException(
+          "Unsupported position info " + positionInfo.getClass());
+    }
+  }
+}
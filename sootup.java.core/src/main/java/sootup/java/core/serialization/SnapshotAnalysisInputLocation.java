@@ -0,0 +1,232 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.IdentifierFactory;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.IndexableAnalysisInputLocation;
+import sootup.core.model.SourceType;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootClassSource;
+
+/**
+ * An {@link AnalysisInputLocation} for a snapshot that has been written by {@link SnapshotWriter}.
+ * The snapshot is memory-mapped and only its index is read when it is opened: the record of a class
+ * is decoded when the class is resolved and the body of a method when the body is resolved. The
+ * bodies of a snapshot are not modified by body interceptors, as they have already been applied
+ * before the snapshot has been written.
+ *
+ * <p>A snapshot is mapped as a whole, i.e. it can not be larger than 2 GB.
+ */
+public class SnapshotAnalysisInputLocation
+    implements AnalysisInputLocation<JavaSootClass>, IndexableAnalysisInputLocation {
+
+  @Nonnull private final Path snapshotPath;
+  @Nullable private final SourceType sourceType;
+  @Nonnull private final ByteBuffer content;
+  @Nonnull private final Map<String, SnapshotWriter.IndexEntry> index;
+
+  public SnapshotAnalysisInputLocation(@Nonnull Path snapshotPath) {
+    this(snapshotPath, null);
+  }
+
+  public SnapshotAnalysisInputLocation(
+      @Nonnull Path snapshotPath, @Nullable SourceType sourceType) {
+    this.snapshotPath = snapshotPath;
+    this.sourceType = sourceType;
+    try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+      content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      index = readIndex(content);
+    } catch (IOException e) {
+      throw new ResolveException("Could not open the snapshot " + snapshotPath, snapshotPath, e);
+    }
+  }
+
+  @Nonnull
+  private static Map<String, SnapshotWriter.IndexEntry> readIndex(@Nonnull ByteBuffer content)
+      throws IOException {
+    final ByteBuffer buffer = content.duplicate();
+    // the header and the index only hold numbers and raw names, so no identifiers are created here
+    final JimpleInput header =
+        new JimpleInput(new ByteBufferInputStream(buffer), JavaIdentifierFactory.getInstance());
+    if (buffer.remaining() < 12 || header.readInt() != SnapshotWriter.MAGIC) {
+      throw new IOException("Not a snapshot");
+    }
+    final int version = header.readVarInt();
+    final int bodyVersion = header.readVarInt();
+    if (version != SnapshotWriter.VERSION || bodyVersion != BodySerializer.VERSION) {
+      throw new IOException("Unsupported snapshot version " + version + "." + bodyVersion);
+    }
+    final int recordsOffset = buffer.position();
+
+    buffer.position(buffer.limit() - 8);
+    final long indexOffset = header.readLong();
+    if (indexOffset < recordsOffset || indexOffset > buffer.limit() - 8) {
+      throw new IOException("Malformed index offset " + indexOffset);
+    }
+    buffer.position((int) indexOffset);
+    final int count = header.readCount();
+    final Map<String, SnapshotWriter.IndexEntry> index = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      final String className = header.readRawString();
+      final boolean isAnnotation = header.readBoolean();
+      final long offset = header.readLong();
+      final int length = header.readCount();
+      if (offset < recordsOffset || offset + length > indexOffset) {
+        throw new IOException("Malformed record of " + className);
+      }
+      index.put(className, new SnapshotWriter.IndexEntry(offset, length, isAnnotation));
+    }
+    return index;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<? extends JavaSootClassSource> getClassSource(
+      @Nonnull ClassType type, @Nonnull View<?> view) {
+    final SnapshotWriter.IndexEntry entry = index.get(type.getFullyQualifiedName());
+    if (entry == null) {
+      return Optional.empty();
+    }
+    return Optional.of(createClassSource(type, entry, identifierFactoryOf(view)));
+  }
+
+  @Nonnull
+  @Override
+  public Collection<? extends JavaSootClassSource> getClassSources(@Nonnull View<?> view) {
+    final JavaIdentifierFactory identifierFactory = identifierFactoryOf(view);
+    return index.entrySet().stream()
+        .map(
+            entry -> {
+              final ClassType type =
+                  entry.getValue().isAnnotation
+                      ? identifierFactory.getAnnotationType(entry.getKey())
+                      : identifierFactory.getClassType(entry.getKey());
+              return createClassSource(type, entry.getValue(), identifierFactory);
+            })
+        .collect(Collectors.toList());
+  }
+
+  /** Returns the identifier factory of the view that the records are decoded with. */
+  @Nonnull
+  private JavaIdentifierFactory identifierFactoryOf(@Nonnull View<?> view) {
+    final IdentifierFactory identifierFactory = view.getIdentifierFactory();
+    if (!(identifierFactory instanceof JavaIdentifierFactory)) {
+      throw new ResolveException(
+          "A snapshot can only be decoded with a JavaIdentifierFactory, but the view uses "
+              + identifierFactory.getClass().getName(),
+          snapshotPath);
+    }
+    return (JavaIdentifierFactory) identifierFactory;
+  }
+
+  @Nonnull
+  private JavaSootClassSource createClassSource(
+      @Nonnull ClassType type,
+      @Nonnull SnapshotWriter.IndexEntry entry,
+      @Nonnull JavaIdentifierFactory identifierFactory) {
+    final Supplier<SnapshotClassRecord> record =
+        Suppliers.memoize(
+            () -> {
+              final ByteBuffer buffer = content.duplicate();
+              buffer.position((int) entry.offset);
+              buffer.limit((int) entry.offset + entry.length);
+              try {
+                return SnapshotClassRecord.decode(
+                    buffer.slice(), entry.isAnnotation, identifierFactory);
+              } catch (IOException e) {
+                throw new ResolveException(
+                    "Could not decode " + type + " from the snapshot", snapshotPath, e);
+              }
+            });
+    return entry.isAnnotation
+        ? new SnapshotAnnotationClassSource(this, type, snapshotPath, record)
+        : new SnapshotClassSource(this, type, snapshotPath, record);
+  }
+
+  /** Returns the names of all classes in this snapshot. */
+  @Nonnull
+  public Collection<String> getClassNames() {
+    return Collections.unmodifiableSet(index.keySet());
+  }
+
+  @Override
+  public boolean listClasses(@Nonnull BiConsumer<String, String> consumer) {
+    index.keySet().forEach(className -> consumer.accept(className, className));
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public String getIndexStamp() {
+    try {
+      return snapshotPath.toAbsolutePath()
+          + ":"
+          + Files.size(snapshotPath)
+          + ":"
+          + Files.getLastModifiedTime(snapshotPath).toMillis();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  @Override
+  public SourceType getSourceType() {
+    return sourceType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof SnapshotAnalysisInputLocation)) {
+      return false;
+    }
+    return snapshotPath.equals(((SnapshotAnalysisInputLocation) o).snapshotPath);
+  }
+
+  @Override
+  public int hashCode() {
+    return snapshotPath.hashCode();
+  }
+}
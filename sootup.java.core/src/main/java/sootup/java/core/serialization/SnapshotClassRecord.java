@@ -0,0 +1,309 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaAnnotationSootMethod;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+
+/**
+ * The record of a class in a snapshot. A record has its own constant pools, so it can be decoded
+ * without the rest of the snapshot. The body of each method is a nested record with its own
+ * constant pools that is decoded when the body is resolved.
+ */
+final class SnapshotClassRecord {
+
+  @Nonnull final ClassType classType;
+  @Nonnull final Set<Modifier> modifiers;
+  @Nonnull final Optional<ClassType> superclass;
+  @Nonnull final Set<ClassType> interfaces;
+  @Nonnull final Optional<ClassType> outerClass;
+  @Nonnull final Position position;
+  @Nonnull final List<AnnotationUsage> annotations;
+  @Nonnull final List<JavaSootField> fields;
+  @Nonnull final List<JavaSootMethod> methods;
+
+  private SnapshotClassRecord(
+      @Nonnull ClassType classType,
+      @Nonnull Set<Modifier> modifiers,
+      @Nonnull Optional<ClassType> superclass,
+      @Nonnull Set<ClassType> interfaces,
+      @Nonnull Optional<ClassType> outerClass,
+      @Nonnull Position position,
+      @Nonnull List<AnnotationUsage> annotations,
+      @Nonnull List<JavaSootField> fields,
+      @Nonnull List<JavaSootMethod> methods) {
+    this.classType = classType;
+    this.modifiers = modifiers;
+    this.superclass = superclass;
+    this.interfaces = interfaces;
+    this.outerClass = outerClass;
+    this.position = position;
+    this.annotations = annotations;
+    this.fields = fields;
+    this.methods = methods;
+  }
+
+  /** Encodes the class including the bodies of its methods, which are resolved if necessary. */
+  @Nonnull
+  static byte[] encode(@Nonnull JavaSootClass sootClass) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final JimpleOutput out = new JimpleOutput(bytes);
+
+    out.writeType(sootClass.getType());
+    writeModifiers(sootClass.getModifiers(), out);
+    writeOptionalType(sootClass.getSuperclass(), out);
+    out.writeVarInt(sootClass.getInterfaces().size());
+    for (ClassType interfaceType : sootClass.getInterfaces()) {
+      out.writeType(interfaceType);
+    }
+    writeOptionalType(sootClass.getOuterClass(), out);
+    out.writePosition(sootClass.getPosition());
+    BodySerializer.writeAnnotations(sootClass.getDeclaredAnnotations(), out);
+
+    out.writeVarInt(sootClass.getFields().size());
+    for (JavaSootField field : sootClass.getFields()) {
+      out.writeFieldSignature(field.getSignature());
+      writeModifiers(field.getModifiers(), out);
+      BodySerializer.writeAnnotations(field.getDeclaredAnnotations(), out);
+      out.writePosition(field.getPosition());
+    }
+
+    out.writeVarInt(sootClass.getMethods().size());
+    for (JavaSootMethod method : sootClass.getMethods()) {
+      out.writeMethodSignature(method.getSignature());
+      writeModifiers(method.getModifiers(), out);
+      out.writeVarInt(method.getExceptionSignatures().size());
+      for (ClassType exceptionType : method.getExceptionSignatures()) {
+        out.writeType(exceptionType);
+      }
+      BodySerializer.writeAnnotations(method.getDeclaredAnnotations(), out);
+      out.writePosition(method.getPosition());
+
+      final Object defaultValue =
+          method instanceof JavaAnnotationSootMethod
+              ? ((JavaAnnotationSootMethod) method).getDefaultValue()
+              : null;
+      out.writeBoolean(defaultValue != null);
+      if (defaultValue != null) {
+        BodySerializer.writeAnnotationValue(defaultValue, out);
+      }
+
+      out.writeBoolean(method.hasBody());
+      if (method.hasBody()) {
+        final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        BodySerializer.write(method.getBody(), new JimpleOutput(bodyBytes));
+        out.writeVarInt(bodyBytes.size());
+        bodyBytes.writeTo(bytes);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a record, the bodies of its methods are decoded lazily.
+   *
+   * @param isAnnotation whether the methods are methods of an annotation interface
+   * @param identifierFactory the identifier factory of the view that resolves the class
+   */
+  @Nonnull
+  static SnapshotClassRecord decode(
+      @Nonnull ByteBuffer record,
+      boolean isAnnotation,
+      @Nonnull JavaIdentifierFactory identifierFactory)
+      throws IOException {
+    final ByteBufferInputStream stream = new ByteBufferInputStream(record);
+    final JimpleInput in = new JimpleInput(stream, identifierFactory);
+
+    final ClassType classType = in.readClassType();
+    final Set<Modifier> modifiers = readModifiers(in);
+    final Optional<ClassType> superclass = readOptionalType(in);
+    final int interfaceCount = in.readCount();
+    final Set<ClassType> interfaces = new LinkedHashSet<>();
+    for (int i = 0; i < interfaceCount; i++) {
+      interfaces.add(in.readClassType());
+    }
+    final Optional<ClassType> outerClass = readOptionalType(in);
+    final Position position = in.readPosition();
+    final List<AnnotationUsage> annotations = BodySerializer.readAnnotations(in);
+
+    final int fieldCount = in.readCount();
+    final List<JavaSootField> fields = new ArrayList<>(Math.min(fieldCount, 1024));
+    for (int i = 0; i < fieldCount; i++) {
+      final FieldSignature signature = in.readFieldSignature();
+      final Set<Modifier> fieldModifiers = readModifiers(in);
+      final List<AnnotationUsage> fieldAnnotations = BodySerializer.readAnnotations(in);
+      fields.add(new JavaSootField(signature, fieldModifiers, fieldAnnotations, in.readPosition()));
+    }
+
+    final int methodCount = in.readCount();
+    final List<JavaSootMethod> methods = new ArrayList<>(Math.min(methodCount, 1024));
+    for (int i = 0; i < methodCount; i++) {
+      final MethodSignature signature = in.readMethodSignature();
+      final Set<Modifier> methodModifiers = readModifiers(in);
+      final int exceptionCount = in.readCount();
+      final List<ClassType> exceptions = new ArrayList<>(Math.min(exceptionCount, 256));
+      for (int j = 0; j < exceptionCount; j++) {
+        exceptions.add(in.readClassType());
+      }
+      final List<AnnotationUsage> methodAnnotations = BodySerializer.readAnnotations(in);
+      final Position methodPosition = in.readPosition();
+      final Object defaultValue = in.readBoolean() ? BodySerializer.readAnnotationValue(in) : null;
+      final ByteBuffer body = in.readBoolean() ? stream.slice(in.readCount()) : null;
+
+      final BodySource bodySource =
+          new SnapshotBodySource(signature, body, defaultValue, identifierFactory);
+      methods.add(
+          isAnnotation
+              ? new JavaAnnotationSootMethod(
+                  bodySource,
+                  signature,
+                  methodModifiers,
+                  exceptions,
+                  methodAnnotations,
+                  methodPosition)
+              : new JavaSootMethod(
+                  bodySource,
+                  signature,
+                  methodModifiers,
+                  exceptions,
+                  methodAnnotations,
+                  methodPosition));
+    }
+
+    return new SnapshotClassRecord(
+        classType,
+        modifiers,
+        superclass,
+        interfaces,
+        outerClass,
+        position,
+        annotations,
+        fields,
+        methods);
+  }
+
+  private static void writeModifiers(@Nonnull Set<Modifier> modifiers, @Nonnull JimpleOutput out)
+      throws IOException {
+    int flags = 0;
+    for (Modifier modifier : modifiers) {
+      flags |= 1 << modifier.ordinal();
+    }
+    out.writeVarInt(flags);
+  }
+
+  @Nonnull
+  private static Set<Modifier> readModifiers(@Nonnull JimpleInput in) throws IOException {
+    final int flags = in.readVarInt();
+    final Modifier[] values = Modifier.values();
+    if ((flags >>> values.length) != 0) {
+      throw new IOException("Unknown modifiers " + Integer.toHexString(flags));
+    }
+    final EnumSet<Modifier> modifiers = EnumSet.noneOf(Modifier.class);
+    for (Modifier modifier : values) {
+      if ((flags & (1 << modifier.ordinal())) != 0) {
+        modifiers.add(modifier);
+      }
+    }
+    return modifiers;
+  }
+
+  private static void writeOptionalType(
+      @Nonnull Optional<? extends Type> type, @Nonnull JimpleOutput out) throws IOException {
+    out.writeBoolean(type.isPresent());
+    if (type.isPresent()) {
+      out.writeType(type.get());
+    }
+  }
+
+  @Nonnull
+  private static Optional<ClassType> readOptionalType(@Nonnull JimpleInput in) throws IOException {
+    return in.readBoolean() ? Optional.of(in.readClassType()) : Optional.empty();
+  }
+
+  /** Decodes the body of a method from its nested record whenever it is resolved. */
+  private static final class SnapshotBodySource implements BodySource {
+
+    @Nonnull private final MethodSignature signature;
+    @Nullable private final ByteBuffer body;
+    @Nullable private final Object defaultValue;
+    @Nonnull private final JavaIdentifierFactory identifierFactory;
+
+    private SnapshotBodySource(
+        @Nonnull MethodSignature signature,
+        @Nullable ByteBuffer body,
+        @Nullable Object defaultValue,
+        @Nonnull JavaIdentifierFactory identifierFactory) {
+      this.signature = signature;
+      this.body = body;
+      this.defaultValue = defaultValue;
+      this.identifierFactory = identifierFactory;
+    }
+
+    @Nonnull
+    @Override
+    public Body resolveBody(@Nonnull Iterable<Modifier> modifiers) throws IOException {
+      if (body == null) {
+        throw new ResolveException("There is no body of " + signature + " in the snapshot.");
+      }
+      final JimpleInput in =
+          new JimpleInput(new ByteBufferInputStream(body.duplicate()), identifierFactory);
+      return BodySerializer.read(in);
+    }
+
+    @Nullable
+    @Override
+    public Object resolveAnnotationsDefaultValue() {
+      return defaultValue;
+    }
+
+    @Nonnull
+    @Override
+    public MethodSignature getSignature() {
+      return signature;
+    }
+  }
+}
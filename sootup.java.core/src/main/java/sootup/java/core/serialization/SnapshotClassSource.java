@@ -0,0 +1,102 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Supplier;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Modifier;
+import sootup.core.model.Position;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaSootClassSource;
+
+/** A class of a snapshot, whose record is decoded when its contents are resolved first. */
+class SnapshotClassSource extends JavaSootClassSource {
+
+  @Nonnull private final Supplier<SnapshotClassRecord> record;
+
+  SnapshotClassSource(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> inputLocation,
+      @Nonnull ClassType classType,
+      @Nonnull Path sourcePath,
+      @Nonnull Supplier<SnapshotClassRecord> record) {
+    super(inputLocation, classType, sourcePath);
+    this.record = record;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<? extends SootMethod> resolveMethods() {
+    return record.get().methods;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<? extends SootField> resolveFields() {
+    return record.get().fields;
+  }
+
+  @Nonnull
+  @Override
+  public Set<Modifier> resolveModifiers() {
+    return record.get().modifiers;
+  }
+
+  @Nonnull
+  @Override
+  public Set<? extends ClassType> resolveInterfaces() {
+    return record.get().interfaces;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<? extends ClassType> resolveSuperclass() {
+    return record.get().superclass;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<? extends ClassType> resolveOuterClass() {
+    return record.get().outerClass;
+  }
+
+  @Nonnull
+  @Override
+  public Position resolvePosition() {
+    return record.get().position;
+  }
+
+  @Nonnull
+  @Override
+  protected Iterable<AnnotationUsage> resolveAnnotations() {
+    return record.get().annotations;
+  }
+}
@@ -0,0 +1,140 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.java.core.JavaAnnotationSootClass;
+import sootup.java.core.JavaSootClass;
+
+/**
+ * Writes a snapshot of classes including their method bodies, which can be opened via {@link
+ * SnapshotAnalysisInputLocation}. The classes are written one after another, so a snapshot of a
+ * large program can be written without keeping all of its bodies in memory.
+ *
+ * <p>A snapshot consists of a header, the records of the classes and an index that maps the name of
+ * each class to its record. The index is located via the offset in the last 8 bytes. Each record
+ * has its own string, type and signature tables (see {@link JimpleOutput}), so a class is decoded
+ * without decoding the others.
+ */
+public class SnapshotWriter implements Closeable {
+
+  static final int MAGIC = 0x53555053;
+
+  /** the version of the snapshot format; the format of bodies is versioned by BodySerializer */
+  public static final int VERSION = 1;
+
+  @Nonnull private final CountingOutputStream out;
+  @Nonnull private final JimpleOutput header;
+
+  @Nonnull private final Map<String, IndexEntry> index = new LinkedHashMap<>();
+
+  private boolean closed = false;
+
+  /** @param out is closed when this writer is closed */
+  public SnapshotWriter(@Nonnull OutputStream out) throws IOException {
+    this.out = new CountingOutputStream(new BufferedOutputStream(out));
+    this.header = new JimpleOutput(this.out);
+    header.writeInt(MAGIC);
+    header.writeVarInt(VERSION);
+    header.writeVarInt(BodySerializer.VERSION);
+  }
+
+  /**
+   * Writes the given class, the bodies of its methods are resolved if necessary.
+   *
+   * @throws UnsupportedOperationException if a body contains constructs which can not be written
+   */
+  public void writeClass(@Nonnull JavaSootClass sootClass) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("The snapshot is already closed.");
+    }
+    final String className = sootClass.getType().getFullyQualifiedName();
+    if (index.containsKey(className)) {
+      throw new IllegalArgumentException(className + " is already part of the snapshot.");
+    }
+    final byte[] record = SnapshotClassRecord.encode(sootClass);
+    index.put(
+        className,
+        new IndexEntry(
+            out.getCount(), record.length, sootClass instanceof JavaAnnotationSootClass));
+    out.write(record);
+  }
+
+  /** Writes the index and closes the underlying stream. */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      final long indexOffset = out.getCount();
+      header.writeVarInt(index.size());
+      for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+        header.writeRawString(entry.getKey());
+        header.writeBoolean(entry.getValue().isAnnotation);
+        header.writeLong(entry.getValue().offset);
+        header.writeVarInt(entry.getValue().length);
+      }
+      header.writeLong(indexOffset);
+    } finally {
+      out.close();
+    }
+  }
+
+  /** Writes a snapshot of the given classes to a file, which is replaced atomically. */
+  public static void write(
+      @Nonnull Path snapshotFile, @Nonnull Iterable<? extends JavaSootClass> classes)
+      throws IOException {
+    final Path tmpFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+    try (SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(tmpFile))) {
+      for (JavaSootClass sootClass : classes) {
+        writer.writeClass(sootClass);
+      }
+    }
+    Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /** The location of the record of a class in a snapshot. */
+  static final class IndexEntry {
+    final long offset;
+    final int length;
+    final boolean isAnnotation;
+
+    IndexEntry(long offset, int length, boolean isAnnotation) {
+      this.offset = offset;
+      this.length = length;
+      this.isAnnotation = isAnnotation;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package sootup.java.core.serialization;
+
+/*-
+ * #%L
+ * Soot
+ * %%
+ * Copyright (C) 2018-2020 Manuel Benz, Christian Brüggemann, Kaustubh Kelkar and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+
+/**
+ * Thrown when a construct (e.g. a Stmt, value or position) has no binary representation. It is a
+ * {@link UnsupportedOperationException}, so that it can be told apart from other unsupported
+ * operations which are caused by e.g. a bug.
+ */
+class UnsupportedConstructException extends UnsupportedOperationException {
+
+  UnsupportedConstructException(@Nonnull String message) {
+    super(message);
+  }
+}
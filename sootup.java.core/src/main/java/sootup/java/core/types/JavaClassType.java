@@ -43,6 +43,8 @@ public class JavaClassType extends ClassType {
 
   @Nonnull private final String className;
   @Nonnull private final PackageName packageName;
+  /** the hash code is used by every map keyed by class types, so it is computed only once */
+  private final int hashCode;
 
   /**
    * Internal: Constructs the fully-qualified ClassSignature. Instances should only be created by a
@@ -59,6 +61,7 @@ public class JavaClassType extends ClassType {
     }
     this.className = realClassName;
     this.packageName = packageName;
+    this.hashCode = Objects.hashCode(realClassName, packageName);
   }
 
   @Override
@@ -70,12 +73,14 @@ public class JavaClassType extends ClassType {
       return false;
     }
     JavaClassType that = (JavaClassType) o;
-    return Objects.equal(className, that.className) && Objects.equal(packageName, that.packageName);
+    return hashCode == that.hashCode
+        && Objects.equal(className, that.className)
+        && Objects.equal(packageName, that.packageName);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(className, packageName);
+    return hashCode;
   }
 
   /**
@@ -0,0 +1,297 @@
+package sootup.java.core.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2018-2023 Linghui Luo, Jan Martin Persch, Christian Brüggemann and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import sootup.core.Project;
+import sootup.core.cache.provider.ConcurrentFullCacheProvider;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.inputlocation.EmptyClassLoadingOptions;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaAnnotationSootClass;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.types.AnnotationType;
+
+/**
+ * A {@link JavaView} that can be queried by multiple threads at once. In contrast to the {@link
+ * JavaView} it does not serialize all class resolution through the view's monitor: classes are
+ * stored in a {@link sootup.core.cache.ConcurrentFullCache} and each {@link ClassType} that is
+ * currently being built is guarded by its own future. Different classes are therefore built in
+ * parallel, while concurrent requests for the same class wait for the single thread that builds it.
+ */
+public class ConcurrentJavaView extends JavaView {
+
+  /** classes that are currently being built; entries are removed once the class is cached. */
+  @Nonnull
+  private final ConcurrentHashMap<ClassType, FutureTask<JavaSootClass>> classesInConstruction =
+      new ConcurrentHashMap<>();
+
+  public ConcurrentJavaView(@Nonnull Project<JavaSootClass, ? extends JavaView> project) {
+    this(project, analysisInputLocation -> EmptyClassLoadingOptions.Default);
+  }
+
+  public ConcurrentJavaView(
+      @Nonnull Project<JavaSootClass, ? extends JavaView> project,
+      @Nonnull
+          Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+              classLoadingOptionsSpecifier) {
+    super(project, new ConcurrentFullCacheProvider<>(), classLoadingOptionsSpecifier);
+  }
+
+  /** Resolves all classes that are part of the view and stores them in the cache. */
+  @Override
+  @Nonnull
+  public Collection<JavaSootClass> getClasses() {
+    return resolveAll();
+  }
+
+  /** Resolves the class matching the provided {@link ClassType ClassType}. */
+  @Override
+  @Nonnull
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+    JavaSootClass cachedClass = cache.getClass(type);
+    if (cachedClass != null) {
+      return Optional.of(cachedClass);
+    }
+
+    Optional<? extends AbstractClassSource<? extends JavaSootClass>> abstractClass =
+        getAbstractClass(type);
+    if (!abstractClass.isPresent()) {
+      return Optional.empty();
+    }
+
+    return buildClassFrom(abstractClass.get());
+  }
+
+  @Nonnull
+  @Override
+  protected Optional<JavaSootClass> buildClassFrom(
+      AbstractClassSource<? extends JavaSootClass> classSource) {
+
+    ClassType classType = classSource.getClassType();
+    JavaSootClass theClass = cache.getClass(classType);
+    if (theClass == null) {
+      theClass = buildClassOnce(classSource);
+    }
+
+    if (theClass.getType() instanceof AnnotationType) {
+      JavaAnnotationSootClass jasc = (JavaAnnotationSootClass) theClass;
+      jasc.getAnnotations(Optional.of(this)).forEach(AnnotationUsage::getValuesWithDefaults);
+    }
+
+    return Optional.of(theClass);
+  }
+
+  /**
+   * Builds the class of the given source, unless another thread is already doing so - in that case
+   * the result of that thread is awaited. This guarantees that every class is built exactly once.
+   */
+  @Nonnull
+  private JavaSootClass buildClassOnce(AbstractClassSource<? extends JavaSootClass> classSource) {
+    ClassType classType = classSource.getClassType();
+    FutureTask<JavaSootClass> newTask =
+        new FutureTask<>(
+            () -> {
+              JavaSootClass builtClass =
+                  classSource.buildClass(
+                      getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
+              cache.putClass(classType, builtClass);
+              onClassResolved(builtClass);
+              return builtClass;
+            });
+
+    FutureTask<JavaSootClass> task = classesInConstruction.putIfAbsent(classType, newTask);
+    if (task == null) {
+      task = newTask;
+      // the class could have been cached by a task that finished between our cache lookup and
+      // the registration of our own task.
+      JavaSootClass cachedClass = cache.getClass(classType);
+      if (cachedClass != null) {
+        classesInConstruction.remove(classType, newTask);
+        return cachedClass;
+      }
+      try {
+        newTask.run();
+      } finally {
+        classesInConstruction.remove(classType, newTask);
+      }
+    }
+
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResolveException("Interrupted while resolving " + classType);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Could not resolve " + classType, cause);
+    }
+  }
+
+  @Nonnull
+  @Override
+  protected Collection<JavaSootClass> resolveAll() {
+    return resolveAll(ForkJoinPool.commonPool(), ResolveAllListener.NONE);
+  }
+
+  /**
+   * Resolves all classes of all input locations in parallel on the given pool. First the input
+   * locations are scanned concurrently (see {@link AnalysisInputLocation#getClassSources(View,
+   * ForkJoinPool)}), then the found class sources are built concurrently. Classes that are found in
+   * multiple input locations are taken from the first input location of the project - exactly like
+   * the sequential resolution does (see split packages).
+   *
+   * @param pool the pool which scans the input locations and builds the classes
+   * @param listener is notified about the progress; its methods are called by the pool's threads
+   * @return all resolved classes
+   */
+  @Nonnull
+  public Collection<JavaSootClass> resolveAll(
+      @Nonnull ForkJoinPool pool, @Nonnull ResolveAllListener listener) {
+    if (isFullyResolved) {
+      return cache.getClasses();
+    }
+
+    List<? extends AnalysisInputLocation<? extends JavaSootClass>> inputLocations =
+        getProject().getInputLocations();
+    List<JavaSootClass> resolvedClasses =
+        join(pool.submit(() -> resolveLocations(inputLocations, pool, listener)));
+
+    isFullyResolved = true;
+
+    return resolvedClasses;
+  }
+
+  @Nonnull
+  private List<JavaSootClass> resolveLocations(
+      @Nonnull List<? extends AnalysisInputLocation<? extends JavaSootClass>> inputLocations,
+      @Nonnull ForkJoinPool pool,
+      @Nonnull ResolveAllListener listener) {
+    // scan every input location in parallel; the result list keeps the order of the locations
+    List<Collection<? extends AbstractClassSource<? extends JavaSootClass>>> sourcesPerLocation =
+        inputLocations
+            .parallelStream()
+            .map(
+                location -> {
+                  long start = System.nanoTime();
+                  Collection<? extends AbstractClassSource<? extends JavaSootClass>> sources =
+                      location.getClassSources(this, pool);
+                  listener.locationScanned(location, sources.size(), System.nanoTime() - start);
+                  return sources;
+                })
+            .collect(Collectors.toList());
+
+    // like javas behaviour: the first location that contains a ClassType wins
+    Map<ClassType, AbstractClassSource<? extends JavaSootClass>> firstSources =
+        new LinkedHashMap<>();
+    for (Collection<? extends AbstractClassSource<? extends JavaSootClass>> sources :
+        sourcesPerLocation) {
+      for (AbstractClassSource<? extends JavaSootClass> source : sources) {
+        firstSources.putIfAbsent(source.getClassType(), source);
+      }
+    }
+
+    int total = firstSources.size();
+    AtomicInteger resolvedCount = new AtomicInteger();
+    return new ArrayList<>(firstSources.values())
+        .parallelStream()
+        .map(this::buildClassFrom)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .peek(sootClass -> listener.classResolved(resolvedCount.incrementAndGet(), total))
+        .collect(Collectors.toList());
+  }
+
+  @Nonnull
+  private static <T> T join(@Nonnull ForkJoinTask<T> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResolveException("Interrupted while resolving all classes");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Could not resolve all classes", cause);
+    }
+  }
+
+  /**
+   * Receives progress information of {@link #resolveAll(ForkJoinPool, ResolveAllListener)}.
+   * Implementations have to be thread-safe as they are called concurrently.
+   */
+  public interface ResolveAllListener {
+
+    ResolveAllListener NONE = new ResolveAllListener() {};
+
+    /**
+     * Called when an input location has been scanned.
+     *
+     * @param location the scanned input location
+     * @param classSourceCount the number of class sources found in that location
+     * @param durationNanos how long the scan took
+     */
+    default void locationScanned(
+        @Nonnull AnalysisInputLocation<? extends JavaSootClass> location,
+        int classSourceCount,
+        long durationNanos) {}
+
+    /**
+     * Called whenever a class has been resolved.
+     *
+     * @param resolvedCount the number of classes resolved so far
+     * @param totalCount the number of classes that will be resolved in total
+     */
+    default void classResolved(int resolvedCount, int totalCount) {}
+  }
+}
@@ -22,12 +22,14 @@ package sootup.java.core.views;
  * #L%
  */
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.Project;
 import sootup.core.cache.ClassCache;
 import sootup.core.cache.FullCache;
@@ -35,6 +37,7 @@ import sootup.core.cache.provider.ClassCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassIndex;
 import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.inputlocation.EmptyClassLoadingOptions;
 import sootup.core.transform.BodyInterceptor;
@@ -58,6 +61,9 @@ public class JavaView extends AbstractView<JavaSootClass> {
 
   protected volatile boolean isFullyResolved = false;
 
+  /** if set, a lookup asks only the input location which contains the class */
+  @Nullable protected volatile ClassIndex<JavaSootClass> classIndex = null;
+
   @Nonnull
   protected Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
       classLoadingOptionsSpecifier;
@@ -142,9 +148,33 @@ public class JavaView extends AbstractView<JavaSootClass> {
     return cache.size();
   }
 
+  /**
+   * Indexes the classes of all input locations in parallel, so that a lookup of a class asks only
+   * the input location which contains it instead of every input location. The first input location
+   * which contains a class still wins (see split packages).
+   *
+   * @param indexFile if not null, the listings of unchanged input locations are reused from this
+   *     file and it is updated if necessary - e.g. a file next to the inputs.
+   */
+  @Nonnull
+  public ClassIndex<JavaSootClass> buildClassIndex(@Nullable Path indexFile) {
+    final List<? extends AnalysisInputLocation<? extends JavaSootClass>> inputLocations =
+        getProject().getInputLocations();
+    final ClassIndex<JavaSootClass> index =
+        indexFile == null
+            ? ClassIndex.build(inputLocations)
+            : ClassIndex.load(inputLocations, indexFile);
+    classIndex = index;
+    return index;
+  }
+
   @Nonnull
   protected Optional<? extends AbstractClassSource<? extends JavaSootClass>> getAbstractClass(
       @Nonnull ClassType type) {
+    final ClassIndex<JavaSootClass> index = classIndex;
+    if (index != null) {
+      return index.getClassSource(type, this);
+    }
     return getProject().getInputLocations().stream()
         .map(location -> location.getClassSource(type, this))
         .filter(Optional::isPresent)
@@ -165,6 +195,7 @@ public class JavaView extends AbstractView<JavaSootClass> {
       theClass =
           classSource.buildClass(getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
       cache.putClass(classType, theClass);
+      onClassResolved(theClass);
     } else {
       theClass = cache.getClass(classType);
     }
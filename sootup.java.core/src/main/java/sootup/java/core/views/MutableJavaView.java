@@ -11,6 +11,7 @@ import sootup.core.cache.MutableClassCache;
 import sootup.core.cache.provider.MutableFullCacheProvider;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSubSignature;
+import sootup.core.typehierarchy.MethodDispatchResolver;
 import sootup.core.types.ClassType;
 import sootup.core.views.MutableView;
 import sootup.java.core.JavaSootClass;
@@ -39,6 +40,7 @@ public class MutableJavaView extends JavaView implements MutableView {
       return;
     }
     this.cache.putClass(classType, clazz);
+    MethodDispatchResolver.invalidateCache(this);
     this.fireAddition(clazz);
   }
 
@@ -48,6 +50,7 @@ public class MutableJavaView extends JavaView implements MutableView {
   public void removeClass(ClassType classType) {
     JavaSootClass removedClass =
         ((MutableClassCache<JavaSootClass>) this.cache).removeClass(classType);
+    MethodDispatchResolver.invalidateCache(this);
     this.fireRemoval(removedClass);
   }
 
@@ -87,6 +87,35 @@ public class JavaIdentifierFactoryTest {
     assertNotSame(classSignature1, classSignature2);
   }
 
+  @Test
+  public void getCanonicalSignatures() {
+    JavaIdentifierFactory typeFactory = JavaIdentifierFactory.createCanonicalizing();
+    assertTrue(typeFactory.isCanonicalizing());
+    ClassType classSignature1 = typeFactory.getClassType("System", "java.lang");
+    ClassType classSignature2 = typeFactory.getClassType("java.lang.System");
+    assertSame(classSignature1, classSignature2);
+
+    MethodSignature methodSignature1 =
+        typeFactory.getMethodSignature(
+            "println", "java.io.PrintStream", "void", Collections.singletonList("int"));
+    MethodSignature methodSignature2 =
+        typeFactory.parseMethodSignature("<java.io.PrintStream: void println(int)>");
+    assertSame(methodSignature1, methodSignature2);
+    assertSame(methodSignature1.getSubSignature(), methodSignature2.getSubSignature());
+    assertSame(
+        methodSignature1.getSubSignature(),
+        typeFactory.parseMethodSubSignature("void println(int)"));
+    assertSame(
+        methodSignature1.getDeclClassType(), typeFactory.getClassType("java.io.PrintStream"));
+
+    // the shared instance is not affected
+    JavaIdentifierFactory sharedFactory = JavaIdentifierFactory.getInstance();
+    assertFalse(sharedFactory.isCanonicalizing());
+    assertNotSame(
+        sharedFactory.getClassType("java.lang.System"),
+        sharedFactory.getClassType("java.lang.System"));
+  }
+
   @Test
   public void getCompareClassSignature2() {
     JavaIdentifierFactory typeFactory = JavaIdentifierFactory.getInstance();
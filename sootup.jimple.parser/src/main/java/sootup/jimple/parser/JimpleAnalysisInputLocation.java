@@ -3,17 +3,23 @@ package sootup.jimple.parser;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.ResolveException;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.FileType;
@@ -22,7 +28,7 @@ import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
-import sootup.core.util.StreamUtils;
+import sootup.core.util.printer.JimpleViewPrinter;
 import sootup.core.views.View;
 
 /** @author Markus Schmidt */
@@ -73,25 +79,31 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
     return srcType;
   }
 
+  /**
+   * Creates class sources for all .jimple files in the given directory. If this is called from
+   * within a {@link ForkJoinPool} (e.g. by {@link #getClassSources(View, ForkJoinPool)}) the files
+   * are parsed in parallel on that pool.
+   */
   @Nonnull
   List<AbstractClassSource<? extends AbstractClass<?>>> walkDirectory(
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
       @Nonnull ClassProvider<? extends SootClass<?>> classProvider) {
-    try {
-      final FileType handledFileType = classProvider.getHandledFileType();
-      return Files.walk(dirPath)
-          .filter(filePath -> PathUtils.hasExtension(filePath, handledFileType))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      Optional.of(
-                          classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)))))
-          .collect(Collectors.toList());
-
+    final FileType handledFileType = classProvider.getHandledFileType();
+    final List<Path> files;
+    try (Stream<Path> walk = Files.walk(dirPath)) {
+      files =
+          walk.filter(filePath -> PathUtils.hasExtension(filePath, handledFileType))
+              .collect(Collectors.toList());
     } catch (IOException e) {
       throw new IllegalArgumentException(e);
     }
+
+    Stream<Path> fileStream =
+        ForkJoinTask.inForkJoinPool() ? files.parallelStream() : files.stream();
+    return fileStream
+        .map(p -> classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)))
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -101,6 +113,31 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
         path, view.getIdentifierFactory(), new JimpleClassProvider(view.getBodyInterceptors(this)));
   }
 
+  /**
+   * Parses all .jimple files of this input location in parallel on the given pool.
+   *
+   * @return the class sources in an unspecified order
+   */
+  @Nonnull
+  public Collection<? extends SootClassSource<T>> getClassSources(
+      @Nonnull View<?> view, @Nonnull ForkJoinPool pool) {
+    try {
+      return pool.submit(() -> getClassSources(view)).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResolveException("Interrupted while parsing the files", path);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Could not parse the files in " + path, cause);
+    }
+  }
+
   @Override
   @Nonnull
   public Optional<? extends SootClassSource<T>> getClassSource(
@@ -111,22 +148,38 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
     final String ext = classProvider.getHandledFileType().toString().toLowerCase();
 
     // is file under path:  with name package.subpackage.class.jimple
-    Path pathToClass = path.resolve(type.getFullyQualifiedName() + "." + ext);
-    if (!Files.exists(pathToClass)) {
+    Optional<Path> pathToClass = resolveExisting(type.getFullyQualifiedName() + "." + ext);
+    if (!pathToClass.isPresent()) {
       // is file under path with dir structure: package/subpackage/className.jimple
       pathToClass =
-          path.resolve(
+          resolveExisting(
               type.getPackageName().toString().replace('.', File.separatorChar)
                   + File.separator
                   + type.getClassName()
                   + "."
                   + ext);
-      if (!Files.exists(pathToClass)) {
-        return Optional.empty();
-      }
     }
+    if (!pathToClass.isPresent()) {
+      // is file under path as written by the JimpleViewPrinter i.e. with escaped non-ASCII chars
+      pathToClass = resolveExisting(JimpleViewPrinter.getRelativePath(type));
+    }
+
+    return pathToClass.map(p -> classProvider.createClassSource(this, p, type));
+  }
 
-    return Optional.of(classProvider.createClassSource(this, pathToClass, type));
+  /**
+   * Returns the file with the given name relative to the path of this input location if it exists.
+   * A name that is not representable in the file system encoding (e.g. non-ASCII chars in the POSIX
+   * locale) can not exist.
+   */
+  @Nonnull
+  private Optional<Path> resolveExisting(@Nonnull String relativePath) {
+    try {
+      final Path file = path.resolve(relativePath);
+      return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    } catch (InvalidPathException e) {
+      return Optional.empty();
+    }
   }
 
   @Override
@@ -1,10 +1,13 @@
 package sootup.jimple.parser;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import javax.annotation.Nonnull;
-import org.antlr.v4.runtime.CharStreams;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
@@ -29,10 +32,26 @@ public class JimpleClassProvider<T extends SootClass<? extends SootClassSource<T
       Path sourcePath,
       ClassType classSignature) {
 
-    try {
-      final JimpleConverter jimpleConverter = new JimpleConverter();
-      return jimpleConverter.run(
-          CharStreams.fromPath(sourcePath), inputlocation, sourcePath, bodyInterceptors);
+    final JimpleConverter jimpleConverter = new JimpleConverter();
+    return jimpleConverter.runLazily(
+        readContent(sourcePath), inputlocation, sourcePath, bodyInterceptors);
+  }
+
+  /**
+   * Maps the file into memory, so that the bodies of its methods can be parsed from it when they
+   * are requested without keeping a copy of the file on the heap.
+   */
+  @Nonnull
+  private static ByteBuffer readContent(@Nonnull Path sourcePath) {
+    try (FileChannel channel = FileChannel.open(sourcePath, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (UnsupportedOperationException e) {
+      // e.g. a file inside of a zip filesystem can not be mapped
+      try {
+        return ByteBuffer.wrap(Files.readAllBytes(sourcePath));
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
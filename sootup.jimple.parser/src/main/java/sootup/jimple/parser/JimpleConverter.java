@@ -1,12 +1,15 @@
 package sootup.jimple.parser;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 import sootup.core.IdentifierFactory;
+import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.frontend.OverridingClassSource;
 import sootup.core.frontend.ResolveException;
@@ -66,10 +69,41 @@ public class JimpleConverter {
       @Nonnull List<BodyInterceptor> bodyInterceptors) {
 
     // FIXME: [ms] apply bodyInterceptors or better: move that logic into View itself!
+    return convert(parser, inputlocation, sourcePath, null);
+  }
+
+  /**
+   * Converts the class and member declarations of the given content of a .jimple file. The method
+   * bodies are parsed and converted when they are requested i.e. by {@link SootMethod#getBody()}.
+   * Hence syntax errors inside of a body are reported at that point.
+   *
+   * @param content the UTF-8 encoded content of the file e.g. memory mapped. It is referenced by
+   *     the returned class source and must not be modified.
+   * @param bodyInterceptors are not applied yet - exactly like in {@link #run(JimpleParser,
+   *     AnalysisInputLocation, Path, List)}
+   */
+  public OverridingClassSource runLazily(
+      @Nonnull ByteBuffer content,
+      @Nonnull AnalysisInputLocation<?> inputlocation,
+      @Nonnull Path sourcePath,
+      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    final JimpleFileIndex index = JimpleFileIndex.of(content);
+    final JimpleParser jimpleParser =
+        JimpleConverterUtil.createJimpleParser(index.getHeader(sourcePath), sourcePath);
+    jimpleParser.setErrorHandler(new BailErrorStrategy());
+
+    return convert(jimpleParser, inputlocation, sourcePath, index);
+  }
 
+  /** @param index if not null, the bodies of the methods are converted lazily from the index. */
+  private OverridingClassSource convert(
+      @Nonnull JimpleParser parser,
+      @Nonnull AnalysisInputLocation<?> inputlocation,
+      @Nonnull Path sourcePath,
+      @Nullable JimpleFileIndex index) {
     ClassVisitor classVisitor;
     try {
-      classVisitor = new ClassVisitor(sourcePath);
+      classVisitor = new ClassVisitor(sourcePath, index);
       classVisitor.visit(parser.file());
     } catch (ParseCancellationException ex) {
       throw new ResolveException("Syntax Error", sourcePath, ex);
@@ -95,9 +129,13 @@ public class JimpleConverter {
 
     @Nonnull private final JimpleConverterUtil util;
     @Nonnull private final Path path;
+    @Nullable private final JimpleFileIndex index;
+    /** the index of the next body in the index */
+    private int bodyIdx = 0;
 
-    public ClassVisitor(@Nonnull Path path) {
+    public ClassVisitor(@Nonnull Path path, @Nullable JimpleFileIndex index) {
       this.path = path;
+      this.index = index;
       util = new JimpleConverterUtil(path);
     }
 
@@ -204,6 +242,58 @@ public class JimpleConverter {
       return modifierSet.isEmpty() ? EnumSet.noneOf(Modifier.class) : EnumSet.copyOf(modifierSet);
     }
 
+    /** Parses and converts a body of the index when it is requested. */
+    private class LazyBodySource implements BodySource {
+      @Nonnull private final MethodSignature methodSignature;
+      @Nonnull private final String methodname;
+      @Nonnull private final Position methodPosition;
+      private final int bodyIdx;
+
+      private LazyBodySource(
+          @Nonnull MethodSignature methodSignature,
+          @Nonnull String methodname,
+          @Nonnull Position methodPosition,
+          int bodyIdx) {
+        this.methodSignature = methodSignature;
+        this.methodname = methodname;
+        this.methodPosition = methodPosition;
+        this.bodyIdx = bodyIdx;
+      }
+
+      @Nonnull
+      @Override
+      public Body resolveBody(@Nonnull Iterable<Modifier> modifiers) {
+        assert index != null;
+        final JimpleParser parser =
+            JimpleConverterUtil.createJimpleParser(
+                index.getBody(bodyIdx, path),
+                path,
+                index.getBodyLine(bodyIdx),
+                index.getBodyColumn(bodyIdx));
+        parser.setErrorHandler(new BailErrorStrategy());
+
+        final JimpleParser.Method_bodyContext bodyCtx;
+        try {
+          bodyCtx = parser.method_body();
+        } catch (ParseCancellationException ex) {
+          throw new ResolveException("Syntax Error", path, ex);
+        }
+        return new MethodVisitor()
+            .convertBody(methodSignature, methodname, bodyCtx, bodyCtx, methodPosition);
+      }
+
+      @Override
+      public Object resolveAnnotationsDefaultValue() {
+        return null;
+      }
+
+      @Nonnull
+      @Override
+      public MethodSignature getSignature() {
+        return methodSignature;
+      }
+    }
+
     private class MethodVisitor extends JimpleBaseVisitor<SootMethod> {
 
       private final HashMap<BranchingStmt, List<String>> unresolvedBranches = new HashMap<>();
@@ -251,19 +341,48 @@ public class JimpleConverter {
                 ? Collections.emptyList()
                 : util.getClassTypeList(ctx.throws_clause().type_list());
 
+        if (ctx.method_body() == null) {
+          throw new ResolveException(
+              "404 Body not found.", path, JimpleConverterUtil.buildPositionFromCtx(ctx));
+        }
+
+        Position methodPosition = JimpleConverterUtil.buildPositionFromCtx(ctx);
+        final BodySource bodySource;
+        if (index != null
+            && ctx.method_body().SEMICOLON() == null
+            && bodyIdx < index.getBodyCount()) {
+          // the body is blanked in the header: convert it when it is requested
+          bodySource = new LazyBodySource(methodSignature, methodname, methodPosition, bodyIdx++);
+        } else {
+          final Body build =
+              convertBody(methodSignature, methodname, ctx.method_body(), ctx, methodPosition);
+          bodySource = new OverridingBodySource(methodSignature, build);
+        }
+        return new SootMethod(bodySource, methodSignature, modifier, exceptions, methodPosition);
+      }
+
+      /**
+       * @param ctx is used for the positions of errors
+       * @param methodPosition is the position of the Body
+       */
+      @Nonnull
+      private Body convertBody(
+          @Nonnull MethodSignature methodSignature,
+          @Nonnull String methodname,
+          @Nonnull JimpleParser.Method_bodyContext bodyCtx,
+          @Nonnull ParserRuleContext ctx,
+          @Nonnull Position methodPosition) {
+
         List<Trap> traps = new ArrayList<>();
         List<Stmt> stmtList = new ArrayList<>();
         Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
 
-        if (ctx.method_body() == null) {
-          throw new ResolveException(
-              "404 Body not found.", path, JimpleConverterUtil.buildPositionFromCtx(ctx));
-        } else if (ctx.method_body().SEMICOLON() == null) {
+        if (bodyCtx.SEMICOLON() == null) {
 
           // declare locals
           locals = new HashMap<>();
           final JimpleParser.Method_body_contentsContext method_body_contentsContext =
-              ctx.method_body().method_body_contents();
+              bodyCtx.method_body_contents();
           if (method_body_contentsContext.declarations() != null) {
             for (JimpleParser.DeclarationContext it :
                 method_body_contentsContext.declarations().declaration()) {
@@ -329,8 +448,6 @@ public class JimpleConverter {
           // no body is given: no brackets, but a semicolon -> abstract
         }
 
-        Position classPosition = JimpleConverterUtil.buildPositionFromCtx(ctx);
-
         // associate labeled Stmts with Branching Stmts
         for (Map.Entry<BranchingStmt, List<String>> item : unresolvedBranches.entrySet()) {
           final List<String> targetLabels = item.getValue();
@@ -351,7 +468,6 @@ public class JimpleConverter {
           branchingMap.put(item.getKey(), targets);
         }
 
-        Position methodPosition = JimpleConverterUtil.buildPositionFromCtx(ctx);
         final Body build;
         try {
 
@@ -362,15 +478,13 @@ public class JimpleConverter {
           builder.setModifiers(modifiers);
           builder.setMethodSignature(methodSignature);
           builder.setLocals(new HashSet<>(locals.values()));
-          builder.setPosition(classPosition);
+          builder.setPosition(methodPosition);
 
           build = builder.build();
         } catch (Exception e) {
           throw new ResolveException(methodname + " " + e.getMessage(), path, methodPosition, e);
         }
-
-        OverridingBodySource oms = new OverridingBodySource(methodSignature, build);
-        return new SootMethod(oms, methodSignature, modifier, exceptions, methodPosition);
+        return build;
       }
 
       private class StmtVisitor extends JimpleBaseVisitor<Stmt> {
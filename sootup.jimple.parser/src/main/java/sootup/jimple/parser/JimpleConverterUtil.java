@@ -192,7 +192,20 @@ public class JimpleConverterUtil {
 
   @Nonnull
   public static JimpleParser createJimpleParser(CharStream charStream, Path path) {
+    return createJimpleParser(charStream, path, 1, 0);
+  }
+
+  /**
+   * Creates a parser for a part of a file.
+   *
+   * @param line the (one-based) line in the file where the given charStream starts
+   * @param charPositionInLine the char position in that line where the given charStream starts
+   */
+  public static JimpleParser createJimpleParser(
+      CharStream charStream, Path path, int line, int charPositionInLine) {
     JimpleLexer lexer = new JimpleLexer(charStream);
+    lexer.setLine(line);
+    lexer.setCharPositionInLine(charPositionInLine);
 
     lexer.removeErrorListeners();
     lexer.addErrorListener(
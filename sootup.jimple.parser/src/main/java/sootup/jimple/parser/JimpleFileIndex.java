@@ -0,0 +1,226 @@
+package sootup.jimple.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+
+/**
+ * The first phase of the lazy Jimple frontend: scans the (UTF-8 encoded) content of a .jimple file
+ * for the bodies of its methods i.e. the braces on the second nesting level, without tokenizing it.
+ * Strings, quoted identifiers and comments are skipped.
+ *
+ * <p>The header of the file is the content where the inside of each body is blanked, so that
+ * parsing it only builds the class and member declarations. Line breaks and the number of chars per
+ * line are kept, so that all positions in the header are the same as in the content. A body is
+ * parsed on its own from the content when it is requested.
+ */
+class JimpleFileIndex {
+
+  @Nonnull private final ByteBuffer content;
+
+  private int bodyCount = 0;
+  /** the offsets of the opening and closing brace of each body */
+  @Nonnull private int[] bodyStarts = new int[8];
+
+  @Nonnull private int[] bodyEnds = new int[8];
+  /**
+   * the line (one-based) and char position in that line of the opening brace of each body. Like the
+   * positions of a String, the chars are counted in UTF-16 units.
+   */
+  @Nonnull private int[] bodyLines = new int[8];
+
+  @Nonnull private int[] bodyColumns = new int[8];
+
+  private JimpleFileIndex(@Nonnull ByteBuffer content) {
+    this.content = content;
+  }
+
+  /** @param content is not modified - a read only memory mapped buffer is fine. */
+  @Nonnull
+  static JimpleFileIndex of(@Nonnull ByteBuffer content) {
+    JimpleFileIndex index = new JimpleFileIndex(content);
+    index.scan();
+    return index;
+  }
+
+  /**
+   * Returns the number of UTF-16 chars that the UTF-8 sequence starting with the given byte is
+   * decoded to: a continuation byte adds nothing as its char is counted at its leading byte and a
+   * leading byte of a four byte sequence is a supplementary code point i.e. a surrogate pair.
+   */
+  private static int charCountOf(byte b) {
+    if ((b & 0xC0) == 0x80) {
+      return 0;
+    }
+    return (b & 0xF8) == 0xF0 ? 2 : 1;
+  }
+
+  private void scan() {
+    final int length = content.limit();
+    int depth = 0;
+    int line = 1;
+    int column = 0;
+    int bodyStart = -1;
+
+    for (int i = 0; i < length; i++) {
+      final byte b = content.get(i);
+      if (b == '/' && i + 1 < length && content.get(i + 1) == '/') {
+        // line comment: the line break is handled by the main loop
+        while (i + 1 < length && content.get(i + 1) != '\n' && content.get(i + 1) != '\r') {
+          i++;
+          column += charCountOf(content.get(i));
+        }
+        column++;
+        continue;
+      }
+      if (b == '/' && i + 1 < length && content.get(i + 1) == '*') {
+        // block comment: the closing "*/" can not overlap with the opening "/*"
+        final int commentStart = i;
+        column += 2;
+        i += 2;
+        while (i < length
+            && !(i > commentStart + 2 && content.get(i) == '/' && content.get(i - 1) == '*')) {
+          final byte c = content.get(i);
+          if (c == '\n') {
+            line++;
+            column = 0;
+          } else {
+            column += charCountOf(c);
+          }
+          i++;
+        }
+        column++;
+        continue;
+      }
+      if (b == '\\' && i + 1 < length) {
+        // escaped char in an identifier
+        column++;
+        i++;
+        column += charCountOf(content.get(i));
+        continue;
+      }
+      if (b == '"' || b == '\'') {
+        // string constant or quoted identifier
+        column++;
+        i++;
+        while (i < length && content.get(i) != b) {
+          byte c = content.get(i);
+          if (c == '\\' && i + 1 < length) {
+            column++;
+            i++;
+            c = content.get(i);
+          }
+          if (c == '\n') {
+            line++;
+            column = 0;
+          } else {
+            column += charCountOf(c);
+          }
+          i++;
+        }
+        column++;
+        continue;
+      }
+
+      if (b == '{') {
+        depth++;
+        if (depth == 2) {
+          bodyStart = i;
+          addBody(i, line, column);
+        }
+      } else if (b == '}') {
+        if (depth == 2 && bodyStart >= 0) {
+          bodyEnds[bodyCount - 1] = i;
+          bodyStart = -1;
+        }
+        depth--;
+      }
+
+      if (b == '\n') {
+        line++;
+        column = 0;
+      } else {
+        column += charCountOf(b);
+      }
+    }
+
+    if (bodyStart >= 0) {
+      // the last body is not closed: leave it to the parser to report the syntax error
+      bodyCount--;
+    }
+  }
+
+  private void addBody(int start, int line, int column) {
+    if (bodyCount == bodyStarts.length) {
+      final int newLength = bodyCount * 2;
+      bodyStarts = Arrays.copyOf(bodyStarts, newLength);
+      bodyEnds = Arrays.copyOf(bodyEnds, newLength);
+      bodyLines = Arrays.copyOf(bodyLines, newLength);
+      bodyColumns = Arrays.copyOf(bodyColumns, newLength);
+    }
+    bodyStarts[bodyCount] = start;
+    bodyLines[bodyCount] = line;
+    bodyColumns[bodyCount] = column;
+    bodyCount++;
+  }
+
+  /** Returns the number of bodies in the order of their appearance in the file. */
+  int getBodyCount() {
+    return bodyCount;
+  }
+
+  /** Returns the content of the file where the inside of each body is blanked. */
+  @Nonnull
+  CharStream getHeader(@Nonnull Path sourcePath) {
+    final int length = content.limit();
+    final byte[] header = new byte[length];
+    int headerLength = 0;
+    int from = 0;
+    for (int bodyIdx = 0; bodyIdx < bodyCount; bodyIdx++) {
+      // copy everything up to and including the opening brace
+      for (int i = from; i <= bodyStarts[bodyIdx]; i++) {
+        header[headerLength++] = content.get(i);
+      }
+      // keep a blank per char and the line breaks inside of the body
+      for (int i = bodyStarts[bodyIdx] + 1; i < bodyEnds[bodyIdx]; i++) {
+        final byte b = content.get(i);
+        if (b == '\n' || b == '\r') {
+          header[headerLength++] = b;
+        } else {
+          for (int blanks = charCountOf(b); blanks > 0; blanks--) {
+            header[headerLength++] = ' ';
+          }
+        }
+      }
+      from = bodyEnds[bodyIdx];
+    }
+    for (int i = from; i < length; i++) {
+      header[headerLength++] = content.get(i);
+    }
+    return CharStreams.fromString(
+        new String(header, 0, headerLength, StandardCharsets.UTF_8), sourcePath.toString());
+  }
+
+  /** Returns the chars of the body with the given index, including its braces. */
+  @Nonnull
+  CharStream getBody(int bodyIdx, @Nonnull Path sourcePath) {
+    // a duplicate, so that bodies can be decoded concurrently
+    final ByteBuffer body = content.duplicate();
+    body.limit(bodyEnds[bodyIdx] + 1);
+    body.position(bodyStarts[bodyIdx]);
+    return CharStreams.fromString(
+        StandardCharsets.UTF_8.decode(body).toString(), sourcePath.toString());
+  }
+
+  int getBodyLine(int bodyIdx) {
+    return bodyLines[bodyIdx];
+  }
+
+  int getBodyColumn(int bodyIdx) {
+    return bodyColumns[bodyIdx];
+  }
+}
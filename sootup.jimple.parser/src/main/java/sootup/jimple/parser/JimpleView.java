@@ -156,6 +156,7 @@ public class JimpleView extends AbstractView<SootClass<?>> {
       theClass =
           classSource.buildClass(getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
       cache.putClass(classType, theClass);
+      onClassResolved(theClass);
     } else {
       theClass = cache.getClass(classType);
     }
@@ -3,23 +3,40 @@ package sootup.jimple.parser;
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
 import sootup.core.signatures.PackageName;
 import sootup.core.types.ClassType;
+import sootup.core.util.printer.JimplePrinter;
+import sootup.core.util.printer.JimpleViewPrinter;
 import sootup.java.core.JavaSootClass;
 import sootup.jimple.parser.categories.Java8Test;
 
 @Category(Java8Test.class)
 public class JimpleAnalysisInputLocationTest {
 
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testClassResolving() {
 
@@ -112,4 +129,56 @@ public class JimpleAnalysisInputLocationTest {
 
     assertEquals("User Defined class found, expected none", 0, classes.size());
   }
+
+  @Test
+  public void testParallelLoadingAndPrinting() throws IOException {
+    final JimpleAnalysisInputLocation<JavaSootClass> inputLocation =
+        new JimpleAnalysisInputLocation<>(Paths.get("src/test/java/resources/jimple"));
+    final JimpleView view = new JimpleProject(inputLocation).createView();
+    final Collection<SootClass<?>> classes = view.getClasses();
+
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final Set<ClassType> parsedTypes =
+          inputLocation.getClassSources(view, pool).stream()
+              .map(AbstractClassSource::getClassType)
+              .collect(Collectors.toSet());
+      assertEquals(
+          classes.stream().map(SootClass::getType).collect(Collectors.toSet()), parsedTypes);
+
+      // the parallel printer renders exactly like the sequential JimplePrinter
+      final Path outputDir = tempFolder.newFolder().toPath();
+      final JimpleViewPrinter viewPrinter = new JimpleViewPrinter();
+      assertEquals(classes.size(), viewPrinter.printToDirectory(classes, outputDir, pool));
+      for (SootClass<?> sootClass : classes) {
+        final StringWriter expected = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(expected)) {
+          new JimplePrinter().printTo(sootClass, writer);
+        }
+        final String relativePath = JimpleViewPrinter.getRelativePath(sootClass.getType());
+        // non-ASCII names are escaped, so that they can be written in any locale
+        assertTrue(relativePath.chars().allMatch(c -> c < 0x80));
+        final Path file = outputDir.resolve(relativePath);
+        assertEquals(
+            expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+      }
+
+      // the printed classes can be read again - also the ones with escaped non-ASCII file names
+      final JimpleAnalysisInputLocation<JavaSootClass> outputLocation =
+          new JimpleAnalysisInputLocation<>(outputDir);
+      final JimpleView reloadedView = new JimpleProject(outputLocation).createView();
+      assertEquals(classes.size(), reloadedView.getClasses().size());
+      for (SootClass<?> sootClass : classes) {
+        assertTrue(outputLocation.getClassSource(sootClass.getType(), reloadedView).isPresent());
+      }
+
+      final Path archive = tempFolder.newFile("classes.zip").toPath();
+      assertEquals(classes.size(), viewPrinter.printToArchive(classes, archive, pool));
+      try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+        assertEquals(classes.size(), zipFile.size());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
 }
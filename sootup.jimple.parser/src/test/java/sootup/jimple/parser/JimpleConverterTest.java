@@ -3,8 +3,11 @@ package sootup.jimple.parser;
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.List;
 import org.antlr.v4.runtime.*;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -12,7 +15,10 @@ import sootup.core.frontend.OverridingClassSource;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.EagerInputLocation;
 import sootup.core.jimple.Jimple;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Position;
 import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
 import sootup.core.model.SourceType;
 import sootup.core.signatures.MethodSubSignature;
 import sootup.core.types.VoidType;
@@ -784,4 +790,109 @@ public class JimpleConverterTest {
     JimpleLexer lexer = new JimpleLexer(cs);
     assertEquals(60, lexer.getAllTokens().size());
   }
+
+  @Test
+  public void testLazyBodies() {
+    final String content =
+        "public class A extends java.lang.Object\n"
+            + "{\n"
+            + "  /* a comment with a brace { */\n"
+            + "  public void <init>()\n"
+            + "  {\n"
+            + "    A r0;\n"
+            + "    r0 := @this: A;\n"
+            + "    specialinvoke r0.<java.lang.Object: void <init>()>();\n"
+            + "    return;\n"
+            + "  }\n"
+            + "\n"
+            + "  public abstract void 'abstract{'();\n"
+            + "\n"
+            + "  public java.lang.String \u00e4()\n"
+            + "  {   // } in a comment\n"
+            + "    java.lang.String $r0;\n"
+            + "    $r0 = \"\u00e4 } \\\" {\";\n"
+            + "    return $r0;\n"
+            + "  }\n"
+            + "}\n";
+
+    final SootClass<?> eagerClass = parseJimpleClass(CharStreams.fromString(content));
+    final OverridingClassSource lazySource =
+        new JimpleConverter()
+            .runLazily(
+                ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)),
+                new EagerInputLocation<>(),
+                Paths.get(""),
+                Collections.emptyList());
+    final SootClass<?> lazyClass = new SootClass<>(lazySource, SourceType.Application);
+
+    assertEquals(3, lazyClass.getMethods().size());
+    for (SootMethod eagerMethod : eagerClass.getMethods()) {
+      final SootMethod lazyMethod =
+          lazyClass.getMethod(eagerMethod.getSignature().getSubSignature()).get();
+      // the end of a method position is derived from the text of the blanked body
+      assertEquals(
+          eagerMethod.getPosition().getFirstLine(), lazyMethod.getPosition().getFirstLine());
+      assertEquals(eagerMethod.getPosition().getFirstCol(), lazyMethod.getPosition().getFirstCol());
+      if (!eagerMethod.hasBody()) {
+        assertFalse(lazyMethod.hasBody());
+        continue;
+      }
+      final List<Stmt> eagerStmts = eagerMethod.getBody().getStmts();
+      final List<Stmt> lazyStmts = lazyMethod.getBody().getStmts();
+      assertEquals(eagerStmts.toString(), lazyStmts.toString());
+      for (int i = 0; i < eagerStmts.size(); i++) {
+        assertEquals(
+            eagerStmts.get(i).getPositionInfo().getStmtPosition(),
+            lazyStmts.get(i).getPositionInfo().getStmtPosition());
+      }
+    }
+  }
+
+  @Test
+  public void testLazyBodyColumnsInUtf16Units() {
+    // the smiley is a supplementary code point i.e. two chars
+    final String methodLine = "  public void '\uD83D\uDE00'() { int i0; i0 = new int; return; }";
+    final String content =
+        "public class A extends java.lang.Object\n" + "{\n" + methodLine + "\n" + "}\n";
+    final OverridingClassSource lazySource =
+        new JimpleConverter()
+            .runLazily(
+                ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)),
+                new EagerInputLocation<>(),
+                Paths.get(""),
+                Collections.emptyList());
+
+    final SootMethod method = lazySource.resolveMethods().iterator().next();
+    try {
+      method.getBody();
+      fail("int is not a ReferenceType");
+    } catch (ResolveException e) {
+      final Position range = ((ResolveException) e.getCause()).getRange();
+      // lines are zero-based, the columns are counted like the indices of the String
+      assertEquals(2, range.getFirstLine());
+      assertEquals(methodLine.indexOf("new int"), range.getFirstCol());
+    }
+  }
+
+  @Test(expected = ResolveException.class)
+  public void testLazyBodySyntaxError() {
+    final String content =
+        "public class A extends java.lang.Object\n"
+            + "{\n"
+            + "  public void m()\n"
+            + "  {\n"
+            + "    return return;\n"
+            + "  }\n"
+            + "}\n";
+    final OverridingClassSource lazySource =
+        new JimpleConverter()
+            .runLazily(
+                ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)),
+                new EagerInputLocation<>(),
+                Paths.get(""),
+                Collections.emptyList());
+    // the header is valid: the syntax error is found when the body is requested
+    final SootMethod method = lazySource.resolveMethods().iterator().next();
+    method.getBody();
+  }
 }
@@ -0,0 +1,92 @@
+package sootup.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import categories.Java8Test;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.model.Body;
+import sootup.core.model.BodyRetentionPolicy;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Tests the different {@link BodyRetentionPolicy}s of {@link SootMethod}s using the MiniApp.jar */
+@Category(Java8Test.class)
+public class BodyRetentionPolicyTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  static JavaProject p;
+
+  @BeforeClass
+  public static void setupProject() {
+    PathBasedAnalysisInputLocation location =
+        new PathBasedAnalysisInputLocation(pathToJar, SourceType.Application);
+    p = JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build();
+  }
+
+  private List<SootMethod> loadConcreteMethods(BodyRetentionPolicy policy) {
+    JavaView view = p.createView();
+    SootMethod.setBodyRetentionPolicy(view, policy);
+    JavaSootClass miniApp = view.getClass(p.getIdentifierFactory().getClassType("MiniApp")).get();
+    return miniApp.getMethods().stream()
+        .filter(SootMethod::isConcrete)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void strongPolicy() {
+    List<SootMethod> methods = loadConcreteMethods(BodyRetentionPolicy.STRONG);
+    SootMethod method = methods.get(0);
+    assertSame(method.getBody(), method.getBody());
+  }
+
+  @Test
+  public void softPolicy() {
+    List<SootMethod> methods = loadConcreteMethods(BodyRetentionPolicy.soft());
+    SootMethod method = methods.get(0);
+    Body body = method.getBody();
+    assertSame(body, method.getBody());
+  }
+
+  @Test
+  public void boundedPolicy() {
+    List<SootMethod> methods = loadConcreteMethods(BodyRetentionPolicy.bounded(1));
+    SootMethod first = methods.get(0);
+    SootMethod second = methods.get(1);
+
+    Body body = first.getBody();
+    assertSame(body, first.getBody());
+
+    // evicts the body of the first method
+    second.getBody();
+
+    Body rebuiltBody = first.getBody();
+    assertNotSame(body, rebuiltBody);
+    assertEquals(body.toString(), rebuiltBody.toString());
+  }
+
+  @Test
+  public void policyIsScopedToTheView() {
+    List<SootMethod> boundedMethods = loadConcreteMethods(BodyRetentionPolicy.bounded(1));
+    JavaView defaultView = p.createView();
+    assertSame(BodyRetentionPolicy.STRONG, SootMethod.getBodyRetentionPolicy(defaultView));
+    SootMethod defaultMethod = defaultView.getMethod(boundedMethods.get(0).getSignature()).get();
+
+    Body body = defaultMethod.getBody();
+    boundedMethods.get(0).getBody();
+    boundedMethods.get(1).getBody();
+    // the bounded policy of the other view does not evict bodies of this view
+    assertSame(body, defaultMethod.getBody());
+  }
+}
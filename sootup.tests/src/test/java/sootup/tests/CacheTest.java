@@ -1,20 +1,39 @@
 package sootup.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import categories.Java8Test;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import sootup.core.cache.BoundedCache;
+import sootup.core.cache.CacheStatistics;
+import sootup.core.cache.provider.BoundedCacheProvider;
+import sootup.core.cache.provider.ConcurrentFullCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.cache.provider.LRUCacheProvider;
+import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
 import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
 import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.ConcurrentJavaView;
 import sootup.java.core.views.JavaView;
 
 /**
@@ -73,4 +92,143 @@ public class CacheTest {
     newView.getClasses();
     assertEquals(6, newView.getAmountOfStoredClasses());
   }
+
+  /** Test the {@link sootup.core.cache.ConcurrentFullCache} class */
+  @Test
+  public void concurrentFullCacheTest() {
+    JavaView view = p.createView(new ConcurrentFullCacheProvider<>());
+    assertEquals(0, view.getAmountOfStoredClasses());
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    view.getClass(miniAppClassType);
+    assertEquals(1, view.getAmountOfStoredClasses());
+
+    view.getClasses();
+    assertEquals(6, view.getAmountOfStoredClasses());
+  }
+
+  /** Test that the {@link ConcurrentJavaView} builds each class once when queried in parallel. */
+  @Test
+  public void concurrentViewTest() throws Exception {
+    ConcurrentJavaView view = p.createConcurrentView();
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    ClassType utilsOperationClassType = p.getIdentifierFactory().getClassType("utils.Operations");
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<JavaSootClass>> futures = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        ClassType type = i % 2 == 0 ? miniAppClassType : utilsOperationClassType;
+        futures.add(executor.submit(() -> view.getClass(type).get()));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertSame(futures.get(i % 2).get(), futures.get(i).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(2, view.getAmountOfStoredClasses());
+
+    view.getClasses();
+    assertEquals(6, view.getAmountOfStoredClasses());
+  }
+
+  /** Test the parallel resolution of all classes of a {@link ConcurrentJavaView}. */
+  @Test
+  public void concurrentViewResolveAllTest() {
+    ConcurrentJavaView view = p.createConcurrentView();
+    AtomicInteger scannedSources = new AtomicInteger();
+    AtomicInteger resolvedClasses = new AtomicInteger();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Collection<JavaSootClass> classes =
+          view.resolveAll(
+              pool,
+              new ConcurrentJavaView.ResolveAllListener() {
+                @Override
+                public void locationScanned(
+                    @Nonnull AnalysisInputLocation<? extends JavaSootClass> location,
+                    int classSourceCount,
+                    long durationNanos) {
+                  scannedSources.addAndGet(classSourceCount);
+                }
+
+                @Override
+                public void classResolved(int resolvedCount, int totalCount) {
+                  resolvedClasses.incrementAndGet();
+                }
+              });
+      assertEquals(6, classes.size());
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(6, scannedSources.get());
+    assertEquals(6, resolvedClasses.get());
+    assertEquals(6, view.getAmountOfStoredClasses());
+    assertEquals(6, view.getClasses().size());
+  }
+
+  /** Test the {@link sootup.core.cache.BoundedCache} class */
+  @Test
+  public void boundedCacheTest() {
+    BoundedCacheProvider<JavaSootClass> provider = new BoundedCacheProvider<>(1);
+    JavaView view = p.createView(provider);
+    assertEquals(0, view.getAmountOfStoredClasses());
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    view.getClass(miniAppClassType);
+    assertEquals(1, view.getAmountOfStoredClasses());
+    view.getClass(miniAppClassType);
+    assertEquals(1, provider.getStatistics().getHitCount());
+    assertEquals(1, provider.getStatistics().getMissCount());
+
+    ClassType utilsOperationClassType = p.getIdentifierFactory().getClassType("utils.Operations");
+    view.getClass(utilsOperationClassType);
+    assertEquals(1, view.getAmountOfStoredClasses());
+    assertEquals(1, provider.getStatistics().getEvictionCount());
+
+    view.getClasses();
+    assertEquals(1, view.getAmountOfStoredClasses());
+
+    JavaView newView = new JavaView(p, new BoundedCacheProvider<>(100));
+    newView.getClasses();
+    assertEquals(6, newView.getAmountOfStoredClasses());
+  }
+
+  /** Test the {@link sootup.core.cache.BoundedCache} class with a weight per class */
+  @Test
+  public void weightedBoundedCacheTest() {
+    JavaView view = p.createView();
+    List<JavaSootClass> classes = new ArrayList<>(view.getClasses());
+    classes.sort(Comparator.comparing(sootClass -> sootClass.getType().getFullyQualifiedName()));
+    assertEquals(6, classes.size());
+    int[] weights = {2, 1, 3, 1, 2, 1};
+    AtomicInteger weigherCalls = new AtomicInteger();
+    BoundedCache<JavaSootClass> cache =
+        new BoundedCache<>(
+            4,
+            sootClass -> {
+              weigherCalls.incrementAndGet();
+              return weights[classes.indexOf(sootClass)];
+            },
+            new CacheStatistics());
+
+    cache.putClass(classes.get(0).getType(), classes.get(0));
+    cache.putClass(classes.get(1).getType(), classes.get(1));
+    // exceeds the limit: the least recently used class 0 is evicted
+    cache.putClass(classes.get(2).getType(), classes.get(2));
+    assertEquals(Arrays.asList(classes.get(1), classes.get(2)), cache.getClasses());
+    // accessing class 1 makes class 2 the least recently used one
+    assertSame(classes.get(1), cache.getClass(classes.get(1).getType()));
+    cache.putClass(classes.get(3).getType(), classes.get(3));
+    assertEquals(Arrays.asList(classes.get(1), classes.get(3)), cache.getClasses());
+    cache.putClass(classes.get(4).getType(), classes.get(4));
+    cache.putClass(classes.get(5).getType(), classes.get(5));
+
+    assertEquals(Arrays.asList(classes.get(3), classes.get(4), classes.get(5)), cache.getClasses());
+    assertEquals(4, cache.getTotalWeight());
+    assertEquals(3, cache.getStatistics().getEvictionCount());
+    // the weight of a class is computed once, when it is stored
+    assertEquals(6, weigherCalls.get());
+  }
 }
@@ -0,0 +1,162 @@
+package sootup.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassHeader;
+import sootup.core.inputlocation.ClassHeaderAnalysisInputLocation;
+import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.LazyTypeHierarchy;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.typehierarchy.ViewTypeHierarchy;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Compares the {@link LazyTypeHierarchy} with the {@link ViewTypeHierarchy} using the MiniApp.jar
+ */
+@Category(Java8Test.class)
+public class LazyTypeHierarchyTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  static JavaProject p;
+
+  @BeforeClass
+  public static void setupProject() {
+    PathBasedAnalysisInputLocation location =
+        new PathBasedAnalysisInputLocation(pathToJar, SourceType.Application);
+    p = JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build();
+  }
+
+  @Test
+  public void supertypeQueriesDoNotResolveClasses() {
+    JavaView view = p.createView();
+    view.setTypeHierarchy(new LazyTypeHierarchy(view));
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+
+    ClassType employee = p.getIdentifierFactory().getClassType("ds.Employee");
+    ClassType abstractDataStructure =
+        p.getIdentifierFactory().getClassType("ds.AbstractDataStrcture");
+
+    assertEquals(abstractDataStructure, hierarchy.superClassOf(employee));
+    assertTrue(hierarchy.isSubtype(abstractDataStructure, employee));
+    // reading the headers does not resolve the classes
+    assertEquals(0, view.getAmountOfStoredClasses());
+  }
+
+  @Test
+  public void sameResultsAsViewTypeHierarchy() {
+    JavaView view = p.createView();
+    TypeHierarchy expected = new ViewTypeHierarchy(view);
+    JavaView lazyView = p.createView();
+    TypeHierarchy lazy = new LazyTypeHierarchy(lazyView);
+
+    for (JavaSootClass sootClass : view.getClasses()) {
+      ClassType type = sootClass.getType();
+      assertEquals(expected.superClassOf(type), lazy.superClassOf(type));
+      assertEquals(expected.implementedInterfacesOf(type), lazy.implementedInterfacesOf(type));
+      assertEquals(expected.subtypesOf(type), lazy.subtypesOf(type));
+      assertEquals(expected.directSubtypesOf(type), lazy.directSubtypesOf(type));
+    }
+    // reading all headers does not resolve the classes
+    assertEquals(0, lazyView.getAmountOfStoredClasses());
+  }
+
+  @Test
+  public void headersAreReadWithoutClassSources() {
+    CountingInputLocation location =
+        new CountingInputLocation(
+            new PathBasedAnalysisInputLocation(pathToJar, SourceType.Application));
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build().createView();
+    view.setTypeHierarchy(new LazyTypeHierarchy(view));
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+
+    ClassType employee = p.getIdentifierFactory().getClassType("ds.Employee");
+    ClassType abstractDataStructure =
+        p.getIdentifierFactory().getClassType("ds.AbstractDataStrcture");
+    assertEquals(abstractDataStructure, hierarchy.superClassOf(employee));
+    assertFalse(hierarchy.subtypesOf(abstractDataStructure).isEmpty());
+    assertTrue(location.headerReads > 0);
+    assertEquals(0, location.classSourceReads);
+  }
+
+  @Test
+  public void hierarchyGrowsWithResolvedClasses() {
+    CountingInputLocation location =
+        new CountingInputLocation(
+            new PathBasedAnalysisInputLocation(pathToJar, SourceType.Application));
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build().createView();
+    view.setTypeHierarchy(new LazyTypeHierarchy(view));
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+
+    ClassType employee = p.getIdentifierFactory().getClassType("ds.Employee");
+    JavaSootClass employeeClass = view.getClass(employee).get();
+    assertEquals(1, location.classSourceReads);
+    // the header of the resolved class is not read again
+    assertEquals(employeeClass.getSuperclass().get(), hierarchy.superClassOf(employee));
+    assertEquals(0, location.headerReads);
+  }
+
+  /** Counts the reads of headers and class sources of the wrapped location. */
+  private static class CountingInputLocation
+      implements AnalysisInputLocation<JavaSootClass>, ClassHeaderAnalysisInputLocation {
+    private final PathBasedAnalysisInputLocation location;
+    private int headerReads = 0;
+    private int classSourceReads = 0;
+
+    private CountingInputLocation(PathBasedAnalysisInputLocation location) {
+      this.location = location;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
+        @Nonnull ClassType type, @Nonnull View<?> view) {
+      classSourceReads++;
+      return location.getClassSource(type, view);
+    }
+
+    @Nonnull
+    @Override
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view) {
+      Collection<? extends AbstractClassSource<JavaSootClass>> classSources =
+          location.getClassSources(view);
+      classSourceReads += classSources.size();
+      return classSources;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<ClassHeader> getClassHeader(@Nonnull ClassType type, @Nonnull View<?> view) {
+      headerReads++;
+      return location.getClassHeader(type, view);
+    }
+
+    @Nonnull
+    @Override
+    public Collection<ClassHeader> getClassHeaders(@Nonnull View<?> view) {
+      Collection<ClassHeader> headers = location.getClassHeaders(view);
+      headerReads += headers.size();
+      return headers;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package sootup.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.model.Body;
+import sootup.core.model.BodyRetentionPolicy;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.frontend.AsmJavaClassProvider;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Tests the memory-lean mode of the bytecode frontend using the MiniApp.jar */
+@Category(Java8Test.class)
+public class MemoryLeanModeTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  static JavaProject p;
+
+  @BeforeClass
+  public static void setupProject() {
+    PathBasedAnalysisInputLocation location =
+        new PathBasedAnalysisInputLocation(pathToJar, SourceType.Application);
+    p = JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build();
+  }
+
+  private Map<MethodSignature, SootMethod> loadConcreteMethods(JavaView view) {
+    return view.getClasses().stream()
+        .flatMap(c -> c.getMethods().stream())
+        .filter(SootMethod::isConcrete)
+        .collect(Collectors.toMap(SootMethod::getSignature, Function.identity()));
+  }
+
+  @Test
+  public void leanBodiesEqualDefaultBodies() {
+    JavaView defaultView = p.createView();
+    JavaView leanView = p.createView();
+    AsmJavaClassProvider.enableMemoryLeanMode(leanView);
+    assertFalse(AsmJavaClassProvider.isMemoryLeanModeEnabled(defaultView));
+    assertTrue(AsmJavaClassProvider.isMemoryLeanModeEnabled(leanView));
+
+    Map<MethodSignature, SootMethod> defaultMethods = loadConcreteMethods(defaultView);
+    Map<MethodSignature, SootMethod> leanMethods = loadConcreteMethods(leanView);
+
+    assertFalse(leanMethods.isEmpty());
+    assertEquals(defaultMethods.keySet(), leanMethods.keySet());
+    defaultMethods.forEach(
+        (signature, method) ->
+            assertEquals(
+                method.getBody().toString(), leanMethods.get(signature).getBody().toString()));
+  }
+
+  @Test
+  public void leanBodiesCanBeResolvedAgain() {
+    JavaView leanView = p.createView();
+    AsmJavaClassProvider.enableMemoryLeanMode(leanView);
+    SootMethod.setBodyRetentionPolicy(leanView, BodyRetentionPolicy.bounded(1));
+    SootMethod[] methods = loadConcreteMethods(leanView).values().toArray(new SootMethod[0]);
+
+    Body body = methods[0].getBody();
+    // evicts the body of the first method
+    methods[1].getBody();
+
+    Body rebuiltBody = methods[0].getBody();
+    assertNotSame(body, rebuiltBody);
+    assertEquals(body.toString(), rebuiltBody.toString());
+  }
+}
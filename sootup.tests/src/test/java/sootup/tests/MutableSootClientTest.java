@@ -17,6 +17,7 @@ import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.model.*;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.MethodDispatchResolver;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
 import sootup.java.core.*;
@@ -156,4 +157,26 @@ public class MutableSootClientTest {
     SootClass<JavaSootClassSource> updatedUtilsClass = updatedUtilsClassOpt.get();
     assertTrue(updatedUtilsClass.getMethods().contains(newMethod));
   }
+
+  /**
+   * Remove a method from a class within the mutable view and check whether the cached dispatch
+   * results of the view are updated accordingly.
+   */
+  @Test
+  public void dispatchCacheInvalidationTest() {
+    MethodSignature interfaceMethod =
+        p.getIdentifierFactory()
+            .parseMethodSignature("<utils.IFaceOperations: void addDepartment(ds.Department)>");
+    MethodSignature implementation =
+        p.getIdentifierFactory()
+            .parseMethodSignature("<utils.Operations: void addDepartment(ds.Department)>");
+
+    assertEquals(
+        Collections.singleton(implementation),
+        MethodDispatchResolver.resolveAbstractDispatch(mv, interfaceMethod));
+
+    mv.removeMethod((JavaSootMethod) mv.getMethod(implementation).get());
+
+    assertTrue(MethodDispatchResolver.resolveAbstractDispatch(mv, interfaceMethod).isEmpty());
+  }
 }
@@ -0,0 +1,61 @@
+package sootup.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.callgraph.CallGraph;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.model.SourceType;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Tests the parallel construction of the CHA call graph using the MiniApp.jar */
+@Category(Java8Test.class)
+public class ParallelCallGraphTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+
+  private final JavaProject project =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(new PathBasedAnalysisInputLocation(pathToJar, SourceType.Application))
+          .build();
+
+  private final List<MethodSignature> entryPoints =
+      Collections.singletonList(
+          JavaIdentifierFactory.getInstance()
+              .getMethodSignature(
+                  "main", "MiniApp", "void", Collections.singletonList("java.lang.String[]")));
+
+  @Test
+  public void parallelCallGraphEqualsSequentialCallGraph() {
+    CallGraph sequential =
+        new ClassHierarchyAnalysisAlgorithm(project.createView()).initialize(entryPoints);
+
+    JavaView view = project.createConcurrentView();
+    CallGraph parallel =
+        new ClassHierarchyAnalysisAlgorithm(view).initializeInParallel(entryPoints);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    CallGraph parallelOnPool;
+    try {
+      parallelOnPool =
+          new ClassHierarchyAnalysisAlgorithm(view).initializeInParallel(entryPoints, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    assertTrue(sequential.callCount() > 0);
+    assertEquals(sequential.toString(), parallel.toString());
+    assertEquals(sequential.toString(), parallelOnPool.toString());
+  }
+}
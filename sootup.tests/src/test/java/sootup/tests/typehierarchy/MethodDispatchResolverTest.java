@@ -17,6 +17,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.IdentifierFactory;
+import sootup.core.cache.provider.BoundedCacheProvider;
 import sootup.core.frontend.ResolveException;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
@@ -34,6 +35,7 @@ import sootup.java.core.views.JavaView;
 @Category(Java8Test.class)
 public class MethodDispatchResolverTest {
 
+  private JavaProject p;
   private JavaView view;
   public static final String jarFile = "../shared-test-resources/java-miniapps/MiniApp.jar";
 
@@ -51,8 +53,7 @@ public class MethodDispatchResolverTest {
             .collect(Collectors.joining(File.pathSeparator));
     JavaClassPathAnalysisInputLocation analysisInputLocation =
         new JavaClassPathAnalysisInputLocation(jarFile + File.pathSeparator + rtJarClassPath);
-    JavaProject p =
-        JavaProject.builder(new JavaLanguage(8)).addInputLocation(analysisInputLocation).build();
+    p = JavaProject.builder(new JavaLanguage(8)).addInputLocation(analysisInputLocation).build();
     view = p.createView();
   }
 
@@ -90,6 +91,23 @@ public class MethodDispatchResolverTest {
             .contains(enumSetClone));
   }
 
+  @Test
+  public void resolveAbstractDispatchWithBoundedClassCache() {
+    JavaView boundedView = p.createView(new BoundedCacheProvider<>(2));
+    MethodSignature collectionSize =
+        view.getIdentifierFactory().parseMethodSignature("java.util.Collection#size(): int");
+
+    // the dispatch cache does not depend on the classes that have been evicted in the meantime
+    Set<MethodSignature> expected =
+        MethodDispatchResolver.resolveAbstractDispatch(view, collectionSize);
+    assertEquals(
+        expected, MethodDispatchResolver.resolveAbstractDispatch(boundedView, collectionSize));
+    assertEquals(2, boundedView.getAmountOfStoredClasses());
+    MethodDispatchResolver.invalidateCache(boundedView);
+    assertEquals(
+        expected, MethodDispatchResolver.resolveAbstractDispatch(boundedView, collectionSize));
+  }
+
   @Test
   public void testResolveAllDispatchesInClasses() {
     IdentifierFactory factory = view.getIdentifierFactory();
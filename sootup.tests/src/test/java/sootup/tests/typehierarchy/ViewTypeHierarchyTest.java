@@ -15,6 +15,7 @@ import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -207,14 +208,62 @@ public class ViewTypeHierarchyTest {
             Collections.emptyList(),
             Collections.emptyList());
     SootClass sootClass = new SootClass(classSource, SourceType.Application);
+    ClassType abstractDataStructure = factory.getClassType("ds.AbstractDataStrcture");
+    assertFalse(typeHierarchy.subclassesOf(abstractDataStructure).contains(sootClass.getType()));
 
     typeHierarchy.addType(sootClass);
 
     assertTrue(
         "Newly added type must be detected as a subtype",
-        typeHierarchy
-            .subclassesOf(factory.getClassType("ds.AbstractDataStrcture"))
-            .contains(sootClass.getType()));
+        typeHierarchy.subclassesOf(abstractDataStructure).contains(sootClass.getType()));
+    assertTrue(typeHierarchy.isSubtype(abstractDataStructure, sootClass.getType()));
+  }
+
+  @Test
+  public void isSubtypeAgreesWithSupertypes() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    List<ClassType> types =
+        Stream.of(
+                "java.lang.Object",
+                "java.lang.String",
+                "java.lang.CharSequence",
+                "java.lang.Comparable",
+                "java.lang.Iterable",
+                "java.lang.Cloneable",
+                "java.io.Serializable",
+                "java.util.Collection",
+                "java.util.List",
+                "java.util.AbstractCollection",
+                "java.util.AbstractList",
+                "java.util.ArrayList",
+                "java.util.LinkedList",
+                "ds.AbstractDataStrcture",
+                "ds.Employee",
+                "ds.Department",
+                "utils.IFaceOperations",
+                "utils.Operations")
+            .map(factory::getClassType)
+            .collect(Collectors.toList());
+
+    for (ClassType supertype : types) {
+      Set<ClassType> subtypes = new HashSet<>();
+      typeHierarchy.forEachSubtypeOf(supertype, subtypes::add);
+      assertEquals(typeHierarchy.subtypesOf(supertype), subtypes);
+      for (ClassType potentialSubtype : types) {
+        boolean expected =
+            (supertype.getFullyQualifiedName().equals("java.lang.Object")
+                    && !potentialSubtype.equals(supertype))
+                || typeHierarchy.superClassesOf(potentialSubtype).contains(supertype)
+                || typeHierarchy.implementedInterfacesOf(potentialSubtype).contains(supertype);
+        assertEquals(
+            potentialSubtype + " subtype of " + supertype,
+            expected,
+            typeHierarchy.isSubtype(supertype, potentialSubtype));
+        if (!supertype.getFullyQualifiedName().equals("java.lang.Object")) {
+          assertEquals(expected, subtypes.contains(potentialSubtype));
+        }
+      }
+    }
   }
 
   @Test